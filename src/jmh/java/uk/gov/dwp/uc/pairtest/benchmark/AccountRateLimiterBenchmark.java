@@ -0,0 +1,86 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.ratelimit.AccountRateLimiter;
+import uk.gov.dwp.uc.pairtest.ratelimit.RateLimit;
+import uk.gov.dwp.uc.pairtest.ratelimit.RateLimitResult;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking an order against the rate limits of its account with millions of accounts being limited: every
+ * order from one hot account, which is soon over its limits, and orders spread evenly over all the accounts, which
+ * are not. The heap used per account is printed when the accounts are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AccountRateLimiterBenchmark {
+
+    private static final long HOT_ACCOUNT_ID = 1L;
+
+    @Param({"1000000", "10000000"})
+    private int nrOfAccounts;
+
+    private AccountRateLimiter accountRateLimiter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        long heapBefore = usedHeap();
+        accountRateLimiter = new AccountRateLimiter(RateLimit.of(100_000, Duration.ofDays(1)),
+                                                    RateLimit.of(1_000_000, Duration.ofDays(1)));
+        for (long accountId = 1; accountId <= nrOfAccounts; accountId++) {
+            accountRateLimiter.tryAcquire(accountId, 2);
+        }
+        long heapAfter = usedHeap();
+        System.out.println("Heap per account: " + ((heapAfter - heapBefore) / nrOfAccounts) + " bytes");
+    }
+
+    @Benchmark
+    public RateLimitResult hotAccount() {
+        return accountRateLimiter.tryAcquire(HOT_ACCOUNT_ID, 2);
+    }
+
+    @Benchmark
+    public RateLimitResult uniformSpread() {
+        return accountRateLimiter.tryAcquire(1 + ThreadLocalRandom.current().nextInt(nrOfAccounts), 2);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RateLimitResult hotAccountFourThreads() {
+        return hotAccount();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RateLimitResult uniformSpreadFourThreads() {
+        return uniformSpread();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,124 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.account.AccountCachePolicy;
+import uk.gov.dwp.uc.pairtest.account.CachingAccountValidationService;
+import uk.gov.dwp.uc.pairtest.account.LocalAccountValidationService;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking accounts against a stand-in account system taking {@value #LOOKUP_LATENCY_MICROS} microseconds a lookup,
+ * directly and through caches of two sizes. Orders come from {@value #NR_OF_ACCOUNTS} accounts, a few of them far more
+ * often than the rest, and one account in ten is invalid. The cache is warmed before measuring, and its hit rate is
+ * printed at the end of each run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountValidationCacheBenchmark {
+
+    public static final int NR_OF_ACCOUNTS = 1_000_000;
+    public static final int LOOKUP_LATENCY_MICROS = 200;
+    public static final int NR_OF_WARMING_THREADS = 64;
+
+    private static final double LOG_NR_OF_ACCOUNTS = Math.log(NR_OF_ACCOUNTS);
+
+    @Param({"10000", "100000"})
+    private int maximumSize;
+
+    private LocalAccountValidationService accountSystem;
+    private ExecutorService refreshExecutor;
+    private CachingAccountValidationService cache;
+    private long nrOfHitsWarming;
+    private long nrOfMissesWarming;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        accountSystem = new LocalAccountValidationService(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(LOOKUP_LATENCY_MICROS)),
+                                                          accountId -> (accountId % 10) != 0);
+        refreshExecutor = Executors.newFixedThreadPool(2);
+        cache = new CachingAccountValidationService(accountSystem, AccountCachePolicy.of(maximumSize, Duration.ofMinutes(5),
+                                                                                         Duration.ofMinutes(1))
+                                                                                     .withRefreshAhead(Duration.ofSeconds(30)),
+                                                    refreshExecutor);
+        warm();
+        nrOfHitsWarming = cache.getNrOfHits();
+        nrOfMissesWarming = cache.getNrOfMisses();
+    }
+
+    /**
+     * Fills the cache with the accounts orders come from, from many threads so that the lookups wait together.
+     */
+    private void warm() {
+        ExecutorService warmers = Executors.newFixedThreadPool(NR_OF_WARMING_THREADS);
+        for (int i = 0; i < NR_OF_WARMING_THREADS; i++) {
+            warmers.execute(() -> {
+                for (int j = 0; j < (4 * maximumSize) / NR_OF_WARMING_THREADS; j++) {
+                    cache.isValidAccount(nextAccountId());
+                }
+            });
+        }
+        warmers.shutdown();
+        try {
+            warmers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void printHitRate() {
+        long nrOfHits = cache.getNrOfHits() - nrOfHitsWarming;
+        long nrOfChecks = nrOfHits + (cache.getNrOfMisses() - nrOfMissesWarming);
+        if (nrOfChecks > 0) {
+            System.out.printf("Hit rate: %.1f%% of %d checks after warming%n", (100.0 * nrOfHits) / nrOfChecks, nrOfChecks);
+        }
+        refreshExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean uncached() {
+        return accountSystem.isValidAccount(nextAccountId());
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return cache.isValidAccount(nextAccountId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean cachedFourThreads() {
+        return cached();
+    }
+
+    /**
+     * Spreads the account ids evenly over their logarithm, so that account {@code n} orders about as often as the
+     * {@code 1/n} of Zipf's law would have it.
+     */
+    private static long nextAccountId() {
+        return (long) Math.exp(ThreadLocalRandom.current().nextDouble() * LOG_NR_OF_ACCOUNTS);
+    }
+}
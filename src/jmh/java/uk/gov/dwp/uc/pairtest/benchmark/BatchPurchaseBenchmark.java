@@ -0,0 +1,71 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.batch.BatchTicketService;
+import uk.gov.dwp.uc.pairtest.batch.BatchTicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders per second through the per-call {@link TicketServiceImpl} against {@link BatchTicketServiceImpl}, with
+ * gateways that charge a fixed cost per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchPurchaseBenchmark {
+
+    private static final int NR_OF_ORDERS = 1024;
+    private static final long CALL_OVERHEAD_TOKENS = 500;
+    private static final long PER_ENTRY_TOKENS = 20;
+
+    @Param({"1", "16", "128"})
+    private int batchSize;
+
+    private List<TicketOrder> orders;
+    private TicketService ticketService;
+    private BatchTicketService batchTicketService;
+
+    @Setup
+    public void setup() {
+        BenchmarkOrders.discardStandardOut();
+        SimulatedGateway gateway = new SimulatedGateway(CALL_OVERHEAD_TOKENS, PER_ENTRY_TOKENS);
+        orders = BenchmarkOrders.validOrders(NR_OF_ORDERS);
+        ticketService = new TicketServiceImpl(gateway, gateway);
+        batchTicketService = new BatchTicketServiceImpl(gateway, gateway, batchSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_OF_ORDERS)
+    public void perCallPurchase() {
+        for (TicketOrder order : orders) {
+            ticketService.purchaseTickets(order.getAccountId(), order.getTicketTypeRequests());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_OF_ORDERS)
+    public void batchPurchase(Blackhole blackhole) {
+        blackhole.consume(batchTicketService.purchaseTickets(orders));
+    }
+}
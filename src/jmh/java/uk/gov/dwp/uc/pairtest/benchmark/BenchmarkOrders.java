@@ -0,0 +1,35 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+final class BenchmarkOrders {
+
+    private BenchmarkOrders() {
+    }
+
+    static List<TicketOrder> validOrders(int nrOfOrders) {
+        List<TicketOrder> orders = new ArrayList<>(nrOfOrders);
+        for (int i = 0; i < nrOfOrders; i++) {
+            orders.add(new TicketOrder((long) i + 1,
+                                       new TicketTypeRequest(ADULT, 1 + (i % 3)),
+                                       new TicketTypeRequest(CHILD, i % 4),
+                                       new TicketTypeRequest(INFANT, i % 2)));
+        }
+        return orders;
+    }
+
+    /**
+     * The ticket service reports each purchase on stdout, which would otherwise be what gets measured.
+     */
+    static void discardStandardOut() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
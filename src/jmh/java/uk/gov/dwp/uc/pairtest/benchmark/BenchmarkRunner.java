@@ -0,0 +1,51 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line, but unless told otherwise writes the results
+ * as JSON to {@code jmh-result-<version>.json} so that runs from two releases can be diffed.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(String.format("jmh-result-%s.json", projectVersion()));
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String projectVersion() {
+        try (InputStream properties = BenchmarkRunner.class.getResourceAsStream("/benchmark.properties")) {
+            Properties benchmarkProperties = new Properties();
+            benchmarkProperties.load(properties);
+            return benchmarkProperties.getProperty("project.version");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
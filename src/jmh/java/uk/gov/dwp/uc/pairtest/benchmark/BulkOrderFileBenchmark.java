@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.bulk.BulkOrderProcessor;
+import uk.gov.dwp.uc.pairtest.bulk.BulkOrderSummary;
+import uk.gov.dwp.uc.pairtest.bulk.OrderFileFormat;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to purchase every order in a file of a million orders, a mix of valid and rejected ones, through the bulk mode.
+ * Run with a small {@code -Xmx} to see that the memory used does not depend on the size of the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class BulkOrderFileBenchmark {
+
+    private static final int NR_OF_ORDERS = 1_000_000;
+
+    @Param({"CSV", "BINARY"})
+    private OrderFileFormat format;
+
+    @Param({"1", "4"})
+    private int nrOfWorkers;
+
+    private Path orderFile;
+    private Path resultsFile;
+    private BulkOrderProcessor bulkOrderProcessor;
+
+    @Setup
+    public void setup() throws IOException {
+        orderFile = Files.createTempFile("orders", format == OrderFileFormat.BINARY ? ".bin" : ".csv");
+        resultsFile = Files.createTempFile("results", ".csv");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(orderFile)))) {
+            for (int i = 0; i < NR_OF_ORDERS; i++) {
+                writeOrder(out, i + 1, (i % 10) == 0 ? 0 : (i % 4) + 1, i % 3, i % 2);
+            }
+        }
+        bulkOrderProcessor = new BulkOrderProcessor(new TicketServiceImpl(new SimulatedGateway(0, 0), new SimulatedGateway(0, 0),
+                                                                          new TicketOrderEvaluator(), PurchaseEventSink.NONE),
+                                                    nrOfWorkers);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(orderFile);
+        Files.delete(resultsFile);
+    }
+
+    @Benchmark
+    public BulkOrderSummary processOrderFile() throws IOException {
+        return bulkOrderProcessor.process(orderFile, resultsFile);
+    }
+
+    private void writeOrder(DataOutputStream out, long accountId, int adults, int children, int infants) throws IOException {
+        if (format == OrderFileFormat.BINARY) {
+            out.writeLong(accountId);
+            out.writeInt(adults);
+            out.writeInt(children);
+            out.writeInt(infants);
+        } else {
+            out.write((accountId + "," + adults + "," + children + "," + infants + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
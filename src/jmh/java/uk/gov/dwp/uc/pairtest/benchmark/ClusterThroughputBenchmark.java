@@ -0,0 +1,88 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.cluster.ClusterNode;
+import uk.gov.dwp.uc.pairtest.cluster.HashRing;
+import uk.gov.dwp.uc.pairtest.cluster.LocalCluster;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.CHILD;
+
+/**
+ * Screening purchases from eight threads over {@value #NR_OF_SCREENINGS} screenings held by a {@link LocalCluster} of
+ * each number of nodes. Through any node, a purchase lands on a random node and {@code (n - 1) / n} of them are
+ * forwarded to the owner over loopback; through the owner, the caller looks the owner up on the ring first, as a
+ * ring-aware load balancer would, so nothing is forwarded. The gap between the two is the cost of a forwarding hop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClusterThroughputBenchmark {
+
+    public static final TicketTypeRequest[] ORDER = {new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1)};
+
+    private static final int NR_OF_SCREENINGS = 1024;
+    private static final int SCREENING_CAPACITY = 1 << 28;
+
+    @Param({"1", "2", "4"})
+    public int nrOfNodes;
+
+    private LocalCluster cluster;
+    private ClusterNode[] nodes;
+    private HashRing ring;
+
+    @Setup
+    public void setUp() throws IOException {
+        cluster = new LocalCluster(nrOfNodes);
+        List<ClusterNode> clusterNodes = cluster.getNodes();
+        nodes = clusterNodes.toArray(new ClusterNode[0]);
+        ring = cluster.getRing();
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            nodes[0].addScreening(screeningId, SCREENING_CAPACITY);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        cluster.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public SeatAllocation purchaseThroughAnyNode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return nodes[random.nextInt(nodes.length)].purchaseTickets(random.nextInt(NR_OF_SCREENINGS), random.nextLong(1, 1_000_000),
+                                                                   ORDER);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public SeatAllocation purchaseThroughOwner() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int screeningId = random.nextInt(NR_OF_SCREENINGS);
+        return nodes[ring.ownerOf(screeningId)].purchaseTickets(screeningId, random.nextLong(1, 1_000_000), ORDER);
+    }
+}
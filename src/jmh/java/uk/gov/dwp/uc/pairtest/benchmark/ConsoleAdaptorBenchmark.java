@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.adaptors.CinemaTicketsConsoleAdaptor;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequestFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+/**
+ * Console argument parsing through to the ticket service, including the failure messages for rejected orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleAdaptorBenchmark {
+
+    @Param
+    private OrderKind orderKind;
+
+    private CinemaTicketsConsoleAdaptor cinemaTicketsConsoleAdaptor;
+    private long accountNumber;
+    private List<String> requestedTicketNumbers;
+
+    @Setup
+    public void setup() {
+        BenchmarkOrders.discardStandardOut();
+        cinemaTicketsConsoleAdaptor = new CinemaTicketsConsoleAdaptor(
+            new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl()),
+            new TicketTypeRequestFactory());
+        accountNumber = orderKind.getOrder().getAccountId();
+        requestedTicketNumbers = orderKind.getConsoleArguments();
+    }
+
+    @Benchmark
+    public void processPurchase() {
+        cinemaTicketsConsoleAdaptor.processPurchase(accountNumber, requestedTicketNumbers);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void processPurchaseFourThreads() {
+        cinemaTicketsConsoleAdaptor.processPurchase(accountNumber, requestedTicketNumbers);
+    }
+}
@@ -0,0 +1,44 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Stand-in for remote seat booking and payment gateways that block the calling thread for a fixed time, except that
+ * some calls, picked at random, take a much longer latency spike and some fail.
+ */
+public class FaultyGateway implements SeatReservationService, TicketPaymentService {
+
+    private final long latencyNanos;
+    private final double spikeProbability;
+    private final long spikeNanos;
+    private final double failureProbability;
+
+    public FaultyGateway(long latencyNanos, double spikeProbability, long spikeNanos, double failureProbability) {
+        this.latencyNanos = latencyNanos;
+        this.spikeProbability = spikeProbability;
+        this.spikeNanos = spikeNanos;
+        this.failureProbability = failureProbability;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        call();
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        call();
+    }
+
+    private void call() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LockSupport.parkNanos(random.nextDouble() < spikeProbability ? spikeNanos : latencyNanos);
+        if (random.nextDouble() < failureProbability) {
+            throw new IllegalStateException("Injected gateway failure");
+        }
+    }
+}
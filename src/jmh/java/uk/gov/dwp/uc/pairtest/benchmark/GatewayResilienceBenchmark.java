@@ -0,0 +1,115 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.resilience.DeadlineTicketService;
+import uk.gov.dwp.uc.pairtest.resilience.GatewayPolicy;
+import uk.gov.dwp.uc.pairtest.resilience.ResilientSeatReservationService;
+import uk.gov.dwp.uc.pairtest.resilience.ResilientTicketPaymentService;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.CHILD;
+
+/**
+ * The latency of purchases, p99 and beyond included, against {@link FaultyGateway}s that usually answer in 100us,
+ * straight to the gateways and through the resilient gateways with a purchase deadline. With {@code SPIKES} 2% of
+ * calls take 20ms and 1% fail; with {@code BROWNOUT} the payment gateway takes 20ms for most calls, which opens its
+ * circuit breaker. A purchase that fails is timed like any other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayResilienceBenchmark {
+
+    public static final long ACCOUNT_ID = 1002L;
+    public static final TicketTypeRequest[] ORDER = {new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1)};
+
+    private static final long LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long SPIKE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Param({"SPIKES", "BROWNOUT"})
+    public String faults;
+
+    private ExecutorService gatewayExecutor;
+    private TicketService unprotected;
+    private TicketService resilient;
+
+    @Setup
+    public void setUp() {
+        FaultyGateway seatBooking = new FaultyGateway(LATENCY_NANOS, 0.02, SPIKE_NANOS, 0.01);
+        FaultyGateway payments = faults.equals("BROWNOUT") ? new FaultyGateway(LATENCY_NANOS, 0.8, SPIKE_NANOS, 0.01)
+                                                           : new FaultyGateway(LATENCY_NANOS, 0.02, SPIKE_NANOS, 0.01);
+        unprotected = new TicketServiceImpl(seatBooking, payments, new TicketOrderEvaluator(), PurchaseEventSink.NONE);
+
+        gatewayExecutor = Executors.newCachedThreadPool();
+        GatewayPolicy policy = GatewayPolicy.of(32, Duration.ofMillis(5))
+            .withCircuitBreaker(50, 20, Duration.ofSeconds(1), Duration.ofMillis(200));
+        resilient = new DeadlineTicketService(
+            new TicketServiceImpl(new ResilientSeatReservationService(seatBooking, policy.withHedgeDelay(Duration.ofMillis(1)),
+                                                                      gatewayExecutor),
+                                  new ResilientTicketPaymentService(payments, policy, gatewayExecutor),
+                                  new TicketOrderEvaluator(), PurchaseEventSink.NONE),
+            Duration.ofMillis(10));
+    }
+
+    @TearDown
+    public void tearDown() {
+        gatewayExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean unprotected() {
+        return purchase(unprotected);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean unprotectedFourThreads() {
+        return purchase(unprotected);
+    }
+
+    @Benchmark
+    public boolean resilient() {
+        return purchase(resilient);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean resilientFourThreads() {
+        return purchase(resilient);
+    }
+
+    private static boolean purchase(TicketService ticketService) {
+        try {
+            ticketService.purchaseTickets(ACCOUNT_ID, ORDER);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.inventory.ScreeningCapacity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads selling seats for the same screening. Each operation reserves two seats and gives them back, so the
+ * screening never sells out and every operation contends on the same counters. One stripe is a single
+ * compare-and-set counter; more stripes spread the threads over separate cache lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotScreeningBenchmark {
+
+    private static final int CAPACITY = 100_000;
+    private static final int SEATS_PER_ORDER = 2;
+
+    @Param({"1", "8", "32"})
+    private int nrOfStripes;
+
+    private ScreeningCapacity screening;
+
+    @Setup
+    public void setup() {
+        screening = new ScreeningCapacity(CAPACITY, nrOfStripes);
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        return reserveAndReleaseSeats();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean reserveAndReleaseFourThreads() {
+        return reserveAndReleaseSeats();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean reserveAndReleaseSixteenThreads() {
+        return reserveAndReleaseSeats();
+    }
+
+    private boolean reserveAndReleaseSeats() {
+        boolean reserved = screening.tryReserve(SEATS_PER_ORDER);
+        if (reserved) {
+            screening.release(SEATS_PER_ORDER);
+        }
+        return reserved;
+    }
+}
@@ -0,0 +1,191 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.adaptors.CinemaTicketsHttpAdaptor;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+/**
+ * A local load generator for {@link CinemaTicketsHttpAdaptor}: each benchmark thread is a client with one kept-alive
+ * connection posting JSON orders, one at a time or {@value #PIPELINE_DEPTH} pipelined at once. The throughput
+ * benchmarks report requests per second and the latency ones the distribution of the time to an answer, including its
+ * p99. Client and server share the machine, so the numbers are a floor for what the adaptor can do on its own.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpAdaptorLoadBenchmark {
+
+    public static final int PIPELINE_DEPTH = 16;
+    public static final int NR_OF_PURCHASING_THREADS = 2;
+
+    private static final byte[] REQUEST = request("{\"accountId\":1002,\"adults\":2,\"children\":1,\"infants\":1}");
+
+    private ExecutorService purchaseExecutor;
+    private CinemaTicketsHttpAdaptor httpAdaptor;
+
+    @Setup
+    public void startServer() throws IOException {
+        purchaseExecutor = Executors.newFixedThreadPool(NR_OF_PURCHASING_THREADS);
+        httpAdaptor = new CinemaTicketsHttpAdaptor(new TicketServiceImpl(new SeatReservationServiceImpl(),
+                                                                         new TicketPaymentServiceImpl(),
+                                                                         new TicketOrderEvaluator(), PurchaseEventSink.NONE),
+                                                   purchaseExecutor);
+        httpAdaptor.start(new InetSocketAddress("localhost", 0));
+    }
+
+    @TearDown
+    public void stopServer() throws InterruptedException {
+        httpAdaptor.close();
+        purchaseExecutor.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void keepAlive(Client client) throws IOException {
+        client.exchange(1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public void keepAliveFourClients(Client client) throws IOException {
+        client.exchange(1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public void pipelined(Client client) throws IOException {
+        client.exchange(PIPELINE_DEPTH);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency(Client client) throws IOException {
+        client.exchange(1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(4)
+    public void latencyFourClients(Client client) throws IOException {
+        client.exchange(1);
+    }
+
+    private static byte[] request(String body) {
+        return ("POST /purchases HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\nContent-Length: "
+                + body.length() + "\r\n\r\n" + body).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * One client connection. Every response to the benchmark's order is the same, so after reading the first one in
+     * full the client only counts bytes, checking the status line of each.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private static final byte[] OK_STATUS = "HTTP/1.1 200".getBytes(StandardCharsets.US_ASCII);
+
+        private SocketChannel channel;
+        private ByteBuffer requests;
+        private ByteBuffer responses;
+        private int responseLength;
+
+        @Setup
+        public void connect(HttpAdaptorLoadBenchmark benchmark) throws IOException {
+            channel = SocketChannel.open(new InetSocketAddress("localhost", benchmark.httpAdaptor.getPort()));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            requests = ByteBuffer.allocateDirect(REQUEST.length * PIPELINE_DEPTH);
+            for (int i = 0; i < PIPELINE_DEPTH; i++) {
+                requests.put(REQUEST);
+            }
+            responses = ByteBuffer.allocate(64 * 1024);
+            responseLength = measureResponseLength();
+        }
+
+        @TearDown
+        public void disconnect() throws IOException {
+            channel.close();
+        }
+
+        void exchange(int nrOfRequests) throws IOException {
+            requests.clear().limit(REQUEST.length * nrOfRequests);
+            while (requests.hasRemaining()) {
+                channel.write(requests);
+            }
+            responses.clear().limit(responseLength * nrOfRequests);
+            while (responses.hasRemaining()) {
+                if (channel.read(responses) < 0) {
+                    throw new IOException("The server closed the connection");
+                }
+            }
+            for (int i = 0; i < nrOfRequests; i++) {
+                if (!startsWith(responses, i * responseLength, OK_STATUS)) {
+                    throw new IllegalStateException("Purchase failed: "
+                                                    + new String(responses.array(), i * responseLength, responseLength,
+                                                                 StandardCharsets.US_ASCII));
+                }
+            }
+        }
+
+        private int measureResponseLength() throws IOException {
+            channel.write(ByteBuffer.wrap(REQUEST));
+            responses.clear();
+            while (true) {
+                channel.read(responses);
+                String received = new String(responses.array(), 0, responses.position(), StandardCharsets.US_ASCII);
+                int headEnd = received.indexOf("\r\n\r\n");
+                if (headEnd >= 0) {
+                    int lengthStart = received.indexOf("Content-Length: ") + "Content-Length: ".length();
+                    int contentLength = Integer.parseInt(received.substring(lengthStart, received.indexOf("\r\n", lengthStart)));
+                    if (received.length() >= (headEnd + 4 + contentLength)) {
+                        return headEnd + 4 + contentLength;
+                    }
+                }
+            }
+        }
+
+        private static boolean startsWith(ByteBuffer buffer, int from, byte[] prefix) {
+            for (int i = 0; i < prefix.length; i++) {
+                if (buffer.get(from + i) != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
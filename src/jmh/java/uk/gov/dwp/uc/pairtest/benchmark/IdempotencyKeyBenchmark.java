@@ -0,0 +1,100 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.idempotency.IdempotentTicketService;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of looking up a remembered idempotency key, and of remembering a new one in a full cache, with millions of keys
+ * remembered. The purchase itself does nothing so that only the cache is measured. The heap used per key is printed
+ * when the cache is filled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IdempotencyKeyBenchmark {
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final int NR_OF_PROBE_KEYS = 1 << 16;
+    private static final TicketService NO_PURCHASE = (accountId, ticketTypeRequests) -> { };
+
+    @Param({"1000000", "4000000"})
+    private int nrOfKeys;
+
+    private final TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)};
+    private IdempotentTicketService idempotentTicketService;
+    private String[] rememberedKeys;
+    private long nextNewKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        long heapBefore = usedHeap();
+        idempotentTicketService = new IdempotentTicketService(NO_PURCHASE, nrOfKeys, Duration.ofHours(1));
+        for (int i = 0; i < nrOfKeys; i++) {
+            idempotentTicketService.purchaseTickets(key(i), ACCOUNT_ID, ticketTypeRequests);
+        }
+        long heapAfter = usedHeap();
+        System.out.println("Heap per remembered key: " + ((heapAfter - heapBefore) / nrOfKeys) + " bytes");
+
+        rememberedKeys = new String[NR_OF_PROBE_KEYS];
+        for (int i = 0; i < NR_OF_PROBE_KEYS; i++) {
+            rememberedKeys[i] = key(ThreadLocalRandom.current().nextInt(nrOfKeys / 2, nrOfKeys));
+        }
+        nextNewKey = nrOfKeys;
+    }
+
+    @Benchmark
+    public IdempotentTicketService rememberedKey() {
+        String key = rememberedKeys[ThreadLocalRandom.current().nextInt(NR_OF_PROBE_KEYS)];
+        idempotentTicketService.purchaseTickets(key, ACCOUNT_ID, ticketTypeRequests);
+        return idempotentTicketService;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public IdempotentTicketService rememberedKeyFourThreads() {
+        return rememberedKey();
+    }
+
+    /**
+     * Every new key makes the full cache forget its oldest key.
+     */
+    @Benchmark
+    public IdempotentTicketService newKey() {
+        idempotentTicketService.purchaseTickets(key(nextNewKey++), ACCOUNT_ID, ticketTypeRequests);
+        return idempotentTicketService;
+    }
+
+    private static String key(long i) {
+        return "order-" + i;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketService;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link InstrumentedTicketService} over a plain {@link TicketServiceImpl}, with both sending their events
+ * nowhere so that only the metrics differ. The four thread variant shows the cost of contended counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    private static final PurchaseEventSink NO_EVENTS = new PurchaseEventSink() {
+        @Override
+        public void ticketsPurchased(long accountId, int totalNrOfTickets, int totalNrOfReservations, int totalCostOfTickets) {
+        }
+
+        @Override
+        public void purchaseRejected(long accountId, ValidationResult reason, int maximumAllowed,
+                                     int nrOfTicketsOrdered) {
+        }
+    };
+
+    @Param({"false", "true"})
+    private boolean instrumented;
+
+    @Param({"VALID", "INVALID_ACCOUNT"})
+    private OrderKind orderKind;
+
+    private TicketService ticketService;
+    private TicketOrder order;
+
+    @Setup
+    public void setup() {
+        SimulatedGateway gateway = new SimulatedGateway(0, 0);
+        ticketService = instrumented
+                        ? new InstrumentedTicketService(gateway, gateway, NO_EVENTS, new PurchaseMetrics())
+                        : new TicketServiceImpl(gateway, gateway, new TicketOrderEvaluator(), NO_EVENTS);
+        order = orderKind.getOrder();
+    }
+
+    @Benchmark
+    public Object purchase() {
+        return purchase(order);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object purchaseFourThreads() {
+        return purchase(order);
+    }
+
+    private Object purchase(TicketOrder order) {
+        try {
+            ticketService.purchaseTickets(order.getAccountId(), order.getTicketTypeRequests());
+            return order;
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.concurrent.locks.LockSupport;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Stand-in for remote seat booking and payment gateways that block the calling thread for a fixed time.
+ */
+public class LatencyGateway implements SeatReservationService, TicketPaymentService {
+
+    private final long latencyNanos;
+
+    public LatencyGateway(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        LockSupport.parkNanos(latencyNanos);
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        LockSupport.parkNanos(latencyNanos);
+    }
+}
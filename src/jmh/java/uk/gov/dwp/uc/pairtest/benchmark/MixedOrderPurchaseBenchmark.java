@@ -0,0 +1,100 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+/**
+ * Throughput of {@link TicketServiceImpl#purchaseTickets} on a stream where {@code invalidPercentage} of the orders
+ * are rejected, spread evenly over every rejection reason.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedOrderPurchaseBenchmark {
+
+    private static final int NR_OF_ORDERS = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        @Param({"10", "50", "90"})
+        private int invalidPercentage;
+
+        private TicketService ticketService;
+        private TicketOrder[] orders;
+
+        @Setup
+        public void setup() {
+            BenchmarkOrders.discardStandardOut();
+            ticketService = new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl());
+            orders = createOrders(invalidPercentage);
+        }
+
+        private static TicketOrder[] createOrders(int invalidPercentage) {
+            OrderKind[] kinds = OrderKind.values();
+            Random random = new Random(42);
+            TicketOrder[] orders = new TicketOrder[NR_OF_ORDERS];
+            for (int i = 0; i < NR_OF_ORDERS; i++) {
+                boolean invalid = random.nextInt(100) < invalidPercentage;
+                OrderKind kind = invalid ? kinds[1 + random.nextInt(kinds.length - 1)] : OrderKind.VALID;
+                orders[i] = kind.getOrder();
+            }
+            return orders;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        private TicketOrder nextOrder(TicketOrder[] orders) {
+            TicketOrder order = orders[next];
+            next = (next + 1) % orders.length;
+            return order;
+        }
+    }
+
+    @Benchmark
+    public Object purchase(Service service, Cursor cursor) {
+        return purchase(service, cursor.nextOrder(service.orders));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object purchaseFourThreads(Service service, Cursor cursor) {
+        return purchase(service, cursor.nextOrder(service.orders));
+    }
+
+    private Object purchase(Service service, TicketOrder order) {
+        try {
+            service.ticketService.purchaseTickets(order.getAccountId(), order.getTicketTypeRequests());
+            return order;
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.codec.DecodeResult;
+import uk.gov.dwp.uc.pairtest.codec.DecodedOrder;
+import uk.gov.dwp.uc.pairtest.codec.OrderDecoder;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrderRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reading an order from the bytes it arrives as: decoded straight from a direct buffer into primitives, against making
+ * a string, splitting it and parsing each field into a list of boxed integers as the console adaptor used to. Also see
+ * {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderDecoderBenchmark {
+
+    private static final byte[] ORDER = "1002,2,3,1".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(ORDER.length).put(ORDER).flip();
+    private final OrderDecoder orderDecoder = new OrderDecoder();
+    private final DecodedOrder decodedOrder = new DecodedOrder();
+
+    @Benchmark
+    public DecodeResult decodeFromBuffer() {
+        return orderDecoder.decode(buffer, 0, buffer.limit(), decodedOrder);
+    }
+
+    @Benchmark
+    public TicketOrderRequest stringSplitAndParseInt() {
+        byte[] bytes = new byte[buffer.limit()];
+        buffer.get(0, bytes);
+        String[] fields = new String(bytes, StandardCharsets.US_ASCII).split(",");
+        long accountId = Long.parseLong(fields[0]);
+        List<Integer> requestedTicketNumbers = Arrays.stream(fields, 1, fields.length)
+            .map(Integer::parseInt)
+            .collect(Collectors.toList());
+        return accountId > 0 ? new TicketOrderRequest(requestedTicketNumbers.get(0), requestedTicketNumbers.get(1),
+                                                      requestedTicketNumbers.get(2))
+                             : null;
+    }
+}
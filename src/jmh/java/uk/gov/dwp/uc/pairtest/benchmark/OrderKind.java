@@ -0,0 +1,40 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.List;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * One order for the successful path and one for each rejection the ticket service can make.
+ */
+public enum OrderKind {
+    VALID(new TicketOrder(1L, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 3),
+                          new TicketTypeRequest(INFANT, 1))),
+    NO_TICKETS(new TicketOrder(1L)),
+    NO_ADULT(new TicketOrder(1L, new TicketTypeRequest(CHILD, 2), new TicketTypeRequest(INFANT, 1))),
+    INVALID_ACCOUNT(new TicketOrder(-1L, new TicketTypeRequest(ADULT, 2))),
+    MAXIMUM_EXCEEDED(new TicketOrder(1L, new TicketTypeRequest(ADULT, 15), new TicketTypeRequest(CHILD, 10)));
+
+    private final TicketOrder order;
+
+    OrderKind(TicketOrder order) {
+        this.order = order;
+    }
+
+    TicketOrder getOrder() {
+        return order;
+    }
+
+    List<String> getConsoleArguments() {
+        int[] counts = new int[TicketTypeRequest.Type.values().length];
+        for (TicketTypeRequest request : order.getTicketTypeRequests()) {
+            counts[request.getTicketType().ordinal()] += request.getNoOfTickets();
+        }
+        return List.of(String.valueOf(counts[ADULT.ordinal()]),
+                       String.valueOf(counts[CHILD.ordinal()]),
+                       String.valueOf(counts[INFANT.ordinal()]));
+    }
+}
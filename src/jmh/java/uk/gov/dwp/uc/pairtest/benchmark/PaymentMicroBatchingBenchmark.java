@@ -0,0 +1,81 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.batch.MicroBatchingTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.batch.PaymentBatchingPolicy;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Payments from 16 threads to a {@link SerialPaymentProvider} that takes 200us a call plus 2us a payment, made one
+ * call per payment ({@code windowMicros} 0) and through a {@link MicroBatchingTicketPaymentService} collecting up to
+ * {@value #MAXIMUM_BATCH_SIZE} payments for up to {@code windowMicros}. Reports payments per second and the latency
+ * each payment sees, batching delay included.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class PaymentMicroBatchingBenchmark {
+
+    public static final int MAXIMUM_BATCH_SIZE = 64;
+
+    private static final long CALL_LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long PER_PAYMENT_NANOS = TimeUnit.MICROSECONDS.toNanos(2);
+
+    @Param({"0", "100", "500", "2000"})
+    public int windowMicros;
+
+    private TicketPaymentService ticketPaymentService;
+
+    @Setup
+    public void setUp() {
+        SerialPaymentProvider provider = new SerialPaymentProvider(CALL_LATENCY_NANOS, PER_PAYMENT_NANOS);
+        ticketPaymentService = windowMicros == 0 ? provider
+                                                 : new MicroBatchingTicketPaymentService(provider, PaymentBatchingPolicy.of(
+                                                     MAXIMUM_BATCH_SIZE, Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(windowMicros))));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (ticketPaymentService instanceof MicroBatchingTicketPaymentService) {
+            ((MicroBatchingTicketPaymentService) ticketPaymentService).close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void throughput() {
+        pay();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() {
+        pay();
+    }
+
+    private void pay() {
+        ticketPaymentService.makePayment(ThreadLocalRandom.current().nextLong(1, 1_000_000), 40);
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.pricing.PricingRule;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing an order for one of {@value #NR_OF_SCREENINGS} screenings with the compiled price tables of a
+ * {@link PricingEngine}, as the number of rules grows, against the fixed prices on the ticket types. The four thread
+ * variant has one of the threads swapping in a precompiled rule set every {@value #PRICINGS_PER_SWAP} pricings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    public static final int NR_OF_SCREENINGS = 1000;
+    public static final int PRICINGS_PER_SWAP = 100_000;
+
+    @Param({"0", "100", "10000"})
+    public int nrOfRules;
+
+    private PricingEngine pricingEngine;
+    private PriceTable[] priceTables;
+
+    @Setup
+    public void compileRules() {
+        Map<Long, Integer> startHourByScreening = new HashMap<>();
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            startHourByScreening.put(screeningId, (int) (10 + (screeningId % 14)));
+        }
+        priceTables = new PriceTable[] {PriceTable.compile(rules(0), startHourByScreening),
+                                        PriceTable.compile(rules(1), startHourByScreening)};
+        pricingEngine = new PricingEngine(priceTables[0]);
+    }
+
+    @Benchmark
+    public int priceTable() {
+        return price(pricingEngine);
+    }
+
+    @Benchmark
+    public int ticketTypePrices() {
+        return price(TicketPricing.STANDARD);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int priceTableFourThreads() {
+        return price(pricingEngine);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int priceTableWhileSwappingFourThreads() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(PRICINGS_PER_SWAP) == 0) {
+            pricingEngine.publish(priceTables[random.nextInt(priceTables.length)]);
+        }
+        return price(pricingEngine);
+    }
+
+    private List<PricingRule> rules(int variant) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Type[] types = Type.values();
+        List<PricingRule> rules = new ArrayList<>(nrOfRules);
+        for (int i = 0; i < nrOfRules; i++) {
+            Type type = types[random.nextInt(types.length)];
+            PricingRule rule = (i % 3) == 0 ? PricingRule.percentOff(type, 5 + variant + random.nextInt(20))
+                                            : PricingRule.price(type, 5 + variant + random.nextInt(20));
+            if ((i % 2) == 0) {
+                rule = rule.forScreening(random.nextInt(NR_OF_SCREENINGS));
+            } else {
+                int fromHour = random.nextInt(23);
+                rule = rule.startingBetween(fromHour, fromHour + 1 + random.nextInt(24 - fromHour));
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private static int price(TicketPricing ticketPricing) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return ticketPricing.getTotalCost(random.nextInt(NR_OF_SCREENINGS), 1 + random.nextInt(5), random.nextInt(5),
+                                          random.nextInt(3));
+    }
+}
@@ -0,0 +1,77 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.events.AsyncFilePurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.events.ConsolePurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.events.DropPolicy;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost to the purchasing thread of recording a purchase: formatting and printing to a (discarded) stdout against
+ * publishing to the asynchronous file sink. Also see {@code -prof gc} for the allocation on the purchasing thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseEventSinkBenchmark {
+
+    @Param({"CONSOLE", "ASYNC_FILE"})
+    private String sinkType;
+
+    private PurchaseEventSink sink;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkOrders.discardStandardOut();
+        if ("CONSOLE".equals(sinkType)) {
+            sink = new ConsolePurchaseEventSink();
+        } else {
+            file = Files.createTempFile("purchase-events", ".jsonl");
+            sink = new AsyncFilePurchaseEventSink(file, AsyncFilePurchaseEventSink.DEFAULT_CAPACITY,
+                                                  AsyncFilePurchaseEventSink.DEFAULT_WRITE_BUFFER_SIZE, DropPolicy.DROP_NEWEST);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (sink instanceof AsyncFilePurchaseEventSink) {
+            AsyncFilePurchaseEventSink asyncSink = (AsyncFilePurchaseEventSink) sink;
+            asyncSink.close();
+            System.err.println("Dropped events: " + asyncSink.getDroppedEvents());
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public void ticketsPurchased() {
+        sink.ticketsPurchased(1L, 3, 2, 40);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void ticketsPurchasedFourThreads() {
+        sink.ticketsPurchased(1L, 3, 2, 40);
+    }
+}
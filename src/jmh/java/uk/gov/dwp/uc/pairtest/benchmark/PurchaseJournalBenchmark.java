@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.journal.Durability;
+import uk.gov.dwp.uc.pairtest.journal.MappedPurchaseJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Purchases journalled per millisecond, each being three appends: started, seats reserved and completed. Written
+ * appends are forced in the background, synced appends wait for a force shared with whoever else is waiting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseJournalBenchmark {
+
+    private static final TicketTypeRequest[] TICKET_TYPE_REQUESTS = {new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                                                                     new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)};
+
+    @Param({"WRITTEN", "SYNCED"})
+    private Durability durability;
+
+    private Path directory;
+    private MappedPurchaseJournal journal;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("purchase-journal");
+        int syncBatchSize = durability == Durability.SYNCED ? 1 : MappedPurchaseJournal.DEFAULT_SYNC_BATCH_SIZE;
+        journal = new MappedPurchaseJournal(directory, incompletePurchase -> { }, MappedPurchaseJournal.DEFAULT_SEGMENT_SIZE,
+                                            durability, syncBatchSize, MappedPurchaseJournal.DEFAULT_SYNC_INTERVAL);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long journalPurchase() {
+        long purchaseId = journal.purchaseStarted(1L, TICKET_TYPE_REQUESTS, 50);
+        journal.seatsReserved(purchaseId);
+        journal.purchaseCompleted(purchaseId);
+        return purchaseId;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long journalPurchaseFourThreads() {
+        return journalPurchase();
+    }
+}
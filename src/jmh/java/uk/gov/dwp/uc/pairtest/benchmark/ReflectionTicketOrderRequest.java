@@ -0,0 +1,39 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * {@link uk.gov.dwp.uc.pairtest.domain.TicketOrderRequest} as it was before its equality was written out by hand: boxed
+ * counts, with equality, the hash code and the string found by reflection. Kept as a baseline.
+ */
+final class ReflectionTicketOrderRequest {
+
+    private final Integer requestedNrTicketsForAdult;
+    private final Integer requestedNrTicketsForChild;
+    private final Integer requestedNrTicketsForInfant;
+
+    ReflectionTicketOrderRequest(Integer requestedNrTicketsAdult, Integer requestedNrTicketsChild,
+                                 Integer requestedNrTicketsInfant) {
+        this.requestedNrTicketsForAdult = requestedNrTicketsAdult;
+        this.requestedNrTicketsForChild = requestedNrTicketsChild;
+        this.requestedNrTicketsForInfant = requestedNrTicketsInfant;
+    }
+
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+}
@@ -0,0 +1,86 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting an invalid order: throwing with a stack trace (today's behaviour), throwing stackless exceptions,
+ * and returning a result code. {@code stackDepth} adds frames above the evaluator, as a real request thread would have.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionBenchmark {
+
+    @Param({"NO_TICKETS", "NO_ADULT", "INVALID_ACCOUNT", "MAXIMUM_EXCEEDED"})
+    private OrderKind orderKind;
+
+    @Param({"10", "100"})
+    private int stackDepth;
+
+    private final TicketOrderEvaluator withStackTrace = new TicketOrderEvaluator();
+    private final TicketOrderEvaluator stackless = new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.STACKLESS);
+    private final TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+    private Long accountId;
+    private TicketTypeRequest[] requests;
+
+    @Setup
+    public void setup() {
+        accountId = orderKind.getOrder().getAccountId();
+        requests = orderKind.getOrder().getTicketTypeRequests();
+    }
+
+    @Benchmark
+    public Object throwWithStackTrace() {
+        return evaluateAtDepth(withStackTrace, stackDepth);
+    }
+
+    @Benchmark
+    public Object throwStackless() {
+        return evaluateAtDepth(stackless, stackDepth);
+    }
+
+    @Benchmark
+    public Object resultCode() {
+        return validateAtDepth(stackDepth);
+    }
+
+    private Object evaluateAtDepth(TicketOrderEvaluator evaluator, int depth) {
+        if (depth > 0) {
+            return evaluateAtDepth(evaluator, depth - 1);
+        }
+        try {
+            evaluator.evaluate(accountId, requests, evaluation);
+            return evaluation;
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+
+    private ValidationResult validateAtDepth(int depth) {
+        if (depth > 0) {
+            return validateAtDepth(depth - 1);
+        }
+        return withStackTrace.validate(accountId, requests, evaluation);
+    }
+}
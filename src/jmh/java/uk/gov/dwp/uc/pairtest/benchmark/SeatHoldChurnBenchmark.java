@@ -0,0 +1,85 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.hold.HashedTimerWheel;
+import uk.gov.dwp.uc.pairtest.hold.SeatHold;
+import uk.gov.dwp.uc.pairtest.hold.SeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds made and then released or confirmed at a high rate, with {@code pendingHolds} other holds waiting to expire,
+ * to show that the cost of a hold does not grow with the number pending.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SeatHoldChurnBenchmark {
+
+    private static final long SCREENING_ID = 1L;
+    private static final long PENDING_SCREENING_ID = 2L;
+    private static final long ACCOUNT_ID = 1L;
+    private static final int SEATS_PER_HOLD = 2;
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    @Param({"0", "1000000"})
+    private int pendingHolds;
+
+    private HashedTimerWheel timerWheel;
+    private SeatHoldService seatHoldService;
+
+    @Setup
+    public void setup() {
+        SeatInventory seatInventory = new SeatInventory();
+        seatInventory.addScreening(SCREENING_ID, Integer.MAX_VALUE);
+        seatInventory.addScreening(PENDING_SCREENING_ID, Integer.MAX_VALUE);
+        SimulatedGateway gateway = new SimulatedGateway(0, 0);
+        timerWheel = new HashedTimerWheel(Duration.ofMillis(10), HashedTimerWheel.DEFAULT_TICKS_PER_WHEEL);
+        seatHoldService = new SeatHoldService(seatInventory, gateway, timerWheel);
+        for (int i = 0; i < pendingHolds; i++) {
+            seatHoldService.hold(PENDING_SCREENING_ID, ACCOUNT_ID, SEATS_PER_HOLD, TIME_TO_LIVE.plusMinutes(i % 60));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        timerWheel.close();
+    }
+
+    @Benchmark
+    public SeatHold holdAndRelease() {
+        SeatHold hold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, SEATS_PER_HOLD, TIME_TO_LIVE);
+        seatHoldService.release(hold);
+        return hold;
+    }
+
+    @Benchmark
+    public SeatAllocation holdAndConfirm() {
+        return seatHoldService.confirm(seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, SEATS_PER_HOLD, TIME_TO_LIVE));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SeatHold holdAndReleaseFourThreads() {
+        return holdAndRelease();
+    }
+}
@@ -0,0 +1,72 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claiming and releasing a block of seats in a 20 by 20 auditorium that is already {@code occupancyPercent} full, so
+ * the search has to skip taken seats. All threads share the one seat map, as they would for a popular screening.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatMapBenchmark {
+
+    private static final int NR_OF_ROWS = 20;
+    private static final int SEATS_PER_ROW = 20;
+
+    @Param({"2", "5"})
+    private int nrOfSeats;
+
+    @Param({"0", "80"})
+    private int occupancyPercent;
+
+    private SeatMap seatMap;
+
+    @Setup
+    public void setup() {
+        seatMap = new SeatMap(NR_OF_ROWS, SEATS_PER_ROW);
+        int seatsToTake = (seatMap.getCapacity() * occupancyPercent) / 100;
+        while (seatsToTake > 0) {
+            seatMap.claim(1);
+            seatsToTake--;
+        }
+    }
+
+    @Benchmark
+    public SeatAllocation claimAndRelease() {
+        return claimAndReleaseSeats();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SeatAllocation claimAndReleaseFourThreads() {
+        return claimAndReleaseSeats();
+    }
+
+    private SeatAllocation claimAndReleaseSeats() {
+        SeatAllocation allocation = seatMap.claim(nrOfSeats);
+        if (allocation != null) {
+            seatMap.release(allocation);
+        }
+        return allocation;
+    }
+}
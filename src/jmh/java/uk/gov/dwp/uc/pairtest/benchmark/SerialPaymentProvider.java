@@ -0,0 +1,33 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.batch.BatchTicketPaymentService;
+
+import java.util.concurrent.locks.LockSupport;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Stand-in for a payment provider that takes one call at a time, each blocking for a fixed latency plus a little per
+ * payment in it, so that its throughput is capped by the number of calls made rather than the number of payments.
+ */
+public class SerialPaymentProvider implements TicketPaymentService, BatchTicketPaymentService {
+
+    private final long callLatencyNanos;
+    private final long perPaymentNanos;
+
+    public SerialPaymentProvider(long callLatencyNanos, long perPaymentNanos) {
+        this.callLatencyNanos = callLatencyNanos;
+        this.perPaymentNanos = perPaymentNanos;
+    }
+
+    @Override
+    public synchronized void makePayment(long accountId, int totalAmountToPay) {
+        LockSupport.parkNanos(callLatencyNanos + perPaymentNanos);
+    }
+
+    @Override
+    public synchronized void makePayments(long[] accountIds, int[] totalAmountsToPay, int count,
+                                          RuntimeException[] failures) {
+        LockSupport.parkNanos(callLatencyNanos + (perPaymentNanos * count));
+    }
+}
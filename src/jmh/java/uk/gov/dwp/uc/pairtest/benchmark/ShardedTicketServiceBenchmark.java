@@ -0,0 +1,94 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.ScreeningTicketService;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.shard.ShardedTicketService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.CHILD;
+
+/**
+ * Screening purchases from eight threads over {@value #NR_OF_SCREENINGS} screenings, through one shared
+ * {@link TicketServiceImpl} ({@code nrOfShards} 0) and through a {@link ShardedTicketService} with each number of
+ * shards, with gateways that cost a little CPU per call. On a machine with at least as many cores as shards, the
+ * sharded throughput should grow close to linearly with the shards until the callers run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedTicketServiceBenchmark {
+
+    public static final TicketTypeRequest[] ORDER = {new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1)};
+
+    private static final int NR_OF_SCREENINGS = 1024;
+    private static final int SCREENING_CAPACITY = 1 << 28;
+    private static final long GATEWAY_CALL_TOKENS = 200;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int nrOfShards;
+
+    private ScreeningTicketService screeningTicketService;
+
+    @Setup
+    public void setUp() {
+        SimulatedGateway gateway = new SimulatedGateway(GATEWAY_CALL_TOKENS, 0);
+        if (nrOfShards == 0) {
+            SeatInventory seatInventory = new SeatInventory();
+            for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+                seatInventory.addScreening(screeningId, SCREENING_CAPACITY);
+            }
+            screeningTicketService = new TicketServiceImpl(gateway, gateway, new TicketOrderEvaluator(), PurchaseEventSink.NONE,
+                                                           seatInventory);
+            return;
+        }
+        SeatInventory[] seatInventories = new SeatInventory[nrOfShards];
+        ShardedTicketService shardedTicketService = new ShardedTicketService(nrOfShards, shard -> {
+            seatInventories[shard] = new SeatInventory();
+            return new TicketServiceImpl(gateway, gateway, new TicketOrderEvaluator(), PurchaseEventSink.NONE,
+                                         seatInventories[shard]);
+        });
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            seatInventories[shardedTicketService.shardForScreening(screeningId)].addScreening(screeningId, SCREENING_CAPACITY);
+        }
+        screeningTicketService = shardedTicketService;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (screeningTicketService instanceof ShardedTicketService) {
+            ((ShardedTicketService) screeningTicketService).close();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public SeatAllocation purchaseEightThreads() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return screeningTicketService.purchaseTickets(random.nextInt(NR_OF_SCREENINGS), random.nextLong(1, 1_000_000), ORDER);
+    }
+}
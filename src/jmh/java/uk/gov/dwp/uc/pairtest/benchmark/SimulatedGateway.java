@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.dwp.uc.pairtest.batch.BatchSeatReservationService;
+import uk.gov.dwp.uc.pairtest.batch.BatchTicketPaymentService;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Stand-in for the seat booking and payment gateways where every call costs a fixed amount of CPU on top of a smaller
+ * per-entry cost, so per-call overhead shows up in the benchmarks.
+ */
+public class SimulatedGateway implements SeatReservationService, TicketPaymentService,
+                                         BatchSeatReservationService, BatchTicketPaymentService {
+
+    private final long callOverheadTokens;
+    private final long perEntryTokens;
+
+    public SimulatedGateway(long callOverheadTokens, long perEntryTokens) {
+        this.callOverheadTokens = callOverheadTokens;
+        this.perEntryTokens = perEntryTokens;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        Blackhole.consumeCPU(callOverheadTokens + perEntryTokens);
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        Blackhole.consumeCPU(callOverheadTokens + perEntryTokens);
+    }
+
+    @Override
+    public void reserveSeats(long[] accountIds, int[] totalSeatsToAllocate, int count, RuntimeException[] failures) {
+        Blackhole.consumeCPU(callOverheadTokens + (perEntryTokens * count));
+    }
+
+    @Override
+    public void makePayments(long[] accountIds, int[] totalAmountsToPay, int count, RuntimeException[] failures) {
+        Blackhole.consumeCPU(callOverheadTokens + (perEntryTokens * count));
+    }
+}
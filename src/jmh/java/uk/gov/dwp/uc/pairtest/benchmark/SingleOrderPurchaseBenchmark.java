@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+/**
+ * Throughput of {@link TicketServiceImpl#purchaseTickets} for the successful path and for each rejection, on one
+ * thread and on four threads sharing the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleOrderPurchaseBenchmark {
+
+    @Param
+    private OrderKind orderKind;
+
+    private TicketService ticketService;
+    private TicketOrder order;
+
+    @Setup
+    public void setup() {
+        BenchmarkOrders.discardStandardOut();
+        ticketService = new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl());
+        order = orderKind.getOrder();
+    }
+
+    @Benchmark
+    public Object purchase() {
+        return purchase(order);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object purchaseFourThreads() {
+        return purchase(order);
+    }
+
+    private Object purchase(TicketOrder order) {
+        try {
+            ticketService.purchaseTickets(order.getAccountId(), order.getTicketTypeRequests());
+            return order;
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static uk.gov.dwp.uc.pairtest.TicketServiceImpl.MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * The stream based validation and pricing that {@link uk.gov.dwp.uc.pairtest.TicketOrderEvaluator} replaced, kept as
+ * a baseline. Returns the seats and cost added together so the result cannot be optimised away.
+ */
+final class StreamTicketOrderCalculator {
+
+    int calculate(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        List<TicketTypeRequest> allTicketRequests = Arrays.stream(ticketTypeRequests).collect(Collectors.toList());
+        int totalNrOfTickets = allTicketRequests.stream()
+            .map(TicketTypeRequest::getNoOfTickets)
+            .mapToInt(Integer::intValue)
+            .sum();
+        List<TicketTypeRequest> adultTicketTypeRequest = allTicketRequests.stream()
+            .filter(ticketTypeRequest -> ticketTypeRequest.getTicketType() == ADULT)
+            .filter(ticketTypeRequest -> ticketTypeRequest.getNoOfTickets() > 0)
+            .collect(Collectors.toList());
+
+        if (totalNrOfTickets == 0) {
+            throw new NoTicketsOrderedException();
+        }
+        if (adultTicketTypeRequest.isEmpty()) {
+            throw new NoAdultTicketsRequestedException();
+        }
+        if ((accountId == null) || (accountId < 1)) {
+            throw new InvalidAccountNumberException();
+        }
+        if (totalNrOfTickets > MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED) {
+            throw new MaximumNrOfTicketsAllowedExceededException(MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED, totalNrOfTickets);
+        }
+
+        int totalNrOfReservations = allTicketRequests.stream()
+            .filter(ticketTypeRequest -> ticketTypeRequest.getTicketType() != INFANT)
+            .map(TicketTypeRequest::getNoOfTickets)
+            .mapToInt(Integer::intValue)
+            .sum();
+        int totalCostOfTickets = allTicketRequests.stream()
+            .map(TicketTypeRequest::getTotalCostForTicketType)
+            .mapToInt(Integer::intValue)
+            .sum();
+        return totalNrOfReservations + totalCostOfTickets;
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * Single-pass evaluation against the original stream based rules. Run with {@code -prof gc} to see the allocation rate;
+ * {@code gc.alloc.rate.norm} for {@link #singlePassEvaluator()} should be 0 B/op. The same guarantee is asserted by
+ * {@code TicketOrderEvaluatorTest} so the build catches a regression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketOrderEvaluatorBenchmark {
+
+    private static final Long ACCOUNT_ID = 1L;
+
+    private final TicketOrderEvaluator ticketOrderEvaluator = new TicketOrderEvaluator();
+    private final TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+    private final StreamTicketOrderCalculator streamTicketOrderCalculator = new StreamTicketOrderCalculator();
+    private TicketTypeRequest[] requests;
+
+    @Setup
+    public void setup() {
+        requests = new TicketTypeRequest[] {new TicketTypeRequest(ADULT, 2),
+                                            new TicketTypeRequest(CHILD, 3),
+                                            new TicketTypeRequest(INFANT, 1)};
+    }
+
+    @Benchmark
+    public int singlePassEvaluator() {
+        ticketOrderEvaluator.evaluate(ACCOUNT_ID, requests, evaluation);
+        return evaluation.getTotalNrOfReservations() + evaluation.getTotalCostOfTickets();
+    }
+
+    @Benchmark
+    public int streamCalculator() {
+        return streamTicketOrderCalculator.calculate(ACCOUNT_ID, requests);
+    }
+}
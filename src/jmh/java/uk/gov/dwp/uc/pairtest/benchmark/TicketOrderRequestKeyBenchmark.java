@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrderRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticket orders used as cache keys: a fresh order looked up in a map of {@value #NR_OF_ORDERS} others, with the
+ * hand-written equality of {@link TicketOrderRequest}, its packed counts, and the reflection based equality it used to
+ * have ({@link ReflectionTicketOrderRequest}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketOrderRequestKeyBenchmark {
+
+    public static final int NR_OF_ORDERS = 1000;
+    public static final int MAXIMUM_NR_OF_TICKETS = 10;
+
+    private final Map<TicketOrderRequest, Integer> valueKeys = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> packedKeys = new ConcurrentHashMap<>();
+    private final Map<ReflectionTicketOrderRequest, Integer> reflectionKeys = new ConcurrentHashMap<>();
+
+    @Setup
+    public void remember() {
+        for (int adult = 0; adult < MAXIMUM_NR_OF_TICKETS; adult++) {
+            for (int child = 0; child < MAXIMUM_NR_OF_TICKETS; child++) {
+                for (int infant = 0; infant < MAXIMUM_NR_OF_TICKETS; infant++) {
+                    int cost = (20 * adult) + (10 * child);
+                    valueKeys.put(new TicketOrderRequest(adult, child, infant), cost);
+                    packedKeys.put(TicketOrderRequest.packCounts(adult, child, infant), cost);
+                    reflectionKeys.put(new ReflectionTicketOrderRequest(adult, child, infant), cost);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Integer valueKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return valueKeys.get(new TicketOrderRequest(random.nextInt(MAXIMUM_NR_OF_TICKETS), random.nextInt(MAXIMUM_NR_OF_TICKETS),
+                                                    random.nextInt(MAXIMUM_NR_OF_TICKETS)));
+    }
+
+    @Benchmark
+    public Integer packedKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return packedKeys.get(TicketOrderRequest.packCounts(random.nextInt(MAXIMUM_NR_OF_TICKETS),
+                                                            random.nextInt(MAXIMUM_NR_OF_TICKETS),
+                                                            random.nextInt(MAXIMUM_NR_OF_TICKETS)));
+    }
+
+    @Benchmark
+    public Integer reflectionKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return reflectionKeys.get(new ReflectionTicketOrderRequest(random.nextInt(MAXIMUM_NR_OF_TICKETS),
+                                                                   random.nextInt(MAXIMUM_NR_OF_TICKETS),
+                                                                   random.nextInt(MAXIMUM_NR_OF_TICKETS)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer valueKeyFourThreads() {
+        return valueKey();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer packedKeyFourThreads() {
+        return packedKey();
+    }
+}
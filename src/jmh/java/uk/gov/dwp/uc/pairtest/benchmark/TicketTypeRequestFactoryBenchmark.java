@@ -0,0 +1,42 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrderRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequestFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketTypeRequestFactoryBenchmark {
+
+    private final TicketTypeRequestFactory ticketTypeRequestFactory = new TicketTypeRequestFactory();
+    private final TicketOrderRequest ticketOrderRequest = new TicketOrderRequest(2, 3, 1);
+
+    @Benchmark
+    public List<TicketTypeRequest> createListOfTicketRequests() {
+        return ticketTypeRequestFactory.createListOfTicketRequests(ticketOrderRequest);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<TicketTypeRequest> createListOfTicketRequestsFourThreads() {
+        return ticketTypeRequestFactory.createListOfTicketRequests(ticketOrderRequest);
+    }
+}
@@ -0,0 +1,100 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+import uk.gov.dwp.uc.pairtest.validation.OrderRules;
+import uk.gov.dwp.uc.pairtest.validation.ValidationEngine;
+import uk.gov.dwp.uc.pairtest.validation.ValidationPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * Validating an order with the hardcoded rules against the same rules compiled from a policy, and against a policy with
+ * every rule and limits of its own for {@value #NR_OF_SCREENINGS} screenings, checking an order for one of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationRulesBenchmark {
+
+    public static final int NR_OF_SCREENINGS = 1000;
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final TicketTypeRequest[] ORDER = {new TicketTypeRequest(ADULT, 2),
+                                                      new TicketTypeRequest(CHILD, 3),
+                                                      new TicketTypeRequest(INFANT, 1)};
+
+    private final TicketOrderEvaluator hardcoded = new TicketOrderEvaluator();
+    private TicketOrderEvaluator compiledStandard;
+    private TicketOrderEvaluator compiledPerScreening;
+
+    @Setup
+    public void compilePolicies() {
+        compiledStandard = evaluatorFor(ValidationPolicy.parse(List.of("at-least-one-ticket", "adult-required", "valid-account",
+                                                                       "maximum-tickets 20")));
+        List<String> definitions = new ArrayList<>(List.of("at-least-one-ticket", "adult-required", "children-need-an-adult",
+                                                           "valid-account", "maximum-tickets 20", "maximum-infants-per-adult 1"));
+        for (int screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            definitions.add("maximum-tickets " + (10 + (screeningId % 10)) + " screening " + screeningId);
+        }
+        compiledPerScreening = evaluatorFor(ValidationPolicy.parse(definitions));
+    }
+
+    @State(Scope.Thread)
+    public static class Evaluation {
+        final TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+    }
+
+    @Benchmark
+    public ValidationResult hardcodedRules(Evaluation state) {
+        return hardcoded.validate(randomScreening(), ACCOUNT_ID, ORDER, state.evaluation);
+    }
+
+    @Benchmark
+    public ValidationResult compiledStandardRules(Evaluation state) {
+        return compiledStandard.validate(randomScreening(), ACCOUNT_ID, ORDER, state.evaluation);
+    }
+
+    @Benchmark
+    public ValidationResult compiledRulesPerScreening(Evaluation state) {
+        return compiledPerScreening.validate(randomScreening(), ACCOUNT_ID, ORDER, state.evaluation);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ValidationResult compiledRulesPerScreeningFourThreads(Evaluation state) {
+        return compiledRulesPerScreening(state);
+    }
+
+    private static TicketOrderEvaluator evaluatorFor(ValidationPolicy policy) {
+        OrderRules orderRules = new ValidationEngine(policy);
+        return new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.STACKLESS, TicketPricing.STANDARD, orderRules);
+    }
+
+    private static long randomScreening() {
+        return ThreadLocalRandom.current().nextInt(NR_OF_SCREENINGS);
+    }
+}
@@ -0,0 +1,84 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.async.ExecutionMode;
+import uk.gov.dwp.uc.pairtest.async.ExecutorTicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases per second against gateways with {@code latencyMillis} of latency per call, as the number of concurrent
+ * purchases grows. Platform threads get a pool as large as the concurrency, so the comparison is the cost of the
+ * threads themselves. {@code VIRTUAL_THREADS} needs the jar to be run on Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int NR_OF_PURCHASES = 4096;
+
+    @Param({"VIRTUAL_THREADS", "PLATFORM_THREADS"})
+    private ExecutionMode executionMode;
+
+    @Param({"16", "256", "4096"})
+    private int concurrentPurchases;
+
+    @Param({"1"})
+    private long latencyMillis;
+
+    private ExecutorTicketService executorTicketService;
+    private List<TicketOrder> orders;
+
+    @Setup
+    public void setup() {
+        BenchmarkOrders.discardStandardOut();
+        LatencyGateway gateway = new LatencyGateway(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        executorTicketService = new ExecutorTicketService(new TicketServiceImpl(gateway, gateway), executionMode,
+                                                          concurrentPurchases, Duration.ofMinutes(1));
+        orders = BenchmarkOrders.validOrders(NR_OF_PURCHASES);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executorTicketService.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NR_OF_PURCHASES)
+    public void purchase() {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[orders.size()];
+        for (int i = 0; i < results.length; i++) {
+            TicketOrder order = orders.get(i);
+            results[i] = executorTicketService.purchaseTickets(order.getAccountId(), order.getTicketTypeRequests());
+        }
+        CompletableFuture.allOf(results).join();
+        for (CompletableFuture<?> result : results) {
+            if (!((PurchaseResult) result.join()).isPurchased()) {
+                throw new IllegalStateException("Purchase failed: " + result.join());
+            }
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package uk.gov.dwp.uc.pairtest;
 
 import uk.gov.dwp.uc.pairtest.adaptors.CinemaTicketsConsoleAdaptor;
+import uk.gov.dwp.uc.pairtest.adaptors.CinemaTicketsHttpAdaptor;
+import uk.gov.dwp.uc.pairtest.bulk.BulkOrderProcessor;
+import uk.gov.dwp.uc.pairtest.bulk.BulkOrderSummary;
+import uk.gov.dwp.uc.pairtest.codec.DecodeResult;
+import uk.gov.dwp.uc.pairtest.codec.DecodedOrder;
+import uk.gov.dwp.uc.pairtest.codec.OrderDecoder;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequestFactory;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.metrics.InstrumentedTicketService;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import thirdparty.paymentgateway.TicketPaymentServiceImpl;
@@ -12,12 +25,23 @@ import thirdparty.seatbooking.SeatReservationServiceImpl;
 
 public final class CinemaTicketsApplication {
 
+    public static final String BULK_MODE_ARGUMENT = "--bulk";
+    public static final String HTTP_MODE_ARGUMENT = "--http";
+
     private CinemaTicketsApplication() {
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if ((args.length > 0) && BULK_MODE_ARGUMENT.equals(args[0])) {
+            processOrderFile(args);
+            return;
+        }
+        if ((args.length > 0) && HTTP_MODE_ARGUMENT.equals(args[0])) {
+            serveHttp(args);
+            return;
+        }
         List<String> arguments = createArgumentsList(args);
-        long accountNumber = Long.parseLong(arguments.get(0));
+        long accountNumber = decodeAccountNumber(arguments);
         List<String> requestedTicketNumbers = List.of(arguments.get(1),
                                                       arguments.get(2),
                                                       arguments.get(3));
@@ -35,6 +59,46 @@ public final class CinemaTicketsApplication {
         return arguments;
     }
 
+    private static long decodeAccountNumber(List<String> arguments) {
+        DecodedOrder decodedOrder = new DecodedOrder();
+        DecodeResult result = new OrderDecoder().decode(arguments, decodedOrder);
+        if (decodedOrder.getFailedField() == DecodedOrder.ACCOUNT_ID_FIELD) {
+            throw new IllegalStateException("Could not read the account number: " + result);
+        }
+        return decodedOrder.getAccountId();
+    }
+
+    private static void processOrderFile(String[] args) throws IOException {
+        if ((args.length < 3) || (args.length > 4)) {
+            throw new IllegalStateException("Must provide " + BULK_MODE_ARGUMENT + ", the order file, the results file "
+                                            + "and optionally the number of purchasing threads");
+        }
+        int nrOfWorkers = args.length == 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        TicketService ticketService = new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl(),
+                                                            new TicketOrderEvaluator(), PurchaseEventSink.NONE);
+        BulkOrderSummary summary = new BulkOrderProcessor(ticketService, nrOfWorkers).process(Path.of(args[1]), Path.of(args[2]));
+        System.out.print(summary);
+    }
+
+    /**
+     * Leaves the I/O and purchasing threads running, so the application serves until it is stopped.
+     */
+    private static void serveHttp(String[] args) throws IOException {
+        if ((args.length < 2) || (args.length > 3)) {
+            throw new IllegalStateException("Must provide " + HTTP_MODE_ARGUMENT + ", the port and optionally the number of "
+                                            + "purchasing threads");
+        }
+        int port = Integer.parseInt(args[1]);
+        int nrOfThreads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        PurchaseMetrics purchaseMetrics = new PurchaseMetrics();
+        TicketService ticketService = new InstrumentedTicketService(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl(),
+                                                                    PurchaseEventSink.NONE, purchaseMetrics);
+        CinemaTicketsHttpAdaptor httpAdaptor = new CinemaTicketsHttpAdaptor(ticketService, Executors.newFixedThreadPool(nrOfThreads),
+                                                                            purchaseMetrics);
+        httpAdaptor.start(new InetSocketAddress(port));
+        System.out.println("Taking purchases on port " + httpAdaptor.getPort());
+    }
+
     private static CinemaTicketsConsoleAdaptor createCinemaTicketsConsoleWithDependencies() {
         TicketService ticketService = new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl());
         return new CinemaTicketsConsoleAdaptor(ticketService, new TicketTypeRequestFactory());
@@ -0,0 +1,16 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+/**
+ * Purchases tickets for a particular screening, which is rejected when the screening does not have enough seats left.
+ * The seats taken are returned, with their seat ids when the screening has assigned seating.
+ */
+public interface ScreeningTicketService {
+
+    SeatAllocation purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests)
+        throws InvalidPurchaseException;
+
+}
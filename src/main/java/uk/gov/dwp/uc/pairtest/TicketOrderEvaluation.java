@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest;
+
+/**
+ * Mutable holder for the totals worked out by {@link TicketOrderEvaluator}. It is filled in place so that a caller
+ * evaluating many orders can reuse one instance and avoid allocating per order.
+ */
+public final class TicketOrderEvaluation {
+
+    private int totalNrOfTickets;
+    private int totalNrOfReservations;
+    private int totalCostOfTickets;
+    private boolean containsAdultTicket;
+    private int nrOfAdultTickets;
+    private int nrOfChildTickets;
+    private int nrOfInfantTickets;
+    private int exceededLimit;
+
+    public int getTotalNrOfTickets() {
+        return totalNrOfTickets;
+    }
+
+    public int getTotalNrOfReservations() {
+        return totalNrOfReservations;
+    }
+
+    public int getTotalCostOfTickets() {
+        return totalCostOfTickets;
+    }
+
+    public boolean containsAdultTicket() {
+        return containsAdultTicket;
+    }
+
+    public int getNrOfAdultTickets() {
+        return nrOfAdultTickets;
+    }
+
+    public int getNrOfChildTickets() {
+        return nrOfChildTickets;
+    }
+
+    public int getNrOfInfantTickets() {
+        return nrOfInfantTickets;
+    }
+
+    /**
+     * @return the limit of the rule the order was rejected on, as it was when the order was checked; only meaningful
+     * for {@link ValidationResult#MAXIMUM_NR_OF_TICKETS_EXCEEDED} and {@link ValidationResult#TOO_MANY_INFANTS_PER_ADULT}
+     */
+    public int getExceededLimit() {
+        return exceededLimit;
+    }
+
+    /**
+     * For {@link uk.gov.dwp.uc.pairtest.validation.OrderRules} rejecting the order on a limit, so that the rejection
+     * reports the limit that was checked even if the rules have changed since.
+     */
+    public void setExceededLimit(int exceededLimit) {
+        this.exceededLimit = exceededLimit;
+    }
+
+    void set(int totalNrOfTickets, int totalNrOfReservations, int totalCostOfTickets, boolean containsAdultTicket) {
+        this.totalNrOfTickets = totalNrOfTickets;
+        this.totalNrOfReservations = totalNrOfReservations;
+        this.totalCostOfTickets = totalCostOfTickets;
+        this.containsAdultTicket = containsAdultTicket;
+        this.exceededLimit = 0;
+    }
+
+    void setNrOfTicketsByType(int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets) {
+        this.nrOfAdultTickets = nrOfAdultTickets;
+        this.nrOfChildTickets = nrOfChildTickets;
+        this.nrOfInfantTickets = nrOfInfantTickets;
+    }
+}
@@ -0,0 +1,144 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyInfantsPerAdultException;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+import uk.gov.dwp.uc.pairtest.validation.OrderRules;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * Applies the purchase business rules to an order and works out its tickets, seats and cost in a single pass over the
+ * requests, using only primitives. Evaluating into a reused {@link TicketOrderEvaluation} does not allocate unless the
+ * order is rejected, and {@link #validate} does not allocate at all.
+ * <p>
+ * The cost comes from a {@link TicketPricing}, by default the prices on {@link TicketTypeRequest.Type}, and the rules
+ * from {@link OrderRules}, by default {@link OrderRules#STANDARD}. Orders that do not name a screening are priced and
+ * checked as {@link TicketPricing#NO_SCREENING}.
+ */
+public class TicketOrderEvaluator {
+
+    private final ExceptionMode exceptionMode;
+    private final TicketPricing ticketPricing;
+    private final OrderRules orderRules;
+
+    public TicketOrderEvaluator() {
+        this(ExceptionMode.WITH_STACK_TRACE);
+    }
+
+    public TicketOrderEvaluator(ExceptionMode exceptionMode) {
+        this(exceptionMode, TicketPricing.STANDARD);
+    }
+
+    public TicketOrderEvaluator(ExceptionMode exceptionMode, TicketPricing ticketPricing) {
+        this(exceptionMode, ticketPricing, OrderRules.STANDARD);
+    }
+
+    public TicketOrderEvaluator(ExceptionMode exceptionMode, TicketPricing ticketPricing, OrderRules orderRules) {
+        this.exceptionMode = exceptionMode;
+        this.ticketPricing = ticketPricing;
+        this.orderRules = orderRules;
+    }
+
+    public TicketOrderEvaluation evaluate(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        return evaluate(TicketPricing.NO_SCREENING, accountId, ticketTypeRequests);
+    }
+
+    public TicketOrderEvaluation evaluate(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests)
+        throws InvalidPurchaseException {
+        TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+        evaluate(screeningId, accountId, ticketTypeRequests, evaluation);
+        return evaluation;
+    }
+
+    public void evaluate(Long accountId, TicketTypeRequest[] ticketTypeRequests, TicketOrderEvaluation evaluation)
+        throws InvalidPurchaseException {
+        evaluate(TicketPricing.NO_SCREENING, accountId, ticketTypeRequests, evaluation);
+    }
+
+    public void evaluate(long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests, TicketOrderEvaluation evaluation)
+        throws InvalidPurchaseException {
+        ValidationResult result = validate(screeningId, accountId, ticketTypeRequests, evaluation);
+        if (!result.isValid()) {
+            throw createInvalidPurchaseException(result, evaluation);
+        }
+    }
+
+    public ValidationResult validate(Long accountId, TicketTypeRequest[] ticketTypeRequests, TicketOrderEvaluation evaluation) {
+        return validate(TicketPricing.NO_SCREENING, accountId, ticketTypeRequests, evaluation);
+    }
+
+    /**
+     * Fills in the evaluation whether or not the order is valid, and reports the first rule it breaks instead of
+     * throwing.
+     */
+    public ValidationResult validate(long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests,
+                                     TicketOrderEvaluation evaluation) {
+        int nrOfAdultTickets = 0;
+        int nrOfChildTickets = 0;
+        int nrOfInfantTickets = 0;
+        boolean containsAdultTicket = false;
+
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            TicketTypeRequest.Type type = ticketTypeRequest.getTicketType();
+            int noOfTickets = ticketTypeRequest.getNoOfTickets();
+            if (type == ADULT) {
+                nrOfAdultTickets += noOfTickets;
+                if (noOfTickets > 0) {
+                    containsAdultTicket = true;
+                }
+            } else if (type == CHILD) {
+                nrOfChildTickets += noOfTickets;
+            } else {
+                nrOfInfantTickets += noOfTickets;
+            }
+        }
+
+        int totalNrOfTickets = nrOfAdultTickets + nrOfChildTickets + nrOfInfantTickets;
+        int totalNrOfReservations = nrOfAdultTickets + nrOfChildTickets;
+        int totalCostOfTickets = ticketPricing.getTotalCost(screeningId, nrOfAdultTickets, nrOfChildTickets, nrOfInfantTickets);
+        evaluation.set(totalNrOfTickets, totalNrOfReservations, totalCostOfTickets, containsAdultTicket);
+        evaluation.setNrOfTicketsByType(nrOfAdultTickets, nrOfChildTickets, nrOfInfantTickets);
+        return orderRules.check(screeningId, accountId, evaluation);
+    }
+
+    private InvalidPurchaseException createInvalidPurchaseException(ValidationResult result, TicketOrderEvaluation evaluation) {
+        boolean stackless = exceptionMode == ExceptionMode.STACKLESS;
+        switch (result) {
+            case NO_TICKETS_ORDERED:
+                return stackless ? NoTicketsOrderedException.stackless() : new NoTicketsOrderedException();
+            case NO_ADULT_TICKETS_REQUESTED:
+                return stackless ? NoAdultTicketsRequestedException.stackless() : new NoAdultTicketsRequestedException();
+            case INVALID_ACCOUNT_NUMBER:
+                return stackless ? InvalidAccountNumberException.stackless() : new InvalidAccountNumberException();
+            case MAXIMUM_NR_OF_TICKETS_EXCEEDED:
+                int maximumNrOfTickets = evaluation.getExceededLimit();
+                int totalNrOfTickets = evaluation.getTotalNrOfTickets();
+                return stackless
+                       ? MaximumNrOfTicketsAllowedExceededException.stackless(maximumNrOfTickets, totalNrOfTickets)
+                       : new MaximumNrOfTicketsAllowedExceededException(maximumNrOfTickets, totalNrOfTickets);
+            case TOO_MANY_INFANTS_PER_ADULT:
+                int maximumPerAdult = evaluation.getExceededLimit();
+                int nrOfInfantTickets = evaluation.getNrOfInfantTickets();
+                int nrOfAdultTickets = evaluation.getNrOfAdultTickets();
+                return stackless
+                       ? TooManyInfantsPerAdultException.stackless(maximumPerAdult, nrOfInfantTickets, nrOfAdultTickets)
+                       : new TooManyInfantsPerAdultException(maximumPerAdult, nrOfInfantTickets, nrOfAdultTickets);
+            default:
+                throw new IllegalArgumentException("Not a rejection: " + result);
+        }
+    }
+
+    /**
+     * Whether rejections capture a stack trace. {@link #STACKLESS} throws shared instances where the exception carries
+     * no state, which is much cheaper when most of the traffic is invalid.
+     */
+    public enum ExceptionMode {
+        WITH_STACK_TRACE, STACKLESS
+    }
+}
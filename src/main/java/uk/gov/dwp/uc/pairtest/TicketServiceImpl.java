@@ -1,104 +1,145 @@
 package uk.gov.dwp.uc.pairtest;
 
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
-import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.events.ConsolePurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
-import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
-import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
-import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.hold.HashedTimerWheel;
+import uk.gov.dwp.uc.pairtest.hold.SeatHold;
+import uk.gov.dwp.uc.pairtest.hold.SeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocator;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.Duration;
 
-import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
 
-import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
 
-
-public class TicketServiceImpl implements TicketService {
+public class TicketServiceImpl implements TicketService, ScreeningTicketService, AutoCloseable {
 
     public static final int MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED = 20;
+    public static final Duration PURCHASE_SEAT_HOLD_TIME_TO_LIVE = Duration.ofMinutes(2);
 
     private final SeatReservationService seatReservationService;
-    private final TicketPaymentServiceImpl ticketPaymentService;
-
-    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentServiceImpl ticketPaymentService) {
-        this.seatReservationService = seatReservationService;
-        this.ticketPaymentService = ticketPaymentService;
+    private final TicketPaymentService ticketPaymentService;
+    private final TicketOrderEvaluator ticketOrderEvaluator;
+    private final PurchaseEventSink purchaseEventSink;
+    private final HashedTimerWheel timerWheel;
+    private final SeatHoldService seatHoldService;
+    private final PurchaseJournal purchaseJournal;
+    private final ThreadLocal<TicketOrderEvaluation> evaluations = ThreadLocal.withInitial(TicketOrderEvaluation::new);
+
+    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService) {
+        this(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(), new ConsolePurchaseEventSink());
     }
 
-    /**
-     * Should only have private methods other than the one below.
-     */
-    @Override
-    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
-        List<TicketTypeRequest> allTicketRequests = Arrays.stream(ticketTypeRequests).collect(Collectors.toList());
-        int totalNrOfTickets = getTotalNrOfTicketsRequested(allTicketRequests);
-        throwInvalidPurchaseExceptionIfNotAValidTicketRequest(accountId, totalNrOfTickets, allTicketRequests);
-        int totalNrOfReservations = getTotalNrOfReservedSeatsRequired(allTicketRequests);
-        int totalCostOfTickets = calculateTotalCostOfTickets(allTicketRequests);
-        reserveSeatsAndPurchaseTickets(accountId, totalNrOfReservations, totalNrOfTickets, totalCostOfTickets);
+    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                             TicketOrderEvaluator ticketOrderEvaluator, PurchaseEventSink purchaseEventSink) {
+        this(seatReservationService, ticketPaymentService, ticketOrderEvaluator, purchaseEventSink, new SeatInventory());
     }
 
-    private int getTotalNrOfTicketsRequested(List<TicketTypeRequest> requests) {
-        return requests.stream()
-            .map(TicketTypeRequest::getNoOfTickets)
-            .mapToInt(Integer::intValue)
-            .sum();
+    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                             TicketOrderEvaluator ticketOrderEvaluator, PurchaseEventSink purchaseEventSink,
+                             SeatAllocator seatAllocator) {
+        this(seatReservationService, ticketPaymentService, ticketOrderEvaluator, purchaseEventSink, seatAllocator,
+             PurchaseJournal.NONE);
     }
 
-    private int getTotalNrOfReservedSeatsRequired(List<TicketTypeRequest> requests) {
-        return requests.stream()
-            .filter(ticketTypeRequest -> ticketTypeRequest.getTicketType() != INFANT)
-            .map(TicketTypeRequest::getNoOfTickets)
-            .mapToInt(Integer::intValue)
-            .sum();
+    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                             TicketOrderEvaluator ticketOrderEvaluator, PurchaseEventSink purchaseEventSink,
+                             SeatAllocator seatAllocator, PurchaseJournal purchaseJournal) {
+        this(seatReservationService, ticketPaymentService, ticketOrderEvaluator, purchaseEventSink, seatAllocator, purchaseJournal,
+             new HashedTimerWheel());
     }
 
-    private int calculateTotalCostOfTickets(List<TicketTypeRequest> requests) {
-        return requests.stream()
-            .map(TicketTypeRequest::getTotalCostForTicketType)
-            .mapToInt(Integer::intValue)
-            .sum();
+    /**
+     * @param timerWheel expires the seat holds of screening purchases, and is closed with this service
+     */
+    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                             TicketOrderEvaluator ticketOrderEvaluator, PurchaseEventSink purchaseEventSink,
+                             SeatAllocator seatAllocator, PurchaseJournal purchaseJournal, HashedTimerWheel timerWheel) {
+        this.seatReservationService = seatReservationService;
+        this.ticketPaymentService = ticketPaymentService;
+        this.ticketOrderEvaluator = ticketOrderEvaluator;
+        this.purchaseEventSink = purchaseEventSink;
+        this.timerWheel = timerWheel;
+        this.seatHoldService = new SeatHoldService(seatAllocator, seatReservationService, timerWheel);
+        this.purchaseJournal = purchaseJournal;
     }
 
-    private boolean checkContainsAtLeastOneAdultTicket(List<TicketTypeRequest> allTicketRequests) {
-        List<TicketTypeRequest> adultTicketTypeRequest = allTicketRequests.stream()
-            .filter(ticketTypeRequest -> ticketTypeRequest.getTicketType() == ADULT)
-            .filter(ticketTypeRequest -> ticketTypeRequest.getNoOfTickets() > 0)
-            .collect(Collectors.toList());
-
-        if (adultTicketTypeRequest.isEmpty()) {
-            return true;
-        }
-
-        return false;
+    /**
+     * Should only have private methods other than the purchase methods below. Each thread evaluates its orders into one
+     * reused {@link TicketOrderEvaluation}, whose totals are read before any gateway is called.
+     */
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        TicketOrderEvaluation evaluation = evaluations.get();
+        ticketOrderEvaluator.evaluate(accountId, ticketTypeRequests, evaluation);
+        reserveSeatsAndPurchaseTickets(accountId, ticketTypeRequests, evaluation.getTotalNrOfReservations(),
+                                       evaluation.getTotalNrOfTickets(), evaluation.getTotalCostOfTickets());
     }
 
-    private void throwInvalidPurchaseExceptionIfNotAValidTicketRequest(Long accountId, int totalNrOfTickets, List<TicketTypeRequest> allTicketRequests) {
-        if (totalNrOfTickets == 0) {
-            throw new NoTicketsOrderedException();
-        }
-
-        if (checkContainsAtLeastOneAdultTicket(allTicketRequests)) {
-            throw new NoAdultTicketsRequestedException();
-        }
-
-        if ((accountId == null) || (accountId < 1)) {
-            throw new InvalidAccountNumberException();
+    /**
+     * Holds the seats in the screening before any gateway is called and reserves them with the seat booking gateway
+     * before paying, so that nothing can fail once the customer has been charged. If the payment fails, the seats go
+     * back to the screening. If it may still go through, the seats stay taken and the purchase stays open in the journal
+     * for the reconciler.
+     */
+    @Override
+    public SeatAllocation purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests)
+        throws InvalidPurchaseException {
+        TicketOrderEvaluation evaluation = evaluations.get();
+        ticketOrderEvaluator.evaluate(screeningId, accountId, ticketTypeRequests, evaluation);
+        int totalNrOfTickets = evaluation.getTotalNrOfTickets();
+        int totalNrOfReservations = evaluation.getTotalNrOfReservations();
+        int totalCostOfTickets = evaluation.getTotalCostOfTickets();
+        SeatHold hold = seatHoldService.hold(screeningId, accountId, totalNrOfReservations, PURCHASE_SEAT_HOLD_TIME_TO_LIVE);
+        purchaseEventSink.ticketsPurchased(accountId, totalNrOfTickets, totalNrOfReservations, totalCostOfTickets);
+        long purchaseId = purchaseJournal.purchaseStarted(accountId, ticketTypeRequests, totalCostOfTickets);
+        SeatAllocation seatAllocation;
+        try {
+            seatAllocation = seatHoldService.confirm(hold);
+            purchaseJournal.seatsReserved(purchaseId);
+            ticketPaymentService.makePayment(accountId, totalCostOfTickets);
+            purchaseJournal.paymentTaken(purchaseId);
+        } catch (RuntimeException e) {
+            if (!GatewayUnavailableException.isOutcomeUnknown(e)) {
+                seatHoldService.releaseConfirmed(hold);
+                purchaseJournal.purchaseFailed(purchaseId);
+            }
+            throw e;
         }
+        purchaseJournal.purchaseCompleted(purchaseId);
+        return seatAllocation;
+    }
 
-        if (totalNrOfTickets > MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED) {
-            throw new MaximumNrOfTicketsAllowedExceededException(MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED, totalNrOfTickets);
-        }
+    /**
+     * Stops expiring seat holds, giving back the seats of any still pending.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        timerWheel.close();
     }
 
-    private void reserveSeatsAndPurchaseTickets(Long accountId, int totalNrOfReservations, int totalNrOfTickets, int totalCostOfTickets) {
-        System.out.println(String.format("Purchasing %s tickets with %s seats at a cost of £%s for accountId=%s",
-                                         totalNrOfTickets, totalNrOfReservations, totalCostOfTickets, accountId));
-        seatReservationService.reserveSeat(accountId, totalNrOfReservations);
-        ticketPaymentService.makePayment(accountId, totalCostOfTickets);
+    private void reserveSeatsAndPurchaseTickets(Long accountId, TicketTypeRequest[] ticketTypeRequests, int totalNrOfReservations,
+                                                int totalNrOfTickets, int totalCostOfTickets) {
+        purchaseEventSink.ticketsPurchased(accountId, totalNrOfTickets, totalNrOfReservations, totalCostOfTickets);
+        long purchaseId = purchaseJournal.purchaseStarted(accountId, ticketTypeRequests, totalCostOfTickets);
+        try {
+            seatReservationService.reserveSeat(accountId, totalNrOfReservations);
+            purchaseJournal.seatsReserved(purchaseId);
+            ticketPaymentService.makePayment(accountId, totalCostOfTickets);
+            purchaseJournal.paymentTaken(purchaseId);
+        } catch (RuntimeException e) {
+            if (!GatewayUnavailableException.isOutcomeUnknown(e)) {
+                purchaseJournal.purchaseFailed(purchaseId);
+            }
+            throw e;
+        }
+        purchaseJournal.purchaseCompleted(purchaseId);
     }
 }
@@ -0,0 +1,14 @@
+package uk.gov.dwp.uc.pairtest;
+
+/**
+ * Result code from {@link TicketOrderEvaluator#validate}, one per {@link uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException}
+ * subclass, for callers that want to reject orders without throwing.
+ */
+public enum ValidationResult {
+    VALID, NO_TICKETS_ORDERED, NO_ADULT_TICKETS_REQUESTED, INVALID_ACCOUNT_NUMBER, MAXIMUM_NR_OF_TICKETS_EXCEEDED,
+    TOO_MANY_INFANTS_PER_ADULT;
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
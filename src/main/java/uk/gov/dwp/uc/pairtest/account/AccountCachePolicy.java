@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+import java.time.Duration;
+
+/**
+ * How many accounts a {@link CachingAccountValidationService} remembers and for how long. Invalid accounts are
+ * remembered too, usually for less time than valid ones, so that an account that is opened is soon let through.
+ * <p>
+ * With a refresh ahead, an account looked up within that long of its entry expiring is looked up again in the
+ * background while the cached answer is still given, so that accounts in regular use never have to wait for the
+ * account system.
+ */
+public final class AccountCachePolicy {
+
+    private final int maximumSize;
+    private final Duration validTimeToLive;
+    private final Duration invalidTimeToLive;
+    private final Duration refreshAhead;
+
+    private AccountCachePolicy(int maximumSize, Duration validTimeToLive, Duration invalidTimeToLive, Duration refreshAhead) {
+        this.maximumSize = maximumSize;
+        this.validTimeToLive = validTimeToLive;
+        this.invalidTimeToLive = invalidTimeToLive;
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * @param maximumSize the most accounts remembered at once; those not looked up recently are forgotten first
+     */
+    public static AccountCachePolicy of(int maximumSize, Duration validTimeToLive, Duration invalidTimeToLive) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1 but was " + maximumSize);
+        }
+        requirePositive("validTimeToLive", validTimeToLive);
+        requirePositive("invalidTimeToLive", invalidTimeToLive);
+        return new AccountCachePolicy(maximumSize, validTimeToLive, invalidTimeToLive, Duration.ZERO);
+    }
+
+    public AccountCachePolicy withRefreshAhead(Duration refreshAhead) {
+        if (refreshAhead.isNegative() || (refreshAhead.compareTo(validTimeToLive) >= 0)
+            || (refreshAhead.compareTo(invalidTimeToLive) >= 0)) {
+            throw new IllegalArgumentException("refreshAhead must be at least zero and less than both times to live but was "
+                                               + refreshAhead);
+        }
+        return new AccountCachePolicy(maximumSize, validTimeToLive, invalidTimeToLive, refreshAhead);
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getValidTimeToLive() {
+        return validTimeToLive;
+    }
+
+    public Duration getInvalidTimeToLive() {
+        return invalidTimeToLive;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    @Override
+    public String toString() {
+        return maximumSize + " accounts, valid for " + validTimeToLive + ", invalid for " + invalidTimeToLive
+               + ", refreshed " + refreshAhead + " ahead";
+    }
+
+    private static void requirePositive(String name, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive but was " + duration);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.validation.OrderRules;
+
+/**
+ * Checks the account of an order with an {@link AccountValidationService} once the order has kept to every other
+ * rule, so that orders rejected anyway never cost a lookup. An account the service does not know is reported as
+ * {@link ValidationResult#INVALID_ACCOUNT_NUMBER}.
+ * <p>
+ * Unlike most {@link OrderRules} this may block, while the account is looked up; use a
+ * {@link CachingAccountValidationService} so that it rarely does.
+ */
+public class AccountValidatingOrderRules implements OrderRules {
+
+    private final OrderRules orderRules;
+    private final AccountValidationService accountValidationService;
+
+    public AccountValidatingOrderRules(OrderRules orderRules, AccountValidationService accountValidationService) {
+        this.orderRules = orderRules;
+        this.accountValidationService = accountValidationService;
+    }
+
+    @Override
+    public ValidationResult check(long screeningId, Long accountId, TicketOrderEvaluation evaluation) {
+        ValidationResult result = orderRules.check(screeningId, accountId, evaluation);
+        if (result.isValid() && ((accountId == null) || !accountValidationService.isValidAccount(accountId))) {
+            return ValidationResult.INVALID_ACCOUNT_NUMBER;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+/**
+ * Tells whether an account exists and may buy tickets. Asking the account system is slow, so put a
+ * {@link CachingAccountValidationService} in front of a real implementation.
+ */
+public interface AccountValidationService {
+
+    /**
+     * The check as it has always been: any account id above zero is valid.
+     */
+    AccountValidationService STANDARD = accountId -> accountId > 0;
+
+    boolean isValidAccount(long accountId);
+}
@@ -0,0 +1,389 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers what an {@link AccountValidationService} said about each account, as set out by an
+ * {@link AccountCachePolicy}, so that most checks never reach the account system.
+ * <p>
+ * An account missing from the cache is looked up on the calling thread; any other thread asking about the same account
+ * meanwhile waits for that lookup rather than making its own, so a burst of orders for a new account costs one call. A
+ * failed lookup is not remembered, and is rethrown to every thread that waited for it. Account ids below one are never
+ * valid and are not looked up.
+ * <p>
+ * Accounts are held in open addressing tables of primitive arrays, split into segments each guarded by its own lock,
+ * so a hit does not allocate. When a segment is full, the account to forget is picked by a clock hand that passes over
+ * accounts hit since it last came round, which keeps the accounts in regular use over those only looked up once.
+ */
+public class CachingAccountValidationService implements AccountValidationService {
+
+    public static final int DEFAULT_NR_OF_SEGMENTS = 64;
+
+    private static final int MINIMUM_SEGMENT_CAPACITY = 16;
+    private static final byte REFERENCED = 1;
+    private static final byte REFRESHING = 2;
+
+    private final AccountValidationService accountValidationService;
+    private final Executor refreshExecutor;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long validTimeToLiveNanos;
+    private final long invalidTimeToLiveNanos;
+    private final long refreshAheadNanos;
+    private final LongSupplier clock;
+
+    private final LongAdder nrOfHits = new LongAdder();
+    private final LongAdder nrOfMisses = new LongAdder();
+    private final LongAdder nrOfLoads = new LongAdder();
+    private final LongAdder nrOfRefreshes = new LongAdder();
+
+    /**
+     * @param refreshExecutor runs the lookups that refresh accounts ahead of their expiry
+     */
+    public CachingAccountValidationService(AccountValidationService accountValidationService, AccountCachePolicy policy,
+                                           Executor refreshExecutor) {
+        this(accountValidationService, policy, refreshExecutor, DEFAULT_NR_OF_SEGMENTS, System::nanoTime);
+    }
+
+    CachingAccountValidationService(AccountValidationService accountValidationService, AccountCachePolicy policy,
+                                    Executor refreshExecutor, int nrOfSegments, LongSupplier clock) {
+        if ((nrOfSegments < 1) || (Integer.bitCount(nrOfSegments) != 1)) {
+            throw new IllegalArgumentException("nrOfSegments must be a power of two but was " + nrOfSegments);
+        }
+        if (policy.getMaximumSize() < nrOfSegments) {
+            throw new IllegalArgumentException("maximumSize must be at least " + nrOfSegments + " but was "
+                                               + policy.getMaximumSize());
+        }
+        this.accountValidationService = accountValidationService;
+        this.refreshExecutor = refreshExecutor;
+        this.segments = new Segment[nrOfSegments];
+        for (int i = 0; i < nrOfSegments; i++) {
+            segments[i] = new Segment(policy.getMaximumSize() / nrOfSegments);
+        }
+        this.segmentMask = nrOfSegments - 1;
+        this.validTimeToLiveNanos = policy.getValidTimeToLive().toNanos();
+        this.invalidTimeToLiveNanos = policy.getInvalidTimeToLive().toNanos();
+        this.refreshAheadNanos = policy.getRefreshAhead().toNanos();
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean isValidAccount(long accountId) {
+        if (accountId < 1) {
+            return false;
+        }
+        long hash = hash(accountId);
+        Segment segment = segmentFor(hash);
+        boolean valid = false;
+        boolean refresh = false;
+        CompletableFuture<Boolean> inFlight = null;
+        CompletableFuture<Boolean> load = null;
+        synchronized (segment) {
+            long now = clock.getAsLong();
+            int slot = segment.find(accountId, hash);
+            if (slot < 0) {
+                load = new CompletableFuture<>();
+                segment.insert(accountId, hash, load, now);
+            } else if (segment.values[slot] instanceof Boolean) {
+                if ((now - segment.expiresAt[slot]) < 0) {
+                    valid = (Boolean) segment.values[slot];
+                    byte flags = segment.flags[slot];
+                    refresh = ((flags & REFRESHING) == 0) && ((now - segment.refreshAt[slot]) >= 0);
+                    segment.flags[slot] = (byte) (flags | REFERENCED | (refresh ? REFRESHING : 0));
+                } else {
+                    load = new CompletableFuture<>();
+                    segment.startLoad(slot, load);
+                }
+            } else {
+                inFlight = asLoad(segment.values[slot]);
+            }
+        }
+
+        if (load != null) {
+            nrOfMisses.increment();
+            return load(accountId, hash, segment, load);
+        }
+        if (inFlight != null) {
+            nrOfMisses.increment();
+            return await(inFlight);
+        }
+        nrOfHits.increment();
+        if (refresh) {
+            refreshInBackground(accountId, hash, segment);
+        }
+        return valid;
+    }
+
+    public long getNrOfHits() {
+        return nrOfHits.sum();
+    }
+
+    /**
+     * @return the checks that had to wait for the account system, whether they looked the account up themselves or
+     * waited for another thread doing so
+     */
+    public long getNrOfMisses() {
+        return nrOfMisses.sum();
+    }
+
+    /**
+     * @return the lookups made for checks that missed, not counting refreshes
+     */
+    public long getNrOfLoads() {
+        return nrOfLoads.sum();
+    }
+
+    public long getNrOfRefreshes() {
+        return nrOfRefreshes.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    private boolean load(long accountId, long hash, Segment segment, CompletableFuture<Boolean> load) {
+        nrOfLoads.increment();
+        boolean valid;
+        try {
+            valid = accountValidationService.isValidAccount(accountId);
+        } catch (RuntimeException | Error e) {
+            synchronized (segment) {
+                int slot = segment.find(accountId, hash);
+                if ((slot >= 0) && (segment.values[slot] == load)) {
+                    segment.removeAt(slot);
+                }
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (segment) {
+            int slot = segment.find(accountId, hash);
+            if ((slot >= 0) && (segment.values[slot] == load)) {
+                store(segment, slot, valid, clock.getAsLong(), (byte) 0);
+            }
+        }
+        load.complete(valid);
+        return valid;
+    }
+
+    private void refreshInBackground(long accountId, long hash, Segment segment) {
+        try {
+            refreshExecutor.execute(() -> refresh(accountId, hash, segment));
+        } catch (RejectedExecutionException e) {
+            clearRefreshing(accountId, hash, segment);
+        }
+    }
+
+    /**
+     * Keeps the answer already cached if the lookup fails, so that the next hit tries again, until the entry expires.
+     */
+    private void refresh(long accountId, long hash, Segment segment) {
+        nrOfRefreshes.increment();
+        boolean valid;
+        try {
+            valid = accountValidationService.isValidAccount(accountId);
+        } catch (RuntimeException e) {
+            clearRefreshing(accountId, hash, segment);
+            return;
+        }
+        synchronized (segment) {
+            int slot = segment.find(accountId, hash);
+            if ((slot >= 0) && (segment.values[slot] instanceof Boolean)) {
+                store(segment, slot, valid, clock.getAsLong(), (byte) (segment.flags[slot] & ~REFRESHING));
+            }
+        }
+    }
+
+    private static void clearRefreshing(long accountId, long hash, Segment segment) {
+        synchronized (segment) {
+            int slot = segment.find(accountId, hash);
+            if (slot >= 0) {
+                segment.flags[slot] &= ~REFRESHING;
+            }
+        }
+    }
+
+    private void store(Segment segment, int slot, boolean valid, long now, byte flags) {
+        long expiresAt = now + (valid ? validTimeToLiveNanos : invalidTimeToLiveNanos);
+        segment.values[slot] = valid;
+        segment.expiresAt[slot] = expiresAt;
+        segment.refreshAt[slot] = refreshAheadNanos > 0 ? expiresAt - refreshAheadNanos : expiresAt;
+        segment.flags[slot] = flags;
+    }
+
+    private static boolean await(CompletableFuture<Boolean> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Boolean> asLoad(Object value) {
+        return (CompletableFuture<Boolean>) value;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    private static long hash(long accountId) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * A linear probing table of accounts, holding either the cached answer or the lookup in flight for each. Starts
+     * small and doubles up to what the maximum size needs. Only touched while holding the segment's lock.
+     */
+    private static final class Segment {
+
+        private final int maximumSize;
+        private long[] accountIds;
+        private long[] expiresAt;
+        private long[] refreshAt;
+        private byte[] flags;
+        private Object[] values;
+        private int mask;
+        private int size;
+        private int hand;
+
+        private Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+            allocateTable(MINIMUM_SEGMENT_CAPACITY);
+        }
+
+        private int find(long accountId, long hash) {
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                if (accountIds[slot] == accountId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long accountId, long hash, CompletableFuture<Boolean> load, long now) {
+            if (size >= maximumSize) {
+                evictOne(now);
+            }
+            if ((size + 1) > (values.length >>> 1)) {
+                rehash(values.length << 1);
+            }
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            accountIds[slot] = accountId;
+            startLoad(slot, load);
+            size++;
+        }
+
+        private void startLoad(int slot, CompletableFuture<Boolean> load) {
+            values[slot] = load;
+            flags[slot] = 0;
+        }
+
+        /**
+         * Forgets the first account the hand comes to that has expired or has not been hit since the hand last passed
+         * it. Accounts being looked up are never forgotten, so if every account is, the segment is allowed to
+         * grow past its maximum size until the lookups finish.
+         */
+        private void evictOne(long now) {
+            for (int i = 0; i < (2 * values.length); i++) {
+                int slot = hand;
+                hand = (hand + 1) & mask;
+                if (values[slot] instanceof Boolean) {
+                    if (((flags[slot] & REFERENCED) == 0) || ((now - expiresAt[slot]) >= 0)) {
+                        removeAt(slot);
+                        return;
+                    }
+                    flags[slot] &= ~REFERENCED;
+                }
+            }
+        }
+
+        /**
+         * Backward shift deletion: moves later entries of the probe sequence up into the gap so that lookups never
+         * need tombstones.
+         */
+        private void removeAt(int slot) {
+            int gap = slot;
+            int next = gap;
+            while (true) {
+                next = (next + 1) & mask;
+                if (values[next] == null) {
+                    break;
+                }
+                int home = (int) hash(accountIds[next]) & mask;
+                boolean homeBetweenGapAndNext = gap <= next ? (gap < home) && (home <= next) : (gap < home) || (home <= next);
+                if (!homeBetweenGapAndNext) {
+                    move(next, gap);
+                    gap = next;
+                }
+            }
+            values[gap] = null;
+            size--;
+        }
+
+        private void move(int from, int to) {
+            accountIds[to] = accountIds[from];
+            expiresAt[to] = expiresAt[from];
+            refreshAt[to] = refreshAt[from];
+            flags[to] = flags[from];
+            values[to] = values[from];
+        }
+
+        private void rehash(int capacity) {
+            long[] oldAccountIds = accountIds;
+            long[] oldExpiresAt = expiresAt;
+            long[] oldRefreshAt = refreshAt;
+            byte[] oldFlags = flags;
+            Object[] oldValues = values;
+            allocateTable(capacity);
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = (int) hash(oldAccountIds[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    accountIds[slot] = oldAccountIds[i];
+                    expiresAt[slot] = oldExpiresAt[i];
+                    refreshAt[slot] = oldRefreshAt[i];
+                    flags[slot] = oldFlags[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+            hand = 0;
+        }
+
+        private void allocateTable(int capacity) {
+            accountIds = new long[capacity];
+            expiresAt = new long[capacity];
+            refreshAt = new long[capacity];
+            flags = new byte[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+}
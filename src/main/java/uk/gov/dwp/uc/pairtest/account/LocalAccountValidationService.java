@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongPredicate;
+
+/**
+ * Stands in for the account system: answers from a predicate, by default {@link AccountValidationService#STANDARD},
+ * after waiting as long as a call to the real system would take. The wait parks the thread rather than spinning, as a
+ * thread blocked on the network would.
+ */
+public class LocalAccountValidationService implements AccountValidationService {
+
+    private final long latencyNanos;
+    private final LongPredicate validAccounts;
+    private final LongAdder nrOfLookups = new LongAdder();
+
+    public LocalAccountValidationService(Duration latency) {
+        this(latency, AccountValidationService.STANDARD::isValidAccount);
+    }
+
+    public LocalAccountValidationService(Duration latency, LongPredicate validAccounts) {
+        this.latencyNanos = latency.toNanos();
+        this.validAccounts = validAccounts;
+    }
+
+    @Override
+    public boolean isValidAccount(long accountId) {
+        nrOfLookups.increment();
+        long deadline = System.nanoTime() + latencyNanos;
+        long remaining = latencyNanos;
+        while ((remaining > 0) && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return validAccounts.test(accountId);
+    }
+
+    public long getNrOfLookups() {
+        return nrOfLookups.sum();
+    }
+}
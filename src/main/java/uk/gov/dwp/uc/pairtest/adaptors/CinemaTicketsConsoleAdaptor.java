@@ -1,25 +1,39 @@
 package uk.gov.dwp.uc.pairtest.adaptors;
 
 import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.codec.DecodeResult;
+import uk.gov.dwp.uc.pairtest.codec.DecodedOrder;
+import uk.gov.dwp.uc.pairtest.codec.OrderDecoder;
 import uk.gov.dwp.uc.pairtest.domain.TicketOrderRequest;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequestFactory;
+import uk.gov.dwp.uc.pairtest.events.ConsolePurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
 import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
 import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
 import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
 import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyInfantsPerAdultException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CinemaTicketsConsoleAdaptor {
 
     private final TicketService ticketService;
     private final TicketTypeRequestFactory ticketTypeRequestFactory;
+    private final PurchaseEventSink purchaseEventSink;
+    private final OrderDecoder orderDecoder = new OrderDecoder();
 
     public CinemaTicketsConsoleAdaptor(TicketService ticketService, TicketTypeRequestFactory ticketTypeRequestFactory) {
+        this(ticketService, ticketTypeRequestFactory, new ConsolePurchaseEventSink());
+    }
+
+    public CinemaTicketsConsoleAdaptor(TicketService ticketService, TicketTypeRequestFactory ticketTypeRequestFactory,
+                                       PurchaseEventSink purchaseEventSink) {
         this.ticketService = ticketService;
         this.ticketTypeRequestFactory = ticketTypeRequestFactory;
+        this.purchaseEventSink = purchaseEventSink;
     }
 
     public void processPurchase(long accountNumber, List<String> requestedTicketNumbers) {
@@ -28,11 +42,18 @@ public class CinemaTicketsConsoleAdaptor {
         tryToPurchaseTickets(accountNumber, ticketTypeRequests);
     }
 
-    private TicketOrderRequest createTicketOrderRequest(List<String> requestedTicketNumbersStrings) {
-        List<Integer> requestedTicketNumbers = requestedTicketNumbersStrings.stream()
-            .map(Integer::parseInt)
-            .collect(Collectors.toList());
-        return new TicketOrderRequest(requestedTicketNumbers.get(0), requestedTicketNumbers.get(1), requestedTicketNumbers.get(2));
+    /**
+     * @throws IllegalArgumentException if a ticket number cannot be read
+     */
+    private TicketOrderRequest createTicketOrderRequest(List<String> requestedTicketNumbers) {
+        DecodedOrder decodedOrder = new DecodedOrder();
+        DecodeResult result = orderDecoder.decodeTicketCounts(requestedTicketNumbers, decodedOrder);
+        if (!result.isDecoded()) {
+            throw new IllegalArgumentException("Could not read the " + DecodedOrder.describeField(decodedOrder.getFailedField())
+                                               + ": " + result);
+        }
+        return new TicketOrderRequest(decodedOrder.getNrOfAdultTickets(), decodedOrder.getNrOfChildTickets(),
+                                      decodedOrder.getNrOfInfantTickets());
     }
 
     private void tryToPurchaseTickets(long accountNumber, List<TicketTypeRequest> ticketTypeRequests) {
@@ -40,15 +61,17 @@ public class CinemaTicketsConsoleAdaptor {
             TicketTypeRequest[] ticketArray = ticketTypeRequests.toArray(TicketTypeRequest[]::new);
             ticketService.purchaseTickets(accountNumber, ticketArray);
         } catch (InvalidAccountNumberException e) {
-            System.out.println(String.format("Tickets ordering failed - invalid accountNumber=%s", accountNumber));
+            purchaseEventSink.purchaseRejected(accountNumber, ValidationResult.INVALID_ACCOUNT_NUMBER, 0, 0);
         } catch (MaximumNrOfTicketsAllowedExceededException e) {
-            System.out.println(
-                String.format("Tickets ordering failed - too many tickets requested maximumAllowed=%s numberOrdered=%s",
-                              e.getMaximumAllowed(), e.getNrOfTicketsOrdered()));
+            purchaseEventSink.purchaseRejected(accountNumber, ValidationResult.MAXIMUM_NR_OF_TICKETS_EXCEEDED,
+                                               e.getMaximumAllowed(), e.getNrOfTicketsOrdered());
         } catch (NoTicketsOrderedException e) {
-            System.out.println("Tickets ordering failed - no tickets were ordered");
+            purchaseEventSink.purchaseRejected(accountNumber, ValidationResult.NO_TICKETS_ORDERED, 0, 0);
         } catch (NoAdultTicketsRequestedException e) {
-            System.out.println("Tickets ordering failed - no adult tickets were ordered");
+            purchaseEventSink.purchaseRejected(accountNumber, ValidationResult.NO_ADULT_TICKETS_REQUESTED, 0, 0);
+        } catch (TooManyInfantsPerAdultException e) {
+            purchaseEventSink.purchaseRejected(accountNumber, ValidationResult.TOO_MANY_INFANTS_PER_ADULT, e.getMaximumPerAdult(),
+                                               e.getNrOfInfantTickets());
         }
     }
 }
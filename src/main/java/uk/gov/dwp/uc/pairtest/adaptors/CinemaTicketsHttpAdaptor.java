@@ -0,0 +1,350 @@
+package uk.gov.dwp.uc.pairtest.adaptors;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.codec.DecodeResult;
+import uk.gov.dwp.uc.pairtest.codec.DecodedOrder;
+import uk.gov.dwp.uc.pairtest.codec.JsonOrderDecoder;
+import uk.gov.dwp.uc.pairtest.codec.OrderDecoder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequestFactory;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.PrometheusTextFormat;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Takes purchases over HTTP/1.1: {@code POST /purchases} with an order as JSON ({@link JsonOrderDecoder}), as a line of
+ * an order file ({@code text/csv}) or as a 20 byte binary record of the account id and the three ticket counts
+ * ({@code application/octet-stream}). The outcome is given by the status code and body from
+ * {@link HttpPurchaseOutcome}. With {@link PurchaseMetrics}, {@code GET /metrics} answers in the Prometheus text format.
+ * <p>
+ * One thread does all the network I/O with a selector, reading and decoding requests straight from each connection's
+ * buffer, and hands the purchases to the executor so that it never waits on the gateways. Connections are kept alive
+ * unless the client asks otherwise, and requests may be pipelined: each connection answers in the order its requests
+ * came in, however the purchases finish. A connection with {@value #MAXIMUM_PIPELINED_REQUESTS} purchases in flight is
+ * not read from until some are answered, so a client cannot queue up unbounded work.
+ */
+public class CinemaTicketsHttpAdaptor implements AutoCloseable {
+
+    public static final int MAXIMUM_PIPELINED_REQUESTS = 64;
+    public static final int MAXIMUM_BODY_LENGTH = 4096;
+    public static final int BINARY_ORDER_LENGTH = Long.BYTES + (3 * Integer.BYTES);
+
+    private static final int READ_BUFFER_SIZE = 4 * MAXIMUM_BODY_LENGTH;
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
+    private final TicketService ticketService;
+    private final Executor purchaseExecutor;
+    private final PurchaseMetrics purchaseMetrics;
+    private final TicketTypeRequestFactory ticketTypeRequestFactory = new TicketTypeRequestFactory();
+    private final OrderDecoder orderDecoder = new OrderDecoder();
+    private final JsonOrderDecoder jsonOrderDecoder = new JsonOrderDecoder();
+    private final Queue<HttpConnection> answered = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread ioThread;
+    private volatile boolean running;
+
+    public CinemaTicketsHttpAdaptor(TicketService ticketService, Executor purchaseExecutor) {
+        this(ticketService, purchaseExecutor, null);
+    }
+
+    /**
+     * @param purchaseMetrics the metrics served on {@code /metrics}, or {@code null} for none
+     */
+    public CinemaTicketsHttpAdaptor(TicketService ticketService, Executor purchaseExecutor, PurchaseMetrics purchaseMetrics) {
+        this.ticketService = ticketService;
+        this.purchaseExecutor = purchaseExecutor;
+        this.purchaseMetrics = purchaseMetrics;
+    }
+
+    /**
+     * Listens on the address, which may have port 0 to take any free port, and starts the I/O thread.
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        if (running) {
+            throw new IllegalStateException("Already started");
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        ioThread = new Thread(this::run, "http-io");
+        ioThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops listening and closes every connection, without waiting for purchases in flight to be answered. The purchase
+     * executor is left running.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        ioThread.join();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(this::handle);
+                wakeUpRequested.set(false);
+                HttpConnection connection;
+                while ((connection = answered.poll()) != null) {
+                    writeResponses(connection);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The HTTP selector failed", e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        HttpConnection connection = (HttpConnection) key.attachment();
+        if (key.isReadable()) {
+            readRequests(connection);
+        }
+        if (key.isValid() && key.isWritable()) {
+            writeResponses(connection);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new HttpConnection(channel, key, READ_BUFFER_SIZE, WRITE_BUFFER_SIZE, MAXIMUM_BODY_LENGTH));
+            }
+        } catch (IOException e) {
+            // The client went away before it could be accepted
+        }
+    }
+
+    private void readRequests(HttpConnection connection) {
+        try {
+            if (connection.read()) {
+                connection.stopReading();
+            } else {
+                handleRequests(connection);
+            }
+        } catch (IOException e) {
+            connection.close();
+            return;
+        }
+        writeResponses(connection);
+    }
+
+    /**
+     * Handles every whole request read so far, up to the pipelining limit.
+     */
+    private void handleRequests(HttpConnection connection) {
+        ByteBuffer buffer = connection.getReadBuffer();
+        HttpRequest request = connection.getRequest();
+        int received = buffer.position();
+        while (!connection.isClosing() && (connection.getUnparsed() < received)
+               && (connection.getNrOfResponsesOwed() < MAXIMUM_PIPELINED_REQUESTS)) {
+            int end = request.parse(buffer, connection.getUnparsed(), received);
+            if (end == HttpRequest.INCOMPLETE) {
+                if (connection.isReadBufferFull()) {
+                    connection.respond(HttpResponses.error(431, false), true);
+                }
+                break;
+            }
+            connection.setUnparsed(end);
+            handle(connection, request, buffer);
+        }
+        connection.compactReadBuffer();
+    }
+
+    private void handle(HttpConnection connection, HttpRequest request, ByteBuffer buffer) {
+        boolean keepAlive = request.isKeepAlive();
+        if (request.getErrorStatusCode() != 0) {
+            connection.respond(HttpResponses.error(request.getErrorStatusCode(), false), true);
+        } else if (request.getTarget() == HttpRequest.Target.PURCHASES) {
+            if (request.getMethod() == HttpRequest.Method.POST) {
+                purchase(connection, request, buffer);
+            } else {
+                connection.respond(HttpResponses.error(405, keepAlive), !keepAlive);
+            }
+        } else if ((request.getTarget() == HttpRequest.Target.METRICS) && (purchaseMetrics != null)) {
+            if (request.getMethod() == HttpRequest.Method.GET) {
+                submit(connection, () -> metricsResponse(keepAlive), false, keepAlive);
+            } else {
+                connection.respond(HttpResponses.error(405, keepAlive), !keepAlive);
+            }
+        } else {
+            connection.respond(HttpResponses.error(404, keepAlive), !keepAlive);
+        }
+    }
+
+    private void purchase(HttpConnection connection, HttpRequest request, ByteBuffer buffer) {
+        boolean keepAlive = request.isKeepAlive();
+        boolean binary = request.getBodyFormat() == HttpRequest.BodyFormat.BINARY;
+        int bodyStart = request.getBodyStart();
+        int bodyEnd = request.getBodyEnd();
+        long accountId;
+        TicketTypeRequest[] ticketTypeRequests;
+        if (binary) {
+            if ((bodyEnd - bodyStart) != BINARY_ORDER_LENGTH) {
+                connection.respond(HttpResponses.purchase(HttpPurchaseOutcome.MALFORMED, true, keepAlive), !keepAlive);
+                return;
+            }
+            accountId = buffer.getLong(bodyStart);
+            ticketTypeRequests = ticketTypeRequestFactory.createTicketRequests(buffer.getInt(bodyStart + Long.BYTES),
+                                                                               buffer.getInt(bodyStart + Long.BYTES + Integer.BYTES),
+                                                                               buffer.getInt(bodyStart + Long.BYTES + (2 * Integer.BYTES)));
+        } else {
+            DecodedOrder order = connection.getDecodedOrder();
+            DecodeResult result;
+            if (request.getBodyFormat() == HttpRequest.BodyFormat.JSON) {
+                result = jsonOrderDecoder.decode(buffer, bodyStart, bodyEnd, order);
+            } else if (request.getBodyFormat() == HttpRequest.BodyFormat.CSV) {
+                result = orderDecoder.decode(buffer, bodyStart, trimLineEnd(buffer, bodyStart, bodyEnd), order);
+            } else {
+                connection.respond(HttpResponses.error(415, keepAlive), !keepAlive);
+                return;
+            }
+            if (!result.isDecoded()) {
+                connection.respond(HttpResponses.purchase(HttpPurchaseOutcome.MALFORMED, false, keepAlive), !keepAlive);
+                return;
+            }
+            accountId = order.getAccountId();
+            ticketTypeRequests = ticketTypeRequestFactory.createTicketRequests(order.getNrOfAdultTickets(),
+                                                                               order.getNrOfChildTickets(),
+                                                                               order.getNrOfInfantTickets());
+        }
+        submit(connection, () -> HttpResponses.purchase(purchase(accountId, ticketTypeRequests), binary, keepAlive), binary,
+               keepAlive);
+    }
+
+    private HttpPurchaseOutcome purchase(long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+            return HttpPurchaseOutcome.PURCHASED;
+        } catch (InvalidPurchaseException e) {
+            return HttpPurchaseOutcome.of(e);
+        } catch (GatewayUnavailableException e) {
+            return GatewayUnavailableException.isOutcomeUnknown(e) ? HttpPurchaseOutcome.OUTCOME_UNKNOWN
+                                                                   : HttpPurchaseOutcome.GATEWAY_UNAVAILABLE;
+        } catch (RuntimeException e) {
+            return HttpPurchaseOutcome.FAILED;
+        }
+    }
+
+    private byte[] metricsResponse(boolean keepAlive) {
+        byte[] body = PrometheusTextFormat.format(purchaseMetrics.snapshot()).getBytes(StandardCharsets.UTF_8);
+        return HttpResponses.encode(200, PrometheusTextFormat.CONTENT_TYPE, body, keepAlive);
+    }
+
+    /**
+     * Works out the response on the purchase executor and has the I/O thread write it, waking the selector only if no
+     * other thread has already asked it to wake up. Anything thrown while working out the response is answered as
+     * {@link HttpPurchaseOutcome#FAILED}, so that the connection is never left owing a response.
+     */
+    private void submit(HttpConnection connection, Supplier<byte[]> response, boolean binary, boolean keepAlive) {
+        HttpConnection.PendingResponse pending = connection.respondLater(!keepAlive);
+        try {
+            purchaseExecutor.execute(() -> {
+                byte[] bytes;
+                try {
+                    bytes = response.get();
+                } catch (Throwable t) {
+                    bytes = HttpResponses.purchase(HttpPurchaseOutcome.FAILED, binary, keepAlive);
+                }
+                pending.complete(bytes);
+                answered.add(connection);
+                if (wakeUpRequested.compareAndSet(false, true)) {
+                    selector.wakeup();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.complete(HttpResponses.purchase(HttpPurchaseOutcome.OVERLOADED, binary, keepAlive));
+        }
+    }
+
+    /**
+     * Writes what responses are ready, and reads again once a connection that hit the pipelining limit is below it.
+     */
+    private void writeResponses(HttpConnection connection) {
+        if (connection.isClosed()) {
+            return;
+        }
+        try {
+            boolean blocked = connection.write();
+            if (!blocked && !connection.isClosing() && (connection.getNrOfResponsesOwed() < MAXIMUM_PIPELINED_REQUESTS)
+                && (connection.getUnparsed() < connection.getReadBuffer().position())) {
+                handleRequests(connection);
+                blocked = connection.write();
+            }
+            if (connection.isFinished()) {
+                connection.close();
+                return;
+            }
+            boolean reading = !connection.isClosing() && (connection.getNrOfResponsesOwed() < MAXIMUM_PIPELINED_REQUESTS);
+            connection.getKey().interestOps((reading ? SelectionKey.OP_READ : 0) | (blocked ? SelectionKey.OP_WRITE : 0));
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof HttpConnection) {
+                ((HttpConnection) key.attachment()).close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * Lets a CSV order end with a line break, as a line copied from an order file would.
+     */
+    private static int trimLineEnd(ByteBuffer buffer, int from, int to) {
+        int end = to;
+        while ((end > from) && ((buffer.get(end - 1) == '\n') || (buffer.get(end - 1) == '\r'))) {
+            end--;
+        }
+        return end;
+    }
+}
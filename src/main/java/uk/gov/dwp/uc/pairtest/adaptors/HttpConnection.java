@@ -0,0 +1,188 @@
+package uk.gov.dwp.uc.pairtest.adaptors;
+
+import uk.gov.dwp.uc.pairtest.codec.DecodedOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * One client connection of the {@link CinemaTicketsHttpAdaptor}: the bytes read but not yet parsed, and the responses
+ * owed, in the order the requests came in. Only touched by the I/O thread, except that a purchase thread completes the
+ * {@link PendingResponse} it was given.
+ * <p>
+ * Responses that are ready at the head of the queue are copied into one write buffer, so pipelined requests are
+ * answered with as few writes as possible.
+ */
+final class HttpConnection {
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final HttpRequest request;
+    private final DecodedOrder decodedOrder = new DecodedOrder();
+    private final ByteBuffer in;
+    private final ByteBuffer out;
+    private final ArrayDeque<PendingResponse> responses = new ArrayDeque<>();
+    private int unparsed;
+    private int headWritten;
+    private boolean closing;
+    private boolean closed;
+
+    HttpConnection(SocketChannel channel, SelectionKey key, int readBufferSize, int writeBufferSize, int maximumBodyLength) {
+        this.channel = channel;
+        this.key = key;
+        this.request = new HttpRequest(maximumBodyLength);
+        this.in = ByteBuffer.allocate(readBufferSize);
+        this.out = ByteBuffer.allocate(writeBufferSize);
+    }
+
+    /**
+     * @return whether the client has closed its side of the connection
+     */
+    boolean read() throws IOException {
+        return channel.read(in) < 0;
+    }
+
+    ByteBuffer getReadBuffer() {
+        return in;
+    }
+
+    HttpRequest getRequest() {
+        return request;
+    }
+
+    DecodedOrder getDecodedOrder() {
+        return decodedOrder;
+    }
+
+    SelectionKey getKey() {
+        return key;
+    }
+
+    int getUnparsed() {
+        return unparsed;
+    }
+
+    void setUnparsed(int unparsed) {
+        this.unparsed = unparsed;
+    }
+
+    boolean isReadBufferFull() {
+        return (unparsed == 0) && !in.hasRemaining();
+    }
+
+    /**
+     * Moves the bytes not yet parsed to the start of the read buffer.
+     */
+    void compactReadBuffer() {
+        if (unparsed > 0) {
+            in.flip().position(unparsed);
+            in.compact();
+            unparsed = 0;
+        }
+    }
+
+    /**
+     * @param closeAfter whether the connection is to be closed once this response has been written, in which case no
+     *                   more requests are read
+     */
+    PendingResponse respondLater(boolean closeAfter) {
+        PendingResponse response = new PendingResponse();
+        responses.add(response);
+        closing |= closeAfter;
+        return response;
+    }
+
+    void respond(byte[] bytes, boolean closeAfter) {
+        respondLater(closeAfter).complete(bytes);
+    }
+
+    int getNrOfResponsesOwed() {
+        return responses.size();
+    }
+
+    /**
+     * @return whether no more requests are to be read, because the client closed its side or asked for the connection
+     * to be closed
+     */
+    boolean isClosing() {
+        return closing;
+    }
+
+    void stopReading() {
+        closing = true;
+    }
+
+    /**
+     * Writes the responses that are ready, in order, as far as the socket takes them.
+     *
+     * @return whether bytes are left waiting for the socket to take them
+     */
+    boolean write() throws IOException {
+        fillWriteBuffer();
+        while (out.position() > 0) {
+            out.flip();
+            int written = channel.write(out);
+            out.compact();
+            if (written == 0) {
+                return true;
+            }
+            fillWriteBuffer();
+        }
+        return false;
+    }
+
+    /**
+     * @return whether every response owed has been written and no more requests are to be read
+     */
+    boolean isFinished() {
+        return closing && responses.isEmpty() && (out.position() == 0);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing more can be sent to the client anyway
+        }
+    }
+
+    private void fillWriteBuffer() {
+        PendingResponse head = responses.peek();
+        while ((head != null) && out.hasRemaining()) {
+            byte[] bytes = head.bytes;
+            if (bytes == null) {
+                return;
+            }
+            int length = Math.min(out.remaining(), bytes.length - headWritten);
+            out.put(bytes, headWritten, length);
+            headWritten += length;
+            if (headWritten < bytes.length) {
+                return;
+            }
+            responses.poll();
+            headWritten = 0;
+            head = responses.peek();
+        }
+    }
+
+    /**
+     * A response owed to the client, filled in by whichever thread handled its request.
+     */
+    static final class PendingResponse {
+
+        private volatile byte[] bytes;
+
+        void complete(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package uk.gov.dwp.uc.pairtest.adaptors;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.SeatHoldExpiredException;
+import uk.gov.dwp.uc.pairtest.exception.TicketCapExceededException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyInfantsPerAdultException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyOrdersException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+
+/**
+ * What happened to a purchase made through the {@link CinemaTicketsHttpAdaptor}, with the status code it is answered
+ * with. A JSON request is answered with {@code {"outcome":"<name>"}} and a binary one with the single byte of the
+ * outcome's ordinal, so new outcomes are only ever added at the end.
+ * <p>
+ * Orders that break a business rule are {@code 422}, orders over an account's rate limit {@code 429}, valid orders
+ * that failed in a gateway {@code 502}, those whose gateway call was shed {@code 503}, and those whose gateway call
+ * was given up on but may still go through {@code 504}, which should not be retried as they stand.
+ */
+public enum HttpPurchaseOutcome {
+    PURCHASED(200),
+    NO_TICKETS_ORDERED(422),
+    NO_ADULT_TICKETS_REQUESTED(422),
+    INVALID_ACCOUNT_NUMBER(422),
+    MAXIMUM_NR_OF_TICKETS_EXCEEDED(422),
+    TOO_MANY_INFANTS_PER_ADULT(422),
+    TOO_MANY_ORDERS(429),
+    TICKET_CAP_EXCEEDED(429),
+    UNKNOWN_SCREENING(404),
+    SCREENING_SOLD_OUT(409),
+    SEAT_HOLD_EXPIRED(410),
+    REJECTED(422),
+    MALFORMED(400),
+    FAILED(502),
+    OVERLOADED(503),
+    GATEWAY_UNAVAILABLE(503),
+    OUTCOME_UNKNOWN(504);
+
+    private final int statusCode;
+
+    HttpPurchaseOutcome(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public static HttpPurchaseOutcome of(InvalidPurchaseException rejection) {
+        if (rejection instanceof NoTicketsOrderedException) {
+            return NO_TICKETS_ORDERED;
+        }
+        if (rejection instanceof NoAdultTicketsRequestedException) {
+            return NO_ADULT_TICKETS_REQUESTED;
+        }
+        if (rejection instanceof InvalidAccountNumberException) {
+            return INVALID_ACCOUNT_NUMBER;
+        }
+        if (rejection instanceof MaximumNrOfTicketsAllowedExceededException) {
+            return MAXIMUM_NR_OF_TICKETS_EXCEEDED;
+        }
+        if (rejection instanceof TooManyInfantsPerAdultException) {
+            return TOO_MANY_INFANTS_PER_ADULT;
+        }
+        if (rejection instanceof TooManyOrdersException) {
+            return TOO_MANY_ORDERS;
+        }
+        if (rejection instanceof TicketCapExceededException) {
+            return TICKET_CAP_EXCEEDED;
+        }
+        if (rejection instanceof UnknownScreeningException) {
+            return UNKNOWN_SCREENING;
+        }
+        if (rejection instanceof ScreeningSoldOutException) {
+            return SCREENING_SOLD_OUT;
+        }
+        if (rejection instanceof SeatHoldExpiredException) {
+            return SEAT_HOLD_EXPIRED;
+        }
+        return REJECTED;
+    }
+}
@@ -0,0 +1,281 @@
+package uk.gov.dwp.uc.pairtest.adaptors;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The parts of an HTTP/1.x request the {@link CinemaTicketsHttpAdaptor} needs, read in place from a connection's read
+ * buffer without making strings. One instance is reused for every request on a connection.
+ * <p>
+ * Only requests with a {@code Content-Length} are understood; a chunked body is answered with {@code 501}. A request
+ * that cannot be framed has its {@link #getErrorStatusCode() error status code} set, after which the connection has to
+ * be closed, as where the next request starts is not known.
+ */
+final class HttpRequest {
+
+    static final int INCOMPLETE = -1;
+
+    private static final byte[] GET = bytes("GET");
+    private static final byte[] POST = bytes("POST");
+    private static final byte[] PURCHASES_PATH = bytes("/purchases");
+    private static final byte[] METRICS_PATH = bytes("/metrics");
+    private static final byte[] HTTP_1_0 = bytes("HTTP/1.0");
+    private static final byte[] HTTP_1_1 = bytes("HTTP/1.1");
+    private static final byte[] CONTENT_LENGTH = bytes("content-length");
+    private static final byte[] CONTENT_TYPE = bytes("content-type");
+    private static final byte[] CONNECTION = bytes("connection");
+    private static final byte[] TRANSFER_ENCODING = bytes("transfer-encoding");
+    private static final byte[] CLOSE = bytes("close");
+    private static final byte[] KEEP_ALIVE = bytes("keep-alive");
+    private static final byte[] JSON = bytes(HttpResponses.JSON);
+    private static final byte[] BINARY = bytes(HttpResponses.BINARY);
+    private static final byte[] CSV = bytes("text/csv");
+    private static final byte[] TEXT = bytes("text/plain");
+
+    private final int maximumBodyLength;
+
+    private Method method;
+    private Target target;
+    private BodyFormat bodyFormat;
+    private boolean keepAlive;
+    private int bodyStart;
+    private int bodyEnd;
+    private int errorStatusCode;
+
+    HttpRequest(int maximumBodyLength) {
+        this.maximumBodyLength = maximumBodyLength;
+    }
+
+    /**
+     * Reads the request starting at {@code from}, of which the bytes up to {@code to} have arrived.
+     *
+     * @return where the request ends, or {@link #INCOMPLETE} if it has not all arrived yet
+     */
+    int parse(ByteBuffer buffer, int from, int to) {
+        errorStatusCode = 0;
+        int headEnd = indexOfEndOfHead(buffer, from, to);
+        if (headEnd < 0) {
+            return INCOMPLETE;
+        }
+        int lineEnd = indexOfLineEnd(buffer, from, headEnd);
+        int methodEnd = indexOf(buffer, ' ', from, lineEnd);
+        int targetEnd = methodEnd < 0 ? -1 : indexOf(buffer, ' ', methodEnd + 1, lineEnd);
+        if (targetEnd < 0) {
+            return failed(400, headEnd);
+        }
+        method = equals(buffer, from, methodEnd, POST) ? Method.POST : equals(buffer, from, methodEnd, GET) ? Method.GET : Method.OTHER;
+        target = equals(buffer, methodEnd + 1, targetEnd, PURCHASES_PATH) ? Target.PURCHASES
+                 : equals(buffer, methodEnd + 1, targetEnd, METRICS_PATH) ? Target.METRICS : Target.OTHER;
+        if (equals(buffer, targetEnd + 1, lineEnd, HTTP_1_1)) {
+            keepAlive = true;
+        } else if (equals(buffer, targetEnd + 1, lineEnd, HTTP_1_0)) {
+            keepAlive = false;
+        } else {
+            return failed(505, headEnd);
+        }
+
+        long contentLength = 0;
+        bodyFormat = BodyFormat.NONE;
+        int lineStart = lineEnd + 2;
+        int blankLine = headEnd - 2;
+        while (lineStart < blankLine) {
+            lineEnd = indexOfLineEnd(buffer, lineStart, headEnd);
+            int colon = indexOf(buffer, ':', lineStart, lineEnd);
+            if (colon < 0) {
+                return failed(400, headEnd);
+            }
+            int valueStart = skipSpaces(buffer, colon + 1, lineEnd);
+            int valueEnd = trimSpaces(buffer, valueStart, lineEnd);
+            if (equalsIgnoreCase(buffer, lineStart, colon, CONTENT_LENGTH)) {
+                contentLength = parseContentLength(buffer, valueStart, valueEnd);
+                if (contentLength < 0) {
+                    return failed(400, headEnd);
+                }
+            } else if (equalsIgnoreCase(buffer, lineStart, colon, CONTENT_TYPE)) {
+                bodyFormat = bodyFormatOf(buffer, valueStart, trimSpaces(buffer, valueStart, indexOfParameters(buffer, valueStart, valueEnd)));
+            } else if (equalsIgnoreCase(buffer, lineStart, colon, CONNECTION)) {
+                if (equalsIgnoreCase(buffer, valueStart, valueEnd, CLOSE)) {
+                    keepAlive = false;
+                } else if (equalsIgnoreCase(buffer, valueStart, valueEnd, KEEP_ALIVE)) {
+                    keepAlive = true;
+                }
+            } else if (equalsIgnoreCase(buffer, lineStart, colon, TRANSFER_ENCODING)) {
+                return failed(501, headEnd);
+            }
+            lineStart = lineEnd + 2;
+        }
+        if (contentLength > maximumBodyLength) {
+            return failed(413, headEnd);
+        }
+        bodyStart = headEnd;
+        bodyEnd = headEnd + (int) contentLength;
+        return bodyEnd <= to ? bodyEnd : INCOMPLETE;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    Target getTarget() {
+        return target;
+    }
+
+    BodyFormat getBodyFormat() {
+        return bodyFormat;
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    int getBodyStart() {
+        return bodyStart;
+    }
+
+    int getBodyEnd() {
+        return bodyEnd;
+    }
+
+    /**
+     * @return the status code to answer a request that could not be read with before closing the connection, or 0
+     */
+    int getErrorStatusCode() {
+        return errorStatusCode;
+    }
+
+    private int failed(int statusCode, int headEnd) {
+        errorStatusCode = statusCode;
+        keepAlive = false;
+        return headEnd;
+    }
+
+    /**
+     * @return the index just after the blank line ending the request line and headers, or -1
+     */
+    private static int indexOfEndOfHead(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i <= (to - 4); i++) {
+            if ((buffer.get(i) == '\r') && (buffer.get(i + 1) == '\n') && (buffer.get(i + 2) == '\r') && (buffer.get(i + 3) == '\n')) {
+                return i + 4;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfLineEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < (to - 1); i++) {
+            if ((buffer.get(i) == '\r') && (buffer.get(i + 1) == '\n')) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int indexOf(ByteBuffer buffer, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfParameters(ByteBuffer buffer, int from, int to) {
+        int semicolon = indexOf(buffer, ';', from, to);
+        return semicolon < 0 ? to : semicolon;
+    }
+
+    private static int skipSpaces(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        while ((i < to) && ((buffer.get(i) == ' ') || (buffer.get(i) == '\t'))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimSpaces(ByteBuffer buffer, int from, int to) {
+        int i = to;
+        while ((i > from) && ((buffer.get(i - 1) == ' ') || (buffer.get(i - 1) == '\t'))) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * @return the length, or -1 if it is not a number of at most ten digits
+     */
+    private static long parseContentLength(ByteBuffer buffer, int from, int to) {
+        if ((from == to) || ((to - from) > 10)) {
+            return -1;
+        }
+        long length = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if ((digit < 0) || (digit > 9)) {
+                return -1;
+            }
+            length = (length * 10) + digit;
+        }
+        return length;
+    }
+
+    private static BodyFormat bodyFormatOf(ByteBuffer buffer, int from, int to) {
+        if (equalsIgnoreCase(buffer, from, to, JSON)) {
+            return BodyFormat.JSON;
+        }
+        if (equalsIgnoreCase(buffer, from, to, BINARY)) {
+            return BodyFormat.BINARY;
+        }
+        if (equalsIgnoreCase(buffer, from, to, CSV) || equalsIgnoreCase(buffer, from, to, TEXT)) {
+            return BodyFormat.CSV;
+        }
+        return BodyFormat.OTHER;
+    }
+
+    private static boolean equals(ByteBuffer buffer, int from, int to, byte[] expected) {
+        if ((to - from) != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param lowerCase the expected bytes, in lower case
+     */
+    private static boolean equalsIgnoreCase(ByteBuffer buffer, int from, int to, byte[] lowerCase) {
+        if ((to - from) != lowerCase.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length; i++) {
+            byte b = buffer.get(from + i);
+            if (((b >= 'A') && (b <= 'Z') ? (byte) (b + ('a' - 'A')) : b) != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    enum Method {
+        GET, POST, OTHER
+    }
+
+    enum Target {
+        PURCHASES, METRICS, OTHER
+    }
+
+    /**
+     * From the {@code Content-Type}: {@code application/json}, {@code application/octet-stream}, and {@code text/csv}
+     * or {@code text/plain} for an order as a line of an order file.
+     */
+    enum BodyFormat {
+        JSON, BINARY, CSV, NONE, OTHER
+    }
+}
@@ -0,0 +1,98 @@
+package uk.gov.dwp.uc.pairtest.adaptors;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes the responses of the {@link CinemaTicketsHttpAdaptor}. The response to each purchase outcome is encoded once,
+ * for each body format and with and without keep-alive, so that answering a purchase copies bytes rather than
+ * formatting them.
+ */
+final class HttpResponses {
+
+    static final String JSON = "application/json";
+    static final String BINARY = "application/octet-stream";
+
+    private static final byte[][][] PURCHASE_RESPONSES = encodePurchaseResponses();
+
+    private HttpResponses() {
+    }
+
+    static byte[] purchase(HttpPurchaseOutcome outcome, boolean binary, boolean keepAlive) {
+        return PURCHASE_RESPONSES[outcome.ordinal()][(binary ? 2 : 0) + (keepAlive ? 1 : 0)];
+    }
+
+    /**
+     * A response to a request that could not be handled, with a JSON body giving the reason.
+     */
+    static byte[] error(int statusCode, boolean keepAlive) {
+        String body = "{\"error\":\"" + reasonPhrase(statusCode) + "\"}";
+        return encode(statusCode, JSON, body.getBytes(StandardCharsets.US_ASCII), keepAlive);
+    }
+
+    static byte[] encode(int statusCode, String contentType, byte[] body, boolean keepAlive) {
+        byte[] head = ("HTTP/1.1 " + statusCode + " " + reasonPhrase(statusCode) + "\r\n"
+                       + "Content-Type: " + contentType + "\r\n"
+                       + "Content-Length: " + body.length + "\r\n"
+                       + (keepAlive ? "" : "Connection: close\r\n")
+                       + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] response = new byte[head.length + body.length];
+        System.arraycopy(head, 0, response, 0, head.length);
+        System.arraycopy(body, 0, response, head.length, body.length);
+        return response;
+    }
+
+    static String reasonPhrase(int statusCode) {
+        switch (statusCode) {
+            case 200:
+                return "OK";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 409:
+                return "Conflict";
+            case 410:
+                return "Gone";
+            case 411:
+                return "Length Required";
+            case 413:
+                return "Content Too Large";
+            case 415:
+                return "Unsupported Media Type";
+            case 422:
+                return "Unprocessable Content";
+            case 429:
+                return "Too Many Requests";
+            case 431:
+                return "Request Header Fields Too Large";
+            case 501:
+                return "Not Implemented";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            case 504:
+                return "Gateway Timeout";
+            case 505:
+                return "HTTP Version Not Supported";
+            default:
+                throw new IllegalArgumentException("No reason phrase for " + statusCode);
+        }
+    }
+
+    private static byte[][][] encodePurchaseResponses() {
+        HttpPurchaseOutcome[] outcomes = HttpPurchaseOutcome.values();
+        byte[][][] responses = new byte[outcomes.length][4][];
+        for (HttpPurchaseOutcome outcome : outcomes) {
+            byte[] json = ("{\"outcome\":\"" + outcome + "\"}").getBytes(StandardCharsets.US_ASCII);
+            byte[] binary = {(byte) outcome.ordinal()};
+            responses[outcome.ordinal()][0] = encode(outcome.getStatusCode(), JSON, json, false);
+            responses[outcome.ordinal()][1] = encode(outcome.getStatusCode(), JSON, json, true);
+            responses[outcome.ordinal()][2] = encode(outcome.getStatusCode(), BINARY, binary, false);
+            responses[outcome.ordinal()][3] = encode(outcome.getStatusCode(), BINARY, binary, true);
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTicketService {
+
+    /**
+     * The returned future always completes normally - a rejected order or a failed gateway call is reported through
+     * the {@link PurchaseResult}.
+     */
+    CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests);
+
+}
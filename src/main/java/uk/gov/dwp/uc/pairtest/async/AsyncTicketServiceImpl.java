@@ -0,0 +1,93 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Validates orders on the caller's thread and makes the reservation and payment calls on the given executor, so that
+ * request threads are not held while the gateways respond.
+ * <p>
+ * At most {@code maximumInFlight} purchases are with the gateways at once. A caller arriving when that limit is
+ * reached waits up to {@code admissionTimeout} for a purchase to finish, and the order fails with a
+ * {@link RejectedExecutionException} if none does.
+ */
+public class AsyncTicketServiceImpl implements AsyncTicketService {
+
+    private final SeatReservationService seatReservationService;
+    private final TicketPaymentService ticketPaymentService;
+    private final TicketOrderEvaluator ticketOrderEvaluator;
+    private final Executor executor;
+    private final InFlightLimiter inFlightLimiter;
+
+    public AsyncTicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                                  Executor executor, int maximumInFlight, Duration admissionTimeout) {
+        this(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(), executor, maximumInFlight, admissionTimeout);
+    }
+
+    public AsyncTicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                                  TicketOrderEvaluator ticketOrderEvaluator, Executor executor, int maximumInFlight,
+                                  Duration admissionTimeout) {
+        this.seatReservationService = seatReservationService;
+        this.ticketPaymentService = ticketPaymentService;
+        this.ticketOrderEvaluator = ticketOrderEvaluator;
+        this.executor = executor;
+        this.inFlightLimiter = new InFlightLimiter(maximumInFlight, admissionTimeout);
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        TicketOrder order = new TicketOrder(accountId, ticketTypeRequests);
+        TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+        try {
+            ticketOrderEvaluator.evaluate(accountId, ticketTypeRequests, evaluation);
+        } catch (InvalidPurchaseException e) {
+            return CompletableFuture.completedFuture(PurchaseResult.rejected(order, e));
+        }
+
+        if (!inFlightLimiter.tryAcquire()) {
+            return CompletableFuture.completedFuture(
+                PurchaseResult.failed(order, new RejectedExecutionException("Too many purchases in flight")));
+        }
+        return reserveSeatsAndPurchaseTicketsAsync(order, evaluation.getTotalNrOfReservations(), evaluation.getTotalCostOfTickets());
+    }
+
+    public int getAvailableInFlightPermits() {
+        return inFlightLimiter.availablePermits();
+    }
+
+    private CompletableFuture<PurchaseResult> reserveSeatsAndPurchaseTicketsAsync(TicketOrder order, int totalNrOfReservations,
+                                                                                  int totalCostOfTickets) {
+        CompletableFuture<PurchaseResult> result;
+        try {
+            result = CompletableFuture.supplyAsync(
+                () -> reserveSeatsAndPurchaseTickets(order, totalNrOfReservations, totalCostOfTickets), executor);
+        } catch (RejectedExecutionException e) {
+            inFlightLimiter.release();
+            return CompletableFuture.completedFuture(PurchaseResult.failed(order, e));
+        }
+        return result.whenComplete((purchaseResult, throwable) -> inFlightLimiter.release());
+    }
+
+    private PurchaseResult reserveSeatsAndPurchaseTickets(TicketOrder order, int totalNrOfReservations, int totalCostOfTickets) {
+        long accountId = order.getAccountId();
+        try {
+            seatReservationService.reserveSeat(accountId, totalNrOfReservations);
+            ticketPaymentService.makePayment(accountId, totalCostOfTickets);
+            return PurchaseResult.purchased(order, totalNrOfReservations, totalCostOfTickets);
+        } catch (RuntimeException e) {
+            return PurchaseResult.failed(order, e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+public enum ExecutionMode {
+    /**
+     * A new virtual thread for each purchase. Needs a JDK with virtual threads (21 or later).
+     */
+    VIRTUAL_THREADS,
+    /**
+     * A fixed pool of platform threads shared by all purchases.
+     */
+    PLATFORM_THREADS
+}
@@ -0,0 +1,102 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each purchase of a blocking {@link TicketService}, such as {@link uk.gov.dwp.uc.pairtest.TicketServiceImpl},
+ * as its own task on an executor from {@link PurchaseExecutors}. With {@link ExecutionMode#VIRTUAL_THREADS} every
+ * purchase gets a virtual thread, so very many purchases can wait on the gateways at once without tuning a pool.
+ * <p>
+ * Each order is evaluated once, before it is handed to the ticket service, with the ticket service's own
+ * {@link TicketOrderEvaluator}, which should be passed in whenever it is not the standard one. An invalid order is
+ * rejected without calling the ticket service, and the seats and cost reported for a purchase are those worked out then. In-flight purchases are capped in the same way as
+ * {@link AsyncTicketServiceImpl}. Closing this service shuts the
+ * executor down and waits for running purchases to finish.
+ */
+public class ExecutorTicketService implements AsyncTicketService, AutoCloseable {
+
+    private final TicketService ticketService;
+    private final ExecutorService executor;
+    private final InFlightLimiter inFlightLimiter;
+    private final TicketOrderEvaluator ticketOrderEvaluator;
+
+    public ExecutorTicketService(TicketService ticketService, ExecutionMode executionMode, int maximumInFlight,
+                                 Duration admissionTimeout) {
+        this(ticketService, new TicketOrderEvaluator(), executionMode, maximumInFlight, admissionTimeout);
+    }
+
+    /**
+     * @param ticketOrderEvaluator the evaluator the ticket service prices and checks orders with, used to report the seats
+     *                             and cost of each purchase
+     */
+    public ExecutorTicketService(TicketService ticketService, TicketOrderEvaluator ticketOrderEvaluator,
+                                 ExecutionMode executionMode, int maximumInFlight, Duration admissionTimeout) {
+        this(ticketService, ticketOrderEvaluator, PurchaseExecutors.newExecutor(executionMode, maximumInFlight),
+             maximumInFlight, admissionTimeout);
+    }
+
+    public ExecutorTicketService(TicketService ticketService, ExecutorService executor, int maximumInFlight,
+                                 Duration admissionTimeout) {
+        this(ticketService, new TicketOrderEvaluator(), executor, maximumInFlight, admissionTimeout);
+    }
+
+    public ExecutorTicketService(TicketService ticketService, TicketOrderEvaluator ticketOrderEvaluator,
+                                 ExecutorService executor, int maximumInFlight, Duration admissionTimeout) {
+        this.ticketService = ticketService;
+        this.ticketOrderEvaluator = ticketOrderEvaluator;
+        this.executor = executor;
+        this.inFlightLimiter = new InFlightLimiter(maximumInFlight, admissionTimeout);
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        TicketOrder order = new TicketOrder(accountId, ticketTypeRequests);
+        if (!inFlightLimiter.tryAcquire()) {
+            return CompletableFuture.completedFuture(
+                PurchaseResult.failed(order, new RejectedExecutionException("Too many purchases in flight")));
+        }
+
+        CompletableFuture<PurchaseResult> result;
+        try {
+            result = CompletableFuture.supplyAsync(() -> purchase(order), executor);
+        } catch (RejectedExecutionException e) {
+            inFlightLimiter.release();
+            return CompletableFuture.completedFuture(PurchaseResult.failed(order, e));
+        }
+        return result.whenComplete((purchaseResult, throwable) -> inFlightLimiter.release());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private PurchaseResult purchase(TicketOrder order) {
+        try {
+            TicketTypeRequest[] ticketTypeRequests = order.getTicketTypeRequests();
+            TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+            ticketOrderEvaluator.evaluate(order.getAccountId(), ticketTypeRequests, evaluation);
+            int totalNrOfReservations = evaluation.getTotalNrOfReservations();
+            int totalCostOfTickets = evaluation.getTotalCostOfTickets();
+            ticketService.purchaseTickets(order.getAccountId(), ticketTypeRequests);
+            return PurchaseResult.purchased(order, totalNrOfReservations, totalCostOfTickets);
+        } catch (InvalidPurchaseException e) {
+            return PurchaseResult.rejected(order, e);
+        } catch (RuntimeException e) {
+            return PurchaseResult.failed(order, e);
+        }
+    }
+}
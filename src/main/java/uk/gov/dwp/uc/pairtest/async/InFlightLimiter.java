@@ -0,0 +1,40 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of purchases in flight. A caller arriving at the cap waits up to the admission timeout for a slot,
+ * which pushes back on callers instead of letting work queue up without limit.
+ */
+class InFlightLimiter {
+
+    private final Semaphore permits;
+    private final long admissionTimeoutNanos;
+
+    InFlightLimiter(int maximumInFlight, Duration admissionTimeout) {
+        if (maximumInFlight < 1) {
+            throw new IllegalArgumentException("maximumInFlight must be at least 1 but was " + maximumInFlight);
+        }
+        this.permits = new Semaphore(maximumInFlight);
+        this.admissionTimeoutNanos = admissionTimeout.toNanos();
+    }
+
+    boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(admissionTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+}
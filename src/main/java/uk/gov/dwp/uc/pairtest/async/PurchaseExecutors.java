@@ -0,0 +1,68 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors that purchases run on, so that the execution model is a configuration choice rather than
+ * something each service decides. Virtual threads are looked up at runtime because the build targets a JDK that does
+ * not have them.
+ */
+public final class PurchaseExecutors {
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private PurchaseExecutors() {
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @param nrOfPlatformThreads the size of the pool for {@link ExecutionMode#PLATFORM_THREADS}; not used for virtual
+     *                            threads
+     */
+    public static ExecutorService newExecutor(ExecutionMode executionMode, int nrOfPlatformThreads) {
+        switch (executionMode) {
+            case VIRTUAL_THREADS:
+                return newVirtualThreadPerTaskExecutor();
+            case PLATFORM_THREADS:
+                return Executors.newFixedThreadPool(nrOfPlatformThreads);
+            default:
+                throw new IllegalArgumentException("Unknown execution mode " + executionMode);
+        }
+    }
+
+    /**
+     * Virtual threads where the JDK has them, otherwise a cached pool of platform threads. The number of threads is
+     * then bounded by the in-flight limit of the service using it.
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        return isVirtualThreadsSupported() ? newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isVirtualThreadsSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later but running on "
+                                                    + Runtime.version());
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    private static MethodHandle findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup()
+                .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
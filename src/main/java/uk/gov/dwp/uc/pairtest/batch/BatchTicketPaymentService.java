@@ -0,0 +1,14 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+/**
+ * Bulk counterpart of {@link thirdparty.paymentgateway.TicketPaymentService}. Only the first {@code count} entries of
+ * each array are part of the batch.
+ * <p>
+ * Each entry succeeds or fails on its own: {@code failures} is passed in cleared, the reason an entry failed is put at
+ * its index, and the index is left {@code null} for an entry that was paid. Throwing instead fails every entry
+ * in the batch.
+ */
+public interface BatchTicketPaymentService {
+
+    void makePayments(long[] accountIds, int[] totalAmountsToPay, int count, RuntimeException[] failures);
+}
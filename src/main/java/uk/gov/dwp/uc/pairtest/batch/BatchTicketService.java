@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+
+import java.util.List;
+
+public interface BatchTicketService {
+
+    /**
+     * Returns one result per order, in the same order as given.
+     */
+    List<PurchaseResult> purchaseTickets(List<TicketOrder> orders);
+
+}
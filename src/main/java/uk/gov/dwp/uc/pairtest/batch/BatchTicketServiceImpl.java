@@ -0,0 +1,167 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Validates every order up front, then sends the valid ones to the gateways {@code batchSize} at a time - the
+ * reservations for a batch first, then the payments for the orders whose seats were reserved. An entry a gateway turns
+ * down fails only its own order, a gateway call that throws fails only the orders in its batch, and no payment is taken
+ * for an order whose reservation failed.
+ */
+public class BatchTicketServiceImpl implements BatchTicketService {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final BatchSeatReservationService seatReservationService;
+    private final BatchTicketPaymentService ticketPaymentService;
+    private final int batchSize;
+    private final TicketOrderEvaluator ticketOrderEvaluator = new TicketOrderEvaluator();
+
+    public BatchTicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService) {
+        this(new PerCallSeatReservationService(seatReservationService), new PerCallTicketPaymentService(ticketPaymentService),
+             DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchTicketServiceImpl(BatchSeatReservationService seatReservationService,
+                                  BatchTicketPaymentService ticketPaymentService,
+                                  int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1 but was " + batchSize);
+        }
+        this.seatReservationService = seatReservationService;
+        this.ticketPaymentService = ticketPaymentService;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<PurchaseResult> purchaseTickets(List<TicketOrder> orders) {
+        PurchaseResult[] results = new PurchaseResult[orders.size()];
+        int[] allSeats = new int[orders.size()];
+        int[] allCosts = new int[orders.size()];
+        validateAllOrders(orders, results, allSeats, allCosts);
+        dispatchValidOrdersInBatches(orders, allSeats, allCosts, results);
+        return Arrays.asList(results);
+    }
+
+    private void validateAllOrders(List<TicketOrder> orders, PurchaseResult[] results, int[] allSeats, int[] allCosts) {
+        TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+        for (int i = 0; i < orders.size(); i++) {
+            TicketOrder order = orders.get(i);
+            try {
+                ticketOrderEvaluator.evaluate(order.getAccountId(), order.getTicketTypeRequests(), evaluation);
+                allSeats[i] = evaluation.getTotalNrOfReservations();
+                allCosts[i] = evaluation.getTotalCostOfTickets();
+            } catch (InvalidPurchaseException e) {
+                results[i] = PurchaseResult.rejected(order, e);
+            }
+        }
+    }
+
+    private void dispatchValidOrdersInBatches(List<TicketOrder> orders, int[] allSeats, int[] allCosts, PurchaseResult[] results) {
+        Batch batch = new Batch(batchSize);
+        for (int i = 0; i < orders.size(); i++) {
+            if (results[i] == null) {
+                batch.add(i, orders.get(i).getAccountId(), allSeats[i], allCosts[i]);
+                if (batch.isFull()) {
+                    dispatch(batch, orders, results);
+                }
+            }
+        }
+        if (batch.count > 0) {
+            dispatch(batch, orders, results);
+        }
+    }
+
+    private void dispatch(Batch batch, List<TicketOrder> orders, PurchaseResult[] results) {
+        try {
+            seatReservationService.reserveSeats(batch.accountIds, batch.totalSeatsToAllocate, batch.count, batch.failures);
+            failTurnedDownOrders(batch, orders, results);
+            if (batch.count > 0) {
+                ticketPaymentService.makePayments(batch.accountIds, batch.totalAmountsToPay, batch.count, batch.failures);
+                failTurnedDownOrders(batch, orders, results);
+            }
+            for (int i = 0; i < batch.count; i++) {
+                int orderIndex = batch.orderIndexes[i];
+                results[orderIndex] = PurchaseResult.purchased(orders.get(orderIndex), batch.totalSeatsToAllocate[i],
+                                                               batch.totalAmountsToPay[i]);
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.count; i++) {
+                int orderIndex = batch.orderIndexes[i];
+                results[orderIndex] = PurchaseResult.failed(orders.get(orderIndex), e);
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Fails the orders whose entries a gateway turned down and closes the batch up over them, so that only the orders
+     * still going through are sent on.
+     */
+    private static void failTurnedDownOrders(Batch batch, List<TicketOrder> orders, PurchaseResult[] results) {
+        int nrOfEntriesKept = 0;
+        for (int i = 0; i < batch.count; i++) {
+            RuntimeException failure = batch.failures[i];
+            if (failure == null) {
+                batch.move(i, nrOfEntriesKept++);
+            } else {
+                int orderIndex = batch.orderIndexes[i];
+                results[orderIndex] = PurchaseResult.failed(orders.get(orderIndex), failure);
+                batch.failures[i] = null;
+            }
+        }
+        batch.count = nrOfEntriesKept;
+    }
+
+    private static final class Batch {
+
+        private final int[] orderIndexes;
+        private final long[] accountIds;
+        private final int[] totalSeatsToAllocate;
+        private final int[] totalAmountsToPay;
+        private final RuntimeException[] failures;
+        private int count;
+
+        private Batch(int batchSize) {
+            this.orderIndexes = new int[batchSize];
+            this.accountIds = new long[batchSize];
+            this.totalSeatsToAllocate = new int[batchSize];
+            this.totalAmountsToPay = new int[batchSize];
+            this.failures = new RuntimeException[batchSize];
+        }
+
+        private void add(int orderIndex, long accountId, int seats, int cost) {
+            orderIndexes[count] = orderIndex;
+            accountIds[count] = accountId;
+            totalSeatsToAllocate[count] = seats;
+            totalAmountsToPay[count] = cost;
+            count++;
+        }
+
+        private void move(int from, int to) {
+            orderIndexes[to] = orderIndexes[from];
+            accountIds[to] = accountIds[from];
+            totalSeatsToAllocate[to] = totalSeatsToAllocate[from];
+            totalAmountsToPay[to] = totalAmountsToPay[from];
+        }
+
+        private boolean isFull() {
+            return count == orderIndexes.length;
+        }
+
+        private void clear() {
+            Arrays.fill(failures, null);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Collects payments from many purchasing threads and sends them to a {@link BatchTicketPaymentService} in batches, as
+ * set out by a {@link PaymentBatchingPolicy}, so that the payment provider is called once per batch rather than once
+ * per order. Each payment still has its own completion: {@link #makePayment(long, int)} waits for the batch it went in
+ * to be sent and throws why its charge failed, or what the whole batch threw, and {@link #submitPayment(long, int)}
+ * gives the same as a future. Payments merged into one charge share its outcome.
+ * <p>
+ * Payments are added to the open batch under a lock, which is held only to copy in two numbers. A single dispatcher
+ * thread waits for the batch to fill or its first payment to have waited long enough, swaps in the spare batch and
+ * sends the full one outside the lock, so payments keep being collected while a batch is in flight. If both batches are
+ * full, callers wait for the one in flight to be sent, which keeps the payments waiting bounded.
+ * <p>
+ * Closing sends the payments already collected and stops the dispatcher; payments submitted after that fail.
+ */
+public class MicroBatchingTicketPaymentService implements TicketPaymentService, AutoCloseable {
+
+    private final BatchTicketPaymentService batchTicketPaymentService;
+    private final long maximumDelayNanos;
+    private final Object lock = new Object();
+    private final Thread dispatcher;
+
+    private final LongAdder nrOfPayments = new LongAdder();
+    private final LongAdder nrOfCharges = new LongAdder();
+    private final LongAdder nrOfBatches = new LongAdder();
+
+    private PaymentBatch open;
+    private PaymentBatch spare;
+    private boolean closed;
+
+    public MicroBatchingTicketPaymentService(BatchTicketPaymentService batchTicketPaymentService, PaymentBatchingPolicy policy) {
+        this(batchTicketPaymentService, policy, runnable -> new Thread(runnable, "payment-dispatcher"));
+    }
+
+    MicroBatchingTicketPaymentService(BatchTicketPaymentService batchTicketPaymentService, PaymentBatchingPolicy policy,
+                                      ThreadFactory threadFactory) {
+        this.batchTicketPaymentService = batchTicketPaymentService;
+        this.maximumDelayNanos = policy.getMaximumDelay().toNanos();
+        this.open = new PaymentBatch(policy.getMaximumBatchSize(), policy.isMergingAccounts());
+        this.spare = new PaymentBatch(policy.getMaximumBatchSize(), policy.isMergingAccounts());
+        this.dispatcher = threadFactory.newThread(this::dispatchBatches);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        try {
+            submitPayment(accountId, totalAmountToPay).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return completes once the batch the payment went in has been sent, or exceptionally with why its charge failed
+     */
+    public CompletableFuture<Void> submitPayment(long accountId, int totalAmountToPay) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        synchronized (lock) {
+            while (!closed && open.isFull()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    completion.completeExceptionally(e);
+                    return completion;
+                }
+            }
+            if (closed) {
+                completion.completeExceptionally(new IllegalStateException("The payment service has been closed"));
+                return completion;
+            }
+            if (open.add(accountId, totalAmountToPay, completion, System.nanoTime())) {
+                lock.notifyAll();
+            }
+        }
+        nrOfPayments.increment();
+        return completion;
+    }
+
+    public long getNrOfPayments() {
+        return nrOfPayments.sum();
+    }
+
+    /**
+     * @return the charges sent to the payment gateway, which is fewer than the payments when accounts are merged
+     */
+    public long getNrOfCharges() {
+        return nrOfCharges.sum();
+    }
+
+    public long getNrOfBatches() {
+        return nrOfBatches.sum();
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatchBatches() {
+        try {
+            PaymentBatch batch;
+            while ((batch = awaitBatch()) != null) {
+                send(batch);
+                synchronized (lock) {
+                    batch.clear();
+                    spare = batch;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the open batch, once it is ready to send, having swapped the spare in for it; or null once closed with
+     * nothing left to send
+     */
+    private PaymentBatch awaitBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (open.isEmpty()) {
+                if (closed) {
+                    return null;
+                }
+                lock.wait();
+            }
+            long remainingNanos;
+            while (!closed && !open.isFull() && ((remainingNanos = (open.firstAddedAt + maximumDelayNanos) - System.nanoTime()) > 0)) {
+                TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+            }
+            PaymentBatch batch = open;
+            open = spare;
+            spare = null;
+            lock.notifyAll();
+            return batch;
+        }
+    }
+
+    private void send(PaymentBatch batch) {
+        int nrOfChargesInBatch = batch.prepareCharges();
+        try {
+            batchTicketPaymentService.makePayments(batch.chargeAccountIds, batch.chargeAmounts, nrOfChargesInBatch,
+                                                   batch.chargeFailures);
+        } catch (RuntimeException | Error e) {
+            batch.completeAll(e);
+            return;
+        } finally {
+            nrOfCharges.add(nrOfChargesInBatch);
+            nrOfBatches.increment();
+        }
+        batch.completeFromCharges();
+    }
+
+    /**
+     * The payments collected for one call to the gateway, and the charges they are sent as. With merging, the charges
+     * are totalled per account through an open addressing table of indexes into the charges, cleared for each batch.
+     * Each payment keeps the index of the charge it went in, to be completed with that charge's outcome.
+     */
+    private static final class PaymentBatch {
+
+        private static final long MIXER = 0x9E3779B97F4A7C15L;
+
+        private final long[] accountIds;
+        private final int[] amounts;
+        private final CompletableFuture<?>[] completions;
+        private final long[] chargeAccountIds;
+        private final int[] chargeAmounts;
+        private final RuntimeException[] chargeFailures;
+        private final int[] chargeIndexOfPayment;
+        private final int[] chargeIndexByAccount;
+        private final int tableMask;
+        private final boolean mergingAccounts;
+        private int count;
+        private long firstAddedAt;
+
+        PaymentBatch(int maximumSize, boolean mergingAccounts) {
+            this.accountIds = new long[maximumSize];
+            this.amounts = new int[maximumSize];
+            this.completions = new CompletableFuture<?>[maximumSize];
+            this.chargeAccountIds = new long[maximumSize];
+            this.chargeAmounts = new int[maximumSize];
+            this.chargeFailures = new RuntimeException[maximumSize];
+            this.chargeIndexOfPayment = new int[maximumSize];
+            int tableSize = mergingAccounts ? Integer.highestOneBit(Math.max(2, maximumSize) * 2 - 1) * 2 : 0;
+            this.chargeIndexByAccount = new int[tableSize];
+            this.tableMask = tableSize - 1;
+            this.mergingAccounts = mergingAccounts;
+        }
+
+        /**
+         * @return whether the dispatcher needs waking, because this is the first payment or the batch is now full
+         */
+        boolean add(long accountId, int amount, CompletableFuture<?> completion, long now) {
+            if (count == 0) {
+                firstAddedAt = now;
+            }
+            accountIds[count] = accountId;
+            amounts[count] = amount;
+            completions[count] = completion;
+            count++;
+            return (count == 1) || isFull();
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        boolean isFull() {
+            return count == accountIds.length;
+        }
+
+        /**
+         * @return the number of charges, which are the payments themselves unless accounts are merged
+         */
+        int prepareCharges() {
+            if (!mergingAccounts) {
+                System.arraycopy(accountIds, 0, chargeAccountIds, 0, count);
+                System.arraycopy(amounts, 0, chargeAmounts, 0, count);
+                for (int i = 0; i < count; i++) {
+                    chargeIndexOfPayment[i] = i;
+                }
+                return count;
+            }
+            Arrays.fill(chargeIndexByAccount, 0);
+            int nrOfCharges = 0;
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((accountIds[i] * MIXER) >>> 32) & tableMask;
+                int chargeIndex;
+                while ((chargeIndex = chargeIndexByAccount[slot] - 1) >= 0) {
+                    if ((chargeAccountIds[chargeIndex] == accountIds[i])
+                        && (((long) chargeAmounts[chargeIndex] + amounts[i]) <= Integer.MAX_VALUE)) {
+                        break;
+                    }
+                    slot = (slot + 1) & tableMask;
+                }
+                if (chargeIndex >= 0) {
+                    chargeAmounts[chargeIndex] += amounts[i];
+                } else {
+                    chargeIndex = nrOfCharges;
+                    chargeAccountIds[chargeIndex] = accountIds[i];
+                    chargeAmounts[chargeIndex] = amounts[i];
+                    chargeIndexByAccount[slot] = ++nrOfCharges;
+                }
+                chargeIndexOfPayment[i] = chargeIndex;
+            }
+            return nrOfCharges;
+        }
+
+        /**
+         * Completes each payment with the outcome of the charge it was sent in.
+         */
+        void completeFromCharges() {
+            for (int i = 0; i < count; i++) {
+                RuntimeException failure = chargeFailures[chargeIndexOfPayment[i]];
+                if (failure == null) {
+                    completions[i].complete(null);
+                } else {
+                    completions[i].completeExceptionally(failure);
+                }
+            }
+        }
+
+        void completeAll(Throwable failure) {
+            for (int i = 0; i < count; i++) {
+                if (failure == null) {
+                    completions[i].complete(null);
+                } else {
+                    completions[i].completeExceptionally(failure);
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(completions, 0, count, null);
+            Arrays.fill(chargeFailures, null);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import java.time.Duration;
+
+/**
+ * When a {@link MicroBatchingTicketPaymentService} sends the payments it has collected: as soon as it has
+ * {@code maximumBatchSize} of them, or once the first has waited {@code maximumDelay}, whichever comes first. The delay
+ * is the most latency batching adds to a payment while the gateway keeps up.
+ * <p>
+ * With account merging, payments for the same account in a batch are sent as one charge for their total.
+ */
+public final class PaymentBatchingPolicy {
+
+    private final int maximumBatchSize;
+    private final Duration maximumDelay;
+    private final boolean mergingAccounts;
+
+    private PaymentBatchingPolicy(int maximumBatchSize, Duration maximumDelay, boolean mergingAccounts) {
+        this.maximumBatchSize = maximumBatchSize;
+        this.maximumDelay = maximumDelay;
+        this.mergingAccounts = mergingAccounts;
+    }
+
+    public static PaymentBatchingPolicy of(int maximumBatchSize, Duration maximumDelay) {
+        if (maximumBatchSize < 1) {
+            throw new IllegalArgumentException("maximumBatchSize must be at least 1 but was " + maximumBatchSize);
+        }
+        if (maximumDelay.isNegative()) {
+            throw new IllegalArgumentException("maximumDelay must not be negative but was " + maximumDelay);
+        }
+        return new PaymentBatchingPolicy(maximumBatchSize, maximumDelay, false);
+    }
+
+    public PaymentBatchingPolicy withMergedAccounts() {
+        return new PaymentBatchingPolicy(maximumBatchSize, maximumDelay, true);
+    }
+
+    public int getMaximumBatchSize() {
+        return maximumBatchSize;
+    }
+
+    public Duration getMaximumDelay() {
+        return maximumDelay;
+    }
+
+    public boolean isMergingAccounts() {
+        return mergingAccounts;
+    }
+
+    @Override
+    public String toString() {
+        return "up to " + maximumBatchSize + " payments within " + maximumDelay + (mergingAccounts ? ", merged by account" : "");
+    }
+}
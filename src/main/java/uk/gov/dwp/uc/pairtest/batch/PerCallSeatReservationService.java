@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Sends a batch to a {@link SeatReservationService} that has no bulk endpoint, one call per entry, so
+ * that an entry the gateway turns down fails on its own.
+ */
+public class PerCallSeatReservationService implements BatchSeatReservationService {
+
+    private final SeatReservationService seatReservationService;
+
+    public PerCallSeatReservationService(SeatReservationService seatReservationService) {
+        this.seatReservationService = seatReservationService;
+    }
+
+    @Override
+    public void reserveSeats(long[] accountIds, int[] totalSeatsToAllocate, int count, RuntimeException[] failures) {
+        for (int i = 0; i < count; i++) {
+            try {
+                seatReservationService.reserveSeat(accountIds[i], totalSeatsToAllocate[i]);
+            } catch (RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+    }
+}
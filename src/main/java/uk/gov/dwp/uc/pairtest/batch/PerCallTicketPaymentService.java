@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Sends a batch to a {@link TicketPaymentService} that has no bulk endpoint, one call per entry, so
+ * that an entry the gateway turns down fails on its own.
+ */
+public class PerCallTicketPaymentService implements BatchTicketPaymentService {
+
+    private final TicketPaymentService ticketPaymentService;
+
+    public PerCallTicketPaymentService(TicketPaymentService ticketPaymentService) {
+        this.ticketPaymentService = ticketPaymentService;
+    }
+
+    @Override
+    public void makePayments(long[] accountIds, int[] totalAmountsToPay, int count, RuntimeException[] failures) {
+        for (int i = 0; i < count; i++) {
+            try {
+                ticketPaymentService.makePayment(accountIds[i], totalAmountsToPay[i]);
+            } catch (RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+    }
+}
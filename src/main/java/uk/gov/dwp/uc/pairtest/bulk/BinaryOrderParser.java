@@ -0,0 +1,46 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads {@link OrderFileFormat#BINARY} orders. A short record at the end of the file is reported as malformed. The
+ * record number stands in for the line number.
+ */
+final class BinaryOrderParser implements OrderParser {
+
+    static final int RECORD_LENGTH = Long.BYTES + (3 * Integer.BYTES);
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long recordNumber;
+    private boolean endOfFile;
+
+    BinaryOrderParser(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, RECORD_LENGTH));
+        this.buffer.flip();
+    }
+
+    @Override
+    public boolean fill(OrderBatch batch) throws IOException {
+        while (!batch.isFull()) {
+            if (buffer.remaining() < RECORD_LENGTH) {
+                if (endOfFile) {
+                    if (buffer.hasRemaining()) {
+                        buffer.position(buffer.limit());
+                        batch.addMalformed(++recordNumber);
+                    }
+                    return batch.size() > 0;
+                }
+                buffer.compact();
+                endOfFile = channel.read(buffer) < 0;
+                buffer.flip();
+                continue;
+            }
+            batch.add(++recordNumber, buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * What happened to one order in an order file, as written to the results file.
+ */
+public enum BulkOrderOutcome {
+    PURCHASED,
+    NO_TICKETS_ORDERED,
+    NO_ADULT_TICKETS_REQUESTED,
+    INVALID_ACCOUNT_NUMBER,
+    MAXIMUM_NR_OF_TICKETS_EXCEEDED,
+    TOO_MANY_INFANTS_PER_ADULT,
+    REJECTED,
+    FAILED,
+    MALFORMED;
+
+    private final byte[] nameBytes = name().getBytes(StandardCharsets.US_ASCII);
+
+    byte[] getNameBytes() {
+        return nameBytes;
+    }
+}
@@ -0,0 +1,210 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.codec.OrderDecoder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequestFactory;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyInfantsPerAdultException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Purchases every order in an order file through a {@link TicketService} and writes the outcome of each to a results
+ * file, in the order they appear in the order file.
+ * <p>
+ * The calling thread reads orders into batches, {@code nrOfWorkers} threads purchase the orders in each batch, and a
+ * writer thread writes the results of the batches back in order. The batches are reused, and only a fixed number of
+ * them exist, so the memory used does not grow with the size of the file.
+ */
+public class BulkOrderProcessor {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final OrderBatch END = new OrderBatch(0);
+
+    private final TicketService ticketService;
+    private final OrderDecoder orderDecoder = new OrderDecoder();
+    private final TicketTypeRequestFactory ticketTypeRequestFactory = new TicketTypeRequestFactory();
+    private final int nrOfWorkers;
+    private final int batchSize;
+    private final int bufferSize;
+
+    public BulkOrderProcessor(TicketService ticketService, int nrOfWorkers) {
+        this(ticketService, nrOfWorkers, DEFAULT_BATCH_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BulkOrderProcessor(TicketService ticketService, int nrOfWorkers, int batchSize, int bufferSize) {
+        if (nrOfWorkers < 1) {
+            throw new IllegalArgumentException("nrOfWorkers must be at least 1 but was " + nrOfWorkers);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1 but was " + batchSize);
+        }
+        this.ticketService = ticketService;
+        this.nrOfWorkers = nrOfWorkers;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+    }
+
+    public BulkOrderSummary process(Path orderFile, Path resultsFile) throws IOException {
+        int nrOfBatches = (2 * nrOfWorkers) + 2;
+        BlockingQueue<OrderBatch> freeBatches = new ArrayBlockingQueue<>(nrOfBatches);
+        BlockingQueue<OrderBatch> readBatches = new ArrayBlockingQueue<>(nrOfBatches + nrOfWorkers);
+        BlockingQueue<OrderBatch> purchasedBatches = new ArrayBlockingQueue<>(nrOfBatches + 1);
+        for (int i = 0; i < nrOfBatches; i++) {
+            freeBatches.add(new OrderBatch(batchSize));
+        }
+
+        long start = System.nanoTime();
+        try (FileChannel orders = FileChannel.open(orderFile, StandardOpenOption.READ);
+             ResultsFileWriter resultsFileWriter = new ResultsFileWriter(resultsFile, bufferSize)) {
+            Thread[] workers = new Thread[nrOfWorkers];
+            for (int i = 0; i < nrOfWorkers; i++) {
+                workers[i] = new Thread(() -> purchaseBatches(readBatches, purchasedBatches), "bulk-order-worker-" + i);
+                workers[i].start();
+            }
+            IOException[] writeFailure = new IOException[1];
+            Thread writer = new Thread(() -> writeBatchesInOrder(purchasedBatches, freeBatches, resultsFileWriter, nrOfBatches,
+                                                                 writeFailure), "bulk-order-writer");
+            writer.start();
+
+            try {
+                readBatches(parserFor(orderFile, orders), freeBatches, readBatches);
+            } finally {
+                awaitAll(readBatches, purchasedBatches, workers, writer);
+            }
+            if (writeFailure[0] != null) {
+                throw writeFailure[0];
+            }
+            return new BulkOrderSummary(resultsFileWriter.getNrOfOrdersByOutcome(), Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private OrderParser parserFor(Path orderFile, FileChannel orders) {
+        return OrderFileFormat.of(orderFile) == OrderFileFormat.BINARY ? new BinaryOrderParser(orders, bufferSize)
+                                                                       : new CsvOrderParser(orders, bufferSize, orderDecoder);
+    }
+
+    private static void readBatches(OrderParser parser, BlockingQueue<OrderBatch> freeBatches,
+                                    BlockingQueue<OrderBatch> readBatches) throws IOException {
+        long sequence = 0;
+        boolean more = true;
+        try {
+            while (more) {
+                OrderBatch batch = freeBatches.take();
+                batch.reset(sequence);
+                more = parser.fill(batch);
+                if (batch.size() > 0) {
+                    readBatches.put(batch);
+                    sequence++;
+                } else {
+                    freeBatches.put(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading orders");
+        }
+    }
+
+    private void awaitAll(BlockingQueue<OrderBatch> readBatches, BlockingQueue<OrderBatch> purchasedBatches, Thread[] workers,
+                          Thread writer) throws InterruptedIOException {
+        try {
+            for (int i = 0; i < nrOfWorkers; i++) {
+                readBatches.put(END);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            purchasedBatches.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the orders to be purchased");
+        }
+    }
+
+    private void purchaseBatches(BlockingQueue<OrderBatch> readBatches, BlockingQueue<OrderBatch> purchasedBatches) {
+        try {
+            OrderBatch batch;
+            while ((batch = readBatches.take()) != END) {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (batch.outcomes[i] == null) {
+                        batch.outcomes[i] = purchase(batch.accountIds[i], batch.nrOfAdultTickets[i], batch.nrOfChildTickets[i],
+                                                     batch.nrOfInfantTickets[i]);
+                    }
+                }
+                purchasedBatches.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BulkOrderOutcome purchase(long accountId, int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets) {
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequestFactory.createTicketRequests(nrOfAdultTickets,
+                                                                                                   nrOfChildTickets,
+                                                                                                   nrOfInfantTickets));
+            return BulkOrderOutcome.PURCHASED;
+        } catch (NoTicketsOrderedException e) {
+            return BulkOrderOutcome.NO_TICKETS_ORDERED;
+        } catch (NoAdultTicketsRequestedException e) {
+            return BulkOrderOutcome.NO_ADULT_TICKETS_REQUESTED;
+        } catch (InvalidAccountNumberException e) {
+            return BulkOrderOutcome.INVALID_ACCOUNT_NUMBER;
+        } catch (MaximumNrOfTicketsAllowedExceededException e) {
+            return BulkOrderOutcome.MAXIMUM_NR_OF_TICKETS_EXCEEDED;
+        } catch (TooManyInfantsPerAdultException e) {
+            return BulkOrderOutcome.TOO_MANY_INFANTS_PER_ADULT;
+        } catch (InvalidPurchaseException e) {
+            return BulkOrderOutcome.REJECTED;
+        } catch (RuntimeException e) {
+            return BulkOrderOutcome.FAILED;
+        }
+    }
+
+    /**
+     * Batches can be purchased out of order, but no more than {@code nrOfBatches} are ever in flight, so one waiting
+     * for those before it to be written can be parked in a slot of its own.
+     */
+    private static void writeBatchesInOrder(BlockingQueue<OrderBatch> purchasedBatches, BlockingQueue<OrderBatch> freeBatches,
+                                            ResultsFileWriter resultsFileWriter, int nrOfBatches, IOException[] writeFailure) {
+        OrderBatch[] waiting = new OrderBatch[nrOfBatches];
+        long nextSequence = 0;
+        try {
+            OrderBatch batch;
+            while ((batch = purchasedBatches.take()) != END) {
+                waiting[(int) (batch.getSequence() % nrOfBatches)] = batch;
+                OrderBatch next = waiting[(int) (nextSequence % nrOfBatches)];
+                while (next != null) {
+                    waiting[(int) (nextSequence % nrOfBatches)] = null;
+                    if (writeFailure[0] == null) {
+                        try {
+                            resultsFileWriter.write(next);
+                        } catch (IOException e) {
+                            writeFailure[0] = e;
+                        }
+                    }
+                    freeBatches.put(next);
+                    nextSequence++;
+                    next = waiting[(int) (nextSequence % nrOfBatches)];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
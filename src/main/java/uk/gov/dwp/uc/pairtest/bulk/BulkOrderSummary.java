@@ -0,0 +1,47 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.time.Duration;
+
+/**
+ * How many orders in an order file had each outcome, and how long they took.
+ */
+public final class BulkOrderSummary {
+
+    private final long[] nrOfOrdersByOutcome;
+    private final Duration elapsed;
+
+    BulkOrderSummary(long[] nrOfOrdersByOutcome, Duration elapsed) {
+        this.nrOfOrdersByOutcome = nrOfOrdersByOutcome.clone();
+        this.elapsed = elapsed;
+    }
+
+    public long getNrOfOrders() {
+        long nrOfOrders = 0;
+        for (long nrOfOrdersWithOutcome : nrOfOrdersByOutcome) {
+            nrOfOrders += nrOfOrdersWithOutcome;
+        }
+        return nrOfOrders;
+    }
+
+    public long getNrOfOrders(BulkOrderOutcome outcome) {
+        return nrOfOrdersByOutcome[outcome.ordinal()];
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        long nrOfOrders = getNrOfOrders();
+        summary.append(String.format("Processed %s orders in %s ms (%s orders/s)%n", nrOfOrders, elapsed.toMillis(),
+                                     (nrOfOrders * 1_000_000_000L) / Math.max(1, elapsed.toNanos())));
+        for (BulkOrderOutcome outcome : BulkOrderOutcome.values()) {
+            if (getNrOfOrders(outcome) > 0) {
+                summary.append(String.format("  %s: %s%n", outcome, getNrOfOrders(outcome)));
+            }
+        }
+        return summary.toString();
+    }
+}
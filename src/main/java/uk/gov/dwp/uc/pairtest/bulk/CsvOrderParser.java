@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import uk.gov.dwp.uc.pairtest.codec.DecodedOrder;
+import uk.gov.dwp.uc.pairtest.codec.OrderDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads {@link OrderFileFormat#CSV} orders by decoding each line straight from the read buffer with an
+ * {@link OrderDecoder}. A line longer than the buffer is reported as malformed and skipped.
+ */
+final class CsvOrderParser implements OrderParser {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final OrderDecoder orderDecoder;
+    private final DecodedOrder decodedOrder = new DecodedOrder();
+    private long lineNumber;
+    private boolean endOfFile;
+    private boolean skippingLongLine;
+
+    CsvOrderParser(ReadableByteChannel channel, int bufferSize, OrderDecoder orderDecoder) {
+        this.channel = channel;
+        this.orderDecoder = orderDecoder;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+        this.buffer.flip();
+    }
+
+    @Override
+    public boolean fill(OrderBatch batch) throws IOException {
+        while (!batch.isFull()) {
+            int start = buffer.position();
+            int end = indexOfNewLine(start, buffer.limit());
+            if (end >= 0) {
+                buffer.position(end + 1);
+                parseLine(start, end, batch);
+            } else if (endOfFile) {
+                if (start < buffer.limit()) {
+                    buffer.position(buffer.limit());
+                    parseLine(start, buffer.limit(), batch);
+                    continue;
+                }
+                return batch.size() > 0;
+            } else if ((start == 0) && (buffer.limit() == buffer.capacity())) {
+                buffer.clear().flip();
+                if (!skippingLongLine) {
+                    skippingLongLine = true;
+                    batch.addMalformed(++lineNumber);
+                }
+            } else {
+                buffer.compact();
+                endOfFile = channel.read(buffer) < 0;
+                buffer.flip();
+            }
+        }
+        return true;
+    }
+
+    private int indexOfNewLine(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void parseLine(int start, int end, OrderBatch batch) {
+        if (skippingLongLine) {
+            skippingLongLine = false;
+            return;
+        }
+        lineNumber++;
+        if ((end > start) && (bytes[end - 1] == '\r')) {
+            end--;
+        }
+        if ((start == end) || (bytes[start] == '#') || ((lineNumber == 1) && Character.isLetter(bytes[start]))) {
+            return;
+        }
+        if (orderDecoder.decode(buffer, start, end, decodedOrder).isDecoded()) {
+            batch.add(lineNumber, decodedOrder.getAccountId(), decodedOrder.getNrOfAdultTickets(),
+                      decodedOrder.getNrOfChildTickets(), decodedOrder.getNrOfInfantTickets());
+        } else {
+            batch.addMalformed(lineNumber);
+        }
+    }
+}
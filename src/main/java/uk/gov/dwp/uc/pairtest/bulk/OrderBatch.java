@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+/**
+ * A reusable batch of orders read from an order file, held as primitive columns, with the outcome of each once it has
+ * been purchased. An order that could not be read is marked {@link BulkOrderOutcome#MALFORMED} as it is added.
+ */
+final class OrderBatch {
+
+    final long[] lineNumbers;
+    final long[] accountIds;
+    final int[] nrOfAdultTickets;
+    final int[] nrOfChildTickets;
+    final int[] nrOfInfantTickets;
+    final BulkOrderOutcome[] outcomes;
+    private int size;
+    private long sequence;
+
+    OrderBatch(int capacity) {
+        this.lineNumbers = new long[capacity];
+        this.accountIds = new long[capacity];
+        this.nrOfAdultTickets = new int[capacity];
+        this.nrOfChildTickets = new int[capacity];
+        this.nrOfInfantTickets = new int[capacity];
+        this.outcomes = new BulkOrderOutcome[capacity];
+    }
+
+    void reset(long sequence) {
+        this.sequence = sequence;
+        this.size = 0;
+    }
+
+    void add(long lineNumber, long accountId, int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets) {
+        lineNumbers[size] = lineNumber;
+        accountIds[size] = accountId;
+        this.nrOfAdultTickets[size] = nrOfAdultTickets;
+        this.nrOfChildTickets[size] = nrOfChildTickets;
+        this.nrOfInfantTickets[size] = nrOfInfantTickets;
+        outcomes[size] = null;
+        size++;
+    }
+
+    void addMalformed(long lineNumber) {
+        lineNumbers[size] = lineNumber;
+        outcomes[size] = BulkOrderOutcome.MALFORMED;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == outcomes.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.nio.file.Path;
+
+/**
+ * The layouts an order file can have.
+ */
+public enum OrderFileFormat {
+
+    /**
+     * One order per line: {@code accountId,adults,children,infants}. Blank lines and lines starting with {@code #} are
+     * skipped, as is a first line starting with a letter, which is taken to be a header.
+     */
+    CSV,
+
+    /**
+     * Fixed {@value BinaryOrderParser#RECORD_LENGTH} byte big-endian records: a long account id then an int count of
+     * adult, child and infant tickets.
+     */
+    BINARY;
+
+    /**
+     * @return {@link #BINARY} for a {@code .bin} file, otherwise {@link #CSV}
+     */
+    public static OrderFileFormat of(Path file) {
+        return file.getFileName().toString().endsWith(".bin") ? BINARY : CSV;
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.io.IOException;
+
+/**
+ * Reads orders from an order file into batches, through a buffer of fixed size whatever the size of the file.
+ */
+interface OrderParser {
+
+    /**
+     * Adds orders to the batch until it is full or the file has been read.
+     *
+     * @return false once there is nothing left to read
+     */
+    boolean fill(OrderBatch batch) throws IOException;
+}
@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@code lineNumber,accountId,OUTCOME} line for each order, formatting the numbers straight into a fixed
+ * size buffer, and counts the outcomes. The account id is left empty for a malformed order.
+ */
+final class ResultsFileWriter implements AutoCloseable {
+
+    private static final int MAXIMUM_LINE_LENGTH = 20 + 1 + 20 + 1 + 32 + 1;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+    private final long[] nrOfOrdersByOutcome = new long[BulkOrderOutcome.values().length];
+
+    ResultsFileWriter(Path file, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MAXIMUM_LINE_LENGTH));
+    }
+
+    void write(OrderBatch batch) throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            if (buffer.remaining() < MAXIMUM_LINE_LENGTH) {
+                flush();
+            }
+            BulkOrderOutcome outcome = batch.outcomes[i];
+            putLong(batch.lineNumbers[i]);
+            buffer.put((byte) ',');
+            if (outcome != BulkOrderOutcome.MALFORMED) {
+                putLong(batch.accountIds[i]);
+            }
+            buffer.put((byte) ',');
+            buffer.put(outcome.getNameBytes());
+            buffer.put((byte) '\n');
+            nrOfOrdersByOutcome[outcome.ordinal()]++;
+        }
+    }
+
+    long[] getNrOfOrdersByOutcome() {
+        return nrOfOrdersByOutcome;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
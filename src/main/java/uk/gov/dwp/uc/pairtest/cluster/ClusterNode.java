@@ -0,0 +1,360 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.ScreeningTicketService;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * A ticket service that sells the screenings the {@link HashRing} gives it and forwards purchases for any other
+ * screening to the node that owns it, over a connection to each node in the {@link ClusterProtocol}. A forwarded
+ * purchase is sold, or rejected, by the owner alone and is never forwarded again.
+ * <p>
+ * When a new {@link ClusterView} moves a screening to another node, the screening is taken off sale here, the purchases
+ * of it already under way are let finish, and it is put on sale on the new owner with the seats left. Until the new
+ * owner has it, a purchase for it is rejected with an {@code UnknownScreeningException} rather than sold twice.
+ */
+public class ClusterNode implements TicketService, ScreeningTicketService, AutoCloseable {
+
+    private static final long PURCHASE_DRAIN_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int nodeId;
+    private final SeatInventory seatInventory = new SeatInventory();
+    private final TicketServiceImpl localTicketService;
+    private final Map<Long, AtomicInteger> localScreenings = new ConcurrentHashMap<>();
+    private final Map<Integer, PeerConnection> peers = new ConcurrentHashMap<>();
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final ExecutorService requestExecutor;
+    private final LongAdder nrOfForwardedPurchases = new LongAdder();
+    private final LongAdder nrOfScreeningsMoved = new LongAdder();
+
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private volatile ClusterView view;
+    private volatile boolean running;
+
+    /**
+     * @param nrOfRequestThreads the threads serving requests forwarded by other nodes
+     */
+    public ClusterNode(int nodeId, SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                       int nrOfRequestThreads) {
+        if (nrOfRequestThreads < 1) {
+            throw new IllegalArgumentException("nrOfRequestThreads must be at least 1 but was " + nrOfRequestThreads);
+        }
+        this.nodeId = nodeId;
+        this.localTicketService = new TicketServiceImpl(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(),
+                                                        PurchaseEventSink.NONE, seatInventory);
+        AtomicInteger nrOfThreads = new AtomicInteger();
+        this.requestExecutor = Executors.newFixedThreadPool(nrOfRequestThreads, task -> {
+            Thread thread = new Thread(task, "cluster-node-" + nodeId + "-request-" + nrOfThreads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Listens on the address, which may have port 0 to take any free port, for requests from other nodes.
+     *
+     * @return the address other nodes reach this one on
+     */
+    public InetSocketAddress start(InetSocketAddress address) throws IOException {
+        if (running) {
+            throw new IllegalStateException("Already started");
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 128);
+        running = true;
+        acceptor = new Thread(this::acceptConnections, "cluster-node-" + nodeId + "-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Moves every screening the view gives to another node over to it, returning once they have all been moved. A
+     * screening that cannot be moved does not stop the others from being moved.
+     *
+     * @throws RuntimeException the first failure to move a screening, once every other screening has been tried
+     */
+    public synchronized void updateView(ClusterView newView) {
+        view = newView;
+        HashRing ring = newView.getRing();
+        peers.entrySet().removeIf(peer -> {
+            boolean stale = !ring.contains(peer.getKey()) || peer.getValue().isClosed();
+            if (stale) {
+                peer.getValue().close();
+            }
+            return stale;
+        });
+        RuntimeException firstFailure = null;
+        for (Long screeningId : localScreenings.keySet()) {
+            int owner = ring.ownerOf(screeningId);
+            if (owner != nodeId) {
+                try {
+                    moveScreening(screeningId, owner, newView);
+                } catch (RuntimeException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    } else if (firstFailure != e) {
+                        firstFailure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    /**
+     * Puts a screening on sale on the node that owns it.
+     *
+     * @throws IllegalStateException if the screening is already on sale
+     */
+    public void addScreening(long screeningId, int capacity) {
+        ClusterView current = view;
+        int owner = current == null ? nodeId : current.getRing().ownerOf(screeningId);
+        if (owner == nodeId) {
+            addLocalScreening(screeningId, capacity);
+        } else {
+            peerFor(owner, current).addScreening(screeningId, capacity);
+        }
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        localTicketService.purchaseTickets(accountId, ticketTypeRequests);
+    }
+
+    @Override
+    public SeatAllocation purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests)
+        throws InvalidPurchaseException {
+        if (!localScreenings.containsKey(screeningId)) {
+            ClusterView current = view;
+            int owner = current == null ? nodeId : current.getRing().ownerOf(screeningId);
+            if (owner != nodeId) {
+                nrOfForwardedPurchases.increment();
+                return peerFor(owner, current).purchase(screeningId, accountId, ticketTypeRequests);
+            }
+        }
+        return purchaseLocally(screeningId, accountId, ticketTypeRequests);
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public boolean holdsScreening(long screeningId) {
+        return localScreenings.containsKey(screeningId);
+    }
+
+    /**
+     * @throws uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException if this node does not hold the screening
+     */
+    public int getRemainingSeats(long screeningId) {
+        return seatInventory.getRemainingSeats(screeningId);
+    }
+
+    public int getNrOfScreenings() {
+        return localScreenings.size();
+    }
+
+    public long getNrOfForwardedPurchases() {
+        return nrOfForwardedPurchases.sum();
+    }
+
+    public long getNrOfScreeningsMoved() {
+        return nrOfScreeningsMoved.sum();
+    }
+
+    /**
+     * Stops listening and closes every connection, without waiting for requests in flight to be answered. Screenings
+     * still held here are lost, so a node leaving the cluster should be given a view without itself first.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            // The acceptor stops either way.
+        }
+        acceptor.join();
+        for (SocketChannel connection : connections) {
+            closeQuietly(connection);
+        }
+        peers.values().forEach(PeerConnection::close);
+        peers.clear();
+        requestExecutor.shutdownNow();
+        localTicketService.close();
+    }
+
+    private void addLocalScreening(long screeningId, int capacity) {
+        seatInventory.addScreening(screeningId, capacity);
+        localScreenings.put(screeningId, new AtomicInteger());
+    }
+
+    /**
+     * Counts the purchase against the screening while it runs, so that a move can wait for every purchase that might
+     * still hold or give back seats of the screening. One that finds the screening moved away after counting itself
+     * is turned down, as the move may already have counted the seats.
+     */
+    private SeatAllocation purchaseLocally(long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        AtomicInteger purchasesInFlight = localScreenings.get(screeningId);
+        if (purchasesInFlight == null) {
+            throw new UnknownScreeningException(screeningId);
+        }
+        purchasesInFlight.incrementAndGet();
+        try {
+            if (localScreenings.get(screeningId) != purchasesInFlight) {
+                throw new UnknownScreeningException(screeningId);
+            }
+            return localTicketService.purchaseTickets(screeningId, accountId, ticketTypeRequests);
+        } finally {
+            purchasesInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes the screening off sale here, then waits for the purchases already under way to finish, so that no seat hold
+     * is left to give seats back once the remaining seats have been counted. If the new owner turns the screening down
+     * or cannot be reached, the screening goes back on sale here, to be moved by the next view. If it cannot be known
+     * whether the new owner took it, it stays off sale here rather than risk being sold on both nodes.
+     */
+    private void moveScreening(long screeningId, int owner, ClusterView newView) {
+        AtomicInteger purchasesInFlight = localScreenings.remove(screeningId);
+        while (purchasesInFlight.get() > 0) {
+            LockSupport.parkNanos(PURCHASE_DRAIN_PAUSE_NANOS);
+        }
+        int remainingSeats = seatInventory.getRemainingSeats(screeningId);
+        try {
+            peerFor(owner, newView).addScreening(screeningId, remainingSeats);
+        } catch (RuntimeException e) {
+            if (!GatewayUnavailableException.isOutcomeUnknown(e)) {
+                localScreenings.put(screeningId, new AtomicInteger());
+            }
+            throw e;
+        }
+        seatInventory.removeScreening(screeningId);
+        nrOfScreeningsMoved.increment();
+    }
+
+    private PeerConnection peerFor(int owner, ClusterView current) {
+        PeerConnection peer = peers.get(owner);
+        if ((peer != null) && !peer.isClosed()) {
+            return peer;
+        }
+        return peers.compute(owner, (id, existing) -> {
+            if ((existing != null) && !existing.isClosed()) {
+                return existing;
+            }
+            try {
+                return new PeerConnection(nodeId, id, current.addressOf(id));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot reach node " + id, e);
+            }
+        });
+    }
+
+    private void acceptConnections() {
+        int nrOfConnections = 0;
+        while (running) {
+            try {
+                SocketChannel connection = serverChannel.accept();
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.add(connection);
+                Thread reader = new Thread(() -> serveConnection(connection),
+                                           "cluster-node-" + nodeId + "-connection-" + nrOfConnections++);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                // Closed by close(), or the connection went before it could be served.
+            }
+        }
+    }
+
+    private void serveConnection(SocketChannel connection) {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        try {
+            ByteBuffer request;
+            while (((request = ClusterProtocol.readFrame(connection, lengthBuffer)) != null)
+                   && (request.limit() >= ClusterProtocol.REQUEST_HEADER_LENGTH)) {
+                ByteBuffer received = request;
+                requestExecutor.execute(() -> answer(connection, received));
+            }
+        } catch (IOException e) {
+            // The peer went away or sent a frame that cannot be read; either way the connection is done with.
+        } finally {
+            connections.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    private void answer(SocketChannel connection, ByteBuffer request) {
+        ByteBuffer response = handle(request);
+        try {
+            synchronized (connection) {
+                ClusterProtocol.writeFully(connection, response);
+            }
+        } catch (IOException e) {
+            closeQuietly(connection);
+        }
+    }
+
+    private ByteBuffer handle(ByteBuffer request) {
+        long requestId = request.getLong(1);
+        try {
+            long screeningId = ClusterProtocol.screeningIdOf(request);
+            switch (request.get(0)) {
+                case ClusterProtocol.PURCHASE:
+                    return ClusterProtocol.doneResponse(requestId, purchaseLocally(
+                        screeningId, ClusterProtocol.accountIdOf(request), ClusterProtocol.ticketTypeRequestsOf(request)));
+                case ClusterProtocol.ADD_SCREENING:
+                    addLocalScreening(screeningId, ClusterProtocol.capacityOf(request));
+                    return ClusterProtocol.doneResponse(requestId, null);
+                default:
+                    throw new IllegalArgumentException("Unknown request kind " + request.get(0));
+            }
+        } catch (RuntimeException e) {
+            return ClusterProtocol.failedResponse(requestId, e);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // Nothing more can be done with it.
+        }
+    }
+}
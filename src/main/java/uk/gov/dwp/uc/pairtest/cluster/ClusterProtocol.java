@@ -0,0 +1,257 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException.Reason;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.SeatHoldExpiredException;
+import uk.gov.dwp.uc.pairtest.exception.TicketCapExceededException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyInfantsPerAdultException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyOrdersException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The frames nodes exchange, big-endian, each an int length followed by that many bytes.
+ * <p>
+ * A request is a kind byte and a request id, then for a purchase the screening id, a byte saying whether there is an
+ * account id, the account id, and a count of ticket type requests each as a type byte and an int number of tickets;
+ * or, to put a screening on sale, the screening id and its number of seats. A response is the request id, a
+ * {@link ForwardedOutcome} byte, three ints of detail, such as the seats taken or the numbers in a rejection, and a
+ * count of seat ids followed by the seat ids.
+ */
+final class ClusterProtocol {
+
+    static final byte PURCHASE = 1;
+    static final byte ADD_SCREENING = 2;
+    static final int MAXIMUM_FRAME_LENGTH = 1 << 16;
+    static final int REQUEST_HEADER_LENGTH = 1 + Long.BYTES + Long.BYTES;
+
+    private static final int RESPONSE_HEADER_LENGTH = Long.BYTES + 1 + (3 * Integer.BYTES) + Integer.BYTES;
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+    private static final ForwardedOutcome[] OUTCOMES = ForwardedOutcome.values();
+
+    private ClusterProtocol() {
+    }
+
+    static ByteBuffer purchaseRequest(long requestId, long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        int length = 1 + Long.BYTES + Long.BYTES + 1 + Long.BYTES + Integer.BYTES + (ticketTypeRequests.length * (1 + Integer.BYTES));
+        if (length > MAXIMUM_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Too many ticket type requests to forward: " + ticketTypeRequests.length);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+        frame.putInt(length).put(PURCHASE).putLong(requestId).putLong(screeningId);
+        frame.put((byte) (accountId == null ? 0 : 1)).putLong(accountId == null ? 0 : accountId);
+        frame.putInt(ticketTypeRequests.length);
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            frame.put((byte) ticketTypeRequest.getTicketType().ordinal()).putInt(ticketTypeRequest.getNoOfTickets());
+        }
+        return frame.flip();
+    }
+
+    static ByteBuffer addScreeningRequest(long requestId, long screeningId, int capacity) {
+        int length = 1 + Long.BYTES + Long.BYTES + Integer.BYTES;
+        return ByteBuffer.allocate(Integer.BYTES + length)
+            .putInt(length).put(ADD_SCREENING).putLong(requestId).putLong(screeningId).putInt(capacity)
+            .flip();
+    }
+
+    static long screeningIdOf(ByteBuffer request) {
+        return request.getLong(1 + Long.BYTES);
+    }
+
+    static Long accountIdOf(ByteBuffer request) {
+        int at = 1 + Long.BYTES + Long.BYTES;
+        return request.get(at) == 0 ? null : request.getLong(at + 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame does not hold the ticket type requests it says it does
+     */
+    static TicketTypeRequest[] ticketTypeRequestsOf(ByteBuffer request) {
+        int at = 1 + Long.BYTES + Long.BYTES + 1 + Long.BYTES;
+        int count = request.getInt(at);
+        if ((count < 0) || (count > ((request.limit() - at - Integer.BYTES) / (1 + Integer.BYTES)))) {
+            throw new IllegalArgumentException("Frame cannot hold " + count + " ticket type requests");
+        }
+        TicketTypeRequest[] ticketTypeRequests = new TicketTypeRequest[count];
+        at += Integer.BYTES;
+        for (int i = 0; i < count; i++) {
+            int type = request.get(at);
+            if ((type < 0) || (type >= TYPES.length)) {
+                throw new IllegalArgumentException("Unknown ticket type " + type);
+            }
+            ticketTypeRequests[i] = new TicketTypeRequest(TYPES[type], request.getInt(at + 1));
+            at += 1 + Integer.BYTES;
+        }
+        return ticketTypeRequests;
+    }
+
+    static int capacityOf(ByteBuffer request) {
+        return request.getInt(1 + Long.BYTES + Long.BYTES);
+    }
+
+    static ByteBuffer doneResponse(long requestId, SeatAllocation seatAllocation) {
+        int[] seatIds = seatAllocation == null ? new int[0] : seatAllocation.getSeatIds();
+        return response(requestId, ForwardedOutcome.DONE, seatAllocation == null ? 0 : seatAllocation.getNrOfSeats(), 0, 0,
+                        seatIds);
+    }
+
+    static ByteBuffer failedResponse(long requestId, Throwable failure) {
+        if (failure instanceof MaximumNrOfTicketsAllowedExceededException) {
+            MaximumNrOfTicketsAllowedExceededException e = (MaximumNrOfTicketsAllowedExceededException) failure;
+            return response(requestId, ForwardedOutcome.MAXIMUM_NR_OF_TICKETS_EXCEEDED, e.getMaximumAllowed(),
+                            e.getNrOfTicketsOrdered(), 0, null);
+        }
+        if (failure instanceof TooManyInfantsPerAdultException) {
+            TooManyInfantsPerAdultException e = (TooManyInfantsPerAdultException) failure;
+            return response(requestId, ForwardedOutcome.TOO_MANY_INFANTS_PER_ADULT, e.getMaximumPerAdult(), e.getNrOfInfantTickets(),
+                            e.getNrOfAdultTickets(), null);
+        }
+        if (failure instanceof ScreeningSoldOutException) {
+            return response(requestId, ForwardedOutcome.SCREENING_SOLD_OUT,
+                            ((ScreeningSoldOutException) failure).getNrOfSeatsRequested(), 0, 0, null);
+        }
+        return response(requestId, outcomeOf(failure), 0, 0, 0, null);
+    }
+
+    /**
+     * Reads the response to a request about the screening, throwing the rejection or failure it carries.
+     */
+    static SeatAllocation seatAllocationOf(ByteBuffer response, long screeningId, int nodeId) {
+        int outcome = response.get(Long.BYTES);
+        int first = response.getInt(Long.BYTES + 1);
+        int second = response.getInt(Long.BYTES + 1 + Integer.BYTES);
+        int third = response.getInt(Long.BYTES + 1 + (2 * Integer.BYTES));
+        switch ((outcome >= 0) && (outcome < OUTCOMES.length) ? OUTCOMES[outcome] : ForwardedOutcome.FAILED) {
+            case DONE:
+                int nrOfSeatIds = response.getInt(Long.BYTES + 1 + (3 * Integer.BYTES));
+                if (nrOfSeatIds == 0) {
+                    return SeatAllocation.unassigned(first);
+                }
+                int[] seatIds = new int[nrOfSeatIds];
+                for (int i = 0; i < nrOfSeatIds; i++) {
+                    seatIds[i] = response.getInt(RESPONSE_HEADER_LENGTH + (i * Integer.BYTES));
+                }
+                return SeatAllocation.assigned(seatIds);
+            case NO_TICKETS_ORDERED:
+                throw NoTicketsOrderedException.stackless();
+            case NO_ADULT_TICKETS_REQUESTED:
+                throw NoAdultTicketsRequestedException.stackless();
+            case INVALID_ACCOUNT_NUMBER:
+                throw InvalidAccountNumberException.stackless();
+            case MAXIMUM_NR_OF_TICKETS_EXCEEDED:
+                throw MaximumNrOfTicketsAllowedExceededException.stackless(first, second);
+            case TOO_MANY_INFANTS_PER_ADULT:
+                throw TooManyInfantsPerAdultException.stackless(first, second, third);
+            case TOO_MANY_ORDERS:
+                throw TooManyOrdersException.stackless();
+            case TICKET_CAP_EXCEEDED:
+                throw TicketCapExceededException.stackless();
+            case UNKNOWN_SCREENING:
+                throw new UnknownScreeningException(screeningId);
+            case SCREENING_SOLD_OUT:
+                throw new ScreeningSoldOutException(screeningId, first);
+            case SEAT_HOLD_EXPIRED:
+                throw new SeatHoldExpiredException(screeningId);
+            case REJECTED:
+                throw new InvalidPurchaseException();
+            case OUTCOME_UNKNOWN:
+                throw GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+            default:
+                throw new IllegalStateException("Request for screening " + screeningId + " failed on node " + nodeId);
+        }
+    }
+
+    /**
+     * Reads one frame, blocking until it has all arrived.
+     *
+     * @return the frame without its length, or null if the connection was closed between frames
+     */
+    static ByteBuffer readFrame(SocketChannel channel, ByteBuffer lengthBuffer) throws IOException {
+        lengthBuffer.clear();
+        if (!readFully(channel, lengthBuffer)) {
+            return null;
+        }
+        int length = lengthBuffer.getInt(0);
+        if ((length < 1) || (length > MAXIMUM_FRAME_LENGTH)) {
+            throw new IOException("Frame length out of range: " + length);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        if (!readFully(channel, frame)) {
+            throw new EOFException("Connection closed within a frame");
+        }
+        return frame.flip();
+    }
+
+    static void writeFully(SocketChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private static boolean readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connection closed within a frame");
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer response(long requestId, ForwardedOutcome outcome, int first, int second, int third, int[] seatIds) {
+        int nrOfSeatIds = seatIds == null ? 0 : seatIds.length;
+        int length = RESPONSE_HEADER_LENGTH + (nrOfSeatIds * Integer.BYTES);
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+        frame.putInt(length).putLong(requestId).put((byte) outcome.ordinal()).putInt(first).putInt(second).putInt(third);
+        frame.putInt(nrOfSeatIds);
+        for (int i = 0; i < nrOfSeatIds; i++) {
+            frame.putInt(seatIds[i]);
+        }
+        return frame.flip();
+    }
+
+    private static ForwardedOutcome outcomeOf(Throwable failure) {
+        if (failure instanceof NoTicketsOrderedException) {
+            return ForwardedOutcome.NO_TICKETS_ORDERED;
+        }
+        if (failure instanceof NoAdultTicketsRequestedException) {
+            return ForwardedOutcome.NO_ADULT_TICKETS_REQUESTED;
+        }
+        if (failure instanceof InvalidAccountNumberException) {
+            return ForwardedOutcome.INVALID_ACCOUNT_NUMBER;
+        }
+        if (failure instanceof TooManyOrdersException) {
+            return ForwardedOutcome.TOO_MANY_ORDERS;
+        }
+        if (failure instanceof TicketCapExceededException) {
+            return ForwardedOutcome.TICKET_CAP_EXCEEDED;
+        }
+        if (failure instanceof UnknownScreeningException) {
+            return ForwardedOutcome.UNKNOWN_SCREENING;
+        }
+        if (failure instanceof SeatHoldExpiredException) {
+            return ForwardedOutcome.SEAT_HOLD_EXPIRED;
+        }
+        if (failure instanceof InvalidPurchaseException) {
+            return ForwardedOutcome.REJECTED;
+        }
+        if (GatewayUnavailableException.isOutcomeUnknown(failure)) {
+            return ForwardedOutcome.OUTCOME_UNKNOWN;
+        }
+        return ForwardedOutcome.FAILED;
+    }
+}
@@ -0,0 +1,36 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * What a node knows of the cluster: the ring deciding who owns each screening and where each node can be reached.
+ */
+public final class ClusterView {
+
+    private final HashRing ring;
+    private final Map<Integer, InetSocketAddress> addresses;
+
+    public ClusterView(HashRing ring, Map<Integer, InetSocketAddress> addresses) {
+        for (int nodeId : ring.getNodeIds()) {
+            if (!addresses.containsKey(nodeId)) {
+                throw new IllegalArgumentException("No address for node " + nodeId);
+            }
+        }
+        this.ring = ring;
+        this.addresses = Map.copyOf(addresses);
+    }
+
+    public HashRing getRing() {
+        return ring;
+    }
+
+    public InetSocketAddress addressOf(int nodeId) {
+        return addresses.get(nodeId);
+    }
+
+    @Override
+    public String toString() {
+        return ring + " at " + addresses;
+    }
+}
@@ -0,0 +1,21 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+/**
+ * How a request forwarded to another node ended, sent back as one byte, so outcomes are only ever added at the end.
+ */
+enum ForwardedOutcome {
+    DONE,
+    NO_TICKETS_ORDERED,
+    NO_ADULT_TICKETS_REQUESTED,
+    INVALID_ACCOUNT_NUMBER,
+    MAXIMUM_NR_OF_TICKETS_EXCEEDED,
+    TOO_MANY_INFANTS_PER_ADULT,
+    TOO_MANY_ORDERS,
+    TICKET_CAP_EXCEEDED,
+    UNKNOWN_SCREENING,
+    SCREENING_SOLD_OUT,
+    SEAT_HOLD_EXPIRED,
+    REJECTED,
+    FAILED,
+    OUTCOME_UNKNOWN
+}
@@ -0,0 +1,104 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import java.util.Arrays;
+
+/**
+ * A consistent hash ring deciding which node owns each screening. Every node is placed on the ring at
+ * {@code virtualNodesPerNode} points, and a screening is owned by the node at the first point at or after its hash,
+ * going round. Adding or removing a node only moves the screenings next to its points, about {@code 1 / n} of them,
+ * and the many points per node keep the shares even.
+ * <p>
+ * A ring is immutable; {@link #withNode(int)} and {@link #withoutNode(int)} build new ones. The points are a sorted
+ * array searched by bisection, so finding an owner does not allocate.
+ */
+public final class HashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES_PER_NODE = 128;
+
+    private final int virtualNodesPerNode;
+    private final int[] nodeIds;
+    private final long[] points;
+    private final int[] owners;
+
+    private HashRing(int virtualNodesPerNode, int[] nodeIds) {
+        this.virtualNodesPerNode = virtualNodesPerNode;
+        this.nodeIds = nodeIds;
+        long[] pointsWithOwners = new long[nodeIds.length * virtualNodesPerNode];
+        int[] ownersByPoint = new int[pointsWithOwners.length];
+        int i = 0;
+        for (int nodeId : nodeIds) {
+            for (int virtualNode = 0; virtualNode < virtualNodesPerNode; virtualNode++) {
+                pointsWithOwners[i] = mix(mix(((long) nodeId << 32) | virtualNode));
+                ownersByPoint[i] = nodeId;
+                i++;
+            }
+        }
+        Integer[] order = new Integer[pointsWithOwners.length];
+        for (int j = 0; j < order.length; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(pointsWithOwners[a], pointsWithOwners[b]));
+        this.points = new long[order.length];
+        this.owners = new int[order.length];
+        for (int j = 0; j < order.length; j++) {
+            points[j] = pointsWithOwners[order[j]];
+            owners[j] = ownersByPoint[order[j]];
+        }
+    }
+
+    public static HashRing of(int virtualNodesPerNode, int... nodeIds) {
+        if (virtualNodesPerNode < 1) {
+            throw new IllegalArgumentException("virtualNodesPerNode must be at least 1 but was " + virtualNodesPerNode);
+        }
+        int[] distinctNodeIds = Arrays.stream(nodeIds).distinct().sorted().toArray();
+        return new HashRing(virtualNodesPerNode, distinctNodeIds);
+    }
+
+    public HashRing withNode(int nodeId) {
+        int[] withNode = Arrays.copyOf(nodeIds, nodeIds.length + 1);
+        withNode[nodeIds.length] = nodeId;
+        return of(virtualNodesPerNode, withNode);
+    }
+
+    public HashRing withoutNode(int nodeId) {
+        return of(virtualNodesPerNode, Arrays.stream(nodeIds).filter(id -> id != nodeId).toArray());
+    }
+
+    /**
+     * @throws IllegalStateException if the ring has no nodes
+     */
+    public int ownerOf(long screeningId) {
+        if (points.length == 0) {
+            throw new IllegalStateException("The ring has no nodes");
+        }
+        int index = Arrays.binarySearch(points, mix(screeningId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public boolean contains(int nodeId) {
+        return Arrays.binarySearch(nodeIds, nodeId) >= 0;
+    }
+
+    public int[] getNodeIds() {
+        return nodeIds.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "HashRing" + Arrays.toString(nodeIds) + " with " + virtualNodesPerNode + " points per node";
+    }
+
+    /**
+     * The finaliser of SplitMix64, so that neighbouring ids land far apart on the ring. Points are mixed twice, as
+     * otherwise node 0's points would be exactly where screenings 0 to {@code virtualNodesPerNode - 1} land.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
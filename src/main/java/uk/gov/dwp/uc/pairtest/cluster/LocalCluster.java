@@ -0,0 +1,108 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+/**
+ * A cluster of {@link ClusterNode}s in this process, talking to each other over loopback, for trying out and measuring
+ * routing and rebalancing on one machine. Nodes join and leave one at a time, and every node has the new
+ * {@link ClusterView} before {@link #addNode()} or {@link #removeNode(int)} returns.
+ */
+public class LocalCluster implements AutoCloseable {
+
+    private final int virtualNodesPerNode;
+    private final int nrOfRequestThreads;
+    private final Map<Integer, ClusterNode> nodes = new TreeMap<>();
+    private final Map<Integer, InetSocketAddress> addresses = new HashMap<>();
+    private HashRing ring;
+    private int nextNodeId;
+
+    public LocalCluster(int nrOfNodes) throws IOException {
+        this(nrOfNodes, HashRing.DEFAULT_VIRTUAL_NODES_PER_NODE, 4);
+    }
+
+    public LocalCluster(int nrOfNodes, int virtualNodesPerNode, int nrOfRequestThreads) throws IOException {
+        if (nrOfNodes < 1) {
+            throw new IllegalArgumentException("nrOfNodes must be at least 1 but was " + nrOfNodes);
+        }
+        this.virtualNodesPerNode = virtualNodesPerNode;
+        this.nrOfRequestThreads = nrOfRequestThreads;
+        this.ring = HashRing.of(virtualNodesPerNode);
+        for (int i = 0; i < nrOfNodes; i++) {
+            addNode();
+        }
+    }
+
+    /**
+     * Starts a node and gives it its share of the screenings. The new node learns the view first, so it can take
+     * purchases for the screenings moved to it as soon as they arrive.
+     */
+    public synchronized ClusterNode addNode() throws IOException {
+        int nodeId = nextNodeId++;
+        ClusterNode node = new ClusterNode(nodeId, new SeatReservationServiceImpl(), new TicketPaymentServiceImpl(),
+                                           nrOfRequestThreads);
+        addresses.put(nodeId, node.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+        ring = ring.withNode(nodeId);
+        ClusterView view = new ClusterView(ring, addresses);
+        node.updateView(view);
+        for (ClusterNode existing : nodes.values()) {
+            existing.updateView(view);
+        }
+        nodes.put(nodeId, node);
+        return node;
+    }
+
+    /**
+     * Moves the node's screenings to the nodes that now own them and stops it. The others learn the view first, so they
+     * forward to the new owners rather than to the leaving node.
+     *
+     * @throws IllegalStateException if it is the last node, as its screenings would have nowhere to go
+     */
+    public synchronized void removeNode(int nodeId) throws InterruptedException {
+        ClusterNode leaving = nodes.get(nodeId);
+        if (leaving == null) {
+            throw new IllegalArgumentException("No node " + nodeId);
+        }
+        if (nodes.size() == 1) {
+            throw new IllegalStateException("Cannot remove the last node");
+        }
+        nodes.remove(nodeId);
+        ring = ring.withoutNode(nodeId);
+        ClusterView view = new ClusterView(ring, addresses);
+        for (ClusterNode remaining : nodes.values()) {
+            remaining.updateView(view);
+        }
+        leaving.updateView(view);
+        leaving.close();
+        addresses.remove(nodeId);
+    }
+
+    public synchronized ClusterNode getNode(int nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    public synchronized List<ClusterNode> getNodes() {
+        return new ArrayList<>(nodes.values());
+    }
+
+    public synchronized HashRing getRing() {
+        return ring;
+    }
+
+    @Override
+    public synchronized void close() throws InterruptedException {
+        for (ClusterNode node : nodes.values()) {
+            node.close();
+        }
+        nodes.clear();
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException.Reason;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One connection to another node, shared by every thread forwarding to it. Requests are written whole under a lock
+ * and a reader thread hands each response to the caller waiting on its request id, so many requests can be in flight
+ * on the one connection and answered in any order.
+ * <p>
+ * A request that was sent but not answered, within {@link #RESPONSE_TIMEOUT} or before the connection closed, fails
+ * with {@link Reason#OUTCOME_UNKNOWN}, as the other node may still have acted on it.
+ */
+final class PeerConnection implements AutoCloseable {
+
+    static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final int nodeId;
+    private final SocketChannel channel;
+    private final Object writeLock = new Object();
+    private final Map<Long, CompletableFuture<ByteBuffer>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final Thread reader;
+    private volatile boolean closed;
+
+    PeerConnection(int fromNodeId, int nodeId, InetSocketAddress address) throws IOException {
+        this.nodeId = nodeId;
+        this.channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.reader = new Thread(this::readResponses, "cluster-node-" + fromNodeId + "-peer-" + nodeId);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    SeatAllocation purchase(long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        long requestId = nextRequestId.getAndIncrement();
+        ByteBuffer response = exchange(requestId, ClusterProtocol.purchaseRequest(requestId, screeningId, accountId,
+                                                                                  ticketTypeRequests));
+        return ClusterProtocol.seatAllocationOf(response, screeningId, nodeId);
+    }
+
+    void addScreening(long screeningId, int capacity) {
+        long requestId = nextRequestId.getAndIncrement();
+        ByteBuffer response = exchange(requestId, ClusterProtocol.addScreeningRequest(requestId, screeningId, capacity));
+        ClusterProtocol.seatAllocationOf(response, screeningId, nodeId);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing more can be done with it.
+        }
+        failPending(new IOException("Connection to node " + nodeId + " closed"));
+    }
+
+    private ByteBuffer exchange(long requestId, ByteBuffer request) {
+        CompletableFuture<ByteBuffer> response = new CompletableFuture<>();
+        pending.put(requestId, response);
+        try {
+            if (closed) {
+                throw new IOException("Connection to node " + nodeId + " closed");
+            }
+            synchronized (writeLock) {
+                ClusterProtocol.writeFully(channel, request);
+            }
+            return response.get(RESPONSE_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            throw GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+        } catch (TimeoutException e) {
+            throw GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+        } finally {
+            pending.remove(requestId);
+        }
+    }
+
+    private void readResponses() {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        try {
+            ByteBuffer response;
+            while ((response = ClusterProtocol.readFrame(channel, lengthBuffer)) != null) {
+                CompletableFuture<ByteBuffer> waiting = pending.get(response.getLong(0));
+                if (waiting != null) {
+                    waiting.complete(response);
+                }
+            }
+            close();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Called once {@link #closed} is set, after which no request waits without first seeing it, so none is left waiting.
+     */
+    private void failPending(IOException failure) {
+        for (CompletableFuture<ByteBuffer> waiting : pending.values()) {
+            waiting.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+/**
+ * Result code from {@link OrderDecoder}, saying why an order could not be read, for callers that want to report
+ * malformed input without an exception.
+ */
+public enum DecodeResult {
+    DECODED, MISSING_FIELD, NOT_A_NUMBER, OUT_OF_RANGE, TOO_MANY_FIELDS, UNKNOWN_FIELD, MALFORMED;
+
+    public boolean isDecoded() {
+        return this == DECODED;
+    }
+}
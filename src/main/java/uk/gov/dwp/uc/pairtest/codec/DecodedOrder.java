@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+/**
+ * Mutable holder for the fields read by {@link OrderDecoder}. It is filled in place so that a caller decoding many
+ * orders can reuse one instance and avoid allocating per order.
+ */
+public final class DecodedOrder {
+
+    public static final int ACCOUNT_ID_FIELD = 0;
+    public static final int NR_OF_FIELDS = 4;
+
+    private static final String[] FIELD_NAMES = {"account id", "number of adult tickets", "number of child tickets",
+                                                 "number of infant tickets", "fields after the number of infant tickets"};
+
+    private long accountId;
+    private int nrOfAdultTickets;
+    private int nrOfChildTickets;
+    private int nrOfInfantTickets;
+    private int failedField = -1;
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getNrOfAdultTickets() {
+        return nrOfAdultTickets;
+    }
+
+    public int getNrOfChildTickets() {
+        return nrOfChildTickets;
+    }
+
+    public int getNrOfInfantTickets() {
+        return nrOfInfantTickets;
+    }
+
+    /**
+     * @return the index of the field that could not be read, with the account id as field 0, or -1 if every field was
+     */
+    public int getFailedField() {
+        return failedField;
+    }
+
+    /**
+     * @return a description of the field for a message, for example the {@link #getFailedField() failed field}
+     */
+    public static String describeField(int field) {
+        return FIELD_NAMES[field];
+    }
+
+    void setField(int field, long value) {
+        switch (field) {
+            case ACCOUNT_ID_FIELD:
+                accountId = value;
+                break;
+            case 1:
+                nrOfAdultTickets = (int) value;
+                break;
+            case 2:
+                nrOfChildTickets = (int) value;
+                break;
+            default:
+                nrOfInfantTickets = (int) value;
+        }
+    }
+
+    void setFailedField(int failedField) {
+        this.failedField = failedField;
+    }
+}
@@ -0,0 +1,145 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads an order given as a flat JSON object, {@code {"accountId":1,"adults":2,"children":1,"infants":0}}, straight
+ * from bytes into a {@link DecodedOrder} in the same way as {@link OrderDecoder}. The fields may come in any order and
+ * the ticket counts left out are taken to be 0, but the account id is required.
+ * <p>
+ * Only what an order needs is understood: a field that is not one of the four is {@link DecodeResult#UNKNOWN_FIELD},
+ * a value that is not an integer is {@link DecodeResult#NOT_A_NUMBER}, and anything else that is not a flat object,
+ * including escapes in field names, is {@link DecodeResult#MALFORMED}.
+ */
+public class JsonOrderDecoder {
+
+    private static final byte[][] FIELD_NAMES = {bytes("accountId"), bytes("adults"), bytes("children"), bytes("infants")};
+
+    /**
+     * Decodes the object between {@code from} and {@code to}, using absolute reads so that the buffer's position is
+     * left alone.
+     */
+    public DecodeResult decode(ByteBuffer buffer, int from, int to, DecodedOrder order) {
+        order.setFailedField(-1);
+        int i = skipWhitespace(buffer, from, to);
+        if ((i == to) || (buffer.get(i) != '{')) {
+            return malformed(order);
+        }
+        int seenFields = 0;
+        i = skipWhitespace(buffer, i + 1, to);
+        boolean more = (i < to) && (buffer.get(i) != '}');
+        while (more) {
+            if (buffer.get(i) != '"') {
+                return malformed(order);
+            }
+            int nameEnd = indexOf(buffer, '"', i + 1, to);
+            if (nameEnd < 0) {
+                return malformed(order);
+            }
+            int field = fieldNamed(buffer, i + 1, nameEnd);
+            i = skipWhitespace(buffer, nameEnd + 1, to);
+            if ((i == to) || (buffer.get(i) != ':')) {
+                return malformed(order);
+            }
+            int valueStart = skipWhitespace(buffer, i + 1, to);
+            int valueEnd = endOfValue(buffer, valueStart, to);
+            if (field < 0) {
+                order.setFailedField(DecodedOrder.NR_OF_FIELDS);
+                return DecodeResult.UNKNOWN_FIELD;
+            }
+            DecodeResult result = OrderDecoder.decodeField(buffer, valueStart, valueEnd, field, order);
+            if (!result.isDecoded()) {
+                order.setFailedField(field);
+                return result;
+            }
+            seenFields |= 1 << field;
+            i = skipWhitespace(buffer, valueEnd, to);
+            if (i == to) {
+                return malformed(order);
+            }
+            more = buffer.get(i) == ',';
+            if (more) {
+                i = skipWhitespace(buffer, i + 1, to);
+                if (i == to) {
+                    return malformed(order);
+                }
+            }
+        }
+        if ((i == to) || (buffer.get(i) != '}') || (skipWhitespace(buffer, i + 1, to) != to)) {
+            return malformed(order);
+        }
+        if ((seenFields & (1 << DecodedOrder.ACCOUNT_ID_FIELD)) == 0) {
+            order.setFailedField(DecodedOrder.ACCOUNT_ID_FIELD);
+            return DecodeResult.MISSING_FIELD;
+        }
+        for (int field = 1; field < DecodedOrder.NR_OF_FIELDS; field++) {
+            if ((seenFields & (1 << field)) == 0) {
+                order.setField(field, 0);
+            }
+        }
+        return DecodeResult.DECODED;
+    }
+
+    public DecodeResult decode(byte[] bytes, int from, int to, DecodedOrder order) {
+        return decode(ByteBuffer.wrap(bytes), from, to, order);
+    }
+
+    private static DecodeResult malformed(DecodedOrder order) {
+        order.setFailedField(DecodedOrder.NR_OF_FIELDS);
+        return DecodeResult.MALFORMED;
+    }
+
+    private static int fieldNamed(ByteBuffer buffer, int from, int to) {
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            byte[] name = FIELD_NAMES[field];
+            if ((to - from) == name.length) {
+                int i = 0;
+                while ((i < name.length) && (buffer.get(from + i) == name[i])) {
+                    i++;
+                }
+                if (i == name.length) {
+                    return field;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A value runs up to the next separator, so that a quoted or fractional number is reported as not a number rather
+     * than as malformed.
+     */
+    private static int endOfValue(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        while ((i < to) && (buffer.get(i) != ',') && (buffer.get(i) != '}') && !isWhitespace(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(ByteBuffer buffer, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        while ((i < to) && isWhitespace(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return (b == ' ') || (b == '\t') || (b == '\r') || (b == '\n');
+    }
+
+    private static byte[] bytes(String name) {
+        return name.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,164 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reads an order, {@code accountId,adults,children,infants}, straight from bytes or characters into a
+ * {@link DecodedOrder}, without making strings or boxing the numbers. Malformed input is reported with a
+ * {@link DecodeResult} rather than an exception.
+ * <p>
+ * Spaces around a field are ignored. The account id may be any long and each ticket count any int; whether they make a
+ * valid purchase is left to the ticket service.
+ */
+public class OrderDecoder {
+
+    private static final int NR_OF_TICKET_FIELDS = DecodedOrder.NR_OF_FIELDS - 1;
+    private static final long MINIMUM_BEFORE_NEXT_DIGIT = Long.MIN_VALUE / 10;
+
+    /**
+     * Decodes the comma separated order between {@code from} and {@code to}, using absolute reads so that the buffer's
+     * position is left alone. Works the same for heap and direct buffers.
+     */
+    public DecodeResult decode(ByteBuffer buffer, int from, int to, DecodedOrder order) {
+        order.setFailedField(-1);
+        int start = from;
+        for (int field = 0; field < DecodedOrder.NR_OF_FIELDS; field++) {
+            int end = indexOfSeparator(buffer, start, to);
+            boolean lastField = field == (DecodedOrder.NR_OF_FIELDS - 1);
+            if (!lastField && (end == to)) {
+                order.setFailedField(field + 1);
+                return DecodeResult.MISSING_FIELD;
+            }
+            if (lastField && (end != to)) {
+                order.setFailedField(DecodedOrder.NR_OF_FIELDS);
+                return DecodeResult.TOO_MANY_FIELDS;
+            }
+            DecodeResult result = decodeField(buffer, start, end, field, order);
+            if (!result.isDecoded()) {
+                order.setFailedField(field);
+                return result;
+            }
+            start = end + 1;
+        }
+        return DecodeResult.DECODED;
+    }
+
+    public DecodeResult decode(byte[] bytes, int from, int to, DecodedOrder order) {
+        return decode(ByteBuffer.wrap(bytes), from, to, order);
+    }
+
+    /**
+     * Decodes an order given as separate fields, as on the command line.
+     */
+    public DecodeResult decode(List<? extends CharSequence> fields, DecodedOrder order) {
+        order.setFailedField(-1);
+        for (int field = 0; field < DecodedOrder.NR_OF_FIELDS; field++) {
+            DecodeResult result = field < fields.size() ? decodeField(fields.get(field), field, order) : DecodeResult.MISSING_FIELD;
+            if (!result.isDecoded()) {
+                order.setFailedField(field);
+                return result;
+            }
+        }
+        if (fields.size() > DecodedOrder.NR_OF_FIELDS) {
+            order.setFailedField(DecodedOrder.NR_OF_FIELDS);
+            return DecodeResult.TOO_MANY_FIELDS;
+        }
+        return DecodeResult.DECODED;
+    }
+
+    /**
+     * Decodes just the adult, child and infant ticket counts, leaving the account id alone.
+     */
+    public DecodeResult decodeTicketCounts(List<? extends CharSequence> ticketCounts, DecodedOrder order) {
+        order.setFailedField(-1);
+        for (int i = 0; i < NR_OF_TICKET_FIELDS; i++) {
+            int field = i + 1;
+            DecodeResult result = i < ticketCounts.size() ? decodeField(ticketCounts.get(i), field, order) : DecodeResult.MISSING_FIELD;
+            if (!result.isDecoded()) {
+                order.setFailedField(field);
+                return result;
+            }
+        }
+        if (ticketCounts.size() > NR_OF_TICKET_FIELDS) {
+            order.setFailedField(DecodedOrder.NR_OF_FIELDS);
+            return DecodeResult.TOO_MANY_FIELDS;
+        }
+        return DecodeResult.DECODED;
+    }
+
+    private static int indexOfSeparator(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Decodes one field, between {@code from} and {@code to}, into the order.
+     */
+    static DecodeResult decodeField(ByteBuffer buffer, int from, int to, int field, DecodedOrder order) {
+        return decodeField(buffer, null, from, to, field, order);
+    }
+
+    private static DecodeResult decodeField(CharSequence text, int field, DecodedOrder order) {
+        return decodeField(null, text, 0, text.length(), field, order);
+    }
+
+    /**
+     * Decodes one field from the buffer, or from the text when there is no buffer. Both kinds of input go through this
+     * one parser, which picks where to read each character from rather than taking an accessor, so that decoding
+     * allocates nothing.
+     */
+    private static DecodeResult decodeField(ByteBuffer buffer, CharSequence text, int from, int to, int field,
+                                            DecodedOrder order) {
+        int start = from;
+        int end = to;
+        while ((start < end) && (charAt(buffer, text, start) == ' ')) {
+            start++;
+        }
+        while ((end > start) && (charAt(buffer, text, end - 1) == ' ')) {
+            end--;
+        }
+        if (start == end) {
+            return DecodeResult.MISSING_FIELD;
+        }
+        boolean negative = charAt(buffer, text, start) == '-';
+        if (negative && (++start == end)) {
+            return DecodeResult.NOT_A_NUMBER;
+        }
+        long negativeValue = 0;
+        for (int i = start; i < end; i++) {
+            int digit = charAt(buffer, text, i) - '0';
+            if ((digit < 0) || (digit > 9)) {
+                return DecodeResult.NOT_A_NUMBER;
+            }
+            if ((negativeValue < MINIMUM_BEFORE_NEXT_DIGIT) || ((negativeValue * 10) < (Long.MIN_VALUE + digit))) {
+                return DecodeResult.OUT_OF_RANGE;
+            }
+            negativeValue = (negativeValue * 10) - digit;
+        }
+        return setField(negativeValue, negative, field, order);
+    }
+
+    private static int charAt(ByteBuffer buffer, CharSequence text, int index) {
+        return buffer != null ? buffer.get(index) : text.charAt(index);
+    }
+
+    /**
+     * The digits are accumulated as a negative number so that {@link Long#MIN_VALUE} can be read without overflowing.
+     */
+    private static DecodeResult setField(long negativeValue, boolean negative, int field, DecodedOrder order) {
+        if (!negative && (negativeValue == Long.MIN_VALUE)) {
+            return DecodeResult.OUT_OF_RANGE;
+        }
+        long value = negative ? negativeValue : -negativeValue;
+        if ((field != DecodedOrder.ACCOUNT_ID_FIELD) && ((value < Integer.MIN_VALUE) || (value > Integer.MAX_VALUE))) {
+            return DecodeResult.OUT_OF_RANGE;
+        }
+        order.setField(field, value);
+        return DecodeResult.DECODED;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable Object - the outcome of a single order, so that one bad order does not fail the others it was sent with.
+ */
+public class PurchaseResult {
+
+    private final TicketOrder order;
+    private final Status status;
+    private final int totalNrOfReservations;
+    private final int totalCostOfTickets;
+    private final RuntimeException cause;
+
+    private PurchaseResult(TicketOrder order, Status status, int totalNrOfReservations, int totalCostOfTickets,
+                           RuntimeException cause) {
+        this.order = order;
+        this.status = status;
+        this.totalNrOfReservations = totalNrOfReservations;
+        this.totalCostOfTickets = totalCostOfTickets;
+        this.cause = cause;
+    }
+
+    public static PurchaseResult purchased(TicketOrder order, int totalNrOfReservations, int totalCostOfTickets) {
+        return new PurchaseResult(order, Status.PURCHASED, totalNrOfReservations, totalCostOfTickets, null);
+    }
+
+    public static PurchaseResult rejected(TicketOrder order, InvalidPurchaseException cause) {
+        return new PurchaseResult(order, Status.REJECTED, 0, 0, cause);
+    }
+
+    public static PurchaseResult failed(TicketOrder order, RuntimeException cause) {
+        return new PurchaseResult(order, Status.FAILED, 0, 0, cause);
+    }
+
+    public TicketOrder getOrder() {
+        return order;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isPurchased() {
+        return status == Status.PURCHASED;
+    }
+
+    public int getTotalNrOfReservations() {
+        return totalNrOfReservations;
+    }
+
+    public int getTotalCostOfTickets() {
+        return totalCostOfTickets;
+    }
+
+    /**
+     * The {@link InvalidPurchaseException} for a rejected order, or the gateway error for a failed one.
+     */
+    public RuntimeException getCause() {
+        return cause;
+    }
+
+    public enum Status {
+        PURCHASED, REJECTED, FAILED
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+}
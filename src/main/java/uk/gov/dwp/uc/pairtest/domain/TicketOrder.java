@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable Object - one account's purchase, as passed to the batch ticket service.
+ */
+public class TicketOrder {
+
+    private final Long accountId;
+    private final TicketTypeRequest[] ticketTypeRequests;
+
+    public TicketOrder(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        this.accountId = accountId;
+        this.ticketTypeRequests = ticketTypeRequests.clone();
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public TicketTypeRequest[] getTicketTypeRequests() {
+        return ticketTypeRequests.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+}
@@ -1,48 +1,116 @@
 package uk.gov.dwp.uc.pairtest.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
+/**
+ * The number of adult, child and infant tickets asked for in one order. Immutable, with equality and the hash code
+ * written out by hand so that orders are cheap to use as map keys.
+ * <p>
+ * An order whose counts are all between 0 and {@link #MAXIMUM_PACKED_NR_OF_TICKETS} can also be packed into a single
+ * {@code long}, {@value #BITS_PER_PACKED_COUNT} bits per count, for caches and sets keyed on primitives.
+ */
+public final class TicketOrderRequest {
 
-public class TicketOrderRequest {
+    public static final int BITS_PER_PACKED_COUNT = 21;
+    public static final int MAXIMUM_PACKED_NR_OF_TICKETS = (1 << BITS_PER_PACKED_COUNT) - 1;
 
-    private final Integer requestedNrTicketsForAdult;
-    private final Integer requestedNrTicketsForChild;
-    private final Integer requestedNrTicketsForInfant;
+    private static final int CHILD_SHIFT = BITS_PER_PACKED_COUNT;
+    private static final int INFANT_SHIFT = 2 * BITS_PER_PACKED_COUNT;
 
-    public TicketOrderRequest(Integer requestedNrTicketsAdult,
-                              Integer requestedNrTicketsChild,
-                              Integer requestedNrTicketsInfant) {
+    private final int requestedNrTicketsForAdult;
+    private final int requestedNrTicketsForChild;
+    private final int requestedNrTicketsForInfant;
+
+    public TicketOrderRequest(int requestedNrTicketsAdult,
+                              int requestedNrTicketsChild,
+                              int requestedNrTicketsInfant) {
         this.requestedNrTicketsForAdult = requestedNrTicketsAdult;
         this.requestedNrTicketsForChild = requestedNrTicketsChild;
         this.requestedNrTicketsForInfant = requestedNrTicketsInfant;
     }
 
-    public Integer getRequestedNrTicketsForAdult() {
+    /**
+     * A count that is {@code null} is taken as no tickets of that type.
+     */
+    public TicketOrderRequest(Integer requestedNrTicketsAdult,
+                              Integer requestedNrTicketsChild,
+                              Integer requestedNrTicketsInfant) {
+        this(valueOf(requestedNrTicketsAdult), valueOf(requestedNrTicketsChild), valueOf(requestedNrTicketsInfant));
+    }
+
+    public static TicketOrderRequest fromPackedCounts(long packedCounts) {
+        return new TicketOrderRequest((int) (packedCounts & MAXIMUM_PACKED_NR_OF_TICKETS),
+                                      (int) ((packedCounts >>> CHILD_SHIFT) & MAXIMUM_PACKED_NR_OF_TICKETS),
+                                      (int) ((packedCounts >>> INFANT_SHIFT) & MAXIMUM_PACKED_NR_OF_TICKETS));
+    }
+
+    public static boolean isPackable(int requestedNrTicketsAdult, int requestedNrTicketsChild, int requestedNrTicketsInfant) {
+        return isPackable(requestedNrTicketsAdult) && isPackable(requestedNrTicketsChild) && isPackable(requestedNrTicketsInfant);
+    }
+
+    /**
+     * Packs the three counts without making a request, for callers that only need the key.
+     */
+    public static long packCounts(int requestedNrTicketsAdult, int requestedNrTicketsChild, int requestedNrTicketsInfant) {
+        if (!isPackable(requestedNrTicketsAdult, requestedNrTicketsChild, requestedNrTicketsInfant)) {
+            throw new IllegalArgumentException("Ticket counts must be between 0 and " + MAXIMUM_PACKED_NR_OF_TICKETS
+                                               + " to be packed but were " + requestedNrTicketsAdult + ", "
+                                               + requestedNrTicketsChild + " and " + requestedNrTicketsInfant);
+        }
+        return requestedNrTicketsAdult
+               | ((long) requestedNrTicketsChild << CHILD_SHIFT)
+               | ((long) requestedNrTicketsInfant << INFANT_SHIFT);
+    }
+
+    public int getRequestedNrTicketsForAdult() {
         return requestedNrTicketsForAdult;
     }
 
-    public Integer getRequestedNrTicketsForChild() {
+    public int getRequestedNrTicketsForChild() {
         return requestedNrTicketsForChild;
     }
 
-    public Integer getRequestedNrTicketsForInfant() {
+    public int getRequestedNrTicketsForInfant() {
         return requestedNrTicketsForInfant;
     }
 
+    public boolean isPackable() {
+        return isPackable(requestedNrTicketsForAdult, requestedNrTicketsForChild, requestedNrTicketsForInfant);
+    }
+
+    public long toPackedCounts() {
+        return packCounts(requestedNrTicketsForAdult, requestedNrTicketsForChild, requestedNrTicketsForInfant);
+    }
+
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return (31 * ((31 * requestedNrTicketsForAdult) + requestedNrTicketsForChild)) + requestedNrTicketsForInfant;
     }
 
     @Override
     public boolean equals(Object obj) {
-        return EqualsBuilder.reflectionEquals(this, obj);
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TicketOrderRequest)) {
+            return false;
+        }
+        TicketOrderRequest other = (TicketOrderRequest) obj;
+        return (requestedNrTicketsForAdult == other.requestedNrTicketsForAdult)
+               && (requestedNrTicketsForChild == other.requestedNrTicketsForChild)
+               && (requestedNrTicketsForInfant == other.requestedNrTicketsForInfant);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+        return "TicketOrderRequest[requestedNrTicketsForAdult=" + requestedNrTicketsForAdult
+               + ",requestedNrTicketsForChild=" + requestedNrTicketsForChild
+               + ",requestedNrTicketsForInfant=" + requestedNrTicketsForInfant + "]";
+    }
+
+    private static int valueOf(Integer requestedNrTickets) {
+        return requestedNrTickets == null ? 0 : requestedNrTickets;
+    }
+
+    private static boolean isPackable(int requestedNrTickets) {
+        return (requestedNrTickets >= 0) && (requestedNrTickets <= MAXIMUM_PACKED_NR_OF_TICKETS);
     }
 }
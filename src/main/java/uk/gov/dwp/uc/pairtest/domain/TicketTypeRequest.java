@@ -1,17 +1,15 @@
 package uk.gov.dwp.uc.pairtest.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
-
 /**
  * Immutable Object
+ * <p>
+ * Equality and the hash code are written out by hand, rather than found by reflection, so that requests are cheap to
+ * use as map keys.
  */
-public class TicketTypeRequest {
+public final class TicketTypeRequest {
 
-    private int noOfTickets;
-    private Type type;
+    private final int noOfTickets;
+    private final Type type;
 
     public TicketTypeRequest(Type type, int noOfTickets) {
         this.type = type;
@@ -44,18 +42,28 @@ public class TicketTypeRequest {
         }
     }
 
+    /**
+     * Uses the ordinal of the type, which unlike the identity hash code of an enum is the same on every run.
+     */
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this);
+        return (31 * noOfTickets) + (type == null ? 0 : type.ordinal() + 1);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return EqualsBuilder.reflectionEquals(this, obj);
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TicketTypeRequest)) {
+            return false;
+        }
+        TicketTypeRequest other = (TicketTypeRequest) obj;
+        return (noOfTickets == other.noOfTickets) && (type == other.type);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+        return "TicketTypeRequest[noOfTickets=" + noOfTickets + ",type=" + type + "]";
     }
 }
@@ -25,7 +25,28 @@ public class TicketTypeRequestFactory {
         return ticketTypeRequests;
     }
 
-    private boolean hasRequestedTickets(Integer requestedNrTicketsForAdult) {
-        return (requestedNrTicketsForAdult != null) && (requestedNrTicketsForAdult > 0);
+    /**
+     * Leaves out the ticket types with no tickets, as {@link #createListOfTicketRequests} does, for callers that have
+     * the counts as primitives and purchase with an array.
+     */
+    public TicketTypeRequest[] createTicketRequests(int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets) {
+        int nrOfRequests = (hasRequestedTickets(nrOfAdultTickets) ? 1 : 0) + (hasRequestedTickets(nrOfChildTickets) ? 1 : 0)
+                           + (hasRequestedTickets(nrOfInfantTickets) ? 1 : 0);
+        TicketTypeRequest[] ticketTypeRequests = new TicketTypeRequest[nrOfRequests];
+        int i = 0;
+        if (hasRequestedTickets(nrOfAdultTickets)) {
+            ticketTypeRequests[i++] = new TicketTypeRequest(Type.ADULT, nrOfAdultTickets);
+        }
+        if (hasRequestedTickets(nrOfChildTickets)) {
+            ticketTypeRequests[i++] = new TicketTypeRequest(Type.CHILD, nrOfChildTickets);
+        }
+        if (hasRequestedTickets(nrOfInfantTickets)) {
+            ticketTypeRequests[i] = new TicketTypeRequest(Type.INFANT, nrOfInfantTickets);
+        }
+        return ticketTypeRequests;
+    }
+
+    private boolean hasRequestedTickets(int requestedNrTickets) {
+        return requestedNrTickets > 0;
     }
 }
@@ -0,0 +1,186 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records events as JSON lines in a file without the purchasing threads ever taking a lock or doing I/O.
+ * <p>
+ * Purchasing threads claim a slot in a preallocated ring buffer with a compare-and-set, fill it in with primitives and
+ * publish it. A single writer thread formats the published events into a direct buffer and writes them to the file
+ * channel in batches. When the writer falls behind, new events are dropped according to the {@link DropPolicy} and
+ * counted, rather than making the purchase wait.
+ * <p>
+ * The file is appended to. Closing the sink writes out every event published before the close and forces the file to
+ * disk.
+ */
+public class AsyncFilePurchaseEventSink implements PurchaseEventSink, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 1 << 16;
+
+    private static final long IDLE_PARK_NANOS = 100_000;
+    private static final long UNPUBLISHED = -1;
+
+    private final PurchaseEvent[] slots;
+    private final AtomicLongArray publishedSequences;
+    private final int mask;
+    private final int purchaseLimit;
+    private final int rejectionLimit;
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final AtomicLong consumedSequence = new AtomicLong();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer;
+    private final PurchaseEventEncoder encoder = new PurchaseEventEncoder();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile IOException writeFailure;
+
+    public AsyncFilePurchaseEventSink(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, DEFAULT_WRITE_BUFFER_SIZE, DropPolicy.DROP_REJECTIONS_FIRST);
+    }
+
+    public AsyncFilePurchaseEventSink(Path file, int capacity, int writeBufferSize, DropPolicy dropPolicy) throws IOException {
+        this(file, capacity, writeBufferSize, dropPolicy, runnable -> new Thread(runnable, "purchase-event-writer"));
+    }
+
+    AsyncFilePurchaseEventSink(Path file, int capacity, int writeBufferSize, DropPolicy dropPolicy, ThreadFactory threadFactory)
+        throws IOException {
+        if ((capacity < 4) || (Integer.bitCount(capacity) != 1)) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least 4 but was " + capacity);
+        }
+        if (writeBufferSize < PurchaseEventEncoder.MAXIMUM_ENCODED_LENGTH) {
+            throw new IllegalArgumentException("writeBufferSize must be at least " + PurchaseEventEncoder.MAXIMUM_ENCODED_LENGTH);
+        }
+        this.slots = new PurchaseEvent[capacity];
+        this.publishedSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new PurchaseEvent();
+            publishedSequences.set(i, UNPUBLISHED);
+        }
+        this.mask = capacity - 1;
+        this.purchaseLimit = capacity;
+        this.rejectionLimit = dropPolicy == DropPolicy.DROP_REJECTIONS_FIRST ? capacity - (capacity / 4) : capacity;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writeBuffer = ByteBuffer.allocateDirect(writeBufferSize);
+        this.writer = threadFactory.newThread(this::writeEvents);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void ticketsPurchased(long accountId, int totalNrOfTickets, int totalNrOfReservations, int totalCostOfTickets) {
+        long sequence = claim(purchaseLimit);
+        if (sequence != UNPUBLISHED) {
+            int index = (int) (sequence & mask);
+            slots[index].setTicketsPurchased(System.currentTimeMillis(), accountId, totalNrOfTickets, totalNrOfReservations,
+                                             totalCostOfTickets);
+            publishedSequences.lazySet(index, sequence);
+        }
+    }
+
+    @Override
+    public void purchaseRejected(long accountId, ValidationResult reason, int maximumAllowed, int nrOfTicketsOrdered) {
+        long sequence = claim(rejectionLimit);
+        if (sequence != UNPUBLISHED) {
+            int index = (int) (sequence & mask);
+            slots[index].setPurchaseRejected(System.currentTimeMillis(), accountId, reason, maximumAllowed, nrOfTicketsOrdered);
+            publishedSequences.lazySet(index, sequence);
+        }
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (writeFailure == null) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private long claim(int limit) {
+        while (true) {
+            long sequence = claimSequence.get();
+            if ((sequence - consumedSequence.get()) >= limit) {
+                droppedEvents.increment();
+                return UNPUBLISHED;
+            }
+            if (claimSequence.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void writeEvents() {
+        long next = consumedSequence.get();
+        try {
+            while (true) {
+                boolean stopping = !running;
+                long drainedUpTo = drainPublishedEvents(next);
+                boolean wroteAny = drainedUpTo != next;
+                next = drainedUpTo;
+                if (writeBuffer.position() > 0) {
+                    flush();
+                }
+                if (!wroteAny) {
+                    if (stopping && (next == claimSequence.get())) {
+                        return;
+                    }
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+        }
+    }
+
+    private long drainPublishedEvents(long next) throws IOException {
+        while (true) {
+            int index = (int) (next & mask);
+            if (publishedSequences.get(index) != next) {
+                return next;
+            }
+            if (writeBuffer.remaining() < PurchaseEventEncoder.MAXIMUM_ENCODED_LENGTH) {
+                flush();
+            }
+            encoder.encode(slots[index], writeBuffer);
+            next++;
+            consumedSequence.lazySet(next);
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+}
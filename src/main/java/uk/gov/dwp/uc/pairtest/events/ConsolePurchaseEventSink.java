@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+/**
+ * Prints each event to standard out as it happens. This is what the console application shows its user; services
+ * under load should use {@link AsyncFilePurchaseEventSink} instead.
+ */
+public class ConsolePurchaseEventSink implements PurchaseEventSink {
+
+    @Override
+    public void ticketsPurchased(long accountId, int totalNrOfTickets, int totalNrOfReservations, int totalCostOfTickets) {
+        System.out.println(String.format("Purchasing %s tickets with %s seats at a cost of £%s for accountId=%s",
+                                         totalNrOfTickets, totalNrOfReservations, totalCostOfTickets, accountId));
+    }
+
+    @Override
+    public void purchaseRejected(long accountId, ValidationResult reason, int maximumAllowed, int nrOfTicketsOrdered) {
+        switch (reason) {
+            case INVALID_ACCOUNT_NUMBER:
+                System.out.println(String.format("Tickets ordering failed - invalid accountNumber=%s", accountId));
+                break;
+            case MAXIMUM_NR_OF_TICKETS_EXCEEDED:
+                System.out.println(
+                    String.format("Tickets ordering failed - too many tickets requested maximumAllowed=%s numberOrdered=%s",
+                                  maximumAllowed, nrOfTicketsOrdered));
+                break;
+            case NO_TICKETS_ORDERED:
+                System.out.println("Tickets ordering failed - no tickets were ordered");
+                break;
+            case NO_ADULT_TICKETS_REQUESTED:
+                System.out.println("Tickets ordering failed - no adult tickets were ordered");
+                break;
+            case TOO_MANY_INFANTS_PER_ADULT:
+                System.out.println(
+                    String.format("Tickets ordering failed - too many infants for the adults maximumPerAdult=%s numberOfInfants=%s",
+                                  maximumAllowed, nrOfTicketsOrdered));
+                break;
+            default:
+                throw new IllegalArgumentException("Not a rejection: " + reason);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+/**
+ * What {@link AsyncFilePurchaseEventSink} does with events that arrive faster than they can be written.
+ */
+public enum DropPolicy {
+    /**
+     * Drop any new event while the buffer is full.
+     */
+    DROP_NEWEST,
+    /**
+     * Keep the last quarter of the buffer for purchases, so that a flood of invalid orders loses rejection events
+     * before it loses any purchases.
+     */
+    DROP_REJECTIONS_FIRST
+}
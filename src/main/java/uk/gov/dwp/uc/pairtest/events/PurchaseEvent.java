@@ -0,0 +1,82 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+/**
+ * One structured event. Instances are the preallocated slots of {@link AsyncFilePurchaseEventSink}'s ring buffer and
+ * are overwritten in place, so they must not be held on to.
+ */
+public final class PurchaseEvent {
+
+    private Type type;
+    private ValidationResult rejectionReason;
+    private long timestampMillis;
+    private long accountId;
+    private int totalNrOfTickets;
+    private int totalNrOfReservations;
+    private int totalCostOfTickets;
+    private int maximumAllowed;
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * {@link ValidationResult#VALID} for a purchase.
+     */
+    public ValidationResult getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalNrOfTickets() {
+        return totalNrOfTickets;
+    }
+
+    public int getTotalNrOfReservations() {
+        return totalNrOfReservations;
+    }
+
+    public int getTotalCostOfTickets() {
+        return totalCostOfTickets;
+    }
+
+    public int getMaximumAllowed() {
+        return maximumAllowed;
+    }
+
+    void setTicketsPurchased(long timestampMillis, long accountId, int totalNrOfTickets, int totalNrOfReservations,
+                             int totalCostOfTickets) {
+        this.type = Type.TICKETS_PURCHASED;
+        this.rejectionReason = ValidationResult.VALID;
+        this.timestampMillis = timestampMillis;
+        this.accountId = accountId;
+        this.totalNrOfTickets = totalNrOfTickets;
+        this.totalNrOfReservations = totalNrOfReservations;
+        this.totalCostOfTickets = totalCostOfTickets;
+        this.maximumAllowed = 0;
+    }
+
+    void setPurchaseRejected(long timestampMillis, long accountId, ValidationResult reason, int maximumAllowed,
+                             int nrOfTicketsOrdered) {
+        this.type = Type.PURCHASE_REJECTED;
+        this.rejectionReason = reason;
+        this.timestampMillis = timestampMillis;
+        this.accountId = accountId;
+        this.totalNrOfTickets = nrOfTicketsOrdered;
+        this.totalNrOfReservations = 0;
+        this.totalCostOfTickets = 0;
+        this.maximumAllowed = maximumAllowed;
+    }
+
+    public enum Type {
+        TICKETS_PURCHASED, PURCHASE_REJECTED
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes an event as one line of JSON straight into a buffer, with the field names and enum names encoded once up
+ * front so that encoding an event does not allocate.
+ */
+final class PurchaseEventEncoder {
+
+    static final int MAXIMUM_ENCODED_LENGTH = 256;
+
+    private static final byte[] TIMESTAMP = ascii("{\"timestamp\":");
+    private static final byte[] EVENT = ascii(",\"event\":\"");
+    private static final byte[] REASON = ascii("\",\"reason\":\"");
+    private static final byte[] ACCOUNT_ID = ascii("\",\"accountId\":");
+    private static final byte[] TICKETS = ascii(",\"tickets\":");
+    private static final byte[] SEATS = ascii(",\"seats\":");
+    private static final byte[] COST = ascii(",\"cost\":");
+    private static final byte[] MAXIMUM_ALLOWED = ascii(",\"maximumAllowed\":");
+    private static final byte[] END = ascii("}\n");
+    private static final byte[][] TYPES = encodeNames(PurchaseEvent.Type.values());
+    private static final byte[][] REASONS = encodeNames(ValidationResult.values());
+
+    private final byte[] digits = new byte[20];
+
+    void encode(PurchaseEvent event, ByteBuffer buffer) {
+        buffer.put(TIMESTAMP);
+        putLong(event.getTimestampMillis(), buffer);
+        buffer.put(EVENT).put(TYPES[event.getType().ordinal()]);
+        if (event.getType() == PurchaseEvent.Type.PURCHASE_REJECTED) {
+            buffer.put(REASON).put(REASONS[event.getRejectionReason().ordinal()]);
+        }
+        buffer.put(ACCOUNT_ID);
+        putLong(event.getAccountId(), buffer);
+        buffer.put(TICKETS);
+        putLong(event.getTotalNrOfTickets(), buffer);
+        if (event.getType() == PurchaseEvent.Type.TICKETS_PURCHASED) {
+            buffer.put(SEATS);
+            putLong(event.getTotalNrOfReservations(), buffer);
+            buffer.put(COST);
+            putLong(event.getTotalCostOfTickets(), buffer);
+        } else if (event.getRejectionReason() == ValidationResult.MAXIMUM_NR_OF_TICKETS_EXCEEDED) {
+            buffer.put(MAXIMUM_ALLOWED);
+            putLong(event.getMaximumAllowed(), buffer);
+        }
+        buffer.put(END);
+    }
+
+    private void putLong(long value, ByteBuffer buffer) {
+        if (value == Long.MIN_VALUE) {
+            buffer.put(ascii(Long.toString(value)));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    private static byte[][] encodeNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = ascii(value.name());
+        }
+        return names;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
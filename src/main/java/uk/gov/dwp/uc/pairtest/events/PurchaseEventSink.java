@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+/**
+ * Receives what happened to each purchase. Events are passed as primitives so that a sink can record them without
+ * formatting or allocating on the purchasing thread.
+ */
+public interface PurchaseEventSink {
+
+    PurchaseEventSink NONE = new PurchaseEventSink() {
+        @Override
+        public void ticketsPurchased(long accountId, int totalNrOfTickets, int totalNrOfReservations, int totalCostOfTickets) {
+        }
+
+        @Override
+        public void purchaseRejected(long accountId, ValidationResult reason, int maximumAllowed, int nrOfTicketsOrdered) {
+        }
+    };
+
+    void ticketsPurchased(long accountId, int totalNrOfTickets, int totalNrOfReservations, int totalCostOfTickets);
+
+    /**
+     * @param maximumAllowed     only meaningful for {@link ValidationResult#MAXIMUM_NR_OF_TICKETS_EXCEEDED}
+     * @param nrOfTicketsOrdered only meaningful for {@link ValidationResult#MAXIMUM_NR_OF_TICKETS_EXCEEDED}
+     */
+    void purchaseRejected(long accountId, ValidationResult reason, int maximumAllowed, int nrOfTicketsOrdered);
+}
@@ -0,0 +1,57 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * A gateway call was not made, or was given up on, so that a struggling gateway does not hold up the purchase threads:
+ * its circuit breaker was open, it already had as many calls in flight as it is allowed, or the purchase's deadline had
+ * passed before it could be made. Those calls never reached the gateway. A call that was made but took longer than its
+ * timeout or the deadline allowed fails with {@link Reason#OUTCOME_UNKNOWN}, as it may still go through in the gateway,
+ * so whatever it was for must be neither undone nor retried until it has been reconciled.
+ */
+public class GatewayUnavailableException extends RuntimeException {
+
+    private static final GatewayUnavailableException[] STACKLESS = new GatewayUnavailableException[Reason.values().length];
+
+    static {
+        for (Reason reason : Reason.values()) {
+            STACKLESS[reason.ordinal()] = new GatewayUnavailableException(reason, false);
+        }
+    }
+
+    private final Reason reason;
+
+    public GatewayUnavailableException(Reason reason) {
+        super(reason.toString());
+        this.reason = reason;
+    }
+
+    private GatewayUnavailableException(Reason reason, boolean writableStackTrace) {
+        super(reason.toString(), null, writableStackTrace, writableStackTrace);
+        this.reason = reason;
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static GatewayUnavailableException stackless(Reason reason) {
+        return STACKLESS[reason.ordinal()];
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return whether the failure is a gateway call that was made and may still go through
+     */
+    public static boolean isOutcomeUnknown(Throwable failure) {
+        return (failure instanceof GatewayUnavailableException)
+               && (((GatewayUnavailableException) failure).reason == Reason.OUTCOME_UNKNOWN);
+    }
+
+    public enum Reason {
+        CIRCUIT_OPEN,
+        BULKHEAD_FULL,
+        TIMED_OUT,
+        OUTCOME_UNKNOWN
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * An idempotency key was sent again with a different order than the one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends InvalidPurchaseException {
+
+    private static final IdempotencyKeyReusedException STACKLESS = new IdempotencyKeyReusedException(false);
+
+    public IdempotencyKeyReusedException() {
+    }
+
+    private IdempotencyKeyReusedException(boolean writableStackTrace) {
+        super(writableStackTrace);
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static IdempotencyKeyReusedException stackless() {
+        return STACKLESS;
+    }
+}
@@ -2,4 +2,19 @@ package uk.gov.dwp.uc.pairtest.exception;
 
 public class InvalidAccountNumberException extends InvalidPurchaseException {
 
+    private static final InvalidAccountNumberException STACKLESS = new InvalidAccountNumberException(false);
+
+    public InvalidAccountNumberException() {
+    }
+
+    private InvalidAccountNumberException(boolean writableStackTrace) {
+        super(writableStackTrace);
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static InvalidAccountNumberException stackless() {
+        return STACKLESS;
+    }
 }
@@ -2,4 +2,14 @@ package uk.gov.dwp.uc.pairtest.exception;
 
 public class InvalidPurchaseException extends RuntimeException {
 
+    public InvalidPurchaseException() {
+    }
+
+    /**
+     * For subclasses that are thrown often enough for capturing the stack trace to matter. Suppression is switched off
+     * as well so that a shared instance never collects state from its callers.
+     */
+    protected InvalidPurchaseException(boolean writableStackTrace) {
+        super(null, null, writableStackTrace, writableStackTrace);
+    }
 }
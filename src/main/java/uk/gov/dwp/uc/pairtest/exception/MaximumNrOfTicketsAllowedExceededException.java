@@ -10,6 +10,19 @@ public class MaximumNrOfTicketsAllowedExceededException extends InvalidPurchaseE
         this.nrOfTicketsOrdered = nrOfTicketsOrdered;
     }
 
+    private MaximumNrOfTicketsAllowedExceededException(int maximumAllowed, int nrOfTicketsOrdered, boolean writableStackTrace) {
+        super(writableStackTrace);
+        this.maximumAllowed = maximumAllowed;
+        this.nrOfTicketsOrdered = nrOfTicketsOrdered;
+    }
+
+    /**
+     * Creates the exception without capturing a stack trace.
+     */
+    public static MaximumNrOfTicketsAllowedExceededException stackless(int maximumAllowed, int nrOfTicketsOrdered) {
+        return new MaximumNrOfTicketsAllowedExceededException(maximumAllowed, nrOfTicketsOrdered, false);
+    }
+
     public int getMaximumAllowed() {
         return maximumAllowed;
     }
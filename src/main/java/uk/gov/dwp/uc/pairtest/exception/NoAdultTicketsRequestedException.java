@@ -2,4 +2,19 @@ package uk.gov.dwp.uc.pairtest.exception;
 
 public class NoAdultTicketsRequestedException extends InvalidPurchaseException {
 
+    private static final NoAdultTicketsRequestedException STACKLESS = new NoAdultTicketsRequestedException(false);
+
+    public NoAdultTicketsRequestedException() {
+    }
+
+    private NoAdultTicketsRequestedException(boolean writableStackTrace) {
+        super(writableStackTrace);
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static NoAdultTicketsRequestedException stackless() {
+        return STACKLESS;
+    }
 }
@@ -2,4 +2,19 @@ package uk.gov.dwp.uc.pairtest.exception;
 
 public class NoTicketsOrderedException extends InvalidPurchaseException {
 
+    private static final NoTicketsOrderedException STACKLESS = new NoTicketsOrderedException(false);
+
+    public NoTicketsOrderedException() {
+    }
+
+    private NoTicketsOrderedException(boolean writableStackTrace) {
+        super(writableStackTrace);
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static NoTicketsOrderedException stackless() {
+        return STACKLESS;
+    }
 }
@@ -0,0 +1,20 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+public class ScreeningSoldOutException extends InvalidPurchaseException {
+
+    private final long screeningId;
+    private final int nrOfSeatsRequested;
+
+    public ScreeningSoldOutException(long screeningId, int nrOfSeatsRequested) {
+        this.screeningId = screeningId;
+        this.nrOfSeatsRequested = nrOfSeatsRequested;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public int getNrOfSeatsRequested() {
+        return nrOfSeatsRequested;
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * The order would take the account over the number of tickets it may buy in a period.
+ */
+public class TicketCapExceededException extends InvalidPurchaseException {
+
+    private static final TicketCapExceededException STACKLESS = new TicketCapExceededException(false);
+
+    public TicketCapExceededException() {
+    }
+
+    private TicketCapExceededException(boolean writableStackTrace) {
+        super(writableStackTrace);
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static TicketCapExceededException stackless() {
+        return STACKLESS;
+    }
+}
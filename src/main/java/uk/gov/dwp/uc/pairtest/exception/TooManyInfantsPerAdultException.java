@@ -0,0 +1,44 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Each infant sits on an adult's lap, so an order cannot have more infants than its adults can hold.
+ */
+public class TooManyInfantsPerAdultException extends InvalidPurchaseException {
+
+    private final int maximumPerAdult;
+    private final int nrOfInfantTickets;
+    private final int nrOfAdultTickets;
+
+    public TooManyInfantsPerAdultException(int maximumPerAdult, int nrOfInfantTickets, int nrOfAdultTickets) {
+        this.maximumPerAdult = maximumPerAdult;
+        this.nrOfInfantTickets = nrOfInfantTickets;
+        this.nrOfAdultTickets = nrOfAdultTickets;
+    }
+
+    private TooManyInfantsPerAdultException(int maximumPerAdult, int nrOfInfantTickets, int nrOfAdultTickets,
+                                            boolean writableStackTrace) {
+        super(writableStackTrace);
+        this.maximumPerAdult = maximumPerAdult;
+        this.nrOfInfantTickets = nrOfInfantTickets;
+        this.nrOfAdultTickets = nrOfAdultTickets;
+    }
+
+    /**
+     * Creates the exception without capturing a stack trace.
+     */
+    public static TooManyInfantsPerAdultException stackless(int maximumPerAdult, int nrOfInfantTickets, int nrOfAdultTickets) {
+        return new TooManyInfantsPerAdultException(maximumPerAdult, nrOfInfantTickets, nrOfAdultTickets, false);
+    }
+
+    public int getMaximumPerAdult() {
+        return maximumPerAdult;
+    }
+
+    public int getNrOfInfantTickets() {
+        return nrOfInfantTickets;
+    }
+
+    public int getNrOfAdultTickets() {
+        return nrOfAdultTickets;
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * The account has placed more orders recently than it is allowed to.
+ */
+public class TooManyOrdersException extends InvalidPurchaseException {
+
+    private static final TooManyOrdersException STACKLESS = new TooManyOrdersException(false);
+
+    public TooManyOrdersException() {
+    }
+
+    private TooManyOrdersException(boolean writableStackTrace) {
+        super(writableStackTrace);
+    }
+
+    /**
+     * Shared instance without a stack trace.
+     */
+    public static TooManyOrdersException stackless() {
+        return STACKLESS;
+    }
+}
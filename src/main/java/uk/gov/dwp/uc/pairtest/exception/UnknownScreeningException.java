@@ -0,0 +1,14 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+public class UnknownScreeningException extends InvalidPurchaseException {
+
+    private final long screeningId;
+
+    public UnknownScreeningException(long screeningId) {
+        this.screeningId = screeningId;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+}
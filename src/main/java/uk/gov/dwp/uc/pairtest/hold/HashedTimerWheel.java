@@ -0,0 +1,323 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Expires timeouts on a hashed timing wheel: a ring of buckets, one per tick, where a timeout goes into the bucket of
+ * the tick it expires on and counts down the turns of the wheel until it is due. Scheduling, cancelling and expiring
+ * are each O(1) whatever the number of pending timeouts, and a timeout costs one small object, which is the timeout
+ * itself.
+ * <p>
+ * Any thread can schedule and cancel. Both go through lock-free queues that a single worker thread drains once per
+ * tick, so the buckets are only ever touched by the worker. Timeouts expire on the worker thread up to one tick late.
+ * The worker is started by the first schedule, so an unused wheel costs no thread.
+ */
+public class HashedTimerWheel implements AutoCloseable {
+
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(100);
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private static final int NOT_STARTED = 0;
+    private static final int STARTED = 1;
+    private static final int SHUT_DOWN = 2;
+    private static final int MAXIMUM_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final int mask;
+    private final Timeout[] bucketHeads;
+    private final Timeout[] bucketTails;
+    private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final LongAdder pendingTimeouts = new LongAdder();
+    private final AtomicInteger workerState = new AtomicInteger(NOT_STARTED);
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final ThreadFactory threadFactory;
+    private volatile Thread worker;
+    private long tick;
+
+    public HashedTimerWheel() {
+        this(DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * @param ticksPerWheel a power of two; timeouts up to this many ticks away need no counting down
+     */
+    public HashedTimerWheel(Duration tickDuration, int ticksPerWheel) {
+        this(tickDuration, ticksPerWheel, System::nanoTime, runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param threadFactory {@code null} for no worker, in which case the owner calls {@link #advanceTo}
+     */
+    HashedTimerWheel(Duration tickDuration, int ticksPerWheel, LongSupplier clock, ThreadFactory threadFactory) {
+        if (tickDuration.isZero() || tickDuration.isNegative()) {
+            throw new IllegalArgumentException("tickDuration must be positive but was " + tickDuration);
+        }
+        if ((ticksPerWheel < 1) || (Integer.bitCount(ticksPerWheel) != 1)) {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of two but was " + ticksPerWheel);
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = ticksPerWheel - 1;
+        this.bucketHeads = new Timeout[ticksPerWheel];
+        this.bucketTails = new Timeout[ticksPerWheel];
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Schedules the timeout to expire after the delay. A timeout can only be scheduled once.
+     *
+     * @throws IllegalStateException if the wheel has been closed
+     */
+    public void schedule(Timeout timeout, Duration delay) {
+        if (workerState.get() == SHUT_DOWN) {
+            throw new IllegalStateException("The timer wheel has been closed");
+        }
+        if (timeout.wheel != null) {
+            throw new IllegalStateException("The timeout has already been scheduled");
+        }
+        timeout.wheel = this;
+        timeout.deadlineNanos = (clock.getAsLong() - startNanos) + Math.max(0, delay.toNanos());
+        pendingTimeouts.increment();
+        scheduledTimeouts.add(timeout);
+        if ((threadFactory != null) && (workerState.get() == NOT_STARTED)) {
+            startWorker();
+        }
+    }
+
+    /**
+     * Timeouts that have been scheduled and have not yet expired or been cancelled.
+     */
+    public long getPendingTimeouts() {
+        return pendingTimeouts.sum();
+    }
+
+    /**
+     * Stops the worker, then expires every timeout still pending on the closing thread, so that whatever they hold is
+     * given back.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        int state = workerState.getAndSet(SHUT_DOWN);
+        if (state == SHUT_DOWN) {
+            return;
+        }
+        if (state == STARTED) {
+            LockSupport.unpark(worker);
+            worker.join();
+        }
+        expirePendingTimeouts();
+    }
+
+    /**
+     * Runs every tick that has ended by {@code elapsedNanos} after the wheel was created. Only for a wheel without a
+     * worker.
+     */
+    void advanceTo(long elapsedNanos) {
+        while (((tick + 1) * tickNanos) <= elapsedNanos) {
+            runTick();
+        }
+    }
+
+    /**
+     * The worker is published before the wheel is marked started, so that a {@link #close()} that sees it started can
+     * always stop it. One that closes the wheel first leaves it unstarted.
+     */
+    private synchronized void startWorker() {
+        if (workerState.get() == NOT_STARTED) {
+            worker = threadFactory.newThread(this::runWorker);
+            if (workerState.compareAndSet(NOT_STARTED, STARTED)) {
+                worker.start();
+            }
+        }
+    }
+
+    private void expirePendingTimeouts() {
+        removeCancelledTimeouts();
+        Timeout timeout;
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            pendingTimeouts.decrement();
+            expire(timeout);
+        }
+        for (int bucket = 0; bucket < bucketHeads.length; bucket++) {
+            while (bucketHeads[bucket] != null) {
+                timeout = bucketHeads[bucket];
+                unlink(timeout);
+                pendingTimeouts.decrement();
+                expire(timeout);
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (workerState.get() == STARTED) {
+            long tickEnd = (tick + 1) * tickNanos;
+            long remaining = tickEnd - (clock.getAsLong() - startNanos);
+            if (remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                runTick();
+            }
+        }
+    }
+
+    private void runTick() {
+        removeCancelledTimeouts();
+        transferScheduledTimeouts();
+        expireTimeouts((int) (tick & mask));
+        tick++;
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket >= 0) {
+                unlink(timeout);
+                pendingTimeouts.decrement();
+            }
+        }
+    }
+
+    private void transferScheduledTimeouts() {
+        for (int i = 0; i < MAXIMUM_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduledTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.PENDING) {
+                pendingTimeouts.decrement();
+                continue;
+            }
+            long deadlineTick = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = (deadlineTick - tick) / bucketHeads.length;
+            append(timeout, (int) (Math.max(deadlineTick, tick) & mask));
+        }
+    }
+
+    private void expireTimeouts(int bucket) {
+        Timeout timeout = bucketHeads[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                unlink(timeout);
+                pendingTimeouts.decrement();
+                expire(timeout);
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * A timeout that throws is handed to the thread's uncaught exception handler rather than left to stop the worker, so
+     * that the timeouts after it still expire.
+     */
+    private static void expire(Timeout timeout) {
+        try {
+            timeout.expire();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private void append(Timeout timeout, int bucket) {
+        timeout.bucket = bucket;
+        Timeout tail = bucketTails[bucket];
+        if (tail == null) {
+            bucketHeads[bucket] = timeout;
+        } else {
+            tail.next = timeout;
+            timeout.prev = tail;
+        }
+        bucketTails[bucket] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        int bucket = timeout.bucket;
+        if (timeout.prev == null) {
+            bucketHeads[bucket] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next == null) {
+            bucketTails[bucket] = timeout.prev;
+        } else {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    /**
+     * Something that expires on a {@link HashedTimerWheel} unless it is cancelled first. Exactly one of
+     * {@link #cancel()} and expiry wins.
+     */
+    public abstract static class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private volatile int state = PENDING;
+        private volatile HashedTimerWheel wheel;
+        private long deadlineNanos;
+        private long remainingRounds;
+        private int bucket = -1;
+        private Timeout prev;
+        private Timeout next;
+
+        /**
+         * @return whether this call stopped the timeout from expiring; {@code false} if it had already expired or been
+         *         cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            HashedTimerWheel scheduledOn = wheel;
+            if (scheduledOn != null) {
+                scheduledOn.cancelledTimeouts.add(this);
+            }
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Called on the wheel's worker thread. It should be quick, as it holds up every other timeout due on the same
+         * tick, and should not throw; one that does is reported to the thread's uncaught exception handler.
+         */
+        protected abstract void expired();
+
+        private void expire() {
+            if (STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                expired();
+            }
+        }
+    }
+}
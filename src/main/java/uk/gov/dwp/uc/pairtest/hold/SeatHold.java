@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Seats set aside for an account while it checks out. The seats are taken from the screening as soon as the hold is
+ * made; they are reserved with the seat booking gateway when the hold is confirmed and go back to the screening when it
+ * is released or expires.
+ */
+public final class SeatHold extends HashedTimerWheel.Timeout {
+
+    private static final int UNCONFIRMED = 0;
+    private static final int CONFIRMED = 1;
+    private static final int CONFIRMED_AND_RELEASED = 2;
+    private static final AtomicIntegerFieldUpdater<SeatHold> CONFIRMATION =
+        AtomicIntegerFieldUpdater.newUpdater(SeatHold.class, "confirmation");
+
+    private final long screeningId;
+    private final long accountId;
+    private final SeatAllocation allocation;
+    private final SeatHoldService seatHoldService;
+    private volatile int confirmation = UNCONFIRMED;
+    private volatile boolean expiredSeatsReturned;
+
+    SeatHold(long screeningId, long accountId, SeatAllocation allocation, SeatHoldService seatHoldService) {
+        this.screeningId = screeningId;
+        this.accountId = accountId;
+        this.allocation = allocation;
+        this.seatHoldService = seatHoldService;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public SeatAllocation getAllocation() {
+        return allocation;
+    }
+
+    void confirmed() {
+        confirmation = CONFIRMED;
+    }
+
+    /**
+     * @return whether this call is the one to give back the seats of the confirmed hold
+     */
+    boolean releaseConfirmed() {
+        return CONFIRMATION.compareAndSet(this, CONFIRMED, CONFIRMED_AND_RELEASED);
+    }
+
+    /**
+     * Waits, on a hold that has expired, for the timer to finish giving its seats back, which it does straight after
+     * marking the hold expired.
+     */
+    void awaitExpiredSeatsReturned() {
+        while (!expiredSeatsReturned) {
+            Thread.yield();
+        }
+    }
+
+    @Override
+    protected void expired() {
+        try {
+            seatHoldService.holdExpired(this);
+        } finally {
+            expiredSeatsReturned = true;
+        }
+    }
+}
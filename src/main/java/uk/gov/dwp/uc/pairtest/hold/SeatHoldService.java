@@ -0,0 +1,114 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.SeatHoldExpiredException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocator;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * The hold, confirm and release lifecycle of seats on top of a {@link SeatReservationService}, which can only reserve.
+ * Holding takes the seats from the screening for a time to live; confirming reserves them with the gateway; releasing,
+ * or letting the hold expire, gives them back to the screening. Exactly one of these happens to each hold, though the
+ * seats of a confirmed hold can still be given back if its purchase then fails.
+ * <p>
+ * Holds expire on a {@link HashedTimerWheel}, so each pending hold costs one object and expiring it is O(1). Closing
+ * the wheel gives back the seats of every hold still pending.
+ */
+public class SeatHoldService {
+
+    private final SeatAllocator seatAllocator;
+    private final SeatReservationService seatReservationService;
+    private final HashedTimerWheel timerWheel;
+    private final LongAdder expiredHolds = new LongAdder();
+
+    public SeatHoldService(SeatAllocator seatAllocator, SeatReservationService seatReservationService,
+                           HashedTimerWheel timerWheel) {
+        this.seatAllocator = seatAllocator;
+        this.seatReservationService = seatReservationService;
+        this.timerWheel = timerWheel;
+    }
+
+    /**
+     * @throws UnknownScreeningException  if the screening is not on sale
+     * @throws ScreeningSoldOutException if there are not enough seats left
+     * @throws IllegalStateException     if the timer wheel has been closed, in which case the seats are given back
+     */
+    public SeatHold hold(long screeningId, long accountId, int nrOfSeats, Duration timeToLive) {
+        SeatAllocation allocation = seatAllocator.allocate(screeningId, nrOfSeats);
+        SeatHold hold = new SeatHold(screeningId, accountId, allocation, this);
+        try {
+            timerWheel.schedule(hold, timeToLive);
+        } catch (RuntimeException e) {
+            seatAllocator.release(screeningId, allocation);
+            throw e;
+        }
+        return hold;
+    }
+
+    /**
+     * Reserves the held seats with the seat booking gateway. If the gateway fails, the seats go back to the screening,
+     * unless the reservation may still have gone through, in which case they stay taken for reconciliation. If the hold
+     * has expired, its seats are back with the screening by the time this throws, so that once a purchase has returned
+     * none of its seats are still on their way back.
+     *
+     * @throws SeatHoldExpiredException if the hold expired before it was confirmed
+     * @throws IllegalStateException    if the hold has already been confirmed or released
+     */
+    public SeatAllocation confirm(SeatHold hold) {
+        if (!hold.cancel()) {
+            if (hold.isExpired()) {
+                hold.awaitExpiredSeatsReturned();
+                throw new SeatHoldExpiredException(hold.getScreeningId());
+            }
+            throw new IllegalStateException("The hold has already been confirmed or released");
+        }
+        SeatAllocation allocation = hold.getAllocation();
+        try {
+            seatReservationService.reserveSeat(hold.getAccountId(), allocation.getNrOfSeats());
+        } catch (RuntimeException e) {
+            if (!GatewayUnavailableException.isOutcomeUnknown(e)) {
+                seatAllocator.release(hold.getScreeningId(), allocation);
+            }
+            throw e;
+        }
+        hold.confirmed();
+        return allocation;
+    }
+
+    /**
+     * Gives the seats of a confirmed hold back to the screening, for a purchase that was not paid for after all. The
+     * reservation with the seat booking gateway stays, as the gateway cannot undo one. Does nothing if the seats have
+     * already been given back or the hold was never confirmed.
+     */
+    public void releaseConfirmed(SeatHold hold) {
+        if (hold.releaseConfirmed()) {
+            seatAllocator.release(hold.getScreeningId(), hold.getAllocation());
+        }
+    }
+
+    /**
+     * Gives the held seats back to the screening. Does nothing if the hold has already been confirmed, released or has
+     * expired.
+     */
+    public void release(SeatHold hold) {
+        if (hold.cancel()) {
+            seatAllocator.release(hold.getScreeningId(), hold.getAllocation());
+        }
+    }
+
+    public long getExpiredHolds() {
+        return expiredHolds.sum();
+    }
+
+    void holdExpired(SeatHold hold) {
+        seatAllocator.release(hold.getScreeningId(), hold.getAllocation());
+        expiredHolds.increment();
+    }
+}
@@ -0,0 +1,268 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded map from 128 bit key fingerprints to values, which forgets entries once they are older than the time to
+ * live or when it is full, oldest first.
+ * <p>
+ * Keys are held as two {@code long}s in open addressing tables of primitive arrays rather than as objects, so an entry
+ * costs under 100 bytes whatever the key looked like. The cache is split into segments, each guarded by its own lock,
+ * so threads working on different keys rarely wait for each other. Within a segment a ring of keys in insertion order
+ * gives the oldest entry to evict in O(1); as every entry has the same time to live, the oldest entry is also the first
+ * to expire.
+ *
+ * @param <V> values, which must not be {@code null}
+ */
+class IdempotencyKeyCache<V> {
+
+    private static final int MINIMUM_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long timeToLiveNanos;
+    private final LongSupplier clock;
+
+    IdempotencyKeyCache(int maximumSize, Duration timeToLive, int nrOfSegments, LongSupplier clock) {
+        if ((nrOfSegments < 1) || (Integer.bitCount(nrOfSegments) != 1)) {
+            throw new IllegalArgumentException("nrOfSegments must be a power of two but was " + nrOfSegments);
+        }
+        if (maximumSize < nrOfSegments) {
+            throw new IllegalArgumentException("maximumSize must be at least " + nrOfSegments + " but was " + maximumSize);
+        }
+        this.segments = new Segment[nrOfSegments];
+        for (int i = 0; i < nrOfSegments; i++) {
+            segments[i] = new Segment(maximumSize / nrOfSegments);
+        }
+        this.segmentMask = nrOfSegments - 1;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * @return the value already held for the key, or {@code null} if there was none and the given value was put in
+     */
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(long keyHigh, long keyLow, V value) {
+        long hash = hash(keyHigh, keyLow);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            long now = clock.getAsLong();
+            segment.evictExpired(now - timeToLiveNanos);
+            int slot = segment.find(keyHigh, keyLow, hash);
+            if (slot >= 0) {
+                return (V) segment.values[slot];
+            }
+            segment.insert(keyHigh, keyLow, hash, now, value);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the value only if the key still holds the expected one, compared by identity.
+     */
+    void replace(long keyHigh, long keyLow, V expected, V value) {
+        long hash = hash(keyHigh, keyLow);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(keyHigh, keyLow, hash);
+            if ((slot >= 0) && (segment.values[slot] == expected)) {
+                segment.values[slot] = value;
+            }
+        }
+    }
+
+    /**
+     * Removes the key only if it still holds the expected value, compared by identity.
+     */
+    void remove(long keyHigh, long keyLow, V expected) {
+        long hash = hash(keyHigh, keyLow);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int slot = segment.find(keyHigh, keyLow, hash);
+            if ((slot >= 0) && (segment.values[slot] == expected)) {
+                segment.removeAt(slot);
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    private static long hash(long keyHigh, long keyLow) {
+        long hash = (keyHigh * 0x9E3779B97F4A7C15L) ^ keyLow;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * A linear probing table plus a ring of its keys in insertion order. Both start small and double up to what the
+     * maximum size needs. Only touched while holding the segment's lock.
+     */
+    private static final class Segment {
+
+        private final int maximumSize;
+        private long[] keyHighs;
+        private long[] keyLows;
+        private long[] insertedAt;
+        private Object[] values;
+        private int mask;
+        private int size;
+
+        private long[] ringKeyHighs;
+        private long[] ringKeyLows;
+        private long[] ringInsertedAt;
+        private int ringHead;
+        private int ringSize;
+
+        private Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+            allocateTable(MINIMUM_SEGMENT_CAPACITY);
+            this.ringKeyHighs = new long[MINIMUM_SEGMENT_CAPACITY];
+            this.ringKeyLows = new long[MINIMUM_SEGMENT_CAPACITY];
+            this.ringInsertedAt = new long[MINIMUM_SEGMENT_CAPACITY];
+        }
+
+        private int find(long keyHigh, long keyLow, long hash) {
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                if ((keyHighs[slot] == keyHigh) && (keyLows[slot] == keyLow)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long keyHigh, long keyLow, long hash, long now, Object value) {
+            if (ringSize == maximumSize) {
+                evictOldest();
+            } else if (ringSize == ringKeyHighs.length) {
+                growRing();
+            }
+            if ((size + 1) > (values.length >>> 1)) {
+                rehash(values.length << 1);
+            }
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keyHighs[slot] = keyHigh;
+            keyLows[slot] = keyLow;
+            insertedAt[slot] = now;
+            values[slot] = value;
+            size++;
+
+            int tail = (ringHead + ringSize) % ringKeyHighs.length;
+            ringKeyHighs[tail] = keyHigh;
+            ringKeyLows[tail] = keyLow;
+            ringInsertedAt[tail] = now;
+            ringSize++;
+        }
+
+        private void evictExpired(long insertedBefore) {
+            while ((ringSize > 0) && (ringInsertedAt[ringHead] - insertedBefore <= 0)) {
+                evictOldest();
+            }
+        }
+
+        /**
+         * Drops the oldest key in the ring, and its entry unless the key has been removed, and perhaps put back, since.
+         */
+        private void evictOldest() {
+            long keyHigh = ringKeyHighs[ringHead];
+            long keyLow = ringKeyLows[ringHead];
+            long keyInsertedAt = ringInsertedAt[ringHead];
+            ringHead = (ringHead + 1) % ringKeyHighs.length;
+            ringSize--;
+            int slot = find(keyHigh, keyLow, hash(keyHigh, keyLow));
+            if ((slot >= 0) && (insertedAt[slot] == keyInsertedAt)) {
+                removeAt(slot);
+            }
+        }
+
+        /**
+         * Backward shift deletion: moves later entries of the probe sequence up into the gap so that lookups never
+         * need tombstones.
+         */
+        private void removeAt(int slot) {
+            int gap = slot;
+            int next = gap;
+            while (true) {
+                next = (next + 1) & mask;
+                if (values[next] == null) {
+                    break;
+                }
+                int home = (int) hash(keyHighs[next], keyLows[next]) & mask;
+                boolean homeBetweenGapAndNext = gap <= next ? (gap < home) && (home <= next) : (gap < home) || (home <= next);
+                if (!homeBetweenGapAndNext) {
+                    keyHighs[gap] = keyHighs[next];
+                    keyLows[gap] = keyLows[next];
+                    insertedAt[gap] = insertedAt[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            values[gap] = null;
+            size--;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeyHighs = keyHighs;
+            long[] oldKeyLows = keyLows;
+            long[] oldInsertedAt = insertedAt;
+            Object[] oldValues = values;
+            allocateTable(capacity);
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = (int) hash(oldKeyHighs[i], oldKeyLows[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keyHighs[slot] = oldKeyHighs[i];
+                    keyLows[slot] = oldKeyLows[i];
+                    insertedAt[slot] = oldInsertedAt[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private void allocateTable(int capacity) {
+            keyHighs = new long[capacity];
+            keyLows = new long[capacity];
+            insertedAt = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+
+        private void growRing() {
+            int capacity = Math.min(maximumSize, ringKeyHighs.length << 1);
+            long[] newKeyHighs = new long[capacity];
+            long[] newKeyLows = new long[capacity];
+            long[] newInsertedAt = new long[capacity];
+            for (int i = 0; i < ringSize; i++) {
+                int from = (ringHead + i) % ringKeyHighs.length;
+                newKeyHighs[i] = ringKeyHighs[from];
+                newKeyLows[i] = ringKeyLows[from];
+                newInsertedAt[i] = ringInsertedAt[from];
+            }
+            ringKeyHighs = newKeyHighs;
+            ringKeyLows = newKeyLows;
+            ringInsertedAt = newInsertedAt;
+            ringHead = 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrderRequest;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.IdempotencyKeyReusedException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.CHILD;
+
+/**
+ * Purchases through a {@link TicketService} at most once per idempotency key, so that a client retrying a purchase it
+ * did not hear back from is not charged twice.
+ * <p>
+ * The first purchase with a key runs; later ones with the same key and account get its outcome instead of purchasing
+ * again, for as long as the key is remembered. A duplicate that arrives while the first is still running waits for it.
+ * Purchases and rejections are remembered; a purchase that fails in a gateway is forgotten, so that a retry can go
+ * through once the gateway is back. One whose gateway call was given up on but may still go through is remembered
+ * too, and its retries fail the same way, as going through again could charge twice.
+ * <p>
+ * Each key remembers the ticket counts it was first used with. Sending the key again with a different order is a
+ * client mistake rather than a retry, and is rejected with {@link IdempotencyKeyReusedException}.
+ */
+public class IdempotentTicketService {
+
+    public static final int DEFAULT_NR_OF_SEGMENTS = 64;
+
+    private static final Object PURCHASED = new Object();
+    private static final long UNPACKABLE_ORDER = -1;
+
+    private final TicketService ticketService;
+    private final IdempotencyKeyCache<Entry> outcomes;
+
+    /**
+     * @param maximumKeys the most keys remembered at once; the oldest are forgotten first
+     * @param timeToLive  how long a key is remembered for
+     */
+    public IdempotentTicketService(TicketService ticketService, int maximumKeys, Duration timeToLive) {
+        this(ticketService, new IdempotencyKeyCache<>(maximumKeys, timeToLive, DEFAULT_NR_OF_SEGMENTS, System::nanoTime));
+    }
+
+    IdempotentTicketService(TicketService ticketService, int maximumKeys, Duration timeToLive, LongSupplier clock) {
+        this(ticketService, new IdempotencyKeyCache<>(maximumKeys, timeToLive, 1, clock));
+    }
+
+    private IdempotentTicketService(TicketService ticketService, IdempotencyKeyCache<Entry> outcomes) {
+        this.ticketService = ticketService;
+        this.outcomes = outcomes;
+    }
+
+    public void purchaseTickets(String idempotencyKey, Long accountId, TicketTypeRequest... ticketTypeRequests)
+        throws InvalidPurchaseException {
+        if (idempotencyKey == null) {
+            throw new IllegalArgumentException("idempotencyKey must not be null");
+        }
+        long account = accountId == null ? 0 : accountId;
+        long keyHigh = KeyFingerprint.high(idempotencyKey, account);
+        long keyLow = KeyFingerprint.low(idempotencyKey, account);
+        long packedCounts = packedCountsOf(ticketTypeRequests);
+        CompletableFuture<RuntimeException> purchase = new CompletableFuture<>();
+        Entry entry = new Entry(packedCounts, purchase);
+        Entry remembered = outcomes.putIfAbsent(keyHigh, keyLow, entry);
+        if (remembered == null) {
+            purchase(keyHigh, keyLow, entry, purchase, accountId, ticketTypeRequests);
+        } else if (remembered.packedCounts != packedCounts) {
+            throw IdempotencyKeyReusedException.stackless();
+        } else {
+            replay(remembered.outcome);
+        }
+    }
+
+    public int getNrOfKeys() {
+        return outcomes.size();
+    }
+
+    private void purchase(long keyHigh, long keyLow, Entry entry, CompletableFuture<RuntimeException> purchase,
+                          Long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            outcomes.replace(keyHigh, keyLow, entry, new Entry(entry.packedCounts, e));
+            purchase.complete(e);
+            throw e;
+        } catch (GatewayUnavailableException e) {
+            if (GatewayUnavailableException.isOutcomeUnknown(e)) {
+                outcomes.replace(keyHigh, keyLow, entry, new Entry(entry.packedCounts, e));
+            } else {
+                outcomes.remove(keyHigh, keyLow, entry);
+            }
+            purchase.complete(e);
+            throw e;
+        } catch (RuntimeException e) {
+            outcomes.remove(keyHigh, keyLow, entry);
+            purchase.complete(e);
+            throw e;
+        } catch (Error e) {
+            outcomes.remove(keyHigh, keyLow, entry);
+            purchase.complete(new IllegalStateException("The purchase with the same idempotency key failed", e));
+            throw e;
+        }
+        outcomes.replace(keyHigh, keyLow, entry, new Entry(entry.packedCounts, PURCHASED));
+        purchase.complete(null);
+    }
+
+    /**
+     * Counts that cannot be packed are all remembered as {@link #UNPACKABLE_ORDER}; such orders are far over any ticket
+     * limit and are only ever rejected, so telling them apart does not matter.
+     */
+    private static long packedCountsOf(TicketTypeRequest[] ticketTypeRequests) {
+        long nrOfAdultTickets = 0;
+        long nrOfChildTickets = 0;
+        long nrOfInfantTickets = 0;
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            TicketTypeRequest.Type type = ticketTypeRequest.getTicketType();
+            if (type == ADULT) {
+                nrOfAdultTickets += ticketTypeRequest.getNoOfTickets();
+            } else if (type == CHILD) {
+                nrOfChildTickets += ticketTypeRequest.getNoOfTickets();
+            } else {
+                nrOfInfantTickets += ticketTypeRequest.getNoOfTickets();
+            }
+        }
+        if (!isPackable(nrOfAdultTickets) || !isPackable(nrOfChildTickets) || !isPackable(nrOfInfantTickets)) {
+            return UNPACKABLE_ORDER;
+        }
+        return TicketOrderRequest.packCounts((int) nrOfAdultTickets, (int) nrOfChildTickets, (int) nrOfInfantTickets);
+    }
+
+    private static boolean isPackable(long nrOfTickets) {
+        return (nrOfTickets >= 0) && (nrOfTickets <= TicketOrderRequest.MAXIMUM_PACKED_NR_OF_TICKETS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void replay(Object outcome) {
+        Object completedOutcome = outcome;
+        if (outcome instanceof CompletableFuture) {
+            RuntimeException failure = ((CompletableFuture<RuntimeException>) outcome).join();
+            completedOutcome = failure == null ? PURCHASED : failure;
+        }
+        if (completedOutcome != PURCHASED) {
+            throw (RuntimeException) completedOutcome;
+        }
+    }
+
+    /**
+     * The order a key was first used for, packed, and its outcome: the running purchase, {@link #PURCHASED} or the
+     * failure to rethrow.
+     */
+    private static final class Entry {
+
+        private final long packedCounts;
+        private final Object outcome;
+
+        private Entry(long packedCounts, Object outcome) {
+            this.packedCounts = packedCounts;
+            this.outcome = outcome;
+        }
+    }
+}
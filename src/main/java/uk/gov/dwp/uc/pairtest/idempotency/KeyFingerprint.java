@@ -0,0 +1,44 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+/**
+ * Reduces an idempotency key and the account it belongs to to 128 bits, so the cache can hold keys as two
+ * {@code long}s. Two different keys share a fingerprint with a probability of about 2<sup>-128</sup>, which is far less
+ * likely than a client reusing a key by mistake.
+ */
+final class KeyFingerprint {
+
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+
+    private KeyFingerprint() {
+    }
+
+    static long high(String key, long accountId) {
+        return hash(key, accountId, SEED_HIGH);
+    }
+
+    static long low(String key, long accountId) {
+        return hash(key, accountId, SEED_LOW);
+    }
+
+    private static long hash(String key, long accountId, long seed) {
+        long hash = seed ^ mix(accountId + seed);
+        int length = key.length();
+        int i = 0;
+        for (; (i + 4) <= length; i += 4) {
+            long chars = key.charAt(i) | ((long) key.charAt(i + 1) << 16) | ((long) key.charAt(i + 2) << 32)
+                         | ((long) key.charAt(i + 3) << 48);
+            hash = Long.rotateLeft(hash ^ mix(chars), 27) * 0x9FB21C651E98DF25L;
+        }
+        for (; i < length; i++) {
+            hash = Long.rotateLeft(hash ^ mix(key.charAt(i)), 27) * 0x9FB21C651E98DF25L;
+        }
+        return mix(hash ^ length);
+    }
+
+    private static long mix(long value) {
+        long mixed = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+}
@@ -0,0 +1,134 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The seats left for one screening, split over several counters so that threads selling the same screening at once
+ * mostly compare-and-set different cache lines.
+ * <p>
+ * A reservation first tries the counter of the calling thread's stripe. When that stripe does not have enough seats
+ * left, the reservation gathers seats from every stripe under a lock; only this slow path is serialised, so it never
+ * reports a screening as sold out while the stripes between them still have the seats. Once a screening is sold out,
+ * requests are turned away without the lock by summing the stripes, checked against a sequence number that the
+ * gathering bumps so a sum taken halfway through a gather is not trusted.
+ */
+public class ScreeningCapacity {
+
+    /**
+     * Ints per stripe, so that each stripe's counter is on its own 64 byte cache line.
+     */
+    private static final int STRIPE_SPACING = 16;
+    private static final int MAXIMUM_STRIPES = 64;
+
+    private final int capacity;
+    private final int stripeMask;
+    private final AtomicIntegerArray remainingSeats;
+    private final Object gatherLock = new Object();
+    private volatile int gatherSequence;
+
+    public ScreeningCapacity(int capacity) {
+        this(capacity, defaultNrOfStripes(capacity));
+    }
+
+    /**
+     * @param nrOfStripes a power of two; one gives a single compare-and-set counter
+     */
+    public ScreeningCapacity(int capacity, int nrOfStripes) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative but was " + capacity);
+        }
+        if ((nrOfStripes < 1) || (Integer.bitCount(nrOfStripes) != 1)) {
+            throw new IllegalArgumentException("nrOfStripes must be a power of two but was " + nrOfStripes);
+        }
+        this.capacity = capacity;
+        this.stripeMask = nrOfStripes - 1;
+        this.remainingSeats = new AtomicIntegerArray(nrOfStripes * STRIPE_SPACING);
+        for (int stripe = 0; stripe < nrOfStripes; stripe++) {
+            int share = (capacity / nrOfStripes) + (stripe < (capacity % nrOfStripes) ? 1 : 0);
+            remainingSeats.set(stripe * STRIPE_SPACING, share);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Exact when nothing is being reserved or released at the same time.
+     */
+    public int getRemainingSeats() {
+        int remaining = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            remaining += remainingSeats.get(stripe * STRIPE_SPACING);
+        }
+        return remaining;
+    }
+
+    /**
+     * @return whether the seats were taken; nothing is taken when there are not enough left
+     */
+    public boolean tryReserve(int seats) {
+        if (seats <= 0) {
+            return seats == 0;
+        }
+        int index = stripeIndex();
+        while (true) {
+            int remaining = remainingSeats.get(index);
+            if (remaining < seats) {
+                return gatherAndReserve(seats, index);
+            }
+            if (remainingSeats.compareAndSet(index, remaining, remaining - seats)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back seats that were reserved and will not be sold.
+     */
+    public void release(int seats) {
+        if (seats > 0) {
+            remainingSeats.getAndAdd(stripeIndex(), seats);
+        }
+    }
+
+    private boolean gatherAndReserve(int seats, int ownIndex) {
+        int sequence = gatherSequence;
+        if (((sequence & 1) == 0) && (getRemainingSeats() < seats) && (gatherSequence == sequence)) {
+            return false;
+        }
+        synchronized (gatherLock) {
+            gatherSequence++;
+            try {
+                return gather(seats, ownIndex);
+            } finally {
+                gatherSequence++;
+            }
+        }
+    }
+
+    private boolean gather(int seats, int ownIndex) {
+        int gathered = 0;
+        for (int stripe = 0; (stripe <= stripeMask) && (gathered < seats); stripe++) {
+            gathered += remainingSeats.getAndSet(stripe * STRIPE_SPACING, 0);
+        }
+        if (gathered >= seats) {
+            remainingSeats.getAndAdd(ownIndex, gathered - seats);
+            return true;
+        }
+        remainingSeats.getAndAdd(ownIndex, gathered);
+        return false;
+    }
+
+    private int stripeIndex() {
+        return ((int) Thread.currentThread().getId() & stripeMask) * STRIPE_SPACING;
+    }
+
+    private static int defaultNrOfStripes(int capacity) {
+        int stripes = Integer.highestOneBit((2 * Runtime.getRuntime().availableProcessors()) - 1);
+        while ((stripes > 1) && ((capacity / stripes) < 8)) {
+            stripes >>>= 1;
+        }
+        return Math.min(stripes, MAXIMUM_STRIPES);
+    }
+}
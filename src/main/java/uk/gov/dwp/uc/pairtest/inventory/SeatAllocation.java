@@ -0,0 +1,110 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.Arrays;
+
+/**
+ * The seats taken for one order. With assigned seating it holds the id of every seat, see {@link #seatId}; with
+ * unassigned seating it only holds how many seats were taken.
+ */
+public final class SeatAllocation {
+
+    static final int SEATS_PER_ROW_BITS = 6;
+    static final int MAXIMUM_SEATS_PER_ROW = 1 << SEATS_PER_ROW_BITS;
+
+    private static final int[] NO_SEAT_IDS = new int[0];
+
+    private final int nrOfSeats;
+    private final int[] seatIds;
+
+    private SeatAllocation(int nrOfSeats, int[] seatIds) {
+        this.nrOfSeats = nrOfSeats;
+        this.seatIds = seatIds;
+    }
+
+    public static SeatAllocation unassigned(int nrOfSeats) {
+        return new SeatAllocation(nrOfSeats, NO_SEAT_IDS);
+    }
+
+    public static SeatAllocation assigned(int[] seatIds) {
+        return new SeatAllocation(seatIds.length, seatIds);
+    }
+
+    /**
+     * Seat ids are the row, counting from zero, in the high bits and the seat within the row, counting from zero, in
+     * the low {@value #SEATS_PER_ROW_BITS} bits.
+     */
+    public static int seatId(int row, int seatInRow) {
+        return (row << SEATS_PER_ROW_BITS) | seatInRow;
+    }
+
+    public static int rowOf(int seatId) {
+        return seatId >>> SEATS_PER_ROW_BITS;
+    }
+
+    public static int seatInRowOf(int seatId) {
+        return seatId & (MAXIMUM_SEATS_PER_ROW - 1);
+    }
+
+    public int getNrOfSeats() {
+        return nrOfSeats;
+    }
+
+    public boolean isAssigned() {
+        return seatIds.length > 0;
+    }
+
+    /**
+     * In row order and, within a row, in seat order.
+     */
+    public int[] getSeatIds() {
+        return seatIds.clone();
+    }
+
+    /**
+     * Whether every seat is in the same row next to each other.
+     */
+    public boolean isTogether() {
+        for (int i = 1; i < seatIds.length; i++) {
+            if (seatIds[i] != (seatIds[i - 1] + 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int seatIdAt(int index) {
+        return seatIds[index];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SeatAllocation)) {
+            return false;
+        }
+        SeatAllocation other = (SeatAllocation) obj;
+        return (nrOfSeats == other.nrOfSeats) && Arrays.equals(seatIds, other.seatIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * nrOfSeats) + Arrays.hashCode(seatIds);
+    }
+
+    @Override
+    public String toString() {
+        if (!isAssigned()) {
+            return "SeatAllocation[" + nrOfSeats + " unassigned seats]";
+        }
+        StringBuilder text = new StringBuilder("SeatAllocation[");
+        for (int i = 0; i < seatIds.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append("row ").append(rowOf(seatIds[i]) + 1).append(" seat ").append(seatInRowOf(seatIds[i]) + 1);
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,21 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+
+/**
+ * Takes seats for an order from a screening's capacity and gives them back when the order does not go through.
+ */
+public interface SeatAllocator {
+
+    /**
+     * @throws UnknownScreeningException  if the screening is not on sale
+     * @throws ScreeningSoldOutException if there are not enough seats left
+     */
+    SeatAllocation allocate(long screeningId, int nrOfSeats);
+
+    /**
+     * Does nothing if the screening is no longer on sale here, as when it has been taken off sale or moved elsewhere.
+     */
+    void release(long screeningId, SeatAllocation allocation);
+}
@@ -0,0 +1,77 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the remaining capacity of every screening on sale so that a screening can never be sold beyond its capacity.
+ * Looking a screening up is a read of a concurrent map and reserving is lock-free on the fast path, see
+ * {@link ScreeningCapacity}. Seats are not assigned; use {@link SeatMapInventory} for that.
+ */
+public class SeatInventory implements SeatAllocator {
+
+    private final Map<Long, ScreeningCapacity> screenings = new ConcurrentHashMap<>();
+
+    /**
+     * Puts a screening on sale with all of its seats free.
+     *
+     * @throws IllegalStateException if the screening is already on sale
+     */
+    public void addScreening(long screeningId, int capacity) {
+        if (screenings.putIfAbsent(screeningId, new ScreeningCapacity(capacity)) != null) {
+            throw new IllegalStateException("Screening " + screeningId + " is already on sale");
+        }
+    }
+
+    public void removeScreening(long screeningId) {
+        screenings.remove(screeningId);
+    }
+
+    /**
+     * Takes the seats from the screening's remaining capacity.
+     *
+     * @throws UnknownScreeningException  if the screening is not on sale
+     * @throws ScreeningSoldOutException if there are not enough seats left
+     */
+    public void reserve(long screeningId, int seats) {
+        if (!getScreening(screeningId).tryReserve(seats)) {
+            throw new ScreeningSoldOutException(screeningId, seats);
+        }
+    }
+
+    @Override
+    public SeatAllocation allocate(long screeningId, int nrOfSeats) {
+        reserve(screeningId, nrOfSeats);
+        return SeatAllocation.unassigned(nrOfSeats);
+    }
+
+    @Override
+    public void release(long screeningId, SeatAllocation allocation) {
+        release(screeningId, allocation.getNrOfSeats());
+    }
+
+    /**
+     * Gives the seats back to the screening's remaining capacity. Does nothing if the screening is no longer on sale.
+     */
+    public void release(long screeningId, int seats) {
+        ScreeningCapacity screening = screenings.get(screeningId);
+        if (screening != null) {
+            screening.release(seats);
+        }
+    }
+
+    public int getRemainingSeats(long screeningId) {
+        return getScreening(screeningId).getRemainingSeats();
+    }
+
+    private ScreeningCapacity getScreening(long screeningId) {
+        ScreeningCapacity screening = screenings.get(screeningId);
+        if (screening == null) {
+            throw new UnknownScreeningException(screeningId);
+        }
+        return screening;
+    }
+}
@@ -0,0 +1,227 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The seats of one screening as a bitset with one {@code long} per row, where a set bit is a taken seat. A 20 by 20
+ * auditorium costs 20 words, so thousands of screenings fit in a few megabytes.
+ * <p>
+ * Blocks of seats are found with word-level bit operations rather than by looking at seats one by one: the free seats of
+ * a row are ANDed with themselves shifted, doubling the run length each time, which leaves a bit set at every seat that
+ * starts a free run long enough for the order. The seats are claimed by compare-and-set of the row's word and the
+ * search is retried on that row if another order claimed seats in it first.
+ * <p>
+ * Rows are tried from the middle of the auditorium outwards and, within a row, the block closest to the centre is
+ * taken.
+ */
+public class SeatMap {
+
+    private final int nrOfRows;
+    private final int seatsPerRow;
+    private final long rowMask;
+    private final AtomicLongArray takenSeats;
+
+    public SeatMap(int nrOfRows, int seatsPerRow) {
+        if ((nrOfRows < 1) || (nrOfRows > (Integer.MAX_VALUE >>> SeatAllocation.SEATS_PER_ROW_BITS))) {
+            throw new IllegalArgumentException("nrOfRows out of range: " + nrOfRows);
+        }
+        if ((seatsPerRow < 1) || (seatsPerRow > SeatAllocation.MAXIMUM_SEATS_PER_ROW)) {
+            throw new IllegalArgumentException("seatsPerRow must be from 1 to " + SeatAllocation.MAXIMUM_SEATS_PER_ROW
+                                               + " but was " + seatsPerRow);
+        }
+        this.nrOfRows = nrOfRows;
+        this.seatsPerRow = seatsPerRow;
+        this.rowMask = blockMask(seatsPerRow);
+        this.takenSeats = new AtomicLongArray(nrOfRows);
+    }
+
+    public int getNrOfRows() {
+        return nrOfRows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return nrOfRows * seatsPerRow;
+    }
+
+    public int getFreeSeats() {
+        int free = 0;
+        for (int row = 0; row < nrOfRows; row++) {
+            free += Long.bitCount(~takenSeats.get(row) & rowMask);
+        }
+        return free;
+    }
+
+    public boolean isTaken(int seatId) {
+        return (takenSeats.get(SeatAllocation.rowOf(seatId)) & (1L << SeatAllocation.seatInRowOf(seatId))) != 0;
+    }
+
+    /**
+     * Claims the seats next to each other in one row when any row has room, otherwise wherever they are free.
+     *
+     * @return the seats claimed, or {@code null} when there are not enough free seats
+     */
+    public SeatAllocation claim(int nrOfSeats) {
+        if (nrOfSeats <= 0) {
+            return SeatAllocation.unassigned(0);
+        }
+        if (nrOfSeats <= seatsPerRow) {
+            SeatAllocation together = claimTogether(nrOfSeats);
+            if (together != null) {
+                return together;
+            }
+        }
+        return claimApart(nrOfSeats);
+    }
+
+    public void release(SeatAllocation allocation) {
+        int nrOfSeats = allocation.isAssigned() ? allocation.getNrOfSeats() : 0;
+        int i = 0;
+        while (i < nrOfSeats) {
+            int row = SeatAllocation.rowOf(allocation.seatIdAt(i));
+            long seats = 0;
+            while ((i < nrOfSeats) && (SeatAllocation.rowOf(allocation.seatIdAt(i)) == row)) {
+                seats |= 1L << SeatAllocation.seatInRowOf(allocation.seatIdAt(i));
+                i++;
+            }
+            clear(row, seats);
+        }
+    }
+
+    private SeatAllocation claimTogether(int nrOfSeats) {
+        for (int i = 0; i < nrOfRows; i++) {
+            int row = rowAt(i);
+            while (true) {
+                long taken = takenSeats.get(row);
+                long runStarts = runStarts(~taken & rowMask, nrOfSeats);
+                if (runStarts == 0) {
+                    break;
+                }
+                long block = blockMask(nrOfSeats) << startClosestToCentre(runStarts, nrOfSeats);
+                if (takenSeats.compareAndSet(row, taken, taken | block)) {
+                    int[] seatIds = new int[nrOfSeats];
+                    addSeatIds(row, block, seatIds, 0);
+                    return SeatAllocation.assigned(seatIds);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes the lowest free seats row by row and gives them all back if there turn out not to be enough.
+     */
+    private SeatAllocation claimApart(int nrOfSeats) {
+        long[] claimed = new long[nrOfRows];
+        int remaining = nrOfSeats;
+        for (int i = 0; (i < nrOfRows) && (remaining > 0); i++) {
+            int row = rowAt(i);
+            while (true) {
+                long taken = takenSeats.get(row);
+                long free = ~taken & rowMask;
+                if (free == 0) {
+                    break;
+                }
+                long seats = lowestSeats(free, remaining);
+                if (takenSeats.compareAndSet(row, taken, taken | seats)) {
+                    claimed[row] = seats;
+                    remaining -= Long.bitCount(seats);
+                    break;
+                }
+            }
+        }
+
+        if (remaining > 0) {
+            for (int row = 0; row < nrOfRows; row++) {
+                if (claimed[row] != 0) {
+                    clear(row, claimed[row]);
+                }
+            }
+            return null;
+        }
+        int[] seatIds = new int[nrOfSeats];
+        int filled = 0;
+        for (int row = 0; row < nrOfRows; row++) {
+            filled = addSeatIds(row, claimed[row], seatIds, filled);
+        }
+        return SeatAllocation.assigned(seatIds);
+    }
+
+    private void clear(int row, long seats) {
+        while (true) {
+            long taken = takenSeats.get(row);
+            if (takenSeats.compareAndSet(row, taken, taken & ~seats)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The middle row first, then the rows either side of it in turn.
+     */
+    private int rowAt(int i) {
+        int middle = nrOfRows / 2;
+        int offset = (i + 1) / 2;
+        return ((i & 1) == 1) ? middle - offset : middle + offset;
+    }
+
+    private int startClosestToCentre(long runStarts, int nrOfSeats) {
+        int centre = (seatsPerRow - nrOfSeats) / 2;
+        long fromCentre = runStarts & (-1L << centre);
+        long beforeCentre = runStarts & ~(-1L << centre);
+        if (beforeCentre == 0) {
+            return Long.numberOfTrailingZeros(fromCentre);
+        }
+        int before = 63 - Long.numberOfLeadingZeros(beforeCentre);
+        if (fromCentre == 0) {
+            return before;
+        }
+        int after = Long.numberOfTrailingZeros(fromCentre);
+        return (after - centre) <= (centre - before) ? after : before;
+    }
+
+    /**
+     * A bit is left set at every seat that starts a run of at least {@code length} free seats.
+     */
+    static long runStarts(long free, int length) {
+        long starts = free;
+        int runLength = 1;
+        while (runLength < length) {
+            int shift = Math.min(runLength, length - runLength);
+            starts &= starts >>> shift;
+            runLength += shift;
+        }
+        return starts;
+    }
+
+    private static long lowestSeats(long free, int nrOfSeats) {
+        if (Long.bitCount(free) <= nrOfSeats) {
+            return free;
+        }
+        long seats = 0;
+        long remaining = free;
+        for (int i = 0; i < nrOfSeats; i++) {
+            long lowest = remaining & -remaining;
+            seats |= lowest;
+            remaining ^= lowest;
+        }
+        return seats;
+    }
+
+    private static long blockMask(int length) {
+        return length == Long.SIZE ? -1L : (1L << length) - 1;
+    }
+
+    private static int addSeatIds(int row, long seats, int[] seatIds, int from) {
+        int next = from;
+        long remaining = seats;
+        while (remaining != 0) {
+            seatIds[next++] = SeatAllocation.seatId(row, Long.numberOfTrailingZeros(remaining));
+            remaining &= remaining - 1;
+        }
+        return next;
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigned seating: keeps a {@link SeatMap} for every screening on sale and gives each order particular seats, next to
+ * each other where a row has room for them.
+ */
+public class SeatMapInventory implements SeatAllocator {
+
+    private final Map<Long, SeatMap> screenings = new ConcurrentHashMap<>();
+
+    /**
+     * Puts a screening on sale with all of its seats free.
+     *
+     * @throws IllegalStateException if the screening is already on sale
+     */
+    public void addScreening(long screeningId, int nrOfRows, int seatsPerRow) {
+        if (screenings.putIfAbsent(screeningId, new SeatMap(nrOfRows, seatsPerRow)) != null) {
+            throw new IllegalStateException("Screening " + screeningId + " is already on sale");
+        }
+    }
+
+    public void removeScreening(long screeningId) {
+        screenings.remove(screeningId);
+    }
+
+    @Override
+    public SeatAllocation allocate(long screeningId, int nrOfSeats) {
+        SeatAllocation allocation = getSeatMap(screeningId).claim(nrOfSeats);
+        if (allocation == null) {
+            throw new ScreeningSoldOutException(screeningId, nrOfSeats);
+        }
+        return allocation;
+    }
+
+    @Override
+    public void release(long screeningId, SeatAllocation allocation) {
+        SeatMap seatMap = screenings.get(screeningId);
+        if (seatMap != null) {
+            seatMap.release(allocation);
+        }
+    }
+
+    /**
+     * @throws UnknownScreeningException if the screening is not on sale
+     */
+    public SeatMap getSeatMap(long screeningId) {
+        SeatMap seatMap = screenings.get(screeningId);
+        if (seatMap == null) {
+            throw new UnknownScreeningException(screeningId);
+        }
+        return seatMap;
+    }
+}
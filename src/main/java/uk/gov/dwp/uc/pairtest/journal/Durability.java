@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * When a journal append returns relative to the record being forced to disk.
+ */
+public enum Durability {
+
+    /**
+     * Returns once the record is in the mapped segment. The page belongs to the operating system, so the record
+     * survives the process dying, and it is forced to disk in the next batch. Only an operating system crash or power
+     * loss before then loses it.
+     */
+    WRITTEN,
+
+    /**
+     * Waits until the batch holding the record has been forced to disk. Concurrent appenders share each force.
+     */
+    SYNCED
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * A purchase found in the journal that was started but never completed or failed, with the last stage it reached.
+ */
+public final class IncompletePurchase {
+
+    private final long purchaseId;
+    private final long accountId;
+    private final int[] nrOfTicketsByType;
+    private final int totalCostOfTickets;
+    private PurchaseStage stage = PurchaseStage.STARTED;
+
+    IncompletePurchase(long purchaseId, long accountId, int[] nrOfTicketsByType, int totalCostOfTickets) {
+        this.purchaseId = purchaseId;
+        this.accountId = accountId;
+        this.nrOfTicketsByType = nrOfTicketsByType;
+        this.totalCostOfTickets = totalCostOfTickets;
+    }
+
+    public long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getNrOfTickets(TicketTypeRequest.Type type) {
+        return nrOfTicketsByType[type.ordinal()];
+    }
+
+    public int getNrOfSeats() {
+        return getNrOfTickets(TicketTypeRequest.Type.ADULT) + getNrOfTickets(TicketTypeRequest.Type.CHILD);
+    }
+
+    public int getTotalCostOfTickets() {
+        return totalCostOfTickets;
+    }
+
+    /**
+     * @return {@link PurchaseStage#STARTED}, {@link PurchaseStage#SEATS_RESERVED} or {@link PurchaseStage#PAID}
+     */
+    public PurchaseStage getStage() {
+        return stage;
+    }
+
+    void setStage(PurchaseStage stage) {
+        this.stage = stage;
+    }
+
+    @Override
+    public String toString() {
+        return "IncompletePurchase[purchaseId=" + purchaseId + ", accountId=" + accountId + ", stage=" + stage
+               + ", seats=" + getNrOfSeats() + ", cost=" + totalCostOfTickets + "]";
+    }
+}
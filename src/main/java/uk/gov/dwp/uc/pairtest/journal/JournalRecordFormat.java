@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * The fixed length binary record each stage of a purchase is written as.
+ * <pre>
+ *  0  int    CRC32C of bytes 4 to 31
+ *  4  byte   stage code
+ *  5  byte   unused
+ *  6  short  number of tickets of each type, in {@link TicketTypeRequest.Type} order
+ * 12  int    total cost of the tickets
+ * 16  long   purchase id
+ * 24  long   account id
+ * </pre>
+ * Only the started record has the account, ticket counts and cost filled in. A record whose checksum does not match
+ * was torn by the process dying while writing it, and ends the segment.
+ */
+final class JournalRecordFormat {
+
+    static final int RECORD_LENGTH = 32;
+    static final int NR_OF_TICKET_TYPES = TicketTypeRequest.Type.values().length;
+
+    private static final int CHECKSUM_OFFSET = 0;
+    private static final int STAGE_OFFSET = 4;
+    private static final int NR_OF_TICKETS_OFFSET = 6;
+    private static final int TOTAL_COST_OFFSET = 12;
+    private static final int PURCHASE_ID_OFFSET = 16;
+    private static final int ACCOUNT_ID_OFFSET = 24;
+    private static final int CHECKED_LENGTH = RECORD_LENGTH - STAGE_OFFSET;
+
+    static {
+        if (NR_OF_TICKETS_OFFSET + (NR_OF_TICKET_TYPES * Short.BYTES) > TOTAL_COST_OFFSET) {
+            throw new ExceptionInInitializerError("The record has room for 3 ticket types but there are " + NR_OF_TICKET_TYPES);
+        }
+    }
+
+    private JournalRecordFormat() {
+    }
+
+    /**
+     * Writes the record into the start of the buffer, which must wrap an array.
+     */
+    static void encode(ByteBuffer record, CRC32C checksum, PurchaseStage stage, long purchaseId, long accountId,
+                       int[] nrOfTicketsByType, int totalCostOfTickets) {
+        record.put(STAGE_OFFSET, stage.getCode());
+        record.put(STAGE_OFFSET + 1, (byte) 0);
+        for (int i = 0; i < NR_OF_TICKET_TYPES; i++) {
+            int nrOfTickets = nrOfTicketsByType[i];
+            if ((nrOfTickets < 0) || (nrOfTickets > Short.MAX_VALUE)) {
+                throw new IllegalArgumentException("Cannot journal " + nrOfTickets + " tickets of one type");
+            }
+            record.putShort(NR_OF_TICKETS_OFFSET + (i * Short.BYTES), (short) nrOfTickets);
+        }
+        record.putInt(TOTAL_COST_OFFSET, totalCostOfTickets);
+        record.putLong(PURCHASE_ID_OFFSET, purchaseId);
+        record.putLong(ACCOUNT_ID_OFFSET, accountId);
+        checksum.reset();
+        checksum.update(record.array(), record.arrayOffset() + STAGE_OFFSET, CHECKED_LENGTH);
+        record.putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+    }
+
+    /**
+     * @return the stage of the record at the offset, or null if nothing or a torn record was written there
+     */
+    static PurchaseStage stageAt(ByteBuffer segment, int offset, CRC32C checksum) {
+        PurchaseStage stage = PurchaseStage.fromCode(segment.get(offset + STAGE_OFFSET));
+        if (stage == null) {
+            return null;
+        }
+        checksum.reset();
+        checksum.update(segment.slice(offset + STAGE_OFFSET, CHECKED_LENGTH));
+        return ((int) checksum.getValue()) == segment.getInt(offset + CHECKSUM_OFFSET) ? stage : null;
+    }
+
+    static long purchaseIdAt(ByteBuffer segment, int offset) {
+        return segment.getLong(offset + PURCHASE_ID_OFFSET);
+    }
+
+    static IncompletePurchase startedPurchaseAt(ByteBuffer segment, int offset) {
+        int[] nrOfTicketsByType = new int[NR_OF_TICKET_TYPES];
+        for (int i = 0; i < NR_OF_TICKET_TYPES; i++) {
+            nrOfTicketsByType[i] = segment.getShort(offset + NR_OF_TICKETS_OFFSET + (i * Short.BYTES));
+        }
+        return new IncompletePurchase(purchaseIdAt(segment, offset), segment.getLong(offset + ACCOUNT_ID_OFFSET),
+                                      nrOfTicketsByType, segment.getInt(offset + TOTAL_COST_OFFSET));
+    }
+}
@@ -0,0 +1,124 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One preallocated, memory-mapped journal file. The journal only touches its state while holding its own lock.
+ */
+final class JournalSegment {
+
+    private static final String FILE_NAME_PREFIX = "purchases-";
+    private static final String FILE_NAME_SUFFIX = ".journal";
+
+    private final long index;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private int position;
+    private int syncedPosition;
+    private int openPurchases;
+    private boolean rolled;
+
+    private JournalSegment(long index, Path file, MappedByteBuffer buffer) {
+        this.index = index;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long index, int size) throws IOException {
+        Path file = directory.resolve(String.format("%s%019d%s", FILE_NAME_PREFIX, index, FILE_NAME_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            return new JournalSegment(index, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    static MappedByteBuffer mapForReading(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return the segment files in the directory, oldest first
+     */
+    static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(FILE_NAME_PREFIX) && name.endsWith(FILE_NAME_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    static long indexOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_NAME_PREFIX.length(), name.length() - FILE_NAME_SUFFIX.length()));
+    }
+
+    long getIndex() {
+        return index;
+    }
+
+    boolean hasRoomFor(int length) {
+        return (buffer.capacity() - position) >= length;
+    }
+
+    int append(byte[] record) {
+        int offset = position;
+        buffer.put(offset, record);
+        position += record.length;
+        return offset;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    int getSyncedPosition() {
+        return syncedPosition;
+    }
+
+    /**
+     * Safe to call without the journal lock, as it only touches bytes that have already been written.
+     */
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    void synced(int to) {
+        syncedPosition = Math.max(syncedPosition, to);
+    }
+
+    void purchaseStarted() {
+        openPurchases++;
+    }
+
+    void purchaseFinished() {
+        openPurchases--;
+    }
+
+    void rolled() {
+        rolled = true;
+    }
+
+    /**
+     * A rolled segment with no purchases left open can be deleted once every older segment has been.
+     */
+    boolean isFinished() {
+        return rolled && (openPurchases == 0);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,340 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only {@link PurchaseJournal} of fixed length binary records in memory-mapped segment files.
+ * <p>
+ * Appends are copied into the current segment under a short lock. A sync thread forces what has been appended to
+ * disk once {@code syncBatchSize} records are waiting or every {@code syncInterval}, whichever comes first, so one
+ * force covers a whole batch of appends. The {@link Durability} decides whether an append waits for that.
+ * <p>
+ * When the current segment is full it is forced and a new one started. A full segment is deleted once every purchase
+ * started in it, and in every older segment, has completed or failed.
+ * <p>
+ * Opening the journal scans the segments left by the last run, hands each purchase that never completed or failed to
+ * the {@link PurchaseReconciler}, then deletes them.
+ */
+public class MappedPurchaseJournal implements PurchaseJournal, AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    public static final int DEFAULT_SYNC_BATCH_SIZE = 4096;
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofMillis(10);
+
+    private static final int RECORD_LENGTH = JournalRecordFormat.RECORD_LENGTH;
+    private static final int[] NO_TICKETS = new int[JournalRecordFormat.NR_OF_TICKET_TYPES];
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Durability durability;
+    private final int syncBatchSize;
+    private final long syncIntervalNanos;
+    private final int nrOfReconciledPurchases;
+    private final ArrayDeque<JournalSegment> segments = new ArrayDeque<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_LENGTH);
+    private final CRC32C checksum = new CRC32C();
+    private final int[] nrOfTicketsByType = new int[JournalRecordFormat.NR_OF_TICKET_TYPES];
+    private final Object syncMonitor = new Object();
+    private final Thread syncer;
+    private JournalSegment currentSegment;
+    private long appendedRecords;
+    private boolean syncRequested;
+    private boolean open = true;
+    private volatile long syncedRecords;
+    private volatile RuntimeException syncFailure;
+
+    public MappedPurchaseJournal(Path directory, PurchaseReconciler purchaseReconciler) throws IOException {
+        this(directory, purchaseReconciler, DEFAULT_SEGMENT_SIZE, Durability.WRITTEN, DEFAULT_SYNC_BATCH_SIZE,
+             DEFAULT_SYNC_INTERVAL);
+    }
+
+    public MappedPurchaseJournal(Path directory, PurchaseReconciler purchaseReconciler, int segmentSize, Durability durability,
+                                 int syncBatchSize, Duration syncInterval) throws IOException {
+        if ((segmentSize < RECORD_LENGTH) || ((segmentSize % RECORD_LENGTH) != 0)) {
+            throw new IllegalArgumentException("segmentSize must be a multiple of " + RECORD_LENGTH + " but was " + segmentSize);
+        }
+        if (syncBatchSize < 1) {
+            throw new IllegalArgumentException("syncBatchSize must be at least 1 but was " + syncBatchSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.durability = durability;
+        this.syncBatchSize = syncBatchSize;
+        this.syncIntervalNanos = syncInterval.toNanos();
+
+        List<Path> previousSegments = JournalSegment.list(directory);
+        Map<Long, IncompletePurchase> incompletePurchases = scan(previousSegments);
+        incompletePurchases.values().forEach(purchaseReconciler::reconcile);
+        this.nrOfReconciledPurchases = incompletePurchases.size();
+        for (Path previousSegment : previousSegments) {
+            Files.delete(previousSegment);
+        }
+
+        long nextIndex = previousSegments.isEmpty() ? 0
+                                                    : JournalSegment.indexOf(previousSegments.get(previousSegments.size() - 1)) + 1;
+        this.currentSegment = JournalSegment.create(directory, nextIndex, segmentSize);
+        this.segments.add(currentSegment);
+        this.syncer = new Thread(this::syncPeriodically, "purchase-journal-sync");
+        this.syncer.setDaemon(true);
+        this.syncer.start();
+    }
+
+    @Override
+    public long purchaseStarted(long accountId, TicketTypeRequest[] ticketTypeRequests, int totalCostOfTickets) {
+        long sequence;
+        long purchaseId;
+        synchronized (this) {
+            ensureRoomForRecord();
+            purchaseId = (currentSegment.getIndex() << 32) | (currentSegment.getPosition() / RECORD_LENGTH);
+            countTicketsByType(ticketTypeRequests);
+            sequence = append(PurchaseStage.STARTED, purchaseId, accountId, nrOfTicketsByType, totalCostOfTickets);
+            currentSegment.purchaseStarted();
+        }
+        awaitSyncIfRequired(sequence);
+        return purchaseId;
+    }
+
+    @Override
+    public void seatsReserved(long purchaseId) {
+        appendStage(purchaseId, PurchaseStage.SEATS_RESERVED);
+    }
+
+    @Override
+    public void paymentTaken(long purchaseId) {
+        appendStage(purchaseId, PurchaseStage.PAID);
+    }
+
+    @Override
+    public void purchaseCompleted(long purchaseId) {
+        appendStage(purchaseId, PurchaseStage.COMPLETED);
+    }
+
+    @Override
+    public void purchaseFailed(long purchaseId) {
+        appendStage(purchaseId, PurchaseStage.FAILED);
+    }
+
+    /**
+     * @return how many purchases left incomplete by the last run were handed to the reconciler on opening
+     */
+    public int getNrOfReconciledPurchases() {
+        return nrOfReconciledPurchases;
+    }
+
+    public synchronized int getNrOfSegments() {
+        return segments.size();
+    }
+
+    /**
+     * Forces everything appended to disk. The segment files are kept for the next run to scan.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            open = false;
+        }
+        LockSupport.unpark(syncer);
+        try {
+            syncer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (syncFailure == null) {
+            sync();
+        }
+    }
+
+    private void appendStage(long purchaseId, PurchaseStage stage) {
+        long sequence;
+        synchronized (this) {
+            ensureRoomForRecord();
+            sequence = append(stage, purchaseId, 0, NO_TICKETS, 0);
+            if (stage.isFinal()) {
+                segmentStartedIn(purchaseId).purchaseFinished();
+                deleteFinishedSegments();
+            }
+        }
+        awaitSyncIfRequired(sequence);
+    }
+
+    private void ensureRoomForRecord() {
+        if (!open) {
+            throw new IllegalStateException("The purchase journal is closed");
+        }
+        if (syncFailure != null) {
+            throw syncFailure;
+        }
+        if (!currentSegment.hasRoomFor(RECORD_LENGTH)) {
+            roll();
+        }
+    }
+
+    private long append(PurchaseStage stage, long purchaseId, long accountId, int[] nrOfTickets, int totalCostOfTickets) {
+        JournalRecordFormat.encode(record, checksum, stage, purchaseId, accountId, nrOfTickets, totalCostOfTickets);
+        currentSegment.append(record.array());
+        appendedRecords++;
+        if (!syncRequested && ((appendedRecords - syncedRecords) >= syncBatchSize)) {
+            syncRequested = true;
+            LockSupport.unpark(syncer);
+        }
+        return appendedRecords;
+    }
+
+    private void countTicketsByType(TicketTypeRequest[] ticketTypeRequests) {
+        for (int i = 0; i < nrOfTicketsByType.length; i++) {
+            nrOfTicketsByType[i] = 0;
+        }
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            nrOfTicketsByType[ticketTypeRequest.getTicketType().ordinal()] += ticketTypeRequest.getNoOfTickets();
+        }
+    }
+
+    /**
+     * Forces the full segment on the appending thread, so that the sync thread only ever forces the current one.
+     */
+    private void roll() {
+        JournalSegment previous = currentSegment;
+        previous.force(previous.getSyncedPosition(), previous.getPosition());
+        previous.synced(previous.getPosition());
+        previous.rolled();
+        try {
+            currentSegment = JournalSegment.create(directory, previous.getIndex() + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.addLast(currentSegment);
+        deleteFinishedSegments();
+    }
+
+    private JournalSegment segmentStartedIn(long purchaseId) {
+        long index = purchaseId >>> 32;
+        Iterator<JournalSegment> newestFirst = segments.descendingIterator();
+        while (newestFirst.hasNext()) {
+            JournalSegment segment = newestFirst.next();
+            if (segment.getIndex() == index) {
+                return segment;
+            }
+        }
+        throw new IllegalStateException("Purchase " + purchaseId + " was not started or has already finished");
+    }
+
+    private void deleteFinishedSegments() {
+        while (segments.peekFirst().isFinished()) {
+            try {
+                segments.removeFirst().delete();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void awaitSyncIfRequired(long sequence) {
+        if ((durability != Durability.SYNCED) || (syncedRecords >= sequence)) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            while (syncedRecords < sequence) {
+                if (syncFailure != null) {
+                    throw syncFailure;
+                }
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void syncPeriodically() {
+        while (true) {
+            synchronized (this) {
+                if (!open) {
+                    return;
+                }
+            }
+            LockSupport.parkNanos(this, syncIntervalNanos);
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                syncFailure = e;
+                synchronized (syncMonitor) {
+                    syncMonitor.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private void sync() {
+        JournalSegment segment;
+        int from;
+        int to;
+        long records;
+        synchronized (this) {
+            syncRequested = false;
+            records = appendedRecords;
+            if (records == syncedRecords) {
+                return;
+            }
+            segment = currentSegment;
+            from = segment.getSyncedPosition();
+            to = segment.getPosition();
+        }
+        segment.force(from, to);
+        synchronized (this) {
+            segment.synced(to);
+        }
+        syncedRecords = records;
+        if (durability == Durability.SYNCED) {
+            synchronized (syncMonitor) {
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    private static Map<Long, IncompletePurchase> scan(List<Path> segmentFiles) throws IOException {
+        Map<Long, IncompletePurchase> incompletePurchases = new LinkedHashMap<>();
+        CRC32C checksum = new CRC32C();
+        for (Path segmentFile : segmentFiles) {
+            MappedByteBuffer segment = JournalSegment.mapForReading(segmentFile);
+            for (int offset = 0; (offset + RECORD_LENGTH) <= segment.capacity(); offset += RECORD_LENGTH) {
+                PurchaseStage stage = JournalRecordFormat.stageAt(segment, offset, checksum);
+                if (stage == null) {
+                    break;
+                }
+                if (stage == PurchaseStage.STARTED) {
+                    IncompletePurchase purchase = JournalRecordFormat.startedPurchaseAt(segment, offset);
+                    incompletePurchases.put(purchase.getPurchaseId(), purchase);
+                } else if (stage.isFinal()) {
+                    incompletePurchases.remove(JournalRecordFormat.purchaseIdAt(segment, offset));
+                } else {
+                    IncompletePurchase purchase = incompletePurchases.get(JournalRecordFormat.purchaseIdAt(segment, offset));
+                    if (purchase != null) {
+                        purchase.setStage(stage);
+                    }
+                }
+            }
+        }
+        return incompletePurchases;
+    }
+}
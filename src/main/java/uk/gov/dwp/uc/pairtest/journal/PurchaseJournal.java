@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * Records how far each purchase got, so that a purchase cut short by the process dying between the gateway calls can
+ * be found and put right when the service starts again.
+ * <p>
+ * A purchase is started once it has been validated, moves through the gateway stages, and ends as completed or
+ * failed. Only purchases that never reached either end are reconciled.
+ */
+public interface PurchaseJournal {
+
+    PurchaseJournal NONE = new PurchaseJournal() {
+        @Override
+        public long purchaseStarted(long accountId, TicketTypeRequest[] ticketTypeRequests, int totalCostOfTickets) {
+            return 0;
+        }
+
+        @Override
+        public void seatsReserved(long purchaseId) {
+        }
+
+        @Override
+        public void paymentTaken(long purchaseId) {
+        }
+
+        @Override
+        public void purchaseCompleted(long purchaseId) {
+        }
+
+        @Override
+        public void purchaseFailed(long purchaseId) {
+        }
+    };
+
+    /**
+     * @return the id to record the later stages of the purchase against
+     */
+    long purchaseStarted(long accountId, TicketTypeRequest[] ticketTypeRequests, int totalCostOfTickets);
+
+    void seatsReserved(long purchaseId);
+
+    /**
+     * Written once the payment has gone through, which is after {@link #seatsReserved}, so that a purchase found at this
+     * stage has been paid for and has its seats.
+     */
+    void paymentTaken(long purchaseId);
+
+    void purchaseCompleted(long purchaseId);
+
+    /**
+     * The caller has been told that the purchase failed, so it is not reconciled. Only for a purchase whose seats could
+     * not be reserved or whose payment was turned down, after any seats it reserved were given back. One whose payment
+     * may have gone through is left open, so that the reconciler refunds or seats it.
+     */
+    void purchaseFailed(long purchaseId);
+}
@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * Puts right a purchase the journal found unfinished when it was opened, for example by releasing seats that were
+ * reserved but never paid for. It may be given the same purchase again if the process dies before the journal has
+ * finished opening, so it should tolerate that.
+ */
+public interface PurchaseReconciler {
+
+    void reconcile(IncompletePurchase incompletePurchase);
+}
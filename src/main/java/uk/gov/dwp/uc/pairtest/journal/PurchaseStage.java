@@ -0,0 +1,32 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * The stages of a purchase recorded in the journal, with the code each is written as. Zero is never a code, so a
+ * zeroed record marks the end of what has been written to a segment.
+ */
+public enum PurchaseStage {
+    STARTED(1), SEATS_RESERVED(2), PAID(3), COMPLETED(4), FAILED(5);
+
+    private static final PurchaseStage[] BY_CODE = {null, STARTED, SEATS_RESERVED, PAID, COMPLETED, FAILED};
+
+    private final byte code;
+
+    PurchaseStage(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return the stage written as the code, or null if it is not a stage
+     */
+    public static PurchaseStage fromCode(byte code) {
+        return (code > 0) && (code < BY_CODE.length) ? BY_CODE[code] : null;
+    }
+
+    boolean isFinal() {
+        return (this == COMPLETED) || (this == FAILED);
+    }
+}
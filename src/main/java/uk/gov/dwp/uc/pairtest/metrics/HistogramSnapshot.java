@@ -0,0 +1,60 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+/**
+ * The counts of a {@link LatencyHistogram} at a point in time.
+ */
+public final class HistogramSnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long totalNanos;
+    private final long maximumNanos;
+
+    HistogramSnapshot(long[] bucketCounts, long totalNanos, long maximumNanos) {
+        this.bucketCounts = bucketCounts;
+        this.totalNanos = totalNanos;
+        this.maximumNanos = maximumNanos;
+        long total = 0;
+        for (long bucketCount : bucketCounts) {
+            total += bucketCount;
+        }
+        this.count = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaximumNanos() {
+        return maximumNanos;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * The value that the given percentage of the recordings are at or below, rounded up to the top of its bucket but
+     * never above the largest value recorded.
+     *
+     * @param percentile from 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil((Math.min(100, percentile) / 100) * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueInBucket(i), maximumNanos);
+            }
+        }
+        return maximumNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Counts the outcome of each purchase made through a {@link TicketService}: completed purchases and the tickets sold
+ * in them by type, rejections by exception, and failures. The exceptions are rethrown unchanged.
+ * <p>
+ * Built from the gateways, it also times each stage by wrapping the gateways and the evaluator of the
+ * {@link TicketServiceImpl} it purchases through.
+ */
+public class InstrumentedTicketService implements TicketService {
+
+    private final TicketService ticketService;
+    private final PurchaseMetrics purchaseMetrics;
+
+    public InstrumentedTicketService(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService,
+                                     PurchaseEventSink purchaseEventSink, PurchaseMetrics purchaseMetrics) {
+        this(new TicketServiceImpl(new TimedSeatReservationService(seatReservationService, purchaseMetrics),
+                                   new TimedTicketPaymentService(ticketPaymentService, purchaseMetrics),
+                                   new TimedTicketOrderEvaluator(purchaseMetrics),
+                                   purchaseEventSink),
+             purchaseMetrics);
+    }
+
+    public InstrumentedTicketService(TicketService ticketService, PurchaseMetrics purchaseMetrics) {
+        this.ticketService = ticketService;
+        this.purchaseMetrics = purchaseMetrics;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            purchaseMetrics.purchaseRejected(e);
+            throw e;
+        } catch (RuntimeException e) {
+            purchaseMetrics.purchaseFailed();
+            throw e;
+        }
+        purchaseMetrics.purchaseCompleted(ticketTypeRequests);
+    }
+}
@@ -0,0 +1,74 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations in nanoseconds into log-linear buckets in the style of an HDR histogram: each power of two is split
+ * into {@value #SUB_BUCKET_COUNT} equal buckets, so any recorded value is reported to within about 6% whatever its
+ * magnitude, from nanoseconds to hours, in a fixed {@value #BUCKET_COUNT} counters.
+ * <p>
+ * Recording is lock-free and does not allocate: it finds the bucket with a few shifts and increments it atomically.
+ * The counts are striped by thread, like the cells of a {@link LongAdder}, so that threads recording similar durations
+ * at the same time do not all contend on the same counter.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+    static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private static final int MAXIMUM_STRIPES = 16;
+
+    private final int stripeMask;
+    private final AtomicLongArray counts;
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maximumNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        int stripes = Math.min(MAXIMUM_STRIPES, Integer.highestOneBit((2 * Runtime.getRuntime().availableProcessors()) - 1));
+        this.stripeMask = stripes - 1;
+        this.counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        counts.getAndIncrement((stripe * BUCKET_COUNT) + bucketIndex(value));
+        totalNanos.add(value);
+        long maximum = maximumNanos.get();
+        while ((value > maximum) && !maximumNanos.compareAndSet(maximum, value)) {
+            maximum = maximumNanos.get();
+        }
+    }
+
+    /**
+     * Copies the counts. Values recorded while the copy is taken may or may not be in it, so the total and the buckets
+     * can be off by the few recordings that were in progress.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        for (int i = 0; i < counts.length(); i++) {
+            bucketCounts[i % BUCKET_COUNT] += counts.get(i);
+        }
+        return new HistogramSnapshot(bucketCounts, totalNanos.sum(), maximumNanos.get());
+    }
+
+    static int bucketIndex(long value) {
+        int shift = Math.max(0, (64 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS);
+        return (shift * SUB_BUCKET_COUNT) + (int) (value >>> shift);
+    }
+
+    /**
+     * The largest value that is recorded into the bucket.
+     */
+    static long highestValueInBucket(int index) {
+        if (index < (2 * SUB_BUCKET_COUNT)) {
+            return index;
+        }
+        int shift = (index / SUB_BUCKET_COUNT) - 1;
+        long subBucket = index - ((long) shift * SUB_BUCKET_COUNT);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,69 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a snapshot of the metrics to a file in the {@link PrometheusTextFormat} on a fixed period, for a local scraper
+ * such as the node exporter's textfile collector to pick up. Each write goes to a temporary file that is then moved
+ * over the previous one, so a reader never sees a half written file.
+ * <p>
+ * Closing the writer stops the schedule and writes one last snapshot.
+ */
+public class PeriodicMetricsWriter implements AutoCloseable {
+
+    private final PurchaseMetrics purchaseMetrics;
+    private final Path file;
+    private final Path temporaryFile;
+    private final ScheduledExecutorService scheduler;
+    private volatile IOException writeFailure;
+
+    public PeriodicMetricsWriter(PurchaseMetrics purchaseMetrics, Path file, Duration period) {
+        if (period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("period must be positive but was " + period);
+        }
+        this.purchaseMetrics = purchaseMetrics;
+        this.file = file;
+        this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "purchase-metrics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodNanos = period.toNanos();
+        scheduler.scheduleAtFixedRate(this::writeOnSchedule, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void write() throws IOException {
+        Files.write(temporaryFile, PrometheusTextFormat.format(purchaseMetrics.snapshot()).getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Rethrows the last failed scheduled write, if there was one.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        write();
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void writeOnSchedule() {
+        try {
+            write();
+        } catch (IOException e) {
+            writeFailure = e;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes a {@link PurchaseMetricsSnapshot} in the Prometheus text exposition format (version 0.0.4), which most
+ * scrapers and the node exporter's textfile collector read. Stage latencies are summaries in seconds.
+ */
+public final class PrometheusTextFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final String PREFIX = "cinema_tickets_";
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private PrometheusTextFormat() {
+    }
+
+    public static String format(PurchaseMetricsSnapshot snapshot) {
+        StringBuilder text = new StringBuilder(2048);
+
+        header(text, "purchases_total", "counter", "Purchases that were paid for.");
+        sample(text, "purchases_total", "", snapshot.getPurchases());
+
+        header(text, "rejections_total", "counter", "Purchases rejected by the business rules, by exception.");
+        for (Map.Entry<String, Long> rejection : snapshot.getRejections().entrySet()) {
+            sample(text, "rejections_total", "reason=\"" + rejection.getKey() + "\"", rejection.getValue());
+        }
+
+        header(text, "failures_total", "counter", "Valid purchases that failed in a gateway.");
+        sample(text, "failures_total", "", snapshot.getFailures());
+
+        header(text, "tickets_sold_total", "counter", "Tickets sold, by ticket type.");
+        for (TicketTypeRequest.Type type : TicketTypeRequest.Type.values()) {
+            sample(text, "tickets_sold_total", "type=\"" + type + "\"", snapshot.getTicketsSold(type));
+        }
+
+        header(text, "revenue_pounds_total", "counter", "Payments taken, in pounds.");
+        sample(text, "revenue_pounds_total", "", snapshot.getRevenue());
+
+        header(text, "stage_duration_seconds", "summary", "Time spent in each stage of a purchase.");
+        for (Stage stage : Stage.values()) {
+            HistogramSnapshot latency = snapshot.getLatency(stage);
+            String stageLabel = "stage=\"" + stage.name().toLowerCase(Locale.ROOT) + "\"";
+            for (double quantile : QUANTILES) {
+                sample(text, "stage_duration_seconds", stageLabel + ",quantile=\"" + quantile + "\"",
+                       seconds(latency.getValueAtPercentile(quantile * 100)));
+            }
+            sample(text, "stage_duration_seconds_sum", stageLabel, seconds(latency.getTotalNanos()));
+            sample(text, "stage_duration_seconds_count", stageLabel, latency.getCount());
+        }
+
+        header(text, "stage_duration_seconds_max", "gauge", "Longest time spent in each stage of a purchase.");
+        for (Stage stage : Stage.values()) {
+            sample(text, "stage_duration_seconds_max", "stage=\"" + stage.name().toLowerCase(Locale.ROOT) + "\"",
+                   seconds(snapshot.getLatency(stage).getMaximumNanos()));
+        }
+        return text.toString();
+    }
+
+    private static void header(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, long value) {
+        startSample(text, name, labels).append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, double value) {
+        startSample(text, name, labels).append(value).append('\n');
+    }
+
+    private static StringBuilder startSample(StringBuilder text, String name, String labels) {
+        text.append(PREFIX).append(name);
+        if (!labels.isEmpty()) {
+            text.append('{').append(labels).append('}');
+        }
+        return text.append(' ');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+}
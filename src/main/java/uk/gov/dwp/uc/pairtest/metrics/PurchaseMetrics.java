@@ -0,0 +1,81 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and stage latencies for purchases, shared by every thread that purchases. Counters are {@link LongAdder}s,
+ * which spread contended increments over separate cells, so recording costs a few nanoseconds even when many threads
+ * purchase at once. Reading is done through {@link #snapshot()}.
+ */
+public class PurchaseMetrics {
+
+    private static final TicketTypeRequest.Type[] TICKET_TYPES = TicketTypeRequest.Type.values();
+    private static final Stage[] STAGES = Stage.values();
+
+    private final LongAdder purchases = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder revenue = new LongAdder();
+    private final LongAdder[] ticketsSold = new LongAdder[TICKET_TYPES.length];
+    private final Map<Class<? extends InvalidPurchaseException>, LongAdder> rejections = new ConcurrentHashMap<>();
+    private final LatencyHistogram[] stageLatencies = new LatencyHistogram[STAGES.length];
+
+    public PurchaseMetrics() {
+        for (int i = 0; i < ticketsSold.length; i++) {
+            ticketsSold[i] = new LongAdder();
+        }
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    public void purchaseCompleted(TicketTypeRequest[] ticketTypeRequests) {
+        purchases.increment();
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            ticketsSold[ticketTypeRequest.getTicketType().ordinal()].add(ticketTypeRequest.getNoOfTickets());
+        }
+    }
+
+    public void purchaseRejected(InvalidPurchaseException rejection) {
+        LongAdder counter = rejections.get(rejection.getClass());
+        if (counter == null) {
+            counter = rejections.computeIfAbsent(rejection.getClass(), type -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * A purchase that passed validation but could not be completed because a gateway failed.
+     */
+    public void purchaseFailed() {
+        failures.increment();
+    }
+
+    public void paymentTaken(int amount) {
+        revenue.add(amount);
+    }
+
+    public void recordLatency(Stage stage, long nanos) {
+        stageLatencies[stage.ordinal()].record(nanos);
+    }
+
+    public PurchaseMetricsSnapshot snapshot() {
+        long[] ticketsSoldByType = new long[TICKET_TYPES.length];
+        for (int i = 0; i < ticketsSoldByType.length; i++) {
+            ticketsSoldByType[i] = ticketsSold[i].sum();
+        }
+        Map<String, Long> rejectionsByType = new TreeMap<>();
+        rejections.forEach((type, counter) -> rejectionsByType.put(type.getSimpleName(), counter.sum()));
+        HistogramSnapshot[] stageLatencySnapshots = new HistogramSnapshot[STAGES.length];
+        for (int i = 0; i < stageLatencySnapshots.length; i++) {
+            stageLatencySnapshots[i] = stageLatencies[i].snapshot();
+        }
+        return new PurchaseMetricsSnapshot(purchases.sum(), failures.sum(), revenue.sum(), ticketsSoldByType,
+                                           rejectionsByType, stageLatencySnapshots);
+    }
+}
@@ -0,0 +1,68 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The values of {@link PurchaseMetrics} at a point in time. Each counter is read on its own, so a snapshot taken while
+ * purchases are running may count a purchase in one counter and not yet in another.
+ */
+public final class PurchaseMetricsSnapshot {
+
+    private final long purchases;
+    private final long failures;
+    private final long revenue;
+    private final long[] ticketsSold;
+    private final Map<String, Long> rejections;
+    private final HistogramSnapshot[] stageLatencies;
+
+    PurchaseMetricsSnapshot(long purchases, long failures, long revenue, long[] ticketsSold, Map<String, Long> rejections,
+                            HistogramSnapshot[] stageLatencies) {
+        this.purchases = purchases;
+        this.failures = failures;
+        this.revenue = revenue;
+        this.ticketsSold = ticketsSold;
+        this.rejections = Collections.unmodifiableMap(rejections);
+        this.stageLatencies = stageLatencies;
+    }
+
+    public long getPurchases() {
+        return purchases;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * In pounds.
+     */
+    public long getRevenue() {
+        return revenue;
+    }
+
+    public long getTicketsSold(TicketTypeRequest.Type type) {
+        return ticketsSold[type.ordinal()];
+    }
+
+    /**
+     * The number of rejections keyed by the simple name of the exception they were rejected with, in name order.
+     */
+    public Map<String, Long> getRejections() {
+        return rejections;
+    }
+
+    public long getTotalRejections() {
+        long total = 0;
+        for (long count : rejections.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public HistogramSnapshot getLatency(Stage stage) {
+        return stageLatencies[stage.ordinal()];
+    }
+}
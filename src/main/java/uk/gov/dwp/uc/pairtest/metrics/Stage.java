@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+/**
+ * The steps of a purchase that are timed separately.
+ */
+public enum Stage {
+    VALIDATION, RESERVATION, PAYMENT
+}
@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Times each call to the seat booking gateway as the {@link Stage#RESERVATION} stage, whether or not it succeeds.
+ */
+public class TimedSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService seatReservationService;
+    private final PurchaseMetrics purchaseMetrics;
+
+    public TimedSeatReservationService(SeatReservationService seatReservationService, PurchaseMetrics purchaseMetrics) {
+        this.seatReservationService = seatReservationService;
+        this.purchaseMetrics = purchaseMetrics;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        long start = System.nanoTime();
+        try {
+            seatReservationService.reserveSeat(accountId, totalSeatsToAllocate);
+        } finally {
+            purchaseMetrics.recordLatency(Stage.RESERVATION, System.nanoTime() - start);
+        }
+    }
+}
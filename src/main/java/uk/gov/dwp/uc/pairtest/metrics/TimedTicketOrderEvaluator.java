@@ -0,0 +1,44 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+import uk.gov.dwp.uc.pairtest.validation.OrderRules;
+
+/**
+ * Times the business rules as the {@link Stage#VALIDATION} stage. Every way of evaluating an order goes through
+ * {@link #validate}, so this covers the throwing and the non-throwing callers alike.
+ */
+public class TimedTicketOrderEvaluator extends TicketOrderEvaluator {
+
+    private final PurchaseMetrics purchaseMetrics;
+
+    public TimedTicketOrderEvaluator(PurchaseMetrics purchaseMetrics) {
+        this(ExceptionMode.WITH_STACK_TRACE, purchaseMetrics);
+    }
+
+    public TimedTicketOrderEvaluator(ExceptionMode exceptionMode, PurchaseMetrics purchaseMetrics) {
+        this(exceptionMode, TicketPricing.STANDARD, purchaseMetrics);
+    }
+
+    public TimedTicketOrderEvaluator(ExceptionMode exceptionMode, TicketPricing ticketPricing, PurchaseMetrics purchaseMetrics) {
+        this(exceptionMode, ticketPricing, OrderRules.STANDARD, purchaseMetrics);
+    }
+
+    public TimedTicketOrderEvaluator(ExceptionMode exceptionMode, TicketPricing ticketPricing, OrderRules orderRules,
+                                     PurchaseMetrics purchaseMetrics) {
+        super(exceptionMode, ticketPricing, orderRules);
+        this.purchaseMetrics = purchaseMetrics;
+    }
+
+    @Override
+    public ValidationResult validate(long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests,
+                                     TicketOrderEvaluation evaluation) {
+        long start = System.nanoTime();
+        ValidationResult result = super.validate(screeningId, accountId, ticketTypeRequests, evaluation);
+        purchaseMetrics.recordLatency(Stage.VALIDATION, System.nanoTime() - start);
+        return result;
+    }
+}
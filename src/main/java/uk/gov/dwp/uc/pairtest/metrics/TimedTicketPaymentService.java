@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Times each call to the payment gateway as the {@link Stage#PAYMENT} stage, and counts the amount as revenue once the
+ * payment has gone through.
+ */
+public class TimedTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService ticketPaymentService;
+    private final PurchaseMetrics purchaseMetrics;
+
+    public TimedTicketPaymentService(TicketPaymentService ticketPaymentService, PurchaseMetrics purchaseMetrics) {
+        this.ticketPaymentService = ticketPaymentService;
+        this.purchaseMetrics = purchaseMetrics;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        long start = System.nanoTime();
+        try {
+            ticketPaymentService.makePayment(accountId, totalAmountToPay);
+        } finally {
+            purchaseMetrics.recordLatency(Stage.PAYMENT, System.nanoTime() - start);
+        }
+        purchaseMetrics.paymentTaken(totalAmountToPay);
+    }
+}
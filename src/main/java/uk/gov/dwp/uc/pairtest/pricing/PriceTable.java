@@ -0,0 +1,170 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static uk.gov.dwp.uc.pairtest.TicketServiceImpl.MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED;
+
+/**
+ * Pricing rules compiled ahead of time into the cost of every number of tickets of each type, for each screening the
+ * rules or the schedule name. Pricing an order is then a lookup of the screening and one array read per ticket type, so
+ * it costs the same however many rules there are. Screenings named nowhere get the prices of the rules for every
+ * screening that have no hours.
+ * <p>
+ * Immutable. Changing the rules or the schedule compiles a new table, see {@link PricingEngine}.
+ */
+public final class PriceTable implements TicketPricing {
+
+    private static final int NR_OF_TYPES = Type.values().length;
+    private static final int NR_OF_COUNTS = MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED + 1;
+    private static final int UNKNOWN_START_HOUR = -1;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final List<PricingRule> rules;
+    private final Map<Long, Integer> startHourByScreening;
+    private final int[] defaultCosts;
+    private final long[] screeningIds;
+    private final int[][] costsBySlot;
+    private final int mask;
+    private final int nrOfDistinctPriceLists;
+
+    private PriceTable(List<PricingRule> rules, Map<Long, Integer> startHourByScreening) {
+        this.rules = rules;
+        this.startHourByScreening = startHourByScreening;
+
+        Map<Long, Integer> screenings = new LinkedHashMap<>(startHourByScreening);
+        for (PricingRule rule : rules) {
+            if (rule.isForOneScreening()) {
+                screenings.putIfAbsent(rule.getScreeningId(), UNKNOWN_START_HOUR);
+            }
+        }
+        Map<List<Integer>, int[]> costsByPrices = new HashMap<>();
+        this.defaultCosts = costsFor(NO_SCREENING, UNKNOWN_START_HOUR, costsByPrices);
+        int capacity = Integer.highestOneBit(Math.max(1, screenings.size()) * 2) * 2;
+        this.screeningIds = new long[capacity];
+        this.costsBySlot = new int[capacity][];
+        this.mask = capacity - 1;
+        screenings.forEach((screeningId, startHour) -> {
+            int slot = slotOf(screeningId);
+            while (costsBySlot[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            screeningIds[slot] = screeningId;
+            costsBySlot[slot] = costsFor(screeningId, startHour, costsByPrices);
+        });
+        this.nrOfDistinctPriceLists = costsByPrices.size();
+    }
+
+    public static PriceTable compile(List<PricingRule> rules) {
+        return compile(rules, Map.of());
+    }
+
+    /**
+     * @param startHourByScreening the hour of the day each screening starts, for the rules that only apply to some hours
+     */
+    public static PriceTable compile(List<PricingRule> rules, Map<Long, Integer> startHourByScreening) {
+        startHourByScreening.forEach((screeningId, startHour) -> {
+            if ((startHour < 0) || (startHour >= PricingRule.HOURS_IN_A_DAY)) {
+                throw new IllegalArgumentException("Screening " + screeningId + " cannot start at hour " + startHour);
+            }
+        });
+        return new PriceTable(List.copyOf(rules), Collections.unmodifiableMap(new LinkedHashMap<>(startHourByScreening)));
+    }
+
+    public PriceTable withRule(PricingRule rule) {
+        List<PricingRule> newRules = new ArrayList<>(rules);
+        newRules.add(rule);
+        return compile(newRules, startHourByScreening);
+    }
+
+    public PriceTable withScreening(long screeningId, int startHour) {
+        Map<Long, Integer> newSchedule = new LinkedHashMap<>(startHourByScreening);
+        newSchedule.put(screeningId, startHour);
+        return compile(rules, newSchedule);
+    }
+
+    @Override
+    public int getTotalCost(long screeningId, int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets) {
+        int[] costs = costsOf(screeningId);
+        return costOf(costs, Type.ADULT, nrOfAdultTickets) + costOf(costs, Type.CHILD, nrOfChildTickets)
+               + costOf(costs, Type.INFANT, nrOfInfantTickets);
+    }
+
+    public int getTicketCost(long screeningId, Type type) {
+        return costsOf(screeningId)[(type.ordinal() * NR_OF_COUNTS) + 1];
+    }
+
+    public List<PricingRule> getRules() {
+        return rules;
+    }
+
+    public Map<Long, Integer> getStartHourByScreening() {
+        return startHourByScreening;
+    }
+
+    /**
+     * Screenings priced the same share their costs, so this is usually far fewer than the screenings.
+     */
+    public int getNrOfDistinctPriceLists() {
+        return nrOfDistinctPriceLists;
+    }
+
+    /**
+     * Counts beyond the most that can be bought are rejected anyway, but still have to be priced for the evaluation.
+     */
+    private static int costOf(int[] costs, Type type, int nrOfTickets) {
+        int offset = type.ordinal() * NR_OF_COUNTS;
+        if ((nrOfTickets >= 0) && (nrOfTickets < NR_OF_COUNTS)) {
+            return costs[offset + nrOfTickets];
+        }
+        return costs[offset + 1] * nrOfTickets;
+    }
+
+    private int[] costsOf(long screeningId) {
+        for (int slot = slotOf(screeningId); ; slot = (slot + 1) & mask) {
+            int[] costs = costsBySlot[slot];
+            if (costs == null) {
+                return defaultCosts;
+            }
+            if (screeningIds[slot] == screeningId) {
+                return costs;
+            }
+        }
+    }
+
+    private int slotOf(long screeningId) {
+        long hash = screeningId * HASH_MULTIPLIER;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int[] costsFor(long screeningId, int startHour, Map<List<Integer>, int[]> costsByPrices) {
+        Integer[] ticketCosts = new Integer[NR_OF_TYPES];
+        for (Type type : Type.values()) {
+            int ticketCost = type.getTicketCost();
+            for (PricingRule rule : rules) {
+                if ((rule.getTicketType() == type) && rule.appliesTo(screeningId, startHour)) {
+                    ticketCost = rule.apply(ticketCost);
+                }
+            }
+            ticketCosts[type.ordinal()] = ticketCost;
+        }
+        return costsByPrices.computeIfAbsent(Arrays.asList(ticketCosts), PriceTable::tabulate);
+    }
+
+    private static int[] tabulate(List<Integer> ticketCosts) {
+        int[] costs = new int[NR_OF_TYPES * NR_OF_COUNTS];
+        for (int type = 0; type < NR_OF_TYPES; type++) {
+            for (int nrOfTickets = 0; nrOfTickets < NR_OF_COUNTS; nrOfTickets++) {
+                costs[(type * NR_OF_COUNTS) + nrOfTickets] = ticketCosts.get(type) * nrOfTickets;
+            }
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices orders with the current {@link PriceTable}. Changes compile a new table off to the side and swap it in
+ * atomically, so pricing never takes a lock or sees a table half built, and an order is priced entirely by one table.
+ * Concurrent changes are retried against each other's table so that none is lost.
+ */
+public class PricingEngine implements TicketPricing {
+
+    private final AtomicReference<PriceTable> priceTable;
+
+    public PricingEngine() {
+        this(PriceTable.compile(List.of()));
+    }
+
+    public PricingEngine(PriceTable priceTable) {
+        this.priceTable = new AtomicReference<>(priceTable);
+    }
+
+    @Override
+    public int getTotalCost(long screeningId, int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets) {
+        return priceTable.get().getTotalCost(screeningId, nrOfAdultTickets, nrOfChildTickets, nrOfInfantTickets);
+    }
+
+    public PriceTable getPriceTable() {
+        return priceTable.get();
+    }
+
+    /**
+     * Swaps in a table compiled elsewhere, for large rule sets that should not be compiled while holding up others.
+     */
+    public void publish(PriceTable priceTable) {
+        this.priceTable.set(priceTable);
+    }
+
+    /**
+     * Replaces the rules, keeping the schedule.
+     */
+    public void replaceRules(List<PricingRule> rules) {
+        priceTable.updateAndGet(current -> PriceTable.compile(rules, current.getStartHourByScreening()));
+    }
+
+    public void replaceSchedule(Map<Long, Integer> startHourByScreening) {
+        priceTable.updateAndGet(current -> PriceTable.compile(current.getRules(), startHourByScreening));
+    }
+
+    public void addRule(PricingRule rule) {
+        priceTable.updateAndGet(current -> current.withRule(rule));
+    }
+
+    public void scheduleScreening(long screeningId, int startHour) {
+        priceTable.updateAndGet(current -> current.withScreening(screeningId, startHour));
+    }
+}
@@ -0,0 +1,95 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type;
+
+/**
+ * Sets the price of a ticket type, or takes a percentage off it, for every screening or for one, and optionally only for
+ * screenings starting within some hours of the day. Rules are applied in the order they are given, starting from the
+ * prices on {@link Type}, so a later rule overrides or discounts what earlier ones set.
+ */
+public final class PricingRule {
+
+    public static final int HOURS_IN_A_DAY = 24;
+
+    private final Type type;
+    private final boolean percentOff;
+    private final int amount;
+    private final boolean forOneScreening;
+    private final long screeningId;
+    private final int fromHour;
+    private final int toHour;
+
+    private PricingRule(Type type, boolean percentOff, int amount, boolean forOneScreening, long screeningId, int fromHour,
+                        int toHour) {
+        this.type = type;
+        this.percentOff = percentOff;
+        this.amount = amount;
+        this.forOneScreening = forOneScreening;
+        this.screeningId = screeningId;
+        this.fromHour = fromHour;
+        this.toHour = toHour;
+    }
+
+    public static PricingRule price(Type type, int ticketCost) {
+        if (ticketCost < 0) {
+            throw new IllegalArgumentException("A ticket cannot cost less than nothing but was " + ticketCost);
+        }
+        return new PricingRule(type, false, ticketCost, false, 0, 0, HOURS_IN_A_DAY);
+    }
+
+    /**
+     * Takes the percentage off whatever the earlier rules priced the ticket at, rounding down.
+     */
+    public static PricingRule percentOff(Type type, int percentage) {
+        if ((percentage < 0) || (percentage > 100)) {
+            throw new IllegalArgumentException("A percentage off must be between 0 and 100 but was " + percentage);
+        }
+        return new PricingRule(type, true, percentage, false, 0, 0, HOURS_IN_A_DAY);
+    }
+
+    public PricingRule forScreening(long screeningId) {
+        return new PricingRule(type, percentOff, amount, true, screeningId, fromHour, toHour);
+    }
+
+    /**
+     * Only applies to screenings starting from {@code fromHour} and before {@code toHour}. A screening whose start is
+     * not known is never priced by such a rule.
+     */
+    public PricingRule startingBetween(int fromHour, int toHour) {
+        if ((fromHour < 0) || (toHour > HOURS_IN_A_DAY) || (fromHour >= toHour)) {
+            throw new IllegalArgumentException("Not hours of the day: from " + fromHour + " to " + toHour);
+        }
+        return new PricingRule(type, percentOff, amount, forOneScreening, screeningId, fromHour, toHour);
+    }
+
+    public Type getTicketType() {
+        return type;
+    }
+
+    boolean isForOneScreening() {
+        return forOneScreening;
+    }
+
+    long getScreeningId() {
+        return screeningId;
+    }
+
+    boolean appliesTo(long screeningId, int startHour) {
+        if (forOneScreening && (screeningId != this.screeningId)) {
+            return false;
+        }
+        boolean allDay = (fromHour == 0) && (toHour == HOURS_IN_A_DAY);
+        return allDay || ((startHour >= fromHour) && (startHour < toHour));
+    }
+
+    int apply(int ticketCost) {
+        return percentOff ? (ticketCost * (100 - amount)) / 100 : amount;
+    }
+
+    @Override
+    public String toString() {
+        return (percentOff ? amount + "% off " : "price " + amount + " for ") + type
+               + (forOneScreening ? " at screening " + screeningId : "")
+               + (((fromHour == 0) && (toHour == HOURS_IN_A_DAY)) ? "" : " starting between " + fromHour + " and " + toHour);
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+/**
+ * Works out what an order costs. Called on every purchase, so implementations should not allocate or lock.
+ */
+public interface TicketPricing {
+
+    /**
+     * The screening of a purchase made through {@link uk.gov.dwp.uc.pairtest.TicketService}, which does not name one.
+     */
+    long NO_SCREENING = Long.MIN_VALUE;
+
+    /**
+     * The prices fixed on {@link uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type}, whatever the screening.
+     */
+    TicketPricing STANDARD = (screeningId, nrOfAdultTickets, nrOfChildTickets, nrOfInfantTickets) ->
+        (ADULT.getTicketCost() * nrOfAdultTickets) + (CHILD.getTicketCost() * nrOfChildTickets)
+        + (INFANT.getTicketCost() * nrOfInfantTickets);
+
+    int getTotalCost(long screeningId, int nrOfAdultTickets, int nrOfChildTickets, int nrOfInfantTickets);
+}
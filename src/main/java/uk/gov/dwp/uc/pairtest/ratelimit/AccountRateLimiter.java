@@ -0,0 +1,276 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how many orders, and how many tickets, each account may buy over time, with two token buckets per account.
+ * <p>
+ * Each bucket is kept as a single {@code long}, the time at which it would be full again (the generic cell rate
+ * algorithm), so taking from it is one compare and set with no lock. Accounts are held in open addressing tables of
+ * primitive arrays, an account id and two bucket times per slot, split into shards by the hash of the account id.
+ * Looking an account up takes no lock either; only adding an account, growing a table and evicting take the shard's
+ * lock.
+ * <p>
+ * An account whose buckets are both full is idle: it is the same as one never seen, so it is dropped whenever its
+ * shard's table is rebuilt, and by {@link #evictIdle}. A table is rebuilt by freezing each slot in turn and copying
+ * what it held into a new table, so a bucket taken from during a rebuild is either copied with the tokens taken, or
+ * waits for the new table and is taken from there; no update is lost.
+ * <p>
+ * Account ids of zero and below are never valid and are not limited.
+ */
+public class AccountRateLimiter {
+
+    public static final int DEFAULT_NR_OF_SHARDS = 64;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long EMPTY = 0;
+    private static final long FROZEN = Long.MIN_VALUE;
+    private static final int ORDERS = 0;
+    private static final int TICKETS = 1;
+    private static final int MINIMUM_TABLE_CAPACITY = 16;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long nanosPerOrder;
+    private final long orderBurstNanos;
+    private final long nanosPerTicket;
+    private final long ticketBurstNanos;
+    private final LongSupplier clock;
+
+    public AccountRateLimiter(RateLimit orderLimit, RateLimit ticketLimit) {
+        this(orderLimit, ticketLimit, DEFAULT_NR_OF_SHARDS, System::nanoTime);
+    }
+
+    public AccountRateLimiter(RateLimit orderLimit, RateLimit ticketLimit, int nrOfShards, LongSupplier clock) {
+        if ((nrOfShards < 1) || (Integer.bitCount(nrOfShards) != 1)) {
+            throw new IllegalArgumentException("nrOfShards must be a power of two but was " + nrOfShards);
+        }
+        this.shards = new Shard[nrOfShards];
+        for (int i = 0; i < nrOfShards; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = nrOfShards - 1;
+        this.nanosPerOrder = orderLimit.getNanosPerPermit();
+        this.orderBurstNanos = orderLimit.getBurstNanos();
+        this.nanosPerTicket = ticketLimit.getNanosPerPermit();
+        this.ticketBurstNanos = ticketLimit.getBurstNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Takes an order and the tickets in it from the account's buckets, or nothing if either would go over its limit.
+     */
+    public RateLimitResult tryAcquire(long accountId, int nrOfTickets) {
+        if (accountId <= EMPTY) {
+            return RateLimitResult.ALLOWED;
+        }
+        long now = clock.getAsLong();
+        long hash = hash(accountId);
+        Shard shard = shards[(int) (hash >>> 40) & shardMask];
+        if (!take(shard, accountId, hash, ORDERS, nanosPerOrder, orderBurstNanos, now)) {
+            return RateLimitResult.TOO_MANY_ORDERS;
+        }
+        long ticketNanos = nanosPerTicket * Math.max(0, nrOfTickets);
+        if (!take(shard, accountId, hash, TICKETS, ticketNanos, ticketBurstNanos, now)) {
+            giveBack(shard, accountId, hash, ORDERS, nanosPerOrder);
+            return RateLimitResult.TOO_MANY_TICKETS;
+        }
+        return RateLimitResult.ALLOWED;
+    }
+
+    /**
+     * Gives back the tickets of an order that was let through but not bought, so that they do not count against the
+     * account. The order itself still counts.
+     */
+    public void releaseTickets(long accountId, int nrOfTickets) {
+        if ((accountId <= EMPTY) || (nrOfTickets <= 0)) {
+            return;
+        }
+        long hash = hash(accountId);
+        giveBack(shards[(int) (hash >>> 40) & shardMask], accountId, hash, TICKETS, nanosPerTicket * nrOfTickets);
+    }
+
+    /**
+     * Drops every idle account and shrinks the tables to fit the rest, for calling from a scheduled task.
+     *
+     * @return the number of accounts dropped
+     */
+    public long evictIdle() {
+        long nrOfEvicted = 0;
+        for (Shard shard : shards) {
+            nrOfEvicted += shard.rebuild(clock.getAsLong(), 0);
+        }
+        return nrOfEvicted;
+    }
+
+    public long getNrOfAccounts() {
+        long nrOfAccounts = 0;
+        for (Shard shard : shards) {
+            nrOfAccounts += shard.getSize();
+        }
+        return nrOfAccounts;
+    }
+
+    private static boolean take(Shard shard, long accountId, long hash, int bucket, long nanos, long burstNanos, long now) {
+        while (true) {
+            Table table = shard.table;
+            int slot = table.find(accountId, hash);
+            if (slot < 0) {
+                shard.add(accountId, hash, now);
+                continue;
+            }
+            int index = (slot << 1) + bucket;
+            long fullAt = (long) LONGS.getVolatile(table.fullAt, index);
+            if (fullAt == FROZEN) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long newFullAt = Math.max(fullAt, now) + nanos;
+            if ((newFullAt - now) > burstNanos) {
+                return false;
+            }
+            if (LONGS.compareAndSet(table.fullAt, index, fullAt, newFullAt)) {
+                return true;
+            }
+        }
+    }
+
+    private static void giveBack(Shard shard, long accountId, long hash, int bucket, long nanos) {
+        while (true) {
+            Table table = shard.table;
+            int slot = table.find(accountId, hash);
+            if (slot < 0) {
+                return;
+            }
+            int index = (slot << 1) + bucket;
+            long fullAt = (long) LONGS.getVolatile(table.fullAt, index);
+            if (fullAt == FROZEN) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (LONGS.compareAndSet(table.fullAt, index, fullAt, fullAt - nanos)) {
+                return;
+            }
+        }
+    }
+
+    private static long hash(long accountId) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * A linear probing table of account ids, with the two bucket times of each slot next to each other. Slots are only
+     * ever filled in place, and an account id is published after its buckets, so a reader that finds the id sees them.
+     */
+    private static final class Table {
+
+        private final long[] accountIds;
+        private final long[] fullAt;
+        private final int mask;
+        private int size;
+
+        private Table(int capacity) {
+            this.accountIds = new long[capacity];
+            this.fullAt = new long[capacity << 1];
+            this.mask = capacity - 1;
+        }
+
+        private int find(long accountId, long hash) {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                long slotAccountId = (long) LONGS.getAcquire(accountIds, slot);
+                if (slotAccountId == accountId) {
+                    return slot;
+                }
+                if (slotAccountId == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        private void put(long accountId, long hash, long ordersFullAt, long ticketsFullAt) {
+            int slot = (int) hash & mask;
+            while (accountIds[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            fullAt[slot << 1] = ordersFullAt;
+            fullAt[(slot << 1) + 1] = ticketsFullAt;
+            LONGS.setRelease(accountIds, slot, accountId);
+            size++;
+        }
+
+        private boolean hasRoomFor(int nrOfAccounts) {
+            return nrOfAccounts <= ((accountIds.length >>> 2) * 3);
+        }
+    }
+
+    private static final class Shard {
+
+        private volatile Table table = new Table(MINIMUM_TABLE_CAPACITY);
+
+        private synchronized void add(long accountId, long hash, long now) {
+            Table current = table;
+            if (current.find(accountId, hash) >= 0) {
+                return;
+            }
+            if (!current.hasRoomFor(current.size + 1)) {
+                rebuild(now, 1);
+                current = table;
+            }
+            current.put(accountId, hash, now, now);
+        }
+
+        /**
+         * Freezes every slot, then copies the accounts that are not idle into a new table with room for them and
+         * {@code extra} more at no more than three quarters full.
+         *
+         * @return the number of idle accounts dropped
+         */
+        private synchronized int rebuild(long now, int extra) {
+            Table current = table;
+            long[] liveAccountIds = new long[current.size];
+            long[] liveFullAt = new long[current.size << 1];
+            int nrOfLive = 0;
+            for (int slot = 0; slot < current.accountIds.length; slot++) {
+                long accountId = current.accountIds[slot];
+                if (accountId == EMPTY) {
+                    continue;
+                }
+                long ordersFullAt = (long) LONGS.getAndSet(current.fullAt, slot << 1, FROZEN);
+                long ticketsFullAt = (long) LONGS.getAndSet(current.fullAt, (slot << 1) + 1, FROZEN);
+                if (((ordersFullAt - now) > 0) || ((ticketsFullAt - now) > 0)) {
+                    liveAccountIds[nrOfLive] = accountId;
+                    liveFullAt[nrOfLive << 1] = ordersFullAt;
+                    liveFullAt[(nrOfLive << 1) + 1] = ticketsFullAt;
+                    nrOfLive++;
+                }
+            }
+            Table rebuilt = new Table(capacityFor(nrOfLive + extra));
+            for (int i = 0; i < nrOfLive; i++) {
+                rebuilt.put(liveAccountIds[i], hash(liveAccountIds[i]), liveFullAt[i << 1], liveFullAt[(i << 1) + 1]);
+            }
+            table = rebuilt;
+            return current.size - nrOfLive;
+        }
+
+        /**
+         * Leaves the table no more than three eighths full, so that it can take as many accounts again before it has
+         * to be rebuilt.
+         */
+        private static int capacityFor(int nrOfAccounts) {
+            int capacity = MINIMUM_TABLE_CAPACITY;
+            while (((capacity >>> 3) * 3) < nrOfAccounts) {
+                capacity <<= 1;
+            }
+            return capacity;
+        }
+
+        private synchronized int getSize() {
+            return table.size;
+        }
+    }
+}
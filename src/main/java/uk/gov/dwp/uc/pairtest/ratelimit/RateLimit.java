@@ -0,0 +1,52 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * At most {@code permits} in any {@code period}, given back evenly over the period rather than all at once at its end,
+ * so that the limit rolls with time instead of resetting at fixed points.
+ */
+public final class RateLimit {
+
+    private final int permits;
+    private final Duration period;
+
+    private RateLimit(int permits, Duration period) {
+        this.permits = permits;
+        this.period = period;
+    }
+
+    public static RateLimit of(int permits, Duration period) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be at least 1 but was " + permits);
+        }
+        if (period.toNanos() < permits) {
+            throw new IllegalArgumentException("period must be at least a nanosecond per permit but was " + period);
+        }
+        return new RateLimit(permits, period);
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    long getNanosPerPermit() {
+        return period.toNanos() / permits;
+    }
+
+    /**
+     * How far ahead of now the permits may be used up, which is one whole period's worth.
+     */
+    long getBurstNanos() {
+        return getNanosPerPermit() * permits;
+    }
+
+    @Override
+    public String toString() {
+        return permits + " per " + period;
+    }
+}
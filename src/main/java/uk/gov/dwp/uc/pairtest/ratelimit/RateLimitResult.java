@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+/**
+ * Result code from {@link AccountRateLimiter#tryAcquire}.
+ */
+public enum RateLimitResult {
+    ALLOWED, TOO_MANY_ORDERS, TOO_MANY_TICKETS;
+
+    public boolean isAllowed() {
+        return this == ALLOWED;
+    }
+}
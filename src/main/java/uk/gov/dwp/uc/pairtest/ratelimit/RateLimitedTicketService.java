@@ -0,0 +1,61 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator.ExceptionMode;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.TicketCapExceededException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyOrdersException;
+
+/**
+ * Rejects an account's orders once it has placed too many of them, or bought too many tickets, recently, before they
+ * reach the {@link TicketService}, so that one account cannot buy out a screening a few tickets at a time.
+ * <p>
+ * Every order counts towards the order limit, even one that is then rejected or fails. Only the tickets of orders that
+ * are bought count towards the ticket cap.
+ */
+public class RateLimitedTicketService implements TicketService {
+
+    private final TicketService ticketService;
+    private final AccountRateLimiter accountRateLimiter;
+    private final ExceptionMode exceptionMode;
+
+    public RateLimitedTicketService(TicketService ticketService, AccountRateLimiter accountRateLimiter) {
+        this(ticketService, accountRateLimiter, ExceptionMode.WITH_STACK_TRACE);
+    }
+
+    public RateLimitedTicketService(TicketService ticketService, AccountRateLimiter accountRateLimiter,
+                                    ExceptionMode exceptionMode) {
+        this.ticketService = ticketService;
+        this.accountRateLimiter = accountRateLimiter;
+        this.exceptionMode = exceptionMode;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        long account = accountId == null ? 0 : accountId;
+        int nrOfTickets = nrOfTickets(ticketTypeRequests);
+        RateLimitResult result = accountRateLimiter.tryAcquire(account, nrOfTickets);
+        if (result == RateLimitResult.TOO_MANY_ORDERS) {
+            throw exceptionMode == ExceptionMode.STACKLESS ? TooManyOrdersException.stackless() : new TooManyOrdersException();
+        }
+        if (result == RateLimitResult.TOO_MANY_TICKETS) {
+            throw exceptionMode == ExceptionMode.STACKLESS ? TicketCapExceededException.stackless()
+                                                           : new TicketCapExceededException();
+        }
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (RuntimeException | Error e) {
+            accountRateLimiter.releaseTickets(account, nrOfTickets);
+            throw e;
+        }
+    }
+
+    private static int nrOfTickets(TicketTypeRequest[] ticketTypeRequests) {
+        long nrOfTickets = 0;
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            nrOfTickets += Math.max(0, ticketTypeRequest.getNoOfTickets());
+        }
+        return (int) Math.min(nrOfTickets, Integer.MAX_VALUE);
+    }
+}
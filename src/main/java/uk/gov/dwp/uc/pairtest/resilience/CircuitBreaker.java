@@ -0,0 +1,166 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a gateway that is failing, as set out by a {@link GatewayPolicy}, so that callers fail at once rather
+ * than waiting on it, and the gateway gets a rest. After the open duration one call is let through as a probe: if it
+ * succeeds the breaker closes, and if it fails the breaker opens again. While half open, the first call to finish
+ * decides, even one that started before the breaker opened.
+ * <p>
+ * Nothing is locked. The sliding window is {@value #NR_OF_BUCKETS} buckets each covering a tenth of it, each bucket
+ * one long packing the period it counts for with its counts of calls and failures, updated with a compare and set and
+ * started again when a new period comes round to it. The state and the time it was entered are packed into one long in
+ * the same way, so a change of state is a single compare and set that only one of any racing callers wins.
+ */
+public class CircuitBreaker {
+
+    static final int NR_OF_BUCKETS = 10;
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long ONE_CALL = 1L << COUNT_BITS;
+    private static final int PERIOD_SHIFT = 2 * COUNT_BITS;
+    private static final long PERIOD_MASK = (1L << (Long.SIZE - PERIOD_SHIFT)) - 1;
+    private static final int STATE_BITS = 2;
+    private static final State[] STATES = State.values();
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NR_OF_BUCKETS);
+    private final AtomicLong stateAndSince = new AtomicLong(pack(0, State.CLOSED));
+    private final long bucketNanos;
+    private final long openNanos;
+    private final int failureRatePercentage;
+    private final int minimumNrOfCalls;
+    private final LongSupplier clock;
+    private final long origin;
+
+    public CircuitBreaker(GatewayPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    CircuitBreaker(GatewayPolicy policy, LongSupplier clock) {
+        this.bucketNanos = Math.max(1, policy.getSlidingWindow().toNanos() / NR_OF_BUCKETS);
+        this.openNanos = policy.getOpenDuration().toNanos();
+        this.failureRatePercentage = policy.getFailureRatePercentage();
+        this.minimumNrOfCalls = policy.getMinimumNrOfCalls();
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * @return whether a call may be made; one that is must be followed by {@link #onSuccess()}, {@link #onFailure()}
+     * or, if the call was not made after all, {@link #releasePermission()}
+     */
+    public boolean tryAcquirePermission() {
+        long current = stateAndSince.get();
+        State state = stateOf(current);
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN) {
+            return false;
+        }
+        long now = elapsedNanos();
+        return ((now - sinceOf(current)) >= openNanos) && stateAndSince.compareAndSet(current, pack(now, State.HALF_OPEN));
+    }
+
+    public void onSuccess() {
+        long now = elapsedNanos();
+        long current = stateAndSince.get();
+        State state = stateOf(current);
+        if (state == State.HALF_OPEN) {
+            if (stateAndSince.compareAndSet(current, pack(now, State.CLOSED))) {
+                for (int i = 0; i < NR_OF_BUCKETS; i++) {
+                    buckets.set(i, 0);
+                }
+            }
+        } else if (state == State.CLOSED) {
+            record(now, false);
+        }
+    }
+
+    public void onFailure() {
+        long now = elapsedNanos();
+        long current = stateAndSince.get();
+        State state = stateOf(current);
+        if (state == State.HALF_OPEN) {
+            stateAndSince.compareAndSet(current, pack(now, State.OPEN));
+        } else if (state == State.CLOSED) {
+            record(now, true);
+            if (isFailureRateReached(now)) {
+                stateAndSince.compareAndSet(current, pack(now, State.OPEN));
+            }
+        }
+    }
+
+    /**
+     * Gives back a permission for a call that was not made, so that a half open breaker lets the next call probe.
+     */
+    public void releasePermission() {
+        long current = stateAndSince.get();
+        if (stateOf(current) == State.HALF_OPEN) {
+            stateAndSince.compareAndSet(current, pack(Math.max(0, elapsedNanos() - openNanos), State.OPEN));
+        }
+    }
+
+    public State getState() {
+        return stateOf(stateAndSince.get());
+    }
+
+    private void record(long now, boolean failed) {
+        long period = now / bucketNanos;
+        int index = (int) (period % NR_OF_BUCKETS);
+        long tag = period & PERIOD_MASK;
+        long increment = failed ? ONE_CALL + 1 : ONE_CALL;
+        while (true) {
+            long bucket = buckets.get(index);
+            long updated;
+            if ((bucket >>> PERIOD_SHIFT) != tag) {
+                updated = (tag << PERIOD_SHIFT) | increment;
+            } else if (((bucket >>> COUNT_BITS) & COUNT_MASK) == COUNT_MASK) {
+                return;
+            } else {
+                updated = bucket + increment;
+            }
+            if (buckets.compareAndSet(index, bucket, updated)) {
+                return;
+            }
+        }
+    }
+
+    private boolean isFailureRateReached(long now) {
+        long period = now / bucketNanos;
+        long nrOfCalls = 0;
+        long nrOfFailures = 0;
+        for (int i = 0; i < NR_OF_BUCKETS; i++) {
+            long bucket = buckets.get(i);
+            if (((period - (bucket >>> PERIOD_SHIFT)) & PERIOD_MASK) < NR_OF_BUCKETS) {
+                nrOfCalls += (bucket >>> COUNT_BITS) & COUNT_MASK;
+                nrOfFailures += bucket & COUNT_MASK;
+            }
+        }
+        return (nrOfCalls >= minimumNrOfCalls) && ((nrOfFailures * 100) >= (failureRatePercentage * nrOfCalls));
+    }
+
+    private long elapsedNanos() {
+        return clock.getAsLong() - origin;
+    }
+
+    private static long pack(long since, State state) {
+        return (since << STATE_BITS) | state.ordinal();
+    }
+
+    private static long sinceOf(long stateAndSince) {
+        return stateAndSince >>> STATE_BITS;
+    }
+
+    private static State stateOf(long stateAndSince) {
+        return STATES[(int) (stateAndSince & ((1 << STATE_BITS) - 1))];
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,71 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+
+/**
+ * The time by which a purchase has to be finished. The gateway interfaces cannot carry it, so the deadline of the
+ * purchase a thread is working on is kept with the thread, from where each gateway call made for it shortens its own
+ * timeout to what is left.
+ */
+public final class Deadline {
+
+    public static final Deadline NONE = new Deadline(0);
+
+    private static final ThreadLocal<Deadline> CURRENT = ThreadLocal.withInitial(() -> NONE);
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return at(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * @param expiresAtNanos in the time of {@link System#nanoTime()}
+     */
+    static Deadline at(long expiresAtNanos) {
+        return new Deadline(expiresAtNanos);
+    }
+
+    /**
+     * @return the deadline of the purchase the calling thread is working on, or {@link #NONE}
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes the deadline the calling thread's current one, unless the current one is sooner.
+     *
+     * @return the deadline that was current, to be given back to {@link #restore(Deadline)} once the work is done
+     */
+    public static Deadline enter(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline.isSoonerThan(previous) ? deadline : previous);
+        return previous;
+    }
+
+    public static void restore(Deadline previous) {
+        CURRENT.set(previous);
+    }
+
+    /**
+     * @return the nanoseconds left, which are zero or less once the deadline has passed, or {@link Long#MAX_VALUE} for
+     * {@link #NONE}
+     */
+    public long remainingNanos(long nowNanos) {
+        return this == NONE ? Long.MAX_VALUE : expiresAtNanos - nowNanos;
+    }
+
+    private boolean isSoonerThan(Deadline other) {
+        return (this != NONE) && ((other == NONE) || ((expiresAtNanos - other.expiresAtNanos) < 0));
+    }
+
+    @Override
+    public String toString() {
+        return this == NONE ? "no deadline" : Duration.ofNanos(remainingNanos(System.nanoTime())) + " left";
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+
+/**
+ * Gives each purchase a {@link Deadline}, so that the resilient gateways never wait on a gateway for longer than the
+ * purchase as a whole has left. A purchase made under an earlier deadline keeps that one.
+ */
+public class DeadlineTicketService implements TicketService {
+
+    private final TicketService ticketService;
+    private final Duration purchaseBudget;
+
+    public DeadlineTicketService(TicketService ticketService, Duration purchaseBudget) {
+        if (purchaseBudget.isNegative() || purchaseBudget.isZero()) {
+            throw new IllegalArgumentException("purchaseBudget must be positive but was " + purchaseBudget);
+        }
+        this.ticketService = ticketService;
+        this.purchaseBudget = purchaseBudget;
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        Deadline previous = Deadline.enter(Deadline.after(purchaseBudget));
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        } finally {
+            Deadline.restore(previous);
+        }
+    }
+}
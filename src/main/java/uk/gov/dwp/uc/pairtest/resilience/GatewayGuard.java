@@ -0,0 +1,192 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException.Reason;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes the calls to one gateway as set out by a {@link GatewayPolicy}. Each call runs on the executor while the
+ * caller waits for it for no longer than the timeout or what is left of the purchase's {@link Deadline}, so a call
+ * that hangs costs the caller its timeout rather than its thread. A call given up on keeps its place in the bulkhead
+ * until it really finishes, so a hung gateway soon has its bulkhead full and further calls fail at once. As it may
+ * still go through, it fails with {@link Reason#OUTCOME_UNKNOWN}, unlike a call that was never made.
+ * <p>
+ * The bulkhead is a counter of calls in flight, taken and given back with compare and set.
+ */
+final class GatewayGuard {
+
+    private final Executor executor;
+    private final CircuitBreaker circuitBreaker;
+    private final int maximumConcurrentCalls;
+    private final long timeoutNanos;
+    private final long hedgeDelayNanos;
+    private final AtomicInteger nrOfCallsInFlight = new AtomicInteger();
+
+    private final LongAdder nrOfShedCalls = new LongAdder();
+    private final LongAdder nrOfTimeouts = new LongAdder();
+    private final LongAdder nrOfHedgedCalls = new LongAdder();
+
+    GatewayGuard(GatewayPolicy policy, Executor executor, CircuitBreaker circuitBreaker) {
+        this.executor = executor;
+        this.circuitBreaker = circuitBreaker;
+        this.maximumConcurrentCalls = policy.getMaximumConcurrentCalls();
+        this.timeoutNanos = policy.getTimeout().toNanos();
+        this.hedgeDelayNanos = policy.getHedgeDelay().toNanos();
+    }
+
+    void call(Runnable call) {
+        long start = System.nanoTime();
+        long timeout = Math.min(timeoutNanos, Deadline.current().remainingNanos(start));
+        if (timeout <= 0) {
+            throw shed(Reason.TIMED_OUT);
+        }
+        if (!tryAcquireSlot()) {
+            throw shed(Reason.BULKHEAD_FULL);
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            releaseSlot();
+            throw shed(Reason.CIRCUIT_OPEN);
+        }
+        GuardedCall guardedCall = new GuardedCall(call);
+        if (!guardedCall.attempt()) {
+            circuitBreaker.releasePermission();
+            throw shed(Reason.BULKHEAD_FULL);
+        }
+        try {
+            await(guardedCall, start, timeout);
+            circuitBreaker.onSuccess();
+        } catch (TimeoutException e) {
+            circuitBreaker.onFailure();
+            nrOfTimeouts.increment();
+            throw GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            throw unchecked(e.getCause());
+        } catch (InterruptedException e) {
+            circuitBreaker.releasePermission();
+            Thread.currentThread().interrupt();
+            throw GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+        }
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    long getNrOfShedCalls() {
+        return nrOfShedCalls.sum();
+    }
+
+    long getNrOfTimeouts() {
+        return nrOfTimeouts.sum();
+    }
+
+    long getNrOfHedgedCalls() {
+        return nrOfHedgedCalls.sum();
+    }
+
+    /**
+     * With hedging, waits the hedge delay first and, if the call has not answered by then, makes it a second time if
+     * the bulkhead has room, then waits for whichever answers first.
+     */
+    private void await(GuardedCall guardedCall, long start, long timeout)
+        throws TimeoutException, ExecutionException, InterruptedException {
+        if ((hedgeDelayNanos > 0) && (hedgeDelayNanos < timeout)) {
+            try {
+                guardedCall.result.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                return;
+            } catch (TimeoutException e) {
+                if (tryAcquireSlot() && guardedCall.attempt()) {
+                    nrOfHedgedCalls.increment();
+                }
+            }
+        }
+        guardedCall.result.get(timeout - (System.nanoTime() - start), TimeUnit.NANOSECONDS);
+    }
+
+    private boolean tryAcquireSlot() {
+        int inFlight;
+        do {
+            inFlight = nrOfCallsInFlight.get();
+            if (inFlight >= maximumConcurrentCalls) {
+                return false;
+            }
+        } while (!nrOfCallsInFlight.compareAndSet(inFlight, inFlight + 1));
+        return true;
+    }
+
+    private void releaseSlot() {
+        nrOfCallsInFlight.decrementAndGet();
+    }
+
+    private GatewayUnavailableException shed(Reason reason) {
+        nrOfShedCalls.increment();
+        return GatewayUnavailableException.stackless(reason);
+    }
+
+    private static RuntimeException unchecked(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+
+    /**
+     * One call to the gateway, made once or, when hedged, twice. It answers with the first attempt to succeed, or
+     * fails with the last attempt to fail.
+     */
+    private final class GuardedCall implements Runnable {
+
+        private final Runnable call;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final AtomicInteger nrOfAttemptsRunning = new AtomicInteger();
+
+        GuardedCall(Runnable call) {
+            this.call = call;
+        }
+
+        /**
+         * Runs an attempt in a bulkhead slot already taken for it.
+         *
+         * @return false if the executor would not take it, in which case the slot has been given back
+         */
+        boolean attempt() {
+            nrOfAttemptsRunning.incrementAndGet();
+            try {
+                executor.execute(this);
+                return true;
+            } catch (RejectedExecutionException e) {
+                nrOfAttemptsRunning.decrementAndGet();
+                releaseSlot();
+                return false;
+            }
+        }
+
+        /**
+         * Gives the slot back before answering, so that a caller that goes straight on to its next call finds it free.
+         */
+        @Override
+        public void run() {
+            try {
+                call.run();
+            } catch (Throwable e) {
+                releaseSlot();
+                if (nrOfAttemptsRunning.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+                return;
+            }
+            releaseSlot();
+            result.complete(null);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+
+/**
+ * How a resilient gateway protects the purchase threads from one gateway: how many calls it may have in flight, how
+ * long a call is waited for, when its circuit breaker opens and, for calls that are safe to repeat, how long to wait
+ * before hedging a slow call with a second one.
+ * <p>
+ * The circuit breaker opens when at least {@code minimumNrOfCalls} calls were made within the sliding window and at
+ * least {@code failureRatePercentage} percent of them failed or timed out. It stays open for the open duration, then
+ * lets a single call through to find out whether the gateway has recovered.
+ */
+public final class GatewayPolicy {
+
+    public static final int DEFAULT_FAILURE_RATE_PERCENTAGE = 50;
+    public static final int DEFAULT_MINIMUM_NR_OF_CALLS = 20;
+    public static final Duration DEFAULT_SLIDING_WINDOW = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(5);
+
+    private final int maximumConcurrentCalls;
+    private final Duration timeout;
+    private final int failureRatePercentage;
+    private final int minimumNrOfCalls;
+    private final Duration slidingWindow;
+    private final Duration openDuration;
+    private final Duration hedgeDelay;
+
+    private GatewayPolicy(int maximumConcurrentCalls, Duration timeout, int failureRatePercentage, int minimumNrOfCalls,
+                          Duration slidingWindow, Duration openDuration, Duration hedgeDelay) {
+        this.maximumConcurrentCalls = maximumConcurrentCalls;
+        this.timeout = timeout;
+        this.failureRatePercentage = failureRatePercentage;
+        this.minimumNrOfCalls = minimumNrOfCalls;
+        this.slidingWindow = slidingWindow;
+        this.openDuration = openDuration;
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    /**
+     * A policy with the default circuit breaker and no hedging.
+     *
+     * @param maximumConcurrentCalls the most calls in flight to the gateway at once, counting those that timed out but
+     *                               are still running
+     */
+    public static GatewayPolicy of(int maximumConcurrentCalls, Duration timeout) {
+        if (maximumConcurrentCalls < 1) {
+            throw new IllegalArgumentException("maximumConcurrentCalls must be at least 1 but was " + maximumConcurrentCalls);
+        }
+        requirePositive("timeout", timeout);
+        return new GatewayPolicy(maximumConcurrentCalls, timeout, DEFAULT_FAILURE_RATE_PERCENTAGE, DEFAULT_MINIMUM_NR_OF_CALLS,
+                                 DEFAULT_SLIDING_WINDOW, DEFAULT_OPEN_DURATION, Duration.ZERO);
+    }
+
+    public GatewayPolicy withCircuitBreaker(int failureRatePercentage, int minimumNrOfCalls, Duration slidingWindow,
+                                            Duration openDuration) {
+        if ((failureRatePercentage < 1) || (failureRatePercentage > 100)) {
+            throw new IllegalArgumentException("failureRatePercentage must be from 1 to 100 but was " + failureRatePercentage);
+        }
+        if (minimumNrOfCalls < 1) {
+            throw new IllegalArgumentException("minimumNrOfCalls must be at least 1 but was " + minimumNrOfCalls);
+        }
+        requirePositive("slidingWindow", slidingWindow);
+        requirePositive("openDuration", openDuration);
+        return new GatewayPolicy(maximumConcurrentCalls, timeout, failureRatePercentage, minimumNrOfCalls, slidingWindow,
+                                 openDuration, hedgeDelay);
+    }
+
+    /**
+     * @param hedgeDelay how long a call has to be in flight before a second, identical, call is made, after which
+     *                   whichever answers first is taken; must be less than the timeout
+     */
+    public GatewayPolicy withHedgeDelay(Duration hedgeDelay) {
+        requirePositive("hedgeDelay", hedgeDelay);
+        if (hedgeDelay.compareTo(timeout) >= 0) {
+            throw new IllegalArgumentException("hedgeDelay must be less than the timeout but was " + hedgeDelay);
+        }
+        return new GatewayPolicy(maximumConcurrentCalls, timeout, failureRatePercentage, minimumNrOfCalls, slidingWindow,
+                                 openDuration, hedgeDelay);
+    }
+
+    public int getMaximumConcurrentCalls() {
+        return maximumConcurrentCalls;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getFailureRatePercentage() {
+        return failureRatePercentage;
+    }
+
+    public int getMinimumNrOfCalls() {
+        return minimumNrOfCalls;
+    }
+
+    public Duration getSlidingWindow() {
+        return slidingWindow;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * @return the hedge delay, or zero if calls are not hedged
+     */
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public boolean isHedged() {
+        return !hedgeDelay.isZero();
+    }
+
+    @Override
+    public String toString() {
+        return maximumConcurrentCalls + " calls in flight, timing out after " + timeout + ", open at "
+               + failureRatePercentage + "% of at least " + minimumNrOfCalls + " calls in " + slidingWindow + " for "
+               + openDuration + (isHedged() ? ", hedged after " + hedgeDelay : "");
+    }
+
+    private static void requirePositive(String name, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive but was " + duration);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.util.concurrent.Executor;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Calls the seat booking gateway behind a bulkhead, a timeout and a circuit breaker, as set out by a
+ * {@link GatewayPolicy}, and hedges slow reservations if the policy says to. A call that is not made or is given up on
+ * throws a {@link uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException}.
+ * <p>
+ * Hedging can reserve the seats twice in the gateway, so it is only for a gateway that takes a repeated reservation
+ * for an account as the same one.
+ */
+public class ResilientSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService seatReservationService;
+    private final GatewayGuard gatewayGuard;
+
+    /**
+     * @param executor runs the calls to the gateway, and needs a thread for each call the policy lets be in flight
+     */
+    public ResilientSeatReservationService(SeatReservationService seatReservationService, GatewayPolicy policy,
+                                           Executor executor) {
+        this.seatReservationService = seatReservationService;
+        this.gatewayGuard = new GatewayGuard(policy, executor, new CircuitBreaker(policy));
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        gatewayGuard.call(() -> seatReservationService.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return gatewayGuard.getCircuitBreaker();
+    }
+
+    /**
+     * @return the calls failed at once because of the circuit breaker, the bulkhead or the deadline
+     */
+    public long getNrOfShedCalls() {
+        return gatewayGuard.getNrOfShedCalls();
+    }
+
+    public long getNrOfTimeouts() {
+        return gatewayGuard.getNrOfTimeouts();
+    }
+
+    public long getNrOfHedgedCalls() {
+        return gatewayGuard.getNrOfHedgedCalls();
+    }
+}
@@ -0,0 +1,48 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.util.concurrent.Executor;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Calls the payment gateway behind a bulkhead, a timeout and a circuit breaker, as set out by a {@link GatewayPolicy}.
+ * A call that is not made or is given up on throws a
+ * {@link uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException}. Payments are never hedged, as a payment made
+ * twice is taken twice.
+ */
+public class ResilientTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService ticketPaymentService;
+    private final GatewayGuard gatewayGuard;
+
+    /**
+     * @param executor runs the calls to the gateway, and needs a thread for each call the policy lets be in flight
+     */
+    public ResilientTicketPaymentService(TicketPaymentService ticketPaymentService, GatewayPolicy policy, Executor executor) {
+        if (policy.isHedged()) {
+            throw new IllegalArgumentException("Payments cannot be hedged but the policy was " + policy);
+        }
+        this.ticketPaymentService = ticketPaymentService;
+        this.gatewayGuard = new GatewayGuard(policy, executor, new CircuitBreaker(policy));
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        gatewayGuard.call(() -> ticketPaymentService.makePayment(accountId, totalAmountToPay));
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return gatewayGuard.getCircuitBreaker();
+    }
+
+    /**
+     * @return the calls failed at once because of the circuit breaker, the bulkhead or the deadline
+     */
+    public long getNrOfShedCalls() {
+        return gatewayGuard.getNrOfShedCalls();
+    }
+
+    public long getNrOfTimeouts() {
+        return gatewayGuard.getNrOfTimeouts();
+    }
+}
@@ -0,0 +1,63 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue that any number of threads offer to and one thread polls, without locks. A producer claims a slot by
+ * moving the tail on with a compare and set, then publishes its element into the slot; the consumer takes elements in
+ * claim order, treating a claimed slot that is not published yet as the end of the queue for now.
+ * <p>
+ * A slot is only claimed again once the consumer has moved the head past it, having emptied it first, so a producer
+ * never overwrites an element that has not been taken.
+ */
+final class BoundedMpscQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    BoundedMpscQueue(int capacity) {
+        if ((capacity < 2) || (Integer.bitCount(capacity) != 1)) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least 2 but was " + capacity);
+        }
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    boolean offer(E element) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if ((claimed - head.get()) > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        elements.set((int) (claimed & mask), element);
+        return true;
+    }
+
+    /**
+     * Only to be called from the consuming thread.
+     *
+     * @return the next element, or null if there is none yet
+     */
+    E poll() {
+        long next = head.get();
+        int index = (int) (next & mask);
+        E element = elements.get(index);
+        if (element != null) {
+            elements.lazySet(index, null);
+            head.lazySet(next + 1);
+        }
+        return element;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
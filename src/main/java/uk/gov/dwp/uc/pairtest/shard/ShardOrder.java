@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.ScreeningTicketService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One purchase handed to a shard. The shard's thread makes it and fills in the outcome, then wakes the thread that
+ * handed it over, which spins briefly and then parks until it does.
+ */
+final class ShardOrder {
+
+    static final long NO_SCREENING = Long.MIN_VALUE;
+
+    private static final int MAXIMUM_SPINS = 128;
+
+    private final long screeningId;
+    private final Long accountId;
+    private final TicketTypeRequest[] ticketTypeRequests;
+    private final Thread caller = Thread.currentThread();
+    private SeatAllocation seatAllocation;
+    private Throwable failure;
+    private volatile boolean done;
+
+    ShardOrder(long screeningId, Long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        this.screeningId = screeningId;
+        this.accountId = accountId;
+        this.ticketTypeRequests = ticketTypeRequests;
+    }
+
+    /**
+     * Runs on the shard's thread.
+     */
+    void purchase(TicketService ticketService, ScreeningTicketService screeningTicketService) {
+        try {
+            if (screeningId == NO_SCREENING) {
+                ticketService.purchaseTickets(accountId, ticketTypeRequests);
+            } else {
+                seatAllocation = screeningTicketService.purchaseTickets(screeningId, accountId, ticketTypeRequests);
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+        done = true;
+        LockSupport.unpark(caller);
+    }
+
+    /**
+     * Waits for the shard to make the purchase, rethrowing what it threw. An interrupt does not stop the wait, as the
+     * purchase is already on its way, but is kept for the caller to see afterwards.
+     */
+    SeatAllocation await() {
+        boolean interrupted = false;
+        int spins = 0;
+        while (!done) {
+            if (spins < MAXIMUM_SPINS) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return seatAllocation;
+    }
+}
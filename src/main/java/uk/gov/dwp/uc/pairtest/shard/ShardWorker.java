@@ -0,0 +1,94 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.ScreeningTicketService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The single thread that makes every purchase routed to one shard, with the shard's own ticket service, so nothing
+ * that service holds is ever touched by two threads. It polls its queue, spinning a little when the queue is empty and
+ * then parking until a purchase is handed over.
+ * <p>
+ * Once stopped it takes no more purchases. A purchase being handed over as it stops is still made: the thread keeps
+ * going until every hand-over that started before the stop has finished and the queue is empty.
+ */
+final class ShardWorker implements Runnable {
+
+    private static final int MAXIMUM_IDLE_SPINS = 64;
+    private static final AtomicIntegerFieldUpdater<ShardWorker> NR_OF_SUBMITS_IN_FLIGHT =
+        AtomicIntegerFieldUpdater.newUpdater(ShardWorker.class, "nrOfSubmitsInFlight");
+
+    private final TicketService ticketService;
+    private final ScreeningTicketService screeningTicketService;
+    private final BoundedMpscQueue<ShardOrder> orders;
+    private final Thread thread;
+    private volatile boolean parked;
+    private volatile boolean running = true;
+    private volatile int nrOfSubmitsInFlight;
+
+    <S extends TicketService & ScreeningTicketService> ShardWorker(S shardTicketService, int queueCapacity, String name) {
+        this.ticketService = shardTicketService;
+        this.screeningTicketService = shardTicketService;
+        this.orders = new BoundedMpscQueue<>(queueCapacity);
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Hands the purchase to the shard, waiting for room in its queue if it is full.
+     *
+     * @throws IllegalStateException if the shard has been stopped
+     */
+    void submit(ShardOrder order) {
+        NR_OF_SUBMITS_IN_FLIGHT.incrementAndGet(this);
+        try {
+            if (!running) {
+                throw new IllegalStateException("The shard has been stopped");
+            }
+            while (!orders.offer(order)) {
+                Thread.yield();
+            }
+        } finally {
+            NR_OF_SUBMITS_IN_FLIGHT.decrementAndGet(this);
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Makes the purchases already handed over, then stops.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        int idleSpins = 0;
+        while (running || (nrOfSubmitsInFlight > 0) || !orders.isEmpty()) {
+            ShardOrder order = orders.poll();
+            if (order != null) {
+                order.purchase(ticketService, screeningTicketService);
+                idleSpins = 0;
+            } else if (idleSpins < MAXIMUM_IDLE_SPINS) {
+                idleSpins++;
+                Thread.onSpinWait();
+            } else {
+                parked = true;
+                if (running && orders.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+    }
+}
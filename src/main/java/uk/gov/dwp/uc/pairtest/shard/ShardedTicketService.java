@@ -0,0 +1,133 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import uk.gov.dwp.uc.pairtest.ScreeningTicketService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.util.function.IntFunction;
+
+/**
+ * Splits purchases between shards, each a single thread with a ticket service of its own, so that the state behind
+ * the ticket services, such as seat inventory, is never shared between threads and more shards can use more cores
+ * without contending. A purchase for a screening goes to the shard owning the screening, and any other purchase to the
+ * shard owning the account, so the seats of a screening are all held by one shard.
+ * <p>
+ * Purchases are handed to a shard through a bounded lock-free queue that any thread may add to and only the shard's
+ * thread takes from, and the calling thread waits for the outcome, which is returned or thrown just as if it had made
+ * the purchase itself. Owners are picked with a jump consistent hash, so going from {@code n} to {@code n + 1} shards
+ * moves only a {@code 1 / (n + 1)} share of screenings and accounts, all to the new shard.
+ * <p>
+ * Closing makes the purchases already handed over and stops the shards; a purchase made once closing has begun
+ * fails with an {@link IllegalStateException}.
+ */
+public class ShardedTicketService implements TicketService, ScreeningTicketService, AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final long MIXER = 0x9E3779B97F4A7C15L;
+
+    private final ShardWorker[] shards;
+    private volatile boolean closed;
+
+    /**
+     * @param shardTicketServiceFactory creates the ticket service for each shard, given its index; each must hold state
+     *                                  of its own, such as its own seat inventory
+     */
+    public <S extends TicketService & ScreeningTicketService> ShardedTicketService(int nrOfShards,
+                                                                                   IntFunction<S> shardTicketServiceFactory) {
+        this(nrOfShards, shardTicketServiceFactory, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public <S extends TicketService & ScreeningTicketService> ShardedTicketService(int nrOfShards,
+                                                                                   IntFunction<S> shardTicketServiceFactory,
+                                                                                   int queueCapacity) {
+        if (nrOfShards < 1) {
+            throw new IllegalArgumentException("nrOfShards must be at least 1 but was " + nrOfShards);
+        }
+        this.shards = new ShardWorker[nrOfShards];
+        for (int i = 0; i < nrOfShards; i++) {
+            shards[i] = new ShardWorker(shardTicketServiceFactory.apply(i), queueCapacity, "ticket-shard-" + i);
+        }
+        for (ShardWorker shard : shards) {
+            shard.start();
+        }
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        checkNotClosed();
+        ShardOrder order = new ShardOrder(ShardOrder.NO_SCREENING, accountId, ticketTypeRequests);
+        shards[shardForAccount(accountId == null ? 0 : accountId)].submit(order);
+        order.await();
+    }
+
+    /**
+     * @throws IllegalArgumentException for {@link Long#MIN_VALUE}, which is not a screening id that can be sharded
+     */
+    @Override
+    public SeatAllocation purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests)
+        throws InvalidPurchaseException {
+        if (screeningId == ShardOrder.NO_SCREENING) {
+            throw new IllegalArgumentException("Screening id " + screeningId + " cannot be sharded");
+        }
+        checkNotClosed();
+        ShardOrder order = new ShardOrder(screeningId, accountId, ticketTypeRequests);
+        shards[shardForScreening(screeningId)].submit(order);
+        return order.await();
+    }
+
+    /**
+     * @return the index of the shard that sells the screening's seats, whose ticket service the screening has to be put
+     * on sale with
+     */
+    public int shardForScreening(long screeningId) {
+        return shardOf(screeningId, shards.length);
+    }
+
+    public int shardForAccount(long accountId) {
+        return shardOf(accountId, shards.length);
+    }
+
+    public int getNrOfShards() {
+        return shards.length;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (ShardWorker shard : shards) {
+                shard.stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("The ticket service has been closed");
+        }
+    }
+
+    /**
+     * Lamping and Veach's jump consistent hash: follows the key through a run of pseudo-random jumps, each landing on
+     * the shard that would own the key once there are that many, and stops at the last one below {@code nrOfShards}.
+     */
+    static int shardOf(long key, int nrOfShards) {
+        long state = key * MIXER;
+        long shard = -1;
+        long next = 0;
+        while (next < nrOfShards) {
+            shard = next;
+            state = (state * 2862933555777941757L) + 1;
+            next = (long) ((shard + 1) * ((double) (1L << 31) / (double) ((state >>> 33) + 1)));
+        }
+        return (int) shard;
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+/**
+ * A rule that can be named in a {@link ValidationPolicy}, with the rejection it gives. The rules are checked in the
+ * order they are declared here, whatever order the policy names them in: cheapest first, and the same order as
+ * {@link OrderRules#STANDARD} so that an order breaking several rules is rejected the same way by both.
+ */
+public enum OrderRule {
+    AT_LEAST_ONE_TICKET("at-least-one-ticket", false, ValidationResult.NO_TICKETS_ORDERED),
+    ADULT_REQUIRED("adult-required", false, ValidationResult.NO_ADULT_TICKETS_REQUESTED),
+    CHILDREN_NEED_AN_ADULT("children-need-an-adult", false, ValidationResult.NO_ADULT_TICKETS_REQUESTED),
+    VALID_ACCOUNT("valid-account", false, ValidationResult.INVALID_ACCOUNT_NUMBER),
+    MAXIMUM_TICKETS("maximum-tickets", true, ValidationResult.MAXIMUM_NR_OF_TICKETS_EXCEEDED),
+    MAXIMUM_INFANTS_PER_ADULT("maximum-infants-per-adult", true, ValidationResult.TOO_MANY_INFANTS_PER_ADULT);
+
+    private static final OrderRule[] RULES = values();
+
+    private final String ruleName;
+    private final boolean limited;
+    private final ValidationResult rejection;
+
+    OrderRule(String ruleName, boolean limited, ValidationResult rejection) {
+        this.ruleName = ruleName;
+        this.limited = limited;
+        this.rejection = rejection;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    /**
+     * Whether the rule is given a limit, as in {@code maximum-tickets 20}.
+     */
+    public boolean isLimited() {
+        return limited;
+    }
+
+    public ValidationResult getRejection() {
+        return rejection;
+    }
+
+    static OrderRule named(String ruleName) {
+        for (OrderRule rule : RULES) {
+            if (rule.ruleName.equals(ruleName)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    static OrderRule of(int ordinal) {
+        return RULES[ordinal];
+    }
+}
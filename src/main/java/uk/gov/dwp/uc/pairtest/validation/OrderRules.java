@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+/**
+ * The business rules an order has to keep to, checked against the totals already worked out for it. Called on every
+ * purchase, so implementations should not allocate or lock.
+ */
+public interface OrderRules {
+
+    /**
+     * The rules as they have always been: at least one ticket, at least one adult, an account id above zero and no
+     * more than {@link uk.gov.dwp.uc.pairtest.TicketServiceImpl#MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED} tickets.
+     */
+    OrderRules STANDARD = new StandardOrderRules();
+
+    /**
+     * Rejecting the order on a limit, as with {@link ValidationResult#MAXIMUM_NR_OF_TICKETS_EXCEEDED} and
+     * {@link ValidationResult#TOO_MANY_INFANTS_PER_ADULT}, also records that limit with
+     * {@link TicketOrderEvaluation#setExceededLimit}.
+     *
+     * @return the first rule broken, or {@link ValidationResult#VALID}
+     */
+    ValidationResult check(long screeningId, Long accountId, TicketOrderEvaluation evaluation);
+}
@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import static uk.gov.dwp.uc.pairtest.TicketServiceImpl.MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED;
+
+/**
+ * See {@link OrderRules#STANDARD}.
+ */
+final class StandardOrderRules implements OrderRules {
+
+    @Override
+    public ValidationResult check(long screeningId, Long accountId, TicketOrderEvaluation evaluation) {
+        if (evaluation.getTotalNrOfTickets() == 0) {
+            return ValidationResult.NO_TICKETS_ORDERED;
+        }
+
+        if (!evaluation.containsAdultTicket()) {
+            return ValidationResult.NO_ADULT_TICKETS_REQUESTED;
+        }
+
+        if ((accountId == null) || (accountId < 1)) {
+            return ValidationResult.INVALID_ACCOUNT_NUMBER;
+        }
+
+        if (evaluation.getTotalNrOfTickets() > MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED) {
+            evaluation.setExceededLimit(MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED);
+            return ValidationResult.MAXIMUM_NR_OF_TICKETS_EXCEEDED;
+        }
+
+        return ValidationResult.VALID;
+    }
+}
@@ -0,0 +1,67 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks orders against the current {@link ValidationPolicy}, which can be replaced while orders are being checked
+ * without a redeploy. A new policy is read and compiled off to the side and swapped in atomically, so checking never
+ * takes a lock, and an order is checked entirely against one policy. A policy file that cannot be read leaves the
+ * current policy in place.
+ */
+public class ValidationEngine implements OrderRules {
+
+    private final AtomicReference<ValidationPolicy> policy;
+    private final Path policyFile;
+    private FileTime policyFileModified;
+
+    public ValidationEngine(ValidationPolicy policy) {
+        this.policy = new AtomicReference<>(policy);
+        this.policyFile = null;
+    }
+
+    public ValidationEngine(Path policyFile) throws IOException {
+        this.policyFileModified = Files.getLastModifiedTime(policyFile);
+        this.policy = new AtomicReference<>(ValidationPolicy.read(policyFile));
+        this.policyFile = policyFile;
+    }
+
+    @Override
+    public ValidationResult check(long screeningId, Long accountId, TicketOrderEvaluation evaluation) {
+        return policy.get().check(screeningId, accountId, evaluation);
+    }
+
+    public ValidationPolicy getPolicy() {
+        return policy.get();
+    }
+
+    public void publish(ValidationPolicy newPolicy) {
+        policy.set(newPolicy);
+    }
+
+    /**
+     * Reads the policy file again if it has been changed since it was last read, for calling from a scheduled task.
+     *
+     * @return whether a new policy was swapped in
+     * @throws IOException if the file cannot be read, in which case the current policy is kept
+     * @throws IllegalArgumentException if a rule in the file cannot be read, in which case the current policy is kept
+     */
+    public synchronized boolean reloadIfModified() throws IOException {
+        if (policyFile == null) {
+            throw new IllegalStateException("There is no policy file to reload");
+        }
+        FileTime modified = Files.getLastModifiedTime(policyFile);
+        if (modified.equals(policyFileModified)) {
+            return false;
+        }
+        publish(ValidationPolicy.read(policyFile));
+        policyFileModified = modified;
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules for one screening, compiled into flat arrays of rule ordinals and limits in the order they are checked, so
+ * that checking an order is one loop that stops at the first rule broken.
+ */
+final class ValidationPlan {
+
+    private final byte[] rules;
+    private final int[] limits;
+
+    /**
+     * @param limitByRule the limit of each rule in the plan by its ordinal, or {@code null} where a rule is not in it
+     */
+    ValidationPlan(Integer[] limitByRule) {
+        int nrOfRules = 0;
+        for (Integer limit : limitByRule) {
+            if (limit != null) {
+                nrOfRules++;
+            }
+        }
+        this.rules = new byte[nrOfRules];
+        this.limits = new int[nrOfRules];
+        int i = 0;
+        for (int ordinal = 0; ordinal < limitByRule.length; ordinal++) {
+            if (limitByRule[ordinal] != null) {
+                rules[i] = (byte) ordinal;
+                limits[i] = limitByRule[ordinal];
+                i++;
+            }
+        }
+    }
+
+    ValidationResult check(Long accountId, TicketOrderEvaluation evaluation) {
+        for (int i = 0; i < rules.length; i++) {
+            if (isBroken(rules[i], limits[i], accountId, evaluation)) {
+                evaluation.setExceededLimit(limits[i]);
+                return OrderRule.of(rules[i]).getRejection();
+            }
+        }
+        return ValidationResult.VALID;
+    }
+
+    List<OrderRule> getRules() {
+        List<OrderRule> orderRules = new ArrayList<>(rules.length);
+        for (byte rule : rules) {
+            orderRules.add(OrderRule.of(rule));
+        }
+        return orderRules;
+    }
+
+    private static boolean isBroken(int rule, int limit, Long accountId, TicketOrderEvaluation evaluation) {
+        switch (OrderRule.of(rule)) {
+            case AT_LEAST_ONE_TICKET:
+                return evaluation.getTotalNrOfTickets() == 0;
+            case ADULT_REQUIRED:
+                return !evaluation.containsAdultTicket();
+            case CHILDREN_NEED_AN_ADULT:
+                return (evaluation.getNrOfChildTickets() > 0) && !evaluation.containsAdultTicket();
+            case VALID_ACCOUNT:
+                return (accountId == null) || (accountId < 1);
+            case MAXIMUM_TICKETS:
+                return evaluation.getTotalNrOfTickets() > limit;
+            case MAXIMUM_INFANTS_PER_ADULT:
+                return evaluation.getNrOfInfantTickets() > ((long) limit * evaluation.getNrOfAdultTickets());
+            default:
+                throw new IllegalStateException("Not a rule: " + rule);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.LinkedHashMap;
+
+/**
+ * A set of {@link OrderRule}s read from definitions, one per line:
+ * <pre>
+ * # every screening
+ * at-least-one-ticket
+ * adult-required
+ * valid-account
+ * maximum-tickets 20
+ * # a smaller venue
+ * maximum-tickets 8 screening 42
+ * </pre>
+ * A rule naming a screening adds to or replaces the limit of the rules for every screening, for that screening only.
+ * Naming a rule again replaces it. Blank lines and lines starting with {@code #} are ignored.
+ * <p>
+ * Immutable, and compiled into one {@link ValidationPlan} per screening named and one for the rest when read.
+ */
+public final class ValidationPolicy implements OrderRules {
+
+    private static final String SCREENING = "screening";
+    private static final int NR_OF_RULES = OrderRule.values().length;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final List<String> definitions;
+    private final ValidationPlan defaultPlan;
+    private final long[] screeningIds;
+    private final ValidationPlan[] plansBySlot;
+    private final int mask;
+
+    private ValidationPolicy(List<String> definitions, ValidationPlan defaultPlan, Map<Long, ValidationPlan> screeningPlans) {
+        this.definitions = definitions;
+        this.defaultPlan = defaultPlan;
+        int capacity = Integer.highestOneBit(Math.max(1, screeningPlans.size()) * 2) * 2;
+        this.screeningIds = new long[capacity];
+        this.plansBySlot = new ValidationPlan[capacity];
+        this.mask = capacity - 1;
+        screeningPlans.forEach((screeningId, plan) -> {
+            int slot = slotOf(screeningId);
+            while (plansBySlot[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            screeningIds[slot] = screeningId;
+            plansBySlot[slot] = plan;
+        });
+    }
+
+    public static ValidationPolicy read(Path policyFile) throws IOException {
+        return parse(Files.readAllLines(policyFile, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the line of the first definition that cannot be read
+     */
+    public static ValidationPolicy parse(List<String> definitions) {
+        Integer[] defaultLimits = new Integer[NR_OF_RULES];
+        Map<Long, Integer[]> screeningLimits = new LinkedHashMap<>();
+        for (int i = 0; i < definitions.size(); i++) {
+            String definition = definitions.get(i).trim();
+            if (definition.isEmpty() || definition.startsWith("#")) {
+                continue;
+            }
+            parseDefinition(i + 1, definition.split("\\s+"), defaultLimits, screeningLimits);
+        }
+
+        Map<Long, ValidationPlan> screeningPlans = new HashMap<>();
+        for (Map.Entry<Long, Integer[]> screening : screeningLimits.entrySet()) {
+            Integer[] limits = defaultLimits.clone();
+            Integer[] overrides = screening.getValue();
+            for (int rule = 0; rule < NR_OF_RULES; rule++) {
+                if (overrides[rule] != null) {
+                    limits[rule] = overrides[rule];
+                }
+            }
+            screeningPlans.put(screening.getKey(), new ValidationPlan(limits));
+        }
+        return new ValidationPolicy(List.copyOf(definitions), new ValidationPlan(defaultLimits), screeningPlans);
+    }
+
+    @Override
+    public ValidationResult check(long screeningId, Long accountId, TicketOrderEvaluation evaluation) {
+        return planFor(screeningId).check(accountId, evaluation);
+    }
+
+    /**
+     * The rules checked for the screening, in the order they are checked.
+     */
+    public List<OrderRule> getRules(long screeningId) {
+        return planFor(screeningId).getRules();
+    }
+
+    public List<String> getDefinitions() {
+        return definitions;
+    }
+
+    private ValidationPlan planFor(long screeningId) {
+        for (int slot = slotOf(screeningId); ; slot = (slot + 1) & mask) {
+            ValidationPlan plan = plansBySlot[slot];
+            if (plan == null) {
+                return defaultPlan;
+            }
+            if (screeningIds[slot] == screeningId) {
+                return plan;
+            }
+        }
+    }
+
+    private int slotOf(long screeningId) {
+        long hash = screeningId * HASH_MULTIPLIER;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void parseDefinition(int lineNumber, String[] words, Integer[] defaultLimits,
+                                        Map<Long, Integer[]> screeningLimits) {
+        OrderRule rule = OrderRule.named(words[0]);
+        if (rule == null) {
+            throw invalidDefinition(lineNumber, "no rule called " + words[0]);
+        }
+        int next = 1;
+        int limit = 0;
+        if (rule.isLimited()) {
+            if (words.length < 2) {
+                throw invalidDefinition(lineNumber, rule.getRuleName() + " needs a limit");
+            }
+            limit = (int) parseNumber(lineNumber, words[next++], 0, Integer.MAX_VALUE);
+        }
+        Integer[] limits = defaultLimits;
+        if ((words.length > next) && words[next].equals(SCREENING) && (words.length == next + 2)) {
+            long screeningId = parseNumber(lineNumber, words[next + 1], Long.MIN_VALUE, Long.MAX_VALUE);
+            limits = screeningLimits.computeIfAbsent(screeningId, id -> new Integer[NR_OF_RULES]);
+        } else if (words.length > next) {
+            throw invalidDefinition(lineNumber, "expected nothing more or '" + SCREENING + " <id>' after " + rule.getRuleName());
+        }
+        limits[rule.ordinal()] = limit;
+    }
+
+    private static long parseNumber(int lineNumber, String word, long minimum, long maximum) {
+        try {
+            long number = Long.parseLong(word);
+            if ((number < minimum) || (number > maximum)) {
+                throw invalidDefinition(lineNumber, word + " is out of range");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw invalidDefinition(lineNumber, word + " is not a number");
+        }
+    }
+
+    private static IllegalArgumentException invalidDefinition(int lineNumber, String reason) {
+        return new IllegalArgumentException("Invalid validation rule on line " + lineNumber + ": " + reason);
+    }
+}
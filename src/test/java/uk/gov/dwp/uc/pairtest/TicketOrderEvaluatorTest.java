@@ -0,0 +1,127 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.pricing.PricingRule;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class TicketOrderEvaluatorTest {
+
+    public static final Long ACCOUNT_ID = 1L;
+
+    private final TicketOrderEvaluator underTest = new TicketOrderEvaluator();
+
+    @Test
+    public void shouldWorkOutTicketsSeatsAndCostInOnePass() {
+        TicketOrderEvaluation result = underTest.evaluate(ACCOUNT_ID,
+                                                          new TicketTypeRequest(ADULT, 2),
+                                                          new TicketTypeRequest(CHILD, 3),
+                                                          new TicketTypeRequest(INFANT, 1));
+
+        assertThat(result.getTotalNrOfTickets(), is(6));
+        assertThat(result.getTotalNrOfReservations(), is(5));
+        assertThat(result.getTotalCostOfTickets(), is((2 * ADULT.getTicketCost()) + (3 * CHILD.getTicketCost())));
+        assertThat(result.containsAdultTicket(), is(true));
+    }
+
+    @Test
+    public void shouldPriceTheOrderForItsScreening() {
+        long screeningId = 5L;
+        PriceTable priceTable = PriceTable.compile(List.of(PricingRule.percentOff(CHILD, 50).forScreening(screeningId)));
+        TicketOrderEvaluator evaluator = new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.WITH_STACK_TRACE, priceTable);
+
+        TicketOrderEvaluation result = evaluator.evaluate(screeningId, ACCOUNT_ID, new TicketTypeRequest(ADULT, 1),
+                                                          new TicketTypeRequest(CHILD, 2), new TicketTypeRequest(ADULT, 1));
+
+        assertThat(result.getTotalCostOfTickets(), is((2 * ADULT.getTicketCost()) + CHILD.getTicketCost()));
+        assertThat(result.getTotalNrOfReservations(), is(4));
+        assertThat(evaluator.evaluate(ACCOUNT_ID, new TicketTypeRequest(CHILD, 2), new TicketTypeRequest(ADULT, 1))
+                       .getTotalCostOfTickets(), is(ADULT.getTicketCost() + (2 * CHILD.getTicketCost())));
+    }
+
+    @Test(expected = NoTicketsOrderedException.class)
+    public void shouldThrowNoTicketsOrderedExceptionBeforeCheckingForAnAdult() {
+        underTest.evaluate(ACCOUNT_ID, new TicketTypeRequest(CHILD, 0));
+    }
+
+    @Test(expected = NoAdultTicketsRequestedException.class)
+    public void shouldThrowNoAdultTicketsRequestedExceptionWhenTheAdultRequestIsForZeroTickets() {
+        underTest.evaluate(ACCOUNT_ID, new TicketTypeRequest(ADULT, 0), new TicketTypeRequest(CHILD, 1));
+    }
+
+    @Test
+    public void shouldReportTheNumberOfTicketsOrderedWhenOverTheMaximum() {
+        try {
+            underTest.evaluate(ACCOUNT_ID, new TicketTypeRequest(ADULT, 15), new TicketTypeRequest(INFANT, 6));
+        } catch (MaximumNrOfTicketsAllowedExceededException e) {
+            assertThat(e.getNrOfTicketsOrdered(), is(21));
+            return;
+        }
+        throw new AssertionError("Expected MaximumNrOfTicketsAllowedExceededException");
+    }
+
+    @Test
+    public void shouldReturnAResultCodeInsteadOfThrowingWhenValidating() {
+        TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+
+        assertThat(underTest.validate(ACCOUNT_ID, new TicketTypeRequest[] {new TicketTypeRequest(ADULT, 2)}, evaluation),
+                   is(ValidationResult.VALID));
+        assertThat(underTest.validate(ACCOUNT_ID, new TicketTypeRequest[0], evaluation),
+                   is(ValidationResult.NO_TICKETS_ORDERED));
+        assertThat(underTest.validate(ACCOUNT_ID, new TicketTypeRequest[] {new TicketTypeRequest(CHILD, 2)}, evaluation),
+                   is(ValidationResult.NO_ADULT_TICKETS_REQUESTED));
+        assertThat(underTest.validate(null, new TicketTypeRequest[] {new TicketTypeRequest(ADULT, 2)}, evaluation),
+                   is(ValidationResult.INVALID_ACCOUNT_NUMBER));
+        assertThat(underTest.validate(ACCOUNT_ID, new TicketTypeRequest[] {new TicketTypeRequest(ADULT, 21)}, evaluation),
+                   is(ValidationResult.MAXIMUM_NR_OF_TICKETS_EXCEEDED));
+        assertThat(evaluation.getTotalNrOfTickets(), is(21));
+    }
+
+    @Test
+    public void shouldThrowTheSameStacklessExceptionForEachRejectionInStacklessMode() {
+        TicketOrderEvaluator stacklessEvaluator = new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.STACKLESS);
+        TicketTypeRequest[] requests = {new TicketTypeRequest(ADULT, 2)};
+
+        InvalidPurchaseException first = evaluateExpectingRejection(stacklessEvaluator, -1L, requests);
+        InvalidPurchaseException second = evaluateExpectingRejection(stacklessEvaluator, -2L, requests);
+
+        assertThat(first, is(sameInstance(InvalidAccountNumberException.stackless())));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first.getStackTrace().length, is(0));
+    }
+
+    @Test
+    public void shouldKeepTheTicketCountsOnAStacklessMaximumNrOfTicketsAllowedExceededException() {
+        TicketOrderEvaluator stacklessEvaluator = new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.STACKLESS);
+
+        MaximumNrOfTicketsAllowedExceededException result = (MaximumNrOfTicketsAllowedExceededException)
+            evaluateExpectingRejection(stacklessEvaluator, ACCOUNT_ID, new TicketTypeRequest[] {new TicketTypeRequest(ADULT, 25)});
+
+        assertThat(result.getNrOfTicketsOrdered(), is(25));
+        assertThat(result.getMaximumAllowed(), is(TicketServiceImpl.MAXIMUM_NR_OF_TICKERS_THAT_CAN_BE_PURCHASED));
+        assertThat(result.getStackTrace().length, is(0));
+    }
+
+    private InvalidPurchaseException evaluateExpectingRejection(TicketOrderEvaluator evaluator, Long accountId,
+                                                                TicketTypeRequest[] requests) {
+        try {
+            evaluator.evaluate(accountId, requests, new TicketOrderEvaluation());
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+        throw new AssertionError("Expected an InvalidPurchaseException");
+    }
+}
@@ -1,16 +1,35 @@
 package uk.gov.dwp.uc.pairtest;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException.Reason;
 import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
 import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
 import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
 import uk.gov.dwp.uc.pairtest.exception.NoTicketsOrderedException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocator;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMapInventory;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
 
 import thirdparty.paymentgateway.TicketPaymentServiceImpl;
 import thirdparty.seatbooking.SeatReservationService;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
 import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
@@ -21,6 +40,9 @@ public class TicketServiceImplTest {
     public static final int NR_OF_ADULT_TICKETS = 2;
     public static final int NR_OF_CHILD_TICKETS = 3;
     public static final int NR_OF_INFANT_TICKETS = 1;
+    public static final long SCREENING_ID = 42L;
+    public static final int NR_OF_PURCHASES = 200_000;
+    public static final long ALLOWED_ALLOCATED_BYTES = 1024;
 
     private final SeatReservationService seatReservationService = mock(SeatReservationService.class);
     private final TicketPaymentServiceImpl ticketPaymentService = mock(TicketPaymentServiceImpl.class);
@@ -167,6 +189,188 @@ public class TicketServiceImplTest {
         verifyNoCallsMadeToPaymentAndReservationServices(NR_OF_ADULT_TICKETS, expectedAmount);
     }
 
+    @Test
+    public void shouldTakeTheSeatsFromTheScreeningWhenPurchasingForAScreening() {
+        SeatInventory seatInventory = screeningWithCapacity(10);
+        TicketServiceImpl underTest = screeningTicketService(seatInventory);
+
+        underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID, new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS),
+                                  new TicketTypeRequest(INFANT, NR_OF_INFANT_TICKETS));
+
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(10 - NR_OF_ADULT_TICKETS));
+        verify(seatReservationService).reserveSeat(ACCOUNT_ID, NR_OF_ADULT_TICKETS);
+    }
+
+    @Test
+    public void shouldRejectAnOrderForAFullScreeningBeforeReservingOrPaying() {
+        TicketServiceImpl underTest = screeningTicketService(screeningWithCapacity(1));
+
+        try {
+            underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID, new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS));
+            throw new AssertionError("Expected ScreeningSoldOutException");
+        } catch (ScreeningSoldOutException e) {
+            assertThat(e.getScreeningId(), is(SCREENING_ID));
+        }
+
+        verifyNoInteractions(seatReservationService, ticketPaymentService);
+    }
+
+    @Test
+    public void shouldReserveTheSeatsBeforePayingAndGiveThemBackToTheScreeningWhenThePaymentFails() {
+        SeatInventory seatInventory = screeningWithCapacity(10);
+        TicketServiceImpl underTest = screeningTicketService(seatInventory);
+        doThrow(new IllegalStateException("payment declined")).when(ticketPaymentService).makePayment(anyLong(), anyInt());
+
+        try {
+            underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID, new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS));
+            throw new AssertionError("Expected the payment to fail");
+        } catch (IllegalStateException e) {
+            assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(10));
+        }
+        InOrder inOrder = inOrder(seatReservationService, ticketPaymentService);
+        inOrder.verify(seatReservationService).reserveSeat(ACCOUNT_ID, NR_OF_ADULT_TICKETS);
+        inOrder.verify(ticketPaymentService).makePayment(anyLong(), anyInt());
+    }
+
+    @Test
+    public void shouldReturnTheAssignedSeatsTogetherWhenTheScreeningHasASeatMap() {
+        SeatMapInventory seatMapInventory = new SeatMapInventory();
+        seatMapInventory.addScreening(SCREENING_ID, 10, 12);
+        TicketServiceImpl underTest = screeningTicketService(seatMapInventory);
+
+        SeatAllocation result = underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID,
+                                                          new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS),
+                                                          new TicketTypeRequest(CHILD, NR_OF_CHILD_TICKETS),
+                                                          new TicketTypeRequest(INFANT, NR_OF_INFANT_TICKETS));
+
+        assertThat(result.getNrOfSeats(), is(NR_OF_ADULT_TICKETS + NR_OF_CHILD_TICKETS));
+        assertThat(result.isTogether(), is(true));
+        for (int seatId : result.getSeatIds()) {
+            assertThat(seatMapInventory.getSeatMap(SCREENING_ID).isTaken(seatId), is(true));
+        }
+    }
+
+    @Test
+    public void shouldJournalEachStageOfAPurchaseAndAFailedPayment() {
+        PurchaseJournal purchaseJournal = mock(PurchaseJournal.class);
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS)};
+        when(purchaseJournal.purchaseStarted(ACCOUNT_ID, ticketTypeRequests, 40)).thenReturn(7L, 8L);
+        TicketServiceImpl underTest = new TicketServiceImpl(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(),
+                                                            mock(PurchaseEventSink.class), new SeatInventory(), purchaseJournal);
+
+        underTest.purchaseTickets(ACCOUNT_ID, ticketTypeRequests);
+        doThrow(new IllegalStateException("payment declined")).when(ticketPaymentService).makePayment(anyLong(), anyInt());
+        try {
+            underTest.purchaseTickets(ACCOUNT_ID, ticketTypeRequests);
+            throw new AssertionError("Expected the payment to fail");
+        } catch (IllegalStateException e) {
+            verify(purchaseJournal).seatsReserved(7L);
+            verify(purchaseJournal).purchaseCompleted(7L);
+            verify(purchaseJournal).seatsReserved(8L);
+            verify(purchaseJournal).purchaseFailed(8L);
+            verify(purchaseJournal, never()).purchaseCompleted(8L);
+        }
+    }
+
+    @Test
+    public void shouldJournalThePaymentBetweenReservingTheSeatsAndCompletingThePurchase() {
+        PurchaseJournal purchaseJournal = mock(PurchaseJournal.class);
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS)};
+        when(purchaseJournal.purchaseStarted(ACCOUNT_ID, ticketTypeRequests, 40)).thenReturn(11L, 12L);
+        TicketServiceImpl underTest = new TicketServiceImpl(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(),
+                                                            mock(PurchaseEventSink.class), screeningWithCapacity(10),
+                                                            purchaseJournal);
+
+        underTest.purchaseTickets(ACCOUNT_ID, ticketTypeRequests);
+        underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID, ticketTypeRequests);
+
+        for (long purchaseId : new long[] {11L, 12L}) {
+            InOrder inOrder = inOrder(seatReservationService, ticketPaymentService, purchaseJournal);
+            inOrder.verify(purchaseJournal).seatsReserved(purchaseId);
+            inOrder.verify(ticketPaymentService).makePayment(ACCOUNT_ID, 40);
+            inOrder.verify(purchaseJournal).paymentTaken(purchaseId);
+            inOrder.verify(purchaseJournal).purchaseCompleted(purchaseId);
+        }
+    }
+
+    @Test
+    public void shouldNotChargeForAScreeningPurchaseWhoseSeatsCannotBeReserved() {
+        PurchaseJournal purchaseJournal = mock(PurchaseJournal.class);
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS)};
+        when(purchaseJournal.purchaseStarted(ACCOUNT_ID, ticketTypeRequests, 40)).thenReturn(9L);
+        SeatInventory seatInventory = screeningWithCapacity(10);
+        TicketServiceImpl underTest = new TicketServiceImpl(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(),
+                                                            mock(PurchaseEventSink.class), seatInventory, purchaseJournal);
+        doThrow(new IllegalStateException("seat booking down")).when(seatReservationService).reserveSeat(anyLong(), anyInt());
+
+        try {
+            underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID, ticketTypeRequests);
+            throw new AssertionError("Expected the reservation to fail");
+        } catch (IllegalStateException e) {
+            assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(10));
+            verify(purchaseJournal).purchaseFailed(9L);
+            verifyNoInteractions(ticketPaymentService);
+        }
+    }
+
+    @Test
+    public void shouldKeepTheSeatsAndLeaveThePurchaseOpenWhenThePaymentMayStillGoThrough() {
+        PurchaseJournal purchaseJournal = mock(PurchaseJournal.class);
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS)};
+        when(purchaseJournal.purchaseStarted(ACCOUNT_ID, ticketTypeRequests, 40)).thenReturn(10L);
+        SeatInventory seatInventory = screeningWithCapacity(10);
+        TicketServiceImpl underTest = new TicketServiceImpl(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(),
+                                                            mock(PurchaseEventSink.class), seatInventory, purchaseJournal);
+        doThrow(GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN)).when(ticketPaymentService)
+            .makePayment(anyLong(), anyInt());
+
+        try {
+            underTest.purchaseTickets(SCREENING_ID, ACCOUNT_ID, ticketTypeRequests);
+            throw new AssertionError("Expected the payment to time out");
+        } catch (GatewayUnavailableException e) {
+            assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(10 - NR_OF_ADULT_TICKETS));
+            verify(purchaseJournal).seatsReserved(10L);
+            verify(purchaseJournal, never()).purchaseFailed(10L);
+        }
+    }
+
+    @Test
+    public void shouldNotAllocateWhenPurchasingValidOrders() throws InterruptedException {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(ADULT, NR_OF_ADULT_TICKETS),
+                                                  new TicketTypeRequest(CHILD, NR_OF_CHILD_TICKETS),
+                                                  new TicketTypeRequest(INFANT, NR_OF_INFANT_TICKETS)};
+        try (TicketServiceImpl ticketService = new TicketServiceImpl((accountId, totalSeatsToAllocate) -> { },
+                                                                     (accountId, totalAmountToPay) -> { },
+                                                                     new TicketOrderEvaluator(), PurchaseEventSink.NONE)) {
+            purchaseRepeatedly(ticketService, ticketTypeRequests);
+
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            purchaseRepeatedly(ticketService, ticketTypeRequests);
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            assertThat(allocated, lessThan(ALLOWED_ALLOCATED_BYTES));
+        }
+    }
+
+    private void purchaseRepeatedly(TicketServiceImpl ticketService, TicketTypeRequest[] ticketTypeRequests) {
+        for (int i = 0; i < NR_OF_PURCHASES; i++) {
+            ticketService.purchaseTickets(ACCOUNT_ID, ticketTypeRequests);
+        }
+    }
+
+    private SeatInventory screeningWithCapacity(int capacity) {
+        SeatInventory seatInventory = new SeatInventory();
+        seatInventory.addScreening(SCREENING_ID, capacity);
+        return seatInventory;
+    }
+
+    private TicketServiceImpl screeningTicketService(SeatAllocator seatAllocator) {
+        return new TicketServiceImpl(seatReservationService, ticketPaymentService, new TicketOrderEvaluator(),
+                                     mock(PurchaseEventSink.class), seatAllocator);
+    }
+
     private void verifyNoCallsMadeToPaymentAndReservationServices(int nrOfAdultTickets, int expectedAmount) {
         verify(seatReservationService, never()).reserveSeat(ACCOUNT_ID, nrOfAdultTickets);
         verify(ticketPaymentService, never()).makePayment(ACCOUNT_ID, expectedAmount);
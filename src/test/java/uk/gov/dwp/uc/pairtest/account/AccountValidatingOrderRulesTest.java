@@ -0,0 +1,46 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+import uk.gov.dwp.uc.pairtest.validation.OrderRules;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class AccountValidatingOrderRulesTest {
+
+    public static final long CLOSED_ACCOUNT_ID = 3L;
+    public static final TicketTypeRequest ONE_ADULT = new TicketTypeRequest(ADULT, 1);
+    public static final TicketTypeRequest ONE_CHILD = new TicketTypeRequest(CHILD, 1);
+
+    private final AccountValidationService accountValidationService = mock(AccountValidationService.class);
+    private final TicketOrderEvaluator underTest
+        = new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.WITH_STACK_TRACE, TicketPricing.STANDARD,
+                                   new AccountValidatingOrderRules(OrderRules.STANDARD, accountValidationService));
+
+    @Test(expected = InvalidAccountNumberException.class)
+    public void shouldRejectAnAccountTheAccountSystemDoesNotKnow() {
+        when(accountValidationService.isValidAccount(CLOSED_ACCOUNT_ID)).thenReturn(false);
+
+        underTest.evaluate(CLOSED_ACCOUNT_ID, ONE_ADULT);
+    }
+
+    @Test
+    public void shouldOnlyLookUpTheAccountOfAnOrderThatKeepsToEveryOtherRule() {
+        when(accountValidationService.isValidAccount(1L)).thenReturn(true);
+
+        assertThat(underTest.evaluate(1L, ONE_ADULT, ONE_CHILD).getTotalCostOfTickets(),
+                   is(ADULT.getTicketCost() + CHILD.getTicketCost()));
+        TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+        assertThat(underTest.validate(1L, new TicketTypeRequest[] {ONE_CHILD}, evaluation).isValid(), is(false));
+
+        verify(accountValidationService, times(1)).isValidAccount(1L);
+    }
+}
@@ -0,0 +1,149 @@
+package uk.gov.dwp.uc.pairtest.account;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class CachingAccountValidationServiceTest {
+
+    public static final int NR_OF_THREADS = 8;
+
+    private final long[] now = {0};
+    private final AtomicBoolean oddAccountsValid = new AtomicBoolean(true);
+    private final LocalAccountValidationService accountSystem
+        = new LocalAccountValidationService(Duration.ZERO, accountId -> (accountId % 2 == 1) == oddAccountsValid.get());
+
+    @Test
+    public void shouldRememberValidAndInvalidAccountsForTheirOwnTimeToLive() {
+        CachingAccountValidationService underTest = cache(AccountCachePolicy.of(100, Duration.ofMinutes(1), Duration.ofSeconds(5)));
+
+        assertThat(underTest.isValidAccount(1), is(true));
+        assertThat(underTest.isValidAccount(2), is(false));
+        assertThat(underTest.isValidAccount(1), is(true));
+        assertThat(underTest.isValidAccount(2), is(false));
+        assertThat(accountSystem.getNrOfLookups(), is(2L));
+
+        now[0] += Duration.ofSeconds(6).toNanos();
+        assertThat(underTest.isValidAccount(1), is(true));
+        assertThat(underTest.isValidAccount(2), is(false));
+
+        assertThat(accountSystem.getNrOfLookups(), is(3L));
+        assertThat(underTest.getNrOfHits(), is(3L));
+        assertThat(underTest.getNrOfMisses(), is(3L));
+        assertThat(underTest.isValidAccount(0), is(false));
+        assertThat(accountSystem.getNrOfLookups(), is(3L));
+    }
+
+    @Test
+    public void shouldRefreshAnAccountAheadOfItsExpiryWhileStillAnsweringFromTheCache() {
+        CachingAccountValidationService underTest = cache(AccountCachePolicy.of(100, Duration.ofMinutes(1), Duration.ofSeconds(30))
+                                                                            .withRefreshAhead(Duration.ofSeconds(10)));
+        assertThat(underTest.isValidAccount(1), is(true));
+        oddAccountsValid.set(false);
+
+        now[0] += Duration.ofSeconds(49).toNanos();
+        assertThat(underTest.isValidAccount(1), is(true));
+        assertThat(underTest.getNrOfRefreshes(), is(0L));
+
+        now[0] += Duration.ofSeconds(2).toNanos();
+        assertThat(underTest.isValidAccount(1), is(true));
+        assertThat(underTest.getNrOfRefreshes(), is(1L));
+        assertThat(underTest.isValidAccount(1), is(false));
+
+        assertThat(underTest.getNrOfLoads(), is(1L));
+        assertThat(underTest.getNrOfMisses(), is(1L));
+    }
+
+    @Test
+    public void shouldLookUpAnAccountOnceForAllTheThreadsThatMissAtTheSameTime() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger nrOfLookups = new AtomicInteger();
+        CachingAccountValidationService underTest = new CachingAccountValidationService(accountId -> {
+            nrOfLookups.incrementAndGet();
+            await(release);
+            return true;
+        }, AccountCachePolicy.of(100, Duration.ofMinutes(1), Duration.ofSeconds(5)), Runnable::run);
+        ExecutorService executor = Executors.newFixedThreadPool(NR_OF_THREADS);
+        try {
+            List<Future<Boolean>> checks = new ArrayList<>();
+            for (int i = 0; i < NR_OF_THREADS; i++) {
+                checks.add(executor.submit(() -> underTest.isValidAccount(7)));
+            }
+            while (underTest.getNrOfMisses() < NR_OF_THREADS) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<Boolean> check : checks) {
+                assertThat(check.get(10, TimeUnit.SECONDS), is(true));
+            }
+            assertThat(nrOfLookups.get(), is(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotRememberAFailedLookup() {
+        AtomicBoolean accountSystemDown = new AtomicBoolean(true);
+        CachingAccountValidationService underTest = new CachingAccountValidationService(accountId -> {
+            if (accountSystemDown.get()) {
+                throw new IllegalStateException("account system unavailable");
+            }
+            return true;
+        }, AccountCachePolicy.of(100, Duration.ofMinutes(1), Duration.ofSeconds(5)), Runnable::run);
+
+        try {
+            underTest.isValidAccount(3);
+            fail("Expected the lookup to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("account system unavailable"));
+        }
+        accountSystemDown.set(false);
+
+        assertThat(underTest.isValidAccount(3), is(true));
+        assertThat(underTest.size(), is(1));
+    }
+
+    @Test
+    public void shouldForgetAnAccountOnlyLookedUpOnceBeforeOneInRegularUseWhenFull() {
+        CachingAccountValidationService underTest = cache(AccountCachePolicy.of(2, Duration.ofMinutes(1), Duration.ofMinutes(1)));
+        underTest.isValidAccount(1);
+        underTest.isValidAccount(2);
+        underTest.isValidAccount(1);
+
+        underTest.isValidAccount(3);
+        assertThat(underTest.size(), is(2));
+        underTest.isValidAccount(1);
+        underTest.isValidAccount(3);
+        assertThat(accountSystem.getNrOfLookups(), is(3L));
+
+        underTest.isValidAccount(2);
+        assertThat(accountSystem.getNrOfLookups(), is(4L));
+    }
+
+    private CachingAccountValidationService cache(AccountCachePolicy policy) {
+        return new CachingAccountValidationService(accountSystem, policy, Runnable::run, 1, () -> now[0]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -126,4 +126,15 @@ public class CinemaTicketsConsoleAdaptorTest {
         verify(ticketService).purchaseTickets(ACCOUNT_NUMBER, CHILD_TICKET_TYPE_REQUEST, INFANT_TICKET_TYPE_REQUEST);
         assertThat(outputStreamCaptor.toString().trim(), Is.is("Tickets ordering failed - no adult tickets were ordered"));
     }
+
+    @Test
+    public void shouldSayWhichTicketNumberCouldNotBeReadWithoutCallingTheTicketService() {
+        try {
+            underTest.processPurchase(ACCOUNT_NUMBER, List.of("1", "two", "0"));
+            throw new AssertionError("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), Is.is("Could not read the number of child tickets: NOT_A_NUMBER"));
+        }
+        verifyNoInteractions(ticketService);
+    }
 }
@@ -0,0 +1,163 @@
+package uk.gov.dwp.uc.pairtest.adaptors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyOrdersException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class CinemaTicketsHttpAdaptorTest {
+
+    public static final int SOCKET_TIMEOUT_MILLIS = 10_000;
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private final ExecutorService purchaseExecutor = Executors.newFixedThreadPool(4);
+    private final CinemaTicketsHttpAdaptor underTest = new CinemaTicketsHttpAdaptor(ticketService, purchaseExecutor);
+    private Socket socket;
+
+    @Before
+    public void start() throws IOException {
+        underTest.start(new InetSocketAddress("localhost", 0));
+        socket = new Socket("localhost", underTest.getPort());
+        socket.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+    }
+
+    @After
+    public void stop() throws Exception {
+        socket.close();
+        underTest.close();
+        purchaseExecutor.shutdownNow();
+    }
+
+    @Test
+    public void shouldPurchaseAJsonOrderAndKeepTheConnectionOpen() throws IOException {
+        send(post("application/json", "{\"accountId\": 1002, \"adults\": 2, \"children\": 3, \"infants\": 1}"));
+        assertThat(readResponse(), is("HTTP/1.1 200 OK|{\"outcome\":\"PURCHASED\"}"));
+
+        send(post("text/csv", "1003,1,0,0\n"));
+        assertThat(readResponse(), is("HTTP/1.1 200 OK|{\"outcome\":\"PURCHASED\"}"));
+
+        verify(ticketService).purchaseTickets(1002L, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 3),
+                                              new TicketTypeRequest(INFANT, 1));
+        verify(ticketService).purchaseTickets(1003L, new TicketTypeRequest(ADULT, 1));
+    }
+
+    @Test
+    public void shouldAnswerPipelinedRequestsInTheOrderTheyCameIn() throws Exception {
+        CountDownLatch firstPurchaseMayFinish = new CountDownLatch(1);
+        doAnswer(invocation -> firstPurchaseMayFinish.await(SOCKET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+            .when(ticketService).purchaseTickets(eq(1L), any());
+        doThrow(new InvalidAccountNumberException()).when(ticketService).purchaseTickets(eq(2L), any());
+
+        send(post("application/json", "{\"accountId\":1,\"adults\":1}")
+             + post("application/json", "{\"accountId\":2,\"adults\":1}")
+             + "GET /nowhere HTTP/1.1\r\n\r\n");
+        verify(ticketService, timeout(SOCKET_TIMEOUT_MILLIS)).purchaseTickets(eq(2L), any());
+        firstPurchaseMayFinish.countDown();
+
+        assertThat(readResponse(), is("HTTP/1.1 200 OK|{\"outcome\":\"PURCHASED\"}"));
+        assertThat(readResponse(), is("HTTP/1.1 422 Unprocessable Content|{\"outcome\":\"INVALID_ACCOUNT_NUMBER\"}"));
+        assertThat(readResponse(), is("HTTP/1.1 404 Not Found|{\"error\":\"Not Found\"}"));
+    }
+
+    @Test
+    public void shouldAnswerABinaryOrderWithTheOrdinalOfItsOutcome() throws IOException {
+        doThrow(TooManyOrdersException.stackless()).when(ticketService).purchaseTickets(eq(7L), any());
+        byte[] order = ByteBuffer.allocate(CinemaTicketsHttpAdaptor.BINARY_ORDER_LENGTH).putLong(7L).putInt(1).putInt(0).putInt(0)
+                                 .array();
+
+        send("POST /purchases HTTP/1.1\r\nContent-Type: application/octet-stream\r\nContent-Length: " + order.length + "\r\n\r\n");
+        socket.getOutputStream().write(order);
+
+        assertThat(readResponse(), is("HTTP/1.1 429 Too Many Requests|" + (char) HttpPurchaseOutcome.TOO_MANY_ORDERS.ordinal()));
+    }
+
+    @Test
+    public void shouldAnswerAPurchaseThatThrowsAnErrorAsFailedAndCarryOn() throws IOException {
+        doThrow(new AssertionError("Purchase went wrong")).when(ticketService).purchaseTickets(eq(1L), any());
+
+        send(post("application/json", "{\"accountId\":1,\"adults\":1}"));
+        assertThat(readResponse(), is("HTTP/1.1 502 Bad Gateway|{\"outcome\":\"FAILED\"}"));
+
+        send(post("application/json", "{\"accountId\":2,\"adults\":1}"));
+        assertThat(readResponse(), is("HTTP/1.1 200 OK|{\"outcome\":\"PURCHASED\"}"));
+    }
+
+    @Test
+    public void shouldRejectAMalformedOrderWithoutPurchasingAndCloseWhenAsked() throws IOException {
+        send(post("application/json", "{\"accountId\":1,\"adults\":\"two\"}"));
+        assertThat(readResponse(), is("HTTP/1.1 400 Bad Request|{\"outcome\":\"MALFORMED\"}"));
+
+        send("POST /purchases HTTP/1.1\r\nContent-Type: application/xml\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+        assertThat(readResponse(), is("HTTP/1.1 415 Unsupported Media Type|{\"error\":\"Unsupported Media Type\"}"));
+        assertThat(socket.getInputStream().read(), is(-1));
+
+        verifyNoInteractions(ticketService);
+    }
+
+    private static String post(String contentType, String body) {
+        return "POST /purchases HTTP/1.1\r\nHost: localhost\r\nContent-Type: " + contentType + "\r\nContent-Length: "
+               + body.length() + "\r\n\r\n" + body;
+    }
+
+    private void send(String request) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    /**
+     * @return the status line and the body, separated by a bar
+     */
+    private String readResponse() throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        String statusLine = readLine(in);
+        int contentLength = 0;
+        String header;
+        while (!(header = readLine(in)).isEmpty()) {
+            if (header.startsWith("Content-Length: ")) {
+                contentLength = Integer.parseInt(header.substring("Content-Length: ".length()));
+            }
+        }
+        byte[] body = new byte[contentLength];
+        in.readFully(body);
+        return statusLine + "|" + new String(body, StandardCharsets.US_ASCII);
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Connection closed in the middle of a response");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,111 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class AsyncTicketServiceImplTest {
+
+    public static final Long ACCOUNT_ID = 1L;
+    public static final int MAXIMUM_IN_FLIGHT = 1;
+
+    private final SeatReservationService seatReservationService = mock(SeatReservationService.class);
+    private final TicketPaymentService ticketPaymentService = mock(TicketPaymentService.class);
+    private final QueueingExecutor executor = new QueueingExecutor();
+    private final AsyncTicketServiceImpl underTest = new AsyncTicketServiceImpl(seatReservationService, ticketPaymentService,
+                                                                                executor, MAXIMUM_IN_FLIGHT, Duration.ZERO);
+
+    @Test
+    public void shouldReserveAndPayOnTheExecutor() {
+        CompletableFuture<PurchaseResult> result = underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 2),
+                                                                             new TicketTypeRequest(INFANT, 1));
+
+        verifyNoInteractions(seatReservationService, ticketPaymentService);
+        executor.runQueuedTasks();
+
+        assertThat(result.join().isPurchased(), is(true));
+        verify(seatReservationService).reserveSeat(ACCOUNT_ID, 2);
+        verify(ticketPaymentService).makePayment(ACCOUNT_ID, 40);
+    }
+
+    @Test
+    public void shouldRejectAnInvalidOrderWithoutUsingTheExecutor() {
+        PurchaseResult result = underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(CHILD, 2)).join();
+
+        assertThat(result.getStatus(), is(PurchaseResult.Status.REJECTED));
+        assertThat(result.getCause(), instanceOf(NoAdultTicketsRequestedException.class));
+        assertThat(executor.queuedTasks.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldFailAnOrderWhenTheInFlightLimitIsReached() {
+        CompletableFuture<PurchaseResult> first = underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 1));
+
+        PurchaseResult second = underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 1)).join();
+
+        assertThat(second.getStatus(), is(PurchaseResult.Status.FAILED));
+        assertThat(second.getCause(), instanceOf(RejectedExecutionException.class));
+        executor.runQueuedTasks();
+        assertThat(first.join().isPurchased(), is(true));
+    }
+
+    @Test
+    public void shouldReleaseTheInFlightPermitWhenAPurchaseCompletes() {
+        underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 1));
+        assertThat(underTest.getAvailableInFlightPermits(), is(0));
+
+        executor.runQueuedTasks();
+
+        assertThat(underTest.getAvailableInFlightPermits(), is(MAXIMUM_IN_FLIGHT));
+    }
+
+    @Test
+    public void shouldFailTheOrderAndTakeNoPaymentWhenTheReservationFails() {
+        RuntimeException gatewayError = new IllegalStateException("seat booking unavailable");
+        doThrow(gatewayError).when(seatReservationService).reserveSeat(anyLong(), anyInt());
+
+        CompletableFuture<PurchaseResult> result = underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 1));
+        executor.runQueuedTasks();
+
+        assertThat(result.join().getStatus(), is(PurchaseResult.Status.FAILED));
+        assertThat(result.join().getCause(), is(gatewayError));
+        verifyNoInteractions(ticketPaymentService);
+        assertThat(underTest.getAvailableInFlightPermits(), is(MAXIMUM_IN_FLIGHT));
+    }
+
+    private static final class QueueingExecutor implements Executor {
+
+        private final List<Runnable> queuedTasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            queuedTasks.add(task);
+        }
+
+        private void runQueuedTasks() {
+            List<Runnable> tasks = new ArrayList<>(queuedTasks);
+            queuedTasks.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package uk.gov.dwp.uc.pairtest.async;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator.ExceptionMode;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class ExecutorTicketServiceTest {
+
+    public static final Long ACCOUNT_ID = 1L;
+    public static final int MAXIMUM_IN_FLIGHT = 4;
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private ExecutorTicketService underTest;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (underTest != null) {
+            underTest.close();
+        }
+    }
+
+    @Test
+    public void shouldPurchaseOnAPlatformThreadAndReportTheSeatsAndCost() {
+        underTest = new ExecutorTicketService(ticketService, ExecutionMode.PLATFORM_THREADS, MAXIMUM_IN_FLIGHT, Duration.ZERO);
+        TicketTypeRequest adultRequest = new TicketTypeRequest(ADULT, 2);
+        TicketTypeRequest infantRequest = new TicketTypeRequest(INFANT, 1);
+
+        PurchaseResult result = underTest.purchaseTickets(ACCOUNT_ID, adultRequest, infantRequest).join();
+
+        assertThat(result.isPurchased(), is(true));
+        assertThat(result.getTotalNrOfReservations(), is(2));
+        assertThat(result.getTotalCostOfTickets(), is(40));
+        verify(ticketService).purchaseTickets(ACCOUNT_ID, adultRequest, infantRequest);
+    }
+
+    @Test
+    public void shouldReportTheCostWithTheEvaluatorOfTheTicketService() {
+        TicketPricing halfPrice = (screeningId, nrOfAdultTickets, nrOfChildTickets, nrOfInfantTickets) ->
+            TicketPricing.STANDARD.getTotalCost(screeningId, nrOfAdultTickets, nrOfChildTickets, nrOfInfantTickets) / 2;
+        TicketOrderEvaluator ticketOrderEvaluator = new TicketOrderEvaluator(ExceptionMode.WITH_STACK_TRACE, halfPrice);
+        underTest = new ExecutorTicketService(ticketService, ticketOrderEvaluator, ExecutionMode.PLATFORM_THREADS,
+                                              MAXIMUM_IN_FLIGHT, Duration.ZERO);
+
+        PurchaseResult result = underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 2)).join();
+
+        assertThat(result.getTotalCostOfTickets(), is(20));
+    }
+
+    @Test
+    public void shouldReportAnInvalidPurchaseAsRejectedWithoutCallingTheTicketService() {
+        underTest = new ExecutorTicketService(ticketService, ExecutionMode.PLATFORM_THREADS, MAXIMUM_IN_FLIGHT, Duration.ZERO);
+        TicketTypeRequest adultRequest = new TicketTypeRequest(ADULT, 1);
+
+        PurchaseResult result = underTest.purchaseTickets(-1L, adultRequest).join();
+
+        assertThat(result.getStatus(), is(PurchaseResult.Status.REJECTED));
+        assertThat(result.getCause(), instanceOf(InvalidAccountNumberException.class));
+        verifyNoInteractions(ticketService);
+    }
+
+    @Test
+    public void shouldRunEachPurchaseOnAVirtualThreadWhenSupported() {
+        Assume.assumeTrue(PurchaseExecutors.isVirtualThreadsSupported());
+        underTest = new ExecutorTicketService(ticketService, ExecutionMode.VIRTUAL_THREADS, MAXIMUM_IN_FLIGHT, Duration.ZERO);
+        TicketTypeRequest adultRequest = new TicketTypeRequest(ADULT, 1);
+        boolean[] ranOnVirtualThread = new boolean[1];
+        doAnswer(invocation -> {
+            ranOnVirtualThread[0] = Thread.currentThread().toString().startsWith("VirtualThread");
+            return null;
+        }).when(ticketService).purchaseTickets(ACCOUNT_ID, adultRequest);
+
+        underTest.purchaseTickets(ACCOUNT_ID, adultRequest).join();
+
+        assertThat(ranOnVirtualThread[0], is(true));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotSilentlyFallBackToPlatformThreadsWhenVirtualThreadsAreAskedFor() {
+        Assume.assumeTrue(!PurchaseExecutors.isVirtualThreadsSupported());
+        underTest = new ExecutorTicketService(ticketService, mock(ExecutorService.class), MAXIMUM_IN_FLIGHT, Duration.ZERO);
+
+        PurchaseExecutors.newExecutor(ExecutionMode.VIRTUAL_THREADS, MAXIMUM_IN_FLIGHT);
+    }
+}
@@ -0,0 +1,135 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+
+import java.util.List;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class BatchTicketServiceImplTest {
+
+    private final SeatReservationService seatReservationService = mock(SeatReservationService.class);
+    private final TicketPaymentService ticketPaymentService = mock(TicketPaymentService.class);
+    private final BatchSeatReservationService batchSeatReservationService = mock(BatchSeatReservationService.class);
+    private final BatchTicketPaymentService batchTicketPaymentService = mock(BatchTicketPaymentService.class);
+
+    @Test
+    public void shouldReserveAndPayForEveryValidOrder() {
+        BatchTicketServiceImpl underTest = new BatchTicketServiceImpl(seatReservationService, ticketPaymentService);
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(
+            new TicketOrder(1L, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(INFANT, 1)),
+            new TicketOrder(2L, new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(CHILD, 2))));
+
+        assertThat(results.get(0).isPurchased(), is(true));
+        assertThat(results.get(1).isPurchased(), is(true));
+        verify(seatReservationService).reserveSeat(1L, 2);
+        verify(ticketPaymentService).makePayment(1L, 40);
+        verify(seatReservationService).reserveSeat(2L, 3);
+        verify(ticketPaymentService).makePayment(2L, 40);
+    }
+
+    @Test
+    public void shouldRejectInvalidOrdersWithoutFailingTheRestOfTheBatch() {
+        BatchTicketServiceImpl underTest = new BatchTicketServiceImpl(seatReservationService, ticketPaymentService);
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(
+            new TicketOrder(-1L, new TicketTypeRequest(ADULT, 2)),
+            new TicketOrder(2L, new TicketTypeRequest(CHILD, 2)),
+            new TicketOrder(3L, new TicketTypeRequest(ADULT, 1))));
+
+        assertThat(results.get(0).getStatus(), is(PurchaseResult.Status.REJECTED));
+        assertThat(results.get(0).getCause(), instanceOf(InvalidAccountNumberException.class));
+        assertThat(results.get(1).getStatus(), is(PurchaseResult.Status.REJECTED));
+        assertThat(results.get(1).getCause(), instanceOf(NoAdultTicketsRequestedException.class));
+        assertThat(results.get(2).getStatus(), is(PurchaseResult.Status.PURCHASED));
+        verify(seatReservationService).reserveSeat(3L, 1);
+        verify(ticketPaymentService).makePayment(3L, 20);
+        verifyNoMoreInteractions(seatReservationService, ticketPaymentService);
+    }
+
+    @Test
+    public void shouldSendValidOrdersToTheGatewaysInBatchesOfTheConfiguredSize() {
+        BatchTicketServiceImpl underTest = new BatchTicketServiceImpl(batchSeatReservationService, batchTicketPaymentService, 2);
+
+        underTest.purchaseTickets(List.of(new TicketOrder(1L, new TicketTypeRequest(ADULT, 1)),
+                                          new TicketOrder(2L, new TicketTypeRequest(ADULT, 1)),
+                                          new TicketOrder(3L, new TicketTypeRequest(ADULT, 1))));
+
+        verify(batchSeatReservationService).reserveSeats(any(long[].class), any(int[].class), eq(2), any(RuntimeException[].class));
+        verify(batchSeatReservationService).reserveSeats(any(long[].class), any(int[].class), eq(1), any(RuntimeException[].class));
+        verify(batchTicketPaymentService).makePayments(any(long[].class), any(int[].class), eq(2), any(RuntimeException[].class));
+        verify(batchTicketPaymentService).makePayments(any(long[].class), any(int[].class), eq(1), any(RuntimeException[].class));
+    }
+
+    @Test
+    public void shouldFailOnlyTheBatchWhoseReservationFailedAndTakeNoPaymentForIt() {
+        RuntimeException gatewayError = new IllegalStateException("seat booking unavailable");
+        doThrow(gatewayError).doNothing().when(batchSeatReservationService)
+            .reserveSeats(any(long[].class), any(int[].class), anyInt(), any(RuntimeException[].class));
+        BatchTicketServiceImpl underTest = new BatchTicketServiceImpl(batchSeatReservationService, batchTicketPaymentService, 1);
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(new TicketOrder(1L, new TicketTypeRequest(ADULT, 1)),
+                                                                         new TicketOrder(2L, new TicketTypeRequest(ADULT, 1))));
+
+        assertThat(results.get(0).getStatus(), is(PurchaseResult.Status.FAILED));
+        assertThat(results.get(0).getCause(), is(gatewayError));
+        assertThat(results.get(1).getStatus(), is(PurchaseResult.Status.PURCHASED));
+        verify(batchTicketPaymentService, times(1))
+            .makePayments(any(long[].class), any(int[].class), anyInt(), any(RuntimeException[].class));
+    }
+
+    @Test
+    public void shouldFailOnlyTheOrderWhoseReservationWasTurnedDownAndTakeNoPaymentForIt() {
+        RuntimeException turnedDown = new IllegalStateException("not enough seats");
+        doThrow(turnedDown).when(seatReservationService).reserveSeat(2L, 1);
+        BatchTicketServiceImpl underTest = new BatchTicketServiceImpl(seatReservationService, ticketPaymentService);
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(new TicketOrder(1L, new TicketTypeRequest(ADULT, 1)),
+                                                                         new TicketOrder(2L, new TicketTypeRequest(ADULT, 1)),
+                                                                         new TicketOrder(3L, new TicketTypeRequest(ADULT, 1))));
+
+        assertThat(results.get(0).getStatus(), is(PurchaseResult.Status.PURCHASED));
+        assertThat(results.get(1).getStatus(), is(PurchaseResult.Status.FAILED));
+        assertThat(results.get(1).getCause(), is(turnedDown));
+        assertThat(results.get(2).getStatus(), is(PurchaseResult.Status.PURCHASED));
+        verify(ticketPaymentService).makePayment(1L, 20);
+        verify(ticketPaymentService).makePayment(3L, 20);
+        verify(ticketPaymentService, never()).makePayment(eq(2L), anyInt());
+    }
+
+    @Test
+    public void shouldFailOnlyTheOrderWhosePaymentWasTurnedDown() {
+        RuntimeException declined = new IllegalStateException("card declined");
+        doThrow(declined).when(ticketPaymentService).makePayment(1L, 20);
+        BatchTicketServiceImpl underTest = new BatchTicketServiceImpl(seatReservationService, ticketPaymentService);
+
+        List<PurchaseResult> results = underTest.purchaseTickets(List.of(new TicketOrder(1L, new TicketTypeRequest(ADULT, 1)),
+                                                                         new TicketOrder(2L, new TicketTypeRequest(ADULT, 2))));
+
+        assertThat(results.get(0).getStatus(), is(PurchaseResult.Status.FAILED));
+        assertThat(results.get(0).getCause(), is(declined));
+        assertThat(results.get(1).getStatus(), is(PurchaseResult.Status.PURCHASED));
+        verify(ticketPaymentService).makePayment(2L, 40);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowABatchSizeLessThanOne() {
+        new BatchTicketServiceImpl(batchSeatReservationService, batchTicketPaymentService, 0);
+    }
+}
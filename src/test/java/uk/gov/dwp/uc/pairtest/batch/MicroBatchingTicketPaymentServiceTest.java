@@ -0,0 +1,133 @@
+package uk.gov.dwp.uc.pairtest.batch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class MicroBatchingTicketPaymentServiceTest {
+
+    public static final Duration NEVER = Duration.ofHours(1);
+
+    private final List<String> sentBatches = new CopyOnWriteArrayList<>();
+    private final BatchTicketPaymentService recordingGateway = (accountIds, totalAmountsToPay, count, failures) -> {
+        StringJoiner batch = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            batch.add(accountIds[i] + ":" + totalAmountsToPay[i]);
+        }
+        sentBatches.add(batch.toString());
+    };
+
+    private MicroBatchingTicketPaymentService underTest;
+
+    @After
+    public void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void shouldSendThePaymentsAsOneBatchOnceTheBatchIsFull() {
+        underTest = new MicroBatchingTicketPaymentService(recordingGateway, PaymentBatchingPolicy.of(3, NEVER));
+
+        CompletableFuture<Void> first = underTest.submitPayment(1L, 40);
+        CompletableFuture<Void> second = underTest.submitPayment(2L, 25);
+        CompletableFuture<Void> third = underTest.submitPayment(3L, 10);
+        CompletableFuture.allOf(first, second, third).join();
+
+        assertThat(sentBatches, contains("1:40,2:25,3:10"));
+        assertThat(underTest.getNrOfBatches(), is(1L));
+    }
+
+    @Test
+    public void shouldSendAPartBatchOnceItsFirstPaymentHasWaitedTheMaximumDelay() {
+        underTest = new MicroBatchingTicketPaymentService(recordingGateway, PaymentBatchingPolicy.of(100, Duration.ofMillis(20)));
+
+        underTest.makePayment(1L, 40);
+
+        assertThat(sentBatches, contains("1:40"));
+    }
+
+    @Test
+    public void shouldMergeThePaymentsForEachAccountIntoOneCharge() {
+        underTest = new MicroBatchingTicketPaymentService(recordingGateway,
+                                                          PaymentBatchingPolicy.of(5, NEVER).withMergedAccounts());
+
+        underTest.submitPayment(1L, 10);
+        underTest.submitPayment(2L, 5);
+        underTest.submitPayment(1L, 20);
+        underTest.submitPayment(2L, Integer.MAX_VALUE);
+        underTest.submitPayment(3L, 1).join();
+
+        assertThat(sentBatches, contains("1:30,2:5,2:" + Integer.MAX_VALUE + ",3:1"));
+        assertThat(underTest.getNrOfPayments(), is(5L));
+        assertThat(underTest.getNrOfCharges(), is(4L));
+    }
+
+    @Test
+    public void shouldFailEveryPaymentInABatchTheGatewayFailed() {
+        IllegalStateException gatewayFailure = new IllegalStateException("Payment provider unavailable");
+        underTest = new MicroBatchingTicketPaymentService((accountIds, totalAmountsToPay, count, failures) -> {
+            throw gatewayFailure;
+        }, PaymentBatchingPolicy.of(2, NEVER));
+
+        CompletableFuture<Void> first = underTest.submitPayment(1L, 40);
+        try {
+            underTest.makePayment(2L, 25);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e, sameInstance(gatewayFailure));
+        }
+        assertThat(first.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void shouldFailOnlyThePaymentsInTheChargeTheGatewayTurnedDown() {
+        IllegalStateException declined = new IllegalStateException("Card declined");
+        underTest = new MicroBatchingTicketPaymentService((accountIds, totalAmountsToPay, count, failures) -> {
+            for (int i = 0; i < count; i++) {
+                if (accountIds[i] == 2L) {
+                    failures[i] = declined;
+                }
+            }
+        }, PaymentBatchingPolicy.of(4, NEVER).withMergedAccounts());
+
+        CompletableFuture<Void> first = underTest.submitPayment(1L, 40);
+        CompletableFuture<Void> second = underTest.submitPayment(2L, 25);
+        CompletableFuture<Void> third = underTest.submitPayment(3L, 10);
+        CompletableFuture<Void> fourth = underTest.submitPayment(2L, 5);
+        try {
+            fourth.join();
+            fail();
+        } catch (CompletionException e) {
+            assertThat(e.getCause(), sameInstance(declined));
+        }
+
+        assertThat(first.isCompletedExceptionally(), is(false));
+        assertThat(second.isCompletedExceptionally(), is(true));
+        assertThat(third.isCompletedExceptionally(), is(false));
+        CompletableFuture.allOf(first, third).join();
+    }
+
+    @Test
+    public void shouldSendThePaymentsAlreadyCollectedWhenClosed() {
+        underTest = new MicroBatchingTicketPaymentService(recordingGateway, PaymentBatchingPolicy.of(100, NEVER));
+        CompletableFuture<Void> payment = underTest.submitPayment(1L, 40);
+
+        underTest.close();
+
+        assertThat(payment.isDone(), is(true));
+        assertThat(sentBatches, contains("1:40"));
+        assertThat(underTest.submitPayment(2L, 25).isCompletedExceptionally(), is(true));
+    }
+}
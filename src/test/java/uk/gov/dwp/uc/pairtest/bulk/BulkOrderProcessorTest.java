@@ -0,0 +1,134 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BulkOrderProcessorTest {
+
+    public static final int NR_OF_WORKERS = 3;
+    public static final int BATCH_SIZE = 2;
+    public static final int BUFFER_SIZE = 32;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final TicketPaymentService ticketPaymentService = mock(TicketPaymentService.class);
+    private final TicketService ticketService = new TicketServiceImpl(new SeatReservationServiceImpl(), ticketPaymentService,
+                                                                      new TicketOrderEvaluator(), PurchaseEventSink.NONE);
+    private final BulkOrderProcessor underTest = new BulkOrderProcessor(ticketService, NR_OF_WORKERS, BATCH_SIZE, BUFFER_SIZE);
+
+    @Test
+    public void shouldWriteTheOutcomeOfEachCsvOrderInTheOrderOfTheFile() throws IOException {
+        Path orders = write("orders.csv", "account,adult,child,infant\n"
+                                          + "1,2,1,1\n"
+                                          + "# comment\n"
+                                          + "0,1,0,0\r\n"
+                                          + "\n"
+                                          + "2,0,3,0\n"
+                                          + "3,x,1,1\n"
+                                          + " 4 , 15 , 6 , 0 \n"
+                                          + "5,1,0,0,0\n"
+                                          + "6,0,0,0");
+        Path results = temporaryFolder.getRoot().toPath().resolve("results.csv");
+
+        BulkOrderSummary summary = underTest.process(orders, results);
+
+        assertThat(Files.readAllLines(results), is(List.of("2,1,PURCHASED",
+                                                           "4,0,INVALID_ACCOUNT_NUMBER",
+                                                           "6,2,NO_ADULT_TICKETS_REQUESTED",
+                                                           "7,,MALFORMED",
+                                                           "8,4,MAXIMUM_NR_OF_TICKETS_EXCEEDED",
+                                                           "9,,MALFORMED",
+                                                           "10,6,NO_TICKETS_ORDERED")));
+        assertThat(summary.getNrOfOrders(), is(7L));
+        assertThat(summary.getNrOfOrders(BulkOrderOutcome.MALFORMED), is(2L));
+        assertThat(summary.getNrOfOrders(BulkOrderOutcome.PURCHASED), is(1L));
+    }
+
+    @Test
+    public void shouldReadBinaryOrdersAndReportAShortLastRecordAsMalformed() throws IOException {
+        ByteBuffer records = ByteBuffer.allocate((2 * BinaryOrderParser.RECORD_LENGTH) + 5);
+        records.putLong(1L).putInt(2).putInt(0).putInt(1);
+        records.putLong(-1L).putInt(1).putInt(0).putInt(0);
+        records.put(new byte[5]);
+        Path orders = temporaryFolder.getRoot().toPath().resolve("orders.bin");
+        Files.write(orders, records.array());
+        Path results = temporaryFolder.getRoot().toPath().resolve("results.csv");
+
+        underTest.process(orders, results);
+
+        assertThat(Files.readAllLines(results), is(List.of("1,1,PURCHASED", "2,-1,INVALID_ACCOUNT_NUMBER", "3,,MALFORMED")));
+    }
+
+    @Test
+    public void shouldReportALineLongerThanTheReadBufferAsMalformedAndCarryOn() throws IOException {
+        Path orders = write("orders.csv", "1,1,0,0\n" + "2,1,0," + "0".repeat(2 * BUFFER_SIZE) + "\n" + "3,1,0,0\n");
+        Path results = temporaryFolder.getRoot().toPath().resolve("results.csv");
+
+        underTest.process(orders, results);
+
+        assertThat(Files.readAllLines(results), is(List.of("1,1,PURCHASED", "2,,MALFORMED", "3,3,PURCHASED")));
+    }
+
+    @Test
+    public void shouldReportAnOrderAsFailedWhenTheGatewayFails() throws IOException {
+        doThrow(new IllegalStateException("payment declined")).when(ticketPaymentService).makePayment(eq(2L), anyInt());
+        Path orders = write("orders.csv", "1,1,0,0\n2,1,0,0\n3,1,0,0\n");
+        Path results = temporaryFolder.getRoot().toPath().resolve("results.csv");
+
+        BulkOrderSummary summary = underTest.process(orders, results);
+
+        assertThat(Files.readAllLines(results), is(List.of("1,1,PURCHASED", "2,2,FAILED", "3,3,PURCHASED")));
+        assertThat(summary.getNrOfOrders(BulkOrderOutcome.FAILED), is(1L));
+    }
+
+    @Test
+    public void shouldKeepTheResultsInFileOrderWhenPurchasingInParallel() throws IOException {
+        int nrOfOrders = 100_000;
+        Path orders = temporaryFolder.getRoot().toPath().resolve("orders.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(orders)) {
+            for (int i = 1; i <= nrOfOrders; i++) {
+                writer.write(i + "," + ((i % 5) + 1) + ",1,0\n");
+            }
+        }
+        Path results = temporaryFolder.getRoot().toPath().resolve("results.csv");
+
+        BulkOrderSummary summary = new BulkOrderProcessor(ticketService, NR_OF_WORKERS).process(orders, results);
+
+        List<String> lines = Files.readAllLines(results);
+        assertThat(lines.size(), is(nrOfOrders));
+        for (int i = 1; i <= nrOfOrders; i++) {
+            assertThat(lines.get(i - 1), is(i + "," + i + ",PURCHASED"));
+        }
+        assertThat(summary.getNrOfOrders(BulkOrderOutcome.PURCHASED), is((long) nrOfOrders));
+    }
+
+    private Path write(String fileName, String contents) throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve(fileName);
+        Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+}
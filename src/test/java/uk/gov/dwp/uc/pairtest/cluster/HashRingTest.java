@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class HashRingTest {
+
+    public static final int NR_OF_SCREENINGS = 100_000;
+
+    private final HashRing underTest = HashRing.of(HashRing.DEFAULT_VIRTUAL_NODES_PER_NODE, 0, 1, 2, 3);
+
+    @Test
+    public void shouldGiveEachNodeAboutAnEvenShareOfTheScreenings() {
+        int[] nrOfScreeningsByNode = new int[4];
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            nrOfScreeningsByNode[underTest.ownerOf(screeningId)]++;
+        }
+
+        for (int nrOfScreenings : nrOfScreeningsByNode) {
+            assertThat(nrOfScreenings, is(greaterThan(NR_OF_SCREENINGS / 5)));
+            assertThat(nrOfScreenings, is(lessThan(NR_OF_SCREENINGS * 3 / 10)));
+        }
+    }
+
+    @Test
+    public void shouldSpreadTheFirstScreeningIdsOverEveryNode() {
+        int[] nrOfScreeningsByNode = new int[4];
+        for (long screeningId = 0; screeningId < 100; screeningId++) {
+            nrOfScreeningsByNode[underTest.ownerOf(screeningId)]++;
+        }
+
+        for (int nrOfScreenings : nrOfScreeningsByNode) {
+            assertThat(nrOfScreenings, is(greaterThan(10)));
+        }
+    }
+
+    @Test
+    public void shouldOnlyMoveScreeningsToANodeThatJoins() {
+        HashRing withNode = underTest.withNode(4);
+
+        int moved = 0;
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            int owner = underTest.ownerOf(screeningId);
+            int newOwner = withNode.ownerOf(screeningId);
+            if (newOwner != owner) {
+                assertThat(newOwner, is(4));
+                moved++;
+            }
+        }
+        assertThat(moved, is(greaterThan(NR_OF_SCREENINGS / 7)));
+        assertThat(moved, is(lessThan(NR_OF_SCREENINGS / 4)));
+    }
+
+    @Test
+    public void shouldOnlyMoveTheScreeningsOfANodeThatLeaves() {
+        HashRing withoutNode = underTest.withoutNode(2);
+
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            int owner = underTest.ownerOf(screeningId);
+            if (owner != 2) {
+                assertThat(withoutNode.ownerOf(screeningId), is(owner));
+            }
+        }
+        assertThat(withoutNode.contains(2), is(false));
+    }
+}
@@ -0,0 +1,205 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class LocalClusterTest {
+
+    public static final int NR_OF_SCREENINGS = 60;
+    public static final int CAPACITY = 10;
+
+    private LocalCluster underTest;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (underTest != null) {
+            underTest.close();
+        }
+    }
+
+    @Test
+    public void shouldSellAScreeningThroughItsOwnerFromAnyNode() throws IOException {
+        underTest = new LocalCluster(3);
+        long screeningId = 42L;
+        underTest.getNode(0).addScreening(screeningId, CAPACITY);
+        ClusterNode owner = underTest.getNode(underTest.getRing().ownerOf(screeningId));
+        ClusterNode other = underTest.getNode((owner.getNodeId() + 1) % 3);
+
+        SeatAllocation seatAllocation = other.purchaseTickets(screeningId, 1L, new TicketTypeRequest(ADULT, 2),
+                                                              new TicketTypeRequest(INFANT, 1));
+
+        assertThat(seatAllocation.getNrOfSeats(), is(2));
+        assertThat(owner.holdsScreening(screeningId), is(true));
+        assertThat(owner.getRemainingSeats(screeningId), is(8));
+        assertThat(other.holdsScreening(screeningId), is(false));
+        assertThat(other.getNrOfForwardedPurchases(), is(1L));
+    }
+
+    @Test
+    public void shouldThrowTheOwnersRejectionOnTheForwardingNode() throws IOException {
+        underTest = new LocalCluster(2);
+        long screeningId = screeningOwnedBy(1);
+        underTest.getNode(1).addScreening(screeningId, 1);
+        ClusterNode forwarder = underTest.getNode(0);
+
+        assertThat(purchaseExpectingRejection(forwarder, screeningId, 0L, new TicketTypeRequest(ADULT, 1)),
+                   is(instanceOf(InvalidAccountNumberException.class)));
+        MaximumNrOfTicketsAllowedExceededException tooManyTickets = (MaximumNrOfTicketsAllowedExceededException)
+            purchaseExpectingRejection(forwarder, screeningId, 1L, new TicketTypeRequest(ADULT, 15), new TicketTypeRequest(INFANT, 6));
+        assertThat(tooManyTickets.getNrOfTicketsOrdered(), is(21));
+        ScreeningSoldOutException soldOut = (ScreeningSoldOutException) purchaseExpectingRejection(
+            forwarder, screeningId, 1L, new TicketTypeRequest(ADULT, 2));
+        assertThat(soldOut.getScreeningId(), is(screeningId));
+        assertThat(soldOut.getNrOfSeatsRequested(), is(2));
+        UnknownScreeningException unknown = (UnknownScreeningException) purchaseExpectingRejection(
+            forwarder, screeningId + 1, 1L, new TicketTypeRequest(ADULT, 1));
+        assertThat(unknown.getScreeningId(), is(screeningId + 1));
+    }
+
+    @Test
+    public void shouldMoveScreeningsWithTheirRemainingSeatsWhenNodesJoinAndLeave() throws Exception {
+        underTest = new LocalCluster(2);
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            underTest.getNode(0).addScreening(screeningId, CAPACITY);
+            underTest.getNode(1).purchaseTickets(screeningId, 1L, new TicketTypeRequest(ADULT, 3));
+        }
+
+        ClusterNode joined = underTest.addNode();
+
+        assertThat(joined.getNrOfScreenings(), is(greaterThan(0)));
+        assertEveryScreeningIsHeldByItsOwnerWithSeatsLeft(CAPACITY - 3);
+
+        underTest.removeNode(0);
+
+        assertEveryScreeningIsHeldByItsOwnerWithSeatsLeft(CAPACITY - 3);
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            assertThat(joined.purchaseTickets(screeningId, 1L, new TicketTypeRequest(ADULT, 7)).getNrOfSeats(), is(7));
+        }
+        assertEveryScreeningIsHeldByItsOwnerWithSeatsLeft(0);
+    }
+
+    @Test
+    public void shouldKeepSellingTheScreeningsItCouldNotMove() throws Exception {
+        underTest = new LocalCluster(1);
+        ClusterNode node = underTest.getNode(0);
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            node.addScreening(screeningId, CAPACITY);
+        }
+        InetSocketAddress unreachable;
+        try (ServerSocket closedSocket = new ServerSocket(0)) {
+            unreachable = new InetSocketAddress(InetAddress.getLoopbackAddress(), closedSocket.getLocalPort());
+        }
+        ClusterView viewWithUnreachableNode = new ClusterView(underTest.getRing().withNode(1),
+                                                              Map.of(0, unreachable, 1, unreachable));
+
+        try {
+            node.updateView(viewWithUnreachableNode);
+            throw new AssertionError("Expected the move to the unreachable node to fail");
+        } catch (UncheckedIOException e) {
+            assertThat(node.getNrOfScreenings(), is(NR_OF_SCREENINGS));
+            assertThat(node.getNrOfScreeningsMoved(), is(0L));
+            for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+                assertThat(node.getRemainingSeats(screeningId), is(CAPACITY));
+            }
+        }
+    }
+
+    @Test
+    public void shouldLetAPurchaseUnderWayFinishBeforeMovingItsScreening() throws Exception {
+        CountDownLatch paymentStarted = new CountDownLatch(1);
+        CountDownLatch paymentMayFail = new CountDownLatch(1);
+        TicketPaymentService decliningPayment = (accountId, totalAmountToPay) -> {
+            paymentStarted.countDown();
+            try {
+                paymentMayFail.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Payment declined");
+        };
+        try (ClusterNode newOwner = new ClusterNode(0, new SeatReservationServiceImpl(), new TicketPaymentServiceImpl(), 1);
+             ClusterNode oldOwner = new ClusterNode(1, new SeatReservationServiceImpl(), decliningPayment, 1)) {
+            InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+            ClusterView view = new ClusterView(HashRing.of(HashRing.DEFAULT_VIRTUAL_NODES_PER_NODE, 0, 1),
+                                               Map.of(0, newOwner.start(loopback), 1, oldOwner.start(loopback)));
+            long screeningId = 0;
+            while (view.getRing().ownerOf(screeningId) != 0) {
+                screeningId++;
+            }
+            long movedScreeningId = screeningId;
+            oldOwner.addScreening(movedScreeningId, CAPACITY);
+            CompletableFuture<SeatAllocation> purchase = CompletableFuture.supplyAsync(
+                () -> oldOwner.purchaseTickets(movedScreeningId, 1L, new TicketTypeRequest(ADULT, 2)));
+            assertThat(paymentStarted.await(5, TimeUnit.SECONDS), is(true));
+
+            CompletableFuture<Void> move = CompletableFuture.runAsync(() -> oldOwner.updateView(view));
+            Thread.sleep(50);
+            assertThat(move.isDone(), is(false));
+            paymentMayFail.countDown();
+            move.get(5, TimeUnit.SECONDS);
+
+            assertThat(purchase.isCompletedExceptionally(), is(true));
+            assertThat(oldOwner.holdsScreening(movedScreeningId), is(false));
+            assertThat(newOwner.getRemainingSeats(movedScreeningId), is(CAPACITY));
+        }
+    }
+
+    private static InvalidPurchaseException purchaseExpectingRejection(ClusterNode node, long screeningId, Long accountId,
+                                                                       TicketTypeRequest... ticketTypeRequests) {
+        try {
+            node.purchaseTickets(screeningId, accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+        throw new AssertionError("Expected an InvalidPurchaseException");
+    }
+
+    private long screeningOwnedBy(int nodeId) {
+        long screeningId = 0;
+        while (underTest.getRing().ownerOf(screeningId) != nodeId) {
+            screeningId++;
+        }
+        return screeningId;
+    }
+
+    private void assertEveryScreeningIsHeldByItsOwnerWithSeatsLeft(int remainingSeats) {
+        int nrOfScreenings = 0;
+        for (ClusterNode node : underTest.getNodes()) {
+            nrOfScreenings += node.getNrOfScreenings();
+        }
+        assertThat(nrOfScreenings, is(NR_OF_SCREENINGS));
+        for (long screeningId = 0; screeningId < NR_OF_SCREENINGS; screeningId++) {
+            ClusterNode owner = underTest.getNode(underTest.getRing().ownerOf(screeningId));
+            assertThat(owner.holdsScreening(screeningId), is(true));
+            assertThat(owner.getRemainingSeats(screeningId), is(remainingSeats));
+        }
+    }
+}
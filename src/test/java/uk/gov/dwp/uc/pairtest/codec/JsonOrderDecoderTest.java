@@ -0,0 +1,46 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class JsonOrderDecoderTest {
+
+    private final JsonOrderDecoder underTest = new JsonOrderDecoder();
+    private final DecodedOrder decodedOrder = new DecodedOrder();
+
+    @Test
+    public void shouldDecodeTheFieldsInAnyOrderTakingMissingTicketCountsAsZero() {
+        assertThat(decode(" {\"infants\" : 1,\n \"accountId\":1002, \"adults\":2} "), is(DecodeResult.DECODED));
+
+        assertThat(decodedOrder.getAccountId(), is(1002L));
+        assertThat(decodedOrder.getNrOfAdultTickets(), is(2));
+        assertThat(decodedOrder.getNrOfChildTickets(), is(0));
+        assertThat(decodedOrder.getNrOfInfantTickets(), is(1));
+    }
+
+    @Test
+    public void shouldReportWhatIsWrongWithAnOrderThatCannotBeDecoded() {
+        assertDecodeFails("{\"adults\":2}", DecodeResult.MISSING_FIELD, DecodedOrder.ACCOUNT_ID_FIELD);
+        assertDecodeFails("{\"accountId\":1,\"children\":2.5}", DecodeResult.NOT_A_NUMBER, 2);
+        assertDecodeFails("{\"accountId\":1,\"adults\":\"2\"}", DecodeResult.NOT_A_NUMBER, 1);
+        assertDecodeFails("{\"accountId\":1,\"adults\":2147483648}", DecodeResult.OUT_OF_RANGE, 1);
+        assertDecodeFails("{\"accountId\":1,\"seniors\":2}", DecodeResult.UNKNOWN_FIELD, DecodedOrder.NR_OF_FIELDS);
+        assertDecodeFails("{\"accountId\":1,}", DecodeResult.MALFORMED, DecodedOrder.NR_OF_FIELDS);
+        assertDecodeFails("{\"accountId\":1} x", DecodeResult.MALFORMED, DecodedOrder.NR_OF_FIELDS);
+        assertDecodeFails("[1,2,0,0]", DecodeResult.MALFORMED, DecodedOrder.NR_OF_FIELDS);
+    }
+
+    private void assertDecodeFails(String order, DecodeResult expectedResult, int expectedFailedField) {
+        assertThat(order, decode(order), is(expectedResult));
+        assertThat(order, decodedOrder.getFailedField(), is(expectedFailedField));
+    }
+
+    private DecodeResult decode(String order) {
+        byte[] bytes = order.getBytes(StandardCharsets.US_ASCII);
+        return underTest.decode(bytes, 0, bytes.length, decodedOrder);
+    }
+}
@@ -0,0 +1,135 @@
+package uk.gov.dwp.uc.pairtest.codec;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.sun.management.ThreadMXBean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class OrderDecoderTest {
+
+    public static final int NR_OF_DECODES = 200_000;
+    public static final long ALLOWED_ALLOCATED_BYTES = 1024;
+
+    private final OrderDecoder underTest = new OrderDecoder();
+    private final DecodedOrder decodedOrder = new DecodedOrder();
+
+    @Test
+    public void shouldDecodeEachFieldFromADirectBufferWithoutMovingItsPosition() {
+        ByteBuffer buffer = directBuffer("xx1002,2, 3 ,1yy");
+
+        DecodeResult result = underTest.decode(buffer, 2, buffer.limit() - 2, decodedOrder);
+
+        assertThat(result, is(DecodeResult.DECODED));
+        assertThat(decodedOrder.getAccountId(), is(1002L));
+        assertThat(decodedOrder.getNrOfAdultTickets(), is(2));
+        assertThat(decodedOrder.getNrOfChildTickets(), is(3));
+        assertThat(decodedOrder.getNrOfInfantTickets(), is(1));
+        assertThat(decodedOrder.getFailedField(), is(-1));
+        assertThat(buffer.position(), is(0));
+    }
+
+    @Test
+    public void shouldDecodeTheWholeRangeOfAccountIds() {
+        assertThat(decode(Long.MIN_VALUE + ",1,0,0"), is(DecodeResult.DECODED));
+        assertThat(decodedOrder.getAccountId(), is(Long.MIN_VALUE));
+        assertThat(decode(Long.MAX_VALUE + ",1,0,0"), is(DecodeResult.DECODED));
+        assertThat(decodedOrder.getAccountId(), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldReportWhichFieldCouldNotBeDecodedAndWhy() {
+        assertDecodeFails("1,2,3", DecodeResult.MISSING_FIELD, 3);
+        assertDecodeFails("1,,3,4", DecodeResult.MISSING_FIELD, 1);
+        assertDecodeFails("1,2,x,4", DecodeResult.NOT_A_NUMBER, 2);
+        assertDecodeFails("1,2,3,-", DecodeResult.NOT_A_NUMBER, 3);
+        assertDecodeFails("1,2 2,3,4", DecodeResult.NOT_A_NUMBER, 1);
+        assertDecodeFails("9223372036854775808,1,0,0", DecodeResult.OUT_OF_RANGE, 0);
+        assertDecodeFails("1,2147483648,0,0", DecodeResult.OUT_OF_RANGE, 1);
+        assertDecodeFails("1,2,3,4,5", DecodeResult.TOO_MANY_FIELDS, 4);
+        assertDecodeFails("", DecodeResult.MISSING_FIELD, 1);
+    }
+
+    @Test
+    public void shouldDecodeTheEdgesOfTheRangeTheSameFromBytesAndFromSeparateFields() {
+        assertDecodesTheSameBothWays(List.of(" " + Long.MAX_VALUE + " ", "1", "0", "0"), DecodeResult.DECODED, -1);
+        assertDecodesTheSameBothWays(List.of(Long.toString(Long.MIN_VALUE), "1", "0", "0"), DecodeResult.DECODED, -1);
+        assertDecodesTheSameBothWays(List.of("9223372036854775808", "1", "0", "0"), DecodeResult.OUT_OF_RANGE, 0);
+        assertDecodesTheSameBothWays(List.of("-9223372036854775809", "1", "0", "0"), DecodeResult.OUT_OF_RANGE, 0);
+        assertDecodesTheSameBothWays(List.of("99999999999999999999", "1", "0", "0"), DecodeResult.OUT_OF_RANGE, 0);
+        assertDecodesTheSameBothWays(List.of("1", "2147483647", "-2147483648", "0"), DecodeResult.DECODED, -1);
+        assertDecodesTheSameBothWays(List.of("1", "2147483648", "0", "0"), DecodeResult.OUT_OF_RANGE, 1);
+        assertDecodesTheSameBothWays(List.of("1", "1", "-2147483649", "0"), DecodeResult.OUT_OF_RANGE, 2);
+        assertDecodesTheSameBothWays(List.of("1", "1", "0", " - "), DecodeResult.NOT_A_NUMBER, 3);
+    }
+
+    @Test
+    public void shouldDecodeSeparateFieldsAsGivenOnTheCommandLine() {
+        assertThat(underTest.decode(List.of("7", "1", "-2", "0"), decodedOrder), is(DecodeResult.DECODED));
+        assertThat(decodedOrder.getAccountId(), is(7L));
+        assertThat(decodedOrder.getNrOfChildTickets(), is(-2));
+
+        assertThat(underTest.decodeTicketCounts(List.of("1", "2"), decodedOrder), is(DecodeResult.MISSING_FIELD));
+        assertThat(decodedOrder.getFailedField(), is(3));
+        assertThat(underTest.decodeTicketCounts(List.of("1", "two", "3"), decodedOrder), is(DecodeResult.NOT_A_NUMBER));
+        assertThat(DecodedOrder.describeField(decodedOrder.getFailedField()), is("number of child tickets"));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenDecodingIntoAReusedOrder() {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ByteBuffer buffer = directBuffer("123456789,4,3,2");
+        decodeRepeatedly(buffer);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        decodeRepeatedly(buffer);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertThat(allocated, lessThan(ALLOWED_ALLOCATED_BYTES));
+    }
+
+    private void assertDecodesTheSameBothWays(List<String> fields, DecodeResult expectedResult, int expectedFailedField) {
+        String order = String.join(",", fields);
+        assertThat(order, decode(order), is(expectedResult));
+        assertThat(order, decodedOrder.getFailedField(), is(expectedFailedField));
+
+        DecodedOrder fromFields = new DecodedOrder();
+        assertThat(order, underTest.decode(fields, fromFields), is(expectedResult));
+        assertThat(order, fromFields.getFailedField(), is(expectedFailedField));
+        if (!expectedResult.isDecoded()) {
+            return;
+        }
+        assertThat(order, fromFields.getAccountId(), is(decodedOrder.getAccountId()));
+        assertThat(order, fromFields.getNrOfAdultTickets(), is(decodedOrder.getNrOfAdultTickets()));
+        assertThat(order, fromFields.getNrOfChildTickets(), is(decodedOrder.getNrOfChildTickets()));
+    }
+
+    private void assertDecodeFails(String order, DecodeResult expectedResult, int expectedFailedField) {
+        assertThat(order, decode(order), is(expectedResult));
+        assertThat(order, decodedOrder.getFailedField(), is(expectedFailedField));
+    }
+
+    private DecodeResult decode(String order) {
+        byte[] bytes = order.getBytes(StandardCharsets.US_ASCII);
+        return underTest.decode(bytes, 0, bytes.length, decodedOrder);
+    }
+
+    private void decodeRepeatedly(ByteBuffer buffer) {
+        for (int i = 0; i < NR_OF_DECODES; i++) {
+            underTest.decode(buffer, 0, buffer.limit(), decodedOrder);
+        }
+    }
+
+    private static ByteBuffer directBuffer(String contents) {
+        byte[] bytes = contents.getBytes(StandardCharsets.US_ASCII);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+}
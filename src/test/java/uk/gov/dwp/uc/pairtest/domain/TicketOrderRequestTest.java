@@ -0,0 +1,47 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+public class TicketOrderRequestTest {
+
+    private final TicketOrderRequest underTest = new TicketOrderRequest(2, 3, 1);
+
+    @Test
+    public void shouldBeEqualToAnOrderForTheSameNumbersOfTickets() {
+        assertThat(underTest, is(new TicketOrderRequest(2, 3, 1)));
+        assertThat(underTest.hashCode(), is(new TicketOrderRequest(2, 3, 1).hashCode()));
+        assertThat(underTest, is(not(new TicketOrderRequest(2, 1, 3))));
+        assertThat(underTest.toString(), is("TicketOrderRequest[requestedNrTicketsForAdult=2,requestedNrTicketsForChild=3,"
+                                            + "requestedNrTicketsForInfant=1]"));
+    }
+
+    @Test
+    public void shouldTakeAMissingCountAsNoTickets() {
+        TicketOrderRequest result = new TicketOrderRequest(1, null, null);
+
+        assertThat(result, is(new TicketOrderRequest(1, 0, 0)));
+    }
+
+    @Test
+    public void shouldPackTheCountsIntoALongAndBackAgain() {
+        int maximum = TicketOrderRequest.MAXIMUM_PACKED_NR_OF_TICKETS;
+        TicketOrderRequest largest = new TicketOrderRequest(maximum, 0, maximum);
+
+        assertThat(TicketOrderRequest.fromPackedCounts(underTest.toPackedCounts()), is(underTest));
+        assertThat(TicketOrderRequest.fromPackedCounts(largest.toPackedCounts()), is(largest));
+        assertThat(underTest.toPackedCounts(), is(TicketOrderRequest.packCounts(2, 3, 1)));
+        assertThat(underTest.toPackedCounts(), is(not(new TicketOrderRequest(2, 1, 3).toPackedCounts())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotPackANegativeCount() {
+        TicketOrderRequest negative = new TicketOrderRequest(1, -1, 0);
+
+        assertThat(negative.isPackable(), is(false));
+        negative.toPackedCounts();
+    }
+}
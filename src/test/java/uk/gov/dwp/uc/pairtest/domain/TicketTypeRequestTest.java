@@ -3,6 +3,7 @@ package uk.gov.dwp.uc.pairtest.domain;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.*;
 
 public class TicketTypeRequestTest {
@@ -39,4 +40,14 @@ public class TicketTypeRequestTest {
         assertThat(result, is(expected));
     }
 
+    @Test
+    public void shouldBeEqualToARequestForTheSameNumberOfTicketsOfTheSameType() {
+        TicketTypeRequest underTest = new TicketTypeRequest(TicketTypeRequest.Type.CHILD, NR_OF_TICKETS);
+
+        assertThat(underTest, is(new TicketTypeRequest(TicketTypeRequest.Type.CHILD, NR_OF_TICKETS)));
+        assertThat(underTest.hashCode(), is(new TicketTypeRequest(TicketTypeRequest.Type.CHILD, NR_OF_TICKETS).hashCode()));
+        assertThat(underTest, is(not(new TicketTypeRequest(TicketTypeRequest.Type.INFANT, NR_OF_TICKETS))));
+        assertThat(underTest, is(not(new TicketTypeRequest(TicketTypeRequest.Type.CHILD, NR_OF_TICKETS + 1))));
+        assertThat(underTest.toString(), is("TicketTypeRequest[noOfTickets=2,type=CHILD]"));
+    }
 }
@@ -0,0 +1,115 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class AsyncFilePurchaseEventSinkTest {
+
+    public static final int CAPACITY = 8;
+    public static final int WRITE_BUFFER_SIZE = 512;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteEachEventAsAJsonLine() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("events.jsonl");
+
+        try (AsyncFilePurchaseEventSink underTest = new AsyncFilePurchaseEventSink(file)) {
+            underTest.ticketsPurchased(1L, 3, 2, 40);
+            underTest.purchaseRejected(2L, ValidationResult.MAXIMUM_NR_OF_TICKETS_EXCEEDED, 20, 25);
+            underTest.purchaseRejected(-3L, ValidationResult.INVALID_ACCOUNT_NUMBER, 0, 0);
+        }
+
+        List<String> lines = withoutTimestamps(Files.readAllLines(file));
+        assertThat(lines, is(List.of(
+            "\"event\":\"TICKETS_PURCHASED\",\"accountId\":1,\"tickets\":3,\"seats\":2,\"cost\":40}",
+            "\"event\":\"PURCHASE_REJECTED\",\"reason\":\"MAXIMUM_NR_OF_TICKETS_EXCEEDED\",\"accountId\":2,\"tickets\":25,"
+            + "\"maximumAllowed\":20}",
+            "\"event\":\"PURCHASE_REJECTED\",\"reason\":\"INVALID_ACCOUNT_NUMBER\",\"accountId\":-3,\"tickets\":0}")));
+    }
+
+    @Test
+    public void shouldWriteEveryEventWhenTheyOverflowTheWriteBuffer() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("events.jsonl");
+        int nrOfEvents = 10_000;
+
+        try (AsyncFilePurchaseEventSink underTest = new AsyncFilePurchaseEventSink(file, 1 << 16, WRITE_BUFFER_SIZE,
+                                                                                    DropPolicy.DROP_NEWEST)) {
+            for (int i = 0; i < nrOfEvents; i++) {
+                underTest.ticketsPurchased(i, 1, 1, 20);
+            }
+            assertThat(underTest.getDroppedEvents(), is(0L));
+        }
+
+        assertThat(Files.readAllLines(file).size(), is(nrOfEvents));
+    }
+
+    @Test
+    public void shouldDropNewEventsWhenTheBufferIsFull() throws IOException, InterruptedException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("events.jsonl");
+        CountDownLatch writerMayStart = new CountDownLatch(1);
+
+        try (AsyncFilePurchaseEventSink underTest = new AsyncFilePurchaseEventSink(
+            file, CAPACITY, WRITE_BUFFER_SIZE, DropPolicy.DROP_NEWEST, heldBackUntil(writerMayStart))) {
+            for (int i = 0; i < CAPACITY + 3; i++) {
+                underTest.ticketsPurchased(i, 1, 1, 20);
+            }
+            assertThat(underTest.getDroppedEvents(), is(3L));
+            writerMayStart.countDown();
+        }
+
+        assertThat(Files.readAllLines(file).size(), is(CAPACITY));
+    }
+
+    @Test
+    public void shouldDropRejectionsBeforePurchasesWhenDroppingRejectionsFirst() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("events.jsonl");
+        CountDownLatch writerMayStart = new CountDownLatch(1);
+
+        try (AsyncFilePurchaseEventSink underTest = new AsyncFilePurchaseEventSink(
+            file, CAPACITY, WRITE_BUFFER_SIZE, DropPolicy.DROP_REJECTIONS_FIRST, heldBackUntil(writerMayStart))) {
+            for (int i = 0; i < CAPACITY; i++) {
+                underTest.purchaseRejected(i, ValidationResult.NO_TICKETS_ORDERED, 0, 0);
+            }
+            underTest.ticketsPurchased(100L, 1, 1, 20);
+            underTest.ticketsPurchased(101L, 1, 1, 20);
+
+            assertThat(underTest.getDroppedEvents(), is((long) CAPACITY / 4));
+            writerMayStart.countDown();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines.size(), is(CAPACITY));
+        assertThat(lines.stream().filter(line -> line.contains("TICKETS_PURCHASED")).count(), is(2L));
+    }
+
+    private static ThreadFactory heldBackUntil(CountDownLatch latch) {
+        return runnable -> new Thread(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runnable.run();
+        });
+    }
+
+    private static List<String> withoutTimestamps(List<String> lines) {
+        return lines.stream().map(line -> line.substring(line.indexOf(',') + 1)).collect(Collectors.toList());
+    }
+}
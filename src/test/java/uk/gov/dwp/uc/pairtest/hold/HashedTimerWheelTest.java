@@ -0,0 +1,150 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class HashedTimerWheelTest {
+
+    public static final long TICK_NANOS = Duration.ofMillis(10).toNanos();
+    public static final int TICKS_PER_WHEEL = 8;
+
+    private final List<String> expired = new ArrayList<>();
+    private final HashedTimerWheel underTest = new HashedTimerWheel(Duration.ofNanos(TICK_NANOS), TICKS_PER_WHEEL, () -> 0L,
+                                                                    null);
+
+    @Test
+    public void shouldExpireATimeoutOnTheTickItIsDue() {
+        underTest.schedule(new RecordingTimeout("a"), Duration.ofNanos(3 * TICK_NANOS));
+
+        underTest.advanceTo(3 * TICK_NANOS);
+        assertThat(expired, is(List.of()));
+
+        underTest.advanceTo(4 * TICK_NANOS);
+        assertThat(expired, is(List.of("a")));
+        assertThat(underTest.getPendingTimeouts(), is(0L));
+    }
+
+    @Test
+    public void shouldCountDownTheTurnsOfTheWheelForALongTimeout() {
+        long delay = ((2L * TICKS_PER_WHEEL) + 1) * TICK_NANOS;
+        underTest.schedule(new RecordingTimeout("long"), Duration.ofNanos(delay));
+        underTest.schedule(new RecordingTimeout("short"), Duration.ofNanos(TICK_NANOS));
+
+        underTest.advanceTo(delay);
+        assertThat(expired, is(List.of("short")));
+
+        underTest.advanceTo(delay + TICK_NANOS);
+        assertThat(expired, is(List.of("short", "long")));
+    }
+
+    @Test
+    public void shouldNotExpireACancelledTimeout() {
+        RecordingTimeout cancelled = new RecordingTimeout("cancelled");
+        RecordingTimeout kept = new RecordingTimeout("kept");
+        underTest.schedule(cancelled, Duration.ofNanos(TICK_NANOS));
+        underTest.schedule(kept, Duration.ofNanos(TICK_NANOS));
+        underTest.advanceTo(TICK_NANOS);
+
+        assertThat(cancelled.cancel(), is(true));
+        underTest.advanceTo(10 * TICK_NANOS);
+
+        assertThat(expired, is(List.of("kept")));
+        assertThat(cancelled.cancel(), is(false));
+        assertThat(kept.cancel(), is(false));
+        assertThat(underTest.getPendingTimeouts(), is(0L));
+    }
+
+    @Test
+    public void shouldDropATimeoutCancelledBeforeTheWorkerHasSeenIt() {
+        RecordingTimeout timeout = new RecordingTimeout("a");
+        underTest.schedule(timeout, Duration.ofNanos(TICK_NANOS));
+
+        timeout.cancel();
+        underTest.advanceTo(2 * TICK_NANOS);
+
+        assertThat(expired, is(List.of()));
+        assertThat(underTest.getPendingTimeouts(), is(0L));
+    }
+
+    @Test
+    public void shouldExpireThePendingTimeoutsWhenClosed() throws InterruptedException {
+        RecordingTimeout cancelled = new RecordingTimeout("cancelled");
+        underTest.schedule(new RecordingTimeout("seen"), Duration.ofNanos(100 * TICK_NANOS));
+        underTest.advanceTo(TICK_NANOS);
+        underTest.schedule(new RecordingTimeout("unseen"), Duration.ofNanos(100 * TICK_NANOS));
+        underTest.schedule(cancelled, Duration.ofNanos(100 * TICK_NANOS));
+        cancelled.cancel();
+
+        underTest.close();
+
+        assertThat(expired, is(List.of("unseen", "seen")));
+        assertThat(underTest.getPendingTimeouts(), is(0L));
+    }
+
+    @Test
+    public void shouldExpireTimeoutsOnTheWorkerThread() throws InterruptedException {
+        CountDownLatch expiredLatch = new CountDownLatch(1);
+        try (HashedTimerWheel wheel = new HashedTimerWheel(Duration.ofMillis(1), TICKS_PER_WHEEL)) {
+            wheel.schedule(new HashedTimerWheel.Timeout() {
+                @Override
+                protected void expired() {
+                    expiredLatch.countDown();
+                }
+            }, Duration.ofMillis(5));
+
+            assertThat(expiredLatch.await(5, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    @Test
+    public void shouldKeepExpiringTimeoutsAfterOneThrows() throws InterruptedException {
+        CountDownLatch expiredLatch = new CountDownLatch(1);
+        List<Throwable> reported = new CopyOnWriteArrayList<>();
+        IllegalStateException failure = new IllegalStateException("expiry failed");
+        try (HashedTimerWheel wheel = new HashedTimerWheel(Duration.ofMillis(1), TICKS_PER_WHEEL, System::nanoTime, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+            return thread;
+        })) {
+            wheel.schedule(new HashedTimerWheel.Timeout() {
+                @Override
+                protected void expired() {
+                    throw failure;
+                }
+            }, Duration.ofMillis(2));
+            wheel.schedule(new HashedTimerWheel.Timeout() {
+                @Override
+                protected void expired() {
+                    expiredLatch.countDown();
+                }
+            }, Duration.ofMillis(20));
+
+            assertThat(expiredLatch.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(reported, is(List.of(failure)));
+        }
+    }
+
+    private final class RecordingTimeout extends HashedTimerWheel.Timeout {
+
+        private final String name;
+
+        private RecordingTimeout(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void expired() {
+            expired.add(name);
+        }
+    }
+}
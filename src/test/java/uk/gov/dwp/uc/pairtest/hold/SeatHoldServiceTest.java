@@ -0,0 +1,129 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.exception.SeatHoldExpiredException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+
+import java.time.Duration;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class SeatHoldServiceTest {
+
+    public static final long SCREENING_ID = 3L;
+    public static final long ACCOUNT_ID = 1L;
+    public static final int CAPACITY = 10;
+    public static final Duration TICK = Duration.ofSeconds(1);
+    public static final Duration TIME_TO_LIVE = Duration.ofSeconds(30);
+
+    private final SeatInventory seatInventory = new SeatInventory();
+    private final SeatReservationService seatReservationService = mock(SeatReservationService.class);
+    private final HashedTimerWheel timerWheel = new HashedTimerWheel(TICK, 64, () -> 0L, null);
+    private final SeatHoldService underTest = new SeatHoldService(seatInventory, seatReservationService, timerWheel);
+
+    public SeatHoldServiceTest() {
+        seatInventory.addScreening(SCREENING_ID, CAPACITY);
+    }
+
+    @Test
+    public void shouldTakeTheSeatsWhenHoldingWithoutReservingThem() {
+        underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY - 4));
+        verifyNoInteractions(seatReservationService);
+    }
+
+    @Test
+    public void shouldReserveTheSeatsWithTheGatewayWhenConfirmed() {
+        SeatHold hold = underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+
+        SeatAllocation result = underTest.confirm(hold);
+
+        assertThat(result.getNrOfSeats(), is(4));
+        verify(seatReservationService).reserveSeat(ACCOUNT_ID, 4);
+        expireEverything();
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY - 4));
+    }
+
+    @Test
+    public void shouldGiveTheSeatsBackWhenTheHoldExpires() {
+        underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+
+        expireEverything();
+
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY));
+        assertThat(underTest.getExpiredHolds(), is(1L));
+    }
+
+    @Test(expected = SeatHoldExpiredException.class)
+    public void shouldThrowSeatHoldExpiredExceptionWhenConfirmingAnExpiredHold() {
+        SeatHold hold = underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+        expireEverything();
+
+        underTest.confirm(hold);
+    }
+
+    @Test
+    public void shouldGiveTheSeatsBackOnlyOnceWhenReleasedAndThenExpired() {
+        SeatHold hold = underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+
+        underTest.release(hold);
+        underTest.release(hold);
+        expireEverything();
+
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY));
+        assertThat(underTest.getExpiredHolds(), is(0L));
+        assertThat(timerWheel.getPendingTimeouts(), is(0L));
+    }
+
+    @Test
+    public void shouldGiveTheSeatsBackWhenTheGatewayFailsToReserveThem() {
+        doThrow(new IllegalStateException("seat booking unavailable")).when(seatReservationService)
+            .reserveSeat(anyLong(), anyInt());
+        SeatHold hold = underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+
+        try {
+            underTest.confirm(hold);
+            throw new AssertionError("Expected the reservation to fail");
+        } catch (IllegalStateException e) {
+            assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY));
+        }
+    }
+
+    @Test
+    public void shouldGiveTheSeatsOfAConfirmedHoldBackOnlyOnce() {
+        SeatHold hold = underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+        underTest.confirm(hold);
+
+        underTest.release(hold);
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY - 4));
+        underTest.releaseConfirmed(hold);
+        underTest.releaseConfirmed(hold);
+
+        assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY));
+    }
+
+    @Test
+    public void shouldGiveTheSeatsBackWhenTheHoldCannotBeScheduled() throws InterruptedException {
+        timerWheel.close();
+
+        try {
+            underTest.hold(SCREENING_ID, ACCOUNT_ID, 4, TIME_TO_LIVE);
+            throw new AssertionError("Expected the hold to fail");
+        } catch (IllegalStateException e) {
+            assertThat(seatInventory.getRemainingSeats(SCREENING_ID), is(CAPACITY));
+        }
+    }
+
+    private void expireEverything() {
+        timerWheel.advanceTo(TIME_TO_LIVE.plus(TICK.multipliedBy(2)).toNanos());
+    }
+}
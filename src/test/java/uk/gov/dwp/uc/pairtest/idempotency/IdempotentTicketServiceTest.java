@@ -0,0 +1,188 @@
+package uk.gov.dwp.uc.pairtest.idempotency;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException.Reason;
+import uk.gov.dwp.uc.pairtest.exception.IdempotencyKeyReusedException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class IdempotentTicketServiceTest {
+
+    public static final Long ACCOUNT_ID = 1L;
+    public static final String KEY = "3f2c6a1e-9d1b-4c55-8b55-1f1d2b9e7a10";
+    public static final int MAXIMUM_KEYS = 4;
+    public static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final IdempotentTicketService underTest = new IdempotentTicketService(ticketService, MAXIMUM_KEYS, TIME_TO_LIVE,
+                                                                                  clock::get);
+    private final TicketTypeRequest adultRequest = new TicketTypeRequest(ADULT, 2);
+
+    @Test
+    public void shouldPurchaseOnlyOnceForRepeatedKeys() {
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+
+        verify(ticketService, times(1)).purchaseTickets(ACCOUNT_ID, adultRequest);
+    }
+
+    @Test
+    public void shouldTreatTheSameKeyFromAnotherAccountAsADifferentPurchase() {
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+        underTest.purchaseTickets(KEY, 2L, adultRequest);
+
+        verify(ticketService).purchaseTickets(ACCOUNT_ID, adultRequest);
+        verify(ticketService).purchaseTickets(2L, adultRequest);
+    }
+
+    @Test
+    public void shouldRejectARepeatedKeySentWithADifferentOrder() {
+        TicketTypeRequest childRequest = new TicketTypeRequest(CHILD, 1);
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+
+        try {
+            underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest, childRequest);
+            throw new AssertionError("Expected the reused key to be rejected");
+        } catch (IdempotencyKeyReusedException e) {
+            verify(ticketService, times(1)).purchaseTickets(ACCOUNT_ID, adultRequest);
+            verify(ticketService, never()).purchaseTickets(ACCOUNT_ID, adultRequest, childRequest);
+        }
+    }
+
+    @Test
+    public void shouldTreatTheSameCountsSplitAcrossRequestsAsTheSameOrder() {
+        TicketTypeRequest oneAdult = new TicketTypeRequest(ADULT, 1);
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, oneAdult, oneAdult);
+
+        verify(ticketService, times(1)).purchaseTickets(ACCOUNT_ID, adultRequest);
+        verify(ticketService, never()).purchaseTickets(ACCOUNT_ID, oneAdult, oneAdult);
+    }
+
+    @Test
+    public void shouldRethrowTheRememberedRejectionForARepeatedKey() {
+        InvalidAccountNumberException rejection = new InvalidAccountNumberException();
+        doThrow(rejection).when(ticketService).purchaseTickets(-1L, adultRequest);
+
+        RuntimeException first = purchaseExpectingFailure(-1L);
+        RuntimeException second = purchaseExpectingFailure(-1L);
+
+        assertThat(first, is(sameInstance(rejection)));
+        assertThat(second, is(sameInstance(rejection)));
+        verify(ticketService, times(1)).purchaseTickets(-1L, adultRequest);
+    }
+
+    @Test
+    public void shouldPurchaseAgainAfterAGatewayFailure() {
+        doThrow(new IllegalStateException("payment gateway unavailable")).doNothing()
+            .when(ticketService).purchaseTickets(ACCOUNT_ID, adultRequest);
+
+        purchaseExpectingFailure(ACCOUNT_ID);
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+
+        verify(ticketService, times(2)).purchaseTickets(ACCOUNT_ID, adultRequest);
+    }
+
+    @Test
+    public void shouldNotPurchaseAgainWhenTheGatewayCallMayStillGoThrough() {
+        GatewayUnavailableException outcomeUnknown = GatewayUnavailableException.stackless(Reason.OUTCOME_UNKNOWN);
+        doThrow(outcomeUnknown).doNothing().when(ticketService).purchaseTickets(ACCOUNT_ID, adultRequest);
+
+        RuntimeException first = purchaseExpectingFailure(ACCOUNT_ID);
+        RuntimeException retry = purchaseExpectingFailure(ACCOUNT_ID);
+
+        assertThat(first, is(sameInstance(outcomeUnknown)));
+        assertThat(retry, is(sameInstance(outcomeUnknown)));
+        verify(ticketService, times(1)).purchaseTickets(ACCOUNT_ID, adultRequest);
+    }
+
+    @Test
+    public void shouldPurchaseAgainOnceTheKeyHasExpired() {
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+
+        clock.addAndGet(TIME_TO_LIVE.toNanos());
+        underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest);
+
+        verify(ticketService, times(2)).purchaseTickets(ACCOUNT_ID, adultRequest);
+    }
+
+    @Test
+    public void shouldForgetTheOldestKeyWhenFull() {
+        for (int i = 0; i <= MAXIMUM_KEYS; i++) {
+            underTest.purchaseTickets(KEY + i, ACCOUNT_ID, adultRequest);
+        }
+        assertThat(underTest.getNrOfKeys(), is(MAXIMUM_KEYS));
+
+        underTest.purchaseTickets(KEY + MAXIMUM_KEYS, ACCOUNT_ID, adultRequest);
+        underTest.purchaseTickets(KEY + 0, ACCOUNT_ID, adultRequest);
+
+        verify(ticketService, times(MAXIMUM_KEYS + 2)).purchaseTickets(ACCOUNT_ID, adultRequest);
+    }
+
+    @Test
+    public void shouldMakeAConcurrentDuplicateWaitForTheFirstPurchase() throws Exception {
+        CountDownLatch firstPurchaseStarted = new CountDownLatch(1);
+        CountDownLatch firstPurchaseMayFinish = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstPurchaseStarted.countDown();
+            firstPurchaseMayFinish.await();
+            return null;
+        }).when(ticketService).purchaseTickets(ACCOUNT_ID, adultRequest);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest));
+        assertThat(firstPurchaseStarted.await(5, TimeUnit.SECONDS), is(true));
+        CompletableFuture<Void> duplicate =
+            CompletableFuture.runAsync(() -> underTest.purchaseTickets(KEY, ACCOUNT_ID, adultRequest));
+        Thread.sleep(50);
+
+        assertThat(duplicate.isDone(), is(false));
+        firstPurchaseMayFinish.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        duplicate.get(5, TimeUnit.SECONDS);
+        verify(ticketService, times(1)).purchaseTickets(ACCOUNT_ID, adultRequest);
+    }
+
+    @Test
+    public void shouldKeepEveryKeyWhenManyAreRemovedAndEvicted() {
+        IdempotencyKeyCache<Object> cache = new IdempotencyKeyCache<>(1_000, TIME_TO_LIVE, 4, clock::get);
+        Object value = new Object();
+
+        for (long key = 0; key < 10_000; key++) {
+            cache.putIfAbsent(key, ~key, value);
+            if ((key % 3) == 0) {
+                cache.remove(key, ~key, value);
+            }
+        }
+
+        for (long key = 9_900; key < 10_000; key++) {
+            boolean expectedPresent = (key % 3) != 0;
+            assertThat(cache.putIfAbsent(key, ~key, new Object()) == value, is(expectedPresent));
+        }
+    }
+
+    private RuntimeException purchaseExpectingFailure(Long accountId) {
+        try {
+            underTest.purchaseTickets(KEY, accountId, adultRequest);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new AssertionError("Expected the purchase to fail");
+    }
+}
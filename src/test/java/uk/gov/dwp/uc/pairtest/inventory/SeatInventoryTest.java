@@ -0,0 +1,126 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.exception.ScreeningSoldOutException;
+import uk.gov.dwp.uc.pairtest.exception.UnknownScreeningException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SeatInventoryTest {
+
+    public static final long SCREENING_ID = 7L;
+    public static final int CAPACITY = 100;
+
+    private final SeatInventory underTest = new SeatInventory();
+
+    @Test
+    public void shouldReserveUntilTheScreeningIsFull() {
+        underTest.addScreening(SCREENING_ID, CAPACITY);
+
+        underTest.reserve(SCREENING_ID, 60);
+        underTest.reserve(SCREENING_ID, 40);
+
+        assertThat(underTest.getRemainingSeats(SCREENING_ID), is(0));
+    }
+
+    @Test(expected = ScreeningSoldOutException.class)
+    public void shouldThrowScreeningSoldOutExceptionWhenThereAreNotEnoughSeatsLeft() {
+        underTest.addScreening(SCREENING_ID, CAPACITY);
+        underTest.reserve(SCREENING_ID, 99);
+
+        underTest.reserve(SCREENING_ID, 2);
+    }
+
+    @Test
+    public void shouldLeaveTheSeatsUntouchedWhenAReservationDoesNotFit() {
+        underTest.addScreening(SCREENING_ID, CAPACITY);
+        underTest.reserve(SCREENING_ID, 99);
+
+        try {
+            underTest.reserve(SCREENING_ID, 2);
+        } catch (ScreeningSoldOutException e) {
+            assertThat(e.getNrOfSeatsRequested(), is(2));
+        }
+
+        assertThat(underTest.getRemainingSeats(SCREENING_ID), is(1));
+    }
+
+    @Test
+    public void shouldMakeReleasedSeatsAvailableAgain() {
+        underTest.addScreening(SCREENING_ID, CAPACITY);
+        underTest.reserve(SCREENING_ID, CAPACITY);
+
+        underTest.release(SCREENING_ID, 3);
+        underTest.reserve(SCREENING_ID, 3);
+
+        assertThat(underTest.getRemainingSeats(SCREENING_ID), is(0));
+    }
+
+    @Test(expected = UnknownScreeningException.class)
+    public void shouldThrowUnknownScreeningExceptionForAScreeningNotOnSale() {
+        underTest.reserve(SCREENING_ID, 1);
+    }
+
+    @Test
+    public void shouldIgnoreSeatsGivenBackToAScreeningNoLongerOnSale() {
+        underTest.addScreening(SCREENING_ID, CAPACITY);
+        underTest.reserve(SCREENING_ID, 10);
+        underTest.removeScreening(SCREENING_ID);
+
+        underTest.release(SCREENING_ID, 10);
+        underTest.addScreening(SCREENING_ID, CAPACITY);
+
+        assertThat(underTest.getRemainingSeats(SCREENING_ID), is(CAPACITY));
+    }
+
+    @Test
+    public void shouldGatherSeatsFromEveryStripeForAReservationLargerThanAnyOneStripe() {
+        ScreeningCapacity capacity = new ScreeningCapacity(CAPACITY, 8);
+
+        assertThat(capacity.tryReserve(CAPACITY), is(true));
+        assertThat(capacity.tryReserve(1), is(false));
+        assertThat(capacity.getRemainingSeats(), is(0));
+    }
+
+    @Test
+    public void shouldNeverSellMoreSeatsThanTheCapacityFromConcurrentThreads() throws InterruptedException {
+        int capacity = 10_000;
+        int nrOfThreads = 8;
+        ScreeningCapacity screening = new ScreeningCapacity(capacity, 8);
+        AtomicInteger seatsSold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[nrOfThreads];
+        for (int i = 0; i < nrOfThreads; i++) {
+            int seatsPerOrder = 1 + (i % 3);
+            threads[i] = new Thread(() -> {
+                awaitQuietly(start);
+                while (screening.getRemainingSeats() > 0) {
+                    if (screening.tryReserve(seatsPerOrder)) {
+                        seatsSold.addAndGet(seatsPerOrder);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(seatsSold.get(), is(capacity));
+        assertThat(screening.getRemainingSeats(), is(0));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class SeatMapTest {
+
+    public static final int NR_OF_ROWS = 5;
+    public static final int SEATS_PER_ROW = 10;
+
+    private final SeatMap underTest = new SeatMap(NR_OF_ROWS, SEATS_PER_ROW);
+
+    @Test
+    public void shouldSeatAnOrderTogetherInTheCentreOfTheMiddleRow() {
+        SeatAllocation result = underTest.claim(4);
+
+        assertThat(result.isTogether(), is(true));
+        assertThat(result.getSeatIds(), is(new int[] {seatId(2, 3), seatId(2, 4), seatId(2, 5), seatId(2, 6)}));
+    }
+
+    @Test
+    public void shouldTakeTheFreeBlockClosestToTheCentreOfARow() {
+        underTest.claim(2);
+        for (int row = 1; row < NR_OF_ROWS; row++) {
+            underTest.claim(SEATS_PER_ROW);
+        }
+
+        SeatAllocation result = underTest.claim(3);
+
+        assertThat(result.getSeatIds(), is(new int[] {seatId(2, 1), seatId(2, 2), seatId(2, 3)}));
+    }
+
+    @Test
+    public void shouldSplitAnOrderOverRowsWhenNoRowHasRoomForItTogether() {
+        for (int row = 0; row < NR_OF_ROWS; row++) {
+            underTest.claim(SEATS_PER_ROW - 2);
+        }
+
+        SeatAllocation result = underTest.claim(4);
+
+        assertThat(result.getNrOfSeats(), is(4));
+        assertThat(result.isTogether(), is(false));
+        assertThat(underTest.getFreeSeats(), is((2 * NR_OF_ROWS) - 4));
+    }
+
+    @Test
+    public void shouldClaimNothingWhenThereAreNotEnoughFreeSeats() {
+        underTest.claim(underTest.getCapacity() - 2);
+
+        assertThat(underTest.claim(3), is(nullValue()));
+        assertThat(underTest.getFreeSeats(), is(2));
+    }
+
+    @Test
+    public void shouldFreeReleasedSeats() {
+        SeatAllocation allocation = underTest.claim(4);
+
+        underTest.release(allocation);
+
+        assertThat(underTest.getFreeSeats(), is(underTest.getCapacity()));
+        assertThat(underTest.claim(4), is(allocation));
+    }
+
+    @Test
+    public void shouldHandleRowsOfSixtyFourSeats() {
+        SeatMap wideSeatMap = new SeatMap(1, 64);
+
+        SeatAllocation result = wideSeatMap.claim(64);
+
+        assertThat(result.getNrOfSeats(), is(64));
+        assertThat(wideSeatMap.getFreeSeats(), is(0));
+    }
+
+    @Test
+    public void shouldFindTheStartOfEveryRunLongEnough() {
+        long free = 0b1111_0111_0011L;
+
+        assertThat(SeatMap.runStarts(free, 3), is(0b0001_0001_0000L | 0b0010_0000_0000L));
+        assertThat(SeatMap.runStarts(free, 4), is(0b0001_0000_0000L));
+        assertThat(SeatMap.runStarts(free, 5), is(0L));
+    }
+
+    @Test
+    public void shouldNeverGiveTheSameSeatToTwoOrdersFromConcurrentThreads() throws InterruptedException {
+        SeatMap seatMap = new SeatMap(20, 20);
+        int nrOfThreads = 8;
+        ConcurrentLinkedQueue<SeatAllocation> allocations = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[nrOfThreads];
+        for (int i = 0; i < nrOfThreads; i++) {
+            int seatsPerOrder = 1 + (i % 5);
+            threads[i] = new Thread(() -> {
+                awaitQuietly(start);
+                SeatAllocation allocation;
+                while ((allocation = seatMap.claim(seatsPerOrder)) != null) {
+                    allocations.add(allocation);
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        BitSet seatsSold = new BitSet();
+        int nrOfSeatsSold = 0;
+        for (SeatAllocation allocation : allocations) {
+            for (int seatId : allocation.getSeatIds()) {
+                assertThat(seatsSold.get(seatId), is(false));
+                seatsSold.set(seatId);
+                nrOfSeatsSold++;
+            }
+        }
+        assertThat(nrOfSeatsSold + seatMap.getFreeSeats(), is(seatMap.getCapacity()));
+        assertThat(seatMap.getFreeSeats() < 5, is(true));
+    }
+
+    private static int seatId(int row, int seatInRow) {
+        return SeatAllocation.seatId(row, seatInRow);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class MappedPurchaseJournalTest {
+
+    public static final long ACCOUNT_ID = 1L;
+    public static final int RECORDS_PER_SEGMENT = 4;
+    public static final TicketTypeRequest[] TICKET_TYPE_REQUESTS = {new TicketTypeRequest(ADULT, 2),
+                                                                    new TicketTypeRequest(CHILD, 1),
+                                                                    new TicketTypeRequest(INFANT, 1),
+                                                                    new TicketTypeRequest(ADULT, 1)};
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<IncompletePurchase> reconciledPurchases = new ArrayList<>();
+
+    @Test
+    public void shouldReconcileOnlyThePurchasesLeftIncompleteWhenReopened() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            long completed = underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+            long reserved = underTest.purchaseStarted(2L, TICKET_TYPE_REQUESTS, 70);
+            long failed = underTest.purchaseStarted(3L, TICKET_TYPE_REQUESTS, 70);
+            underTest.purchaseStarted(4L, TICKET_TYPE_REQUESTS, 70);
+            underTest.seatsReserved(completed);
+            underTest.seatsReserved(reserved);
+            underTest.purchaseFailed(failed);
+            underTest.purchaseCompleted(completed);
+        }
+
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            assertThat(underTest.getNrOfReconciledPurchases(), is(2));
+        }
+
+        assertThat(reconciledPurchases.size(), is(2));
+        IncompletePurchase reserved = reconciledPurchases.get(0);
+        assertThat(reserved.getAccountId(), is(2L));
+        assertThat(reserved.getStage(), is(PurchaseStage.SEATS_RESERVED));
+        assertThat(reserved.getNrOfTickets(ADULT), is(3));
+        assertThat(reserved.getNrOfTickets(CHILD), is(1));
+        assertThat(reserved.getNrOfTickets(INFANT), is(1));
+        assertThat(reserved.getNrOfSeats(), is(4));
+        assertThat(reserved.getTotalCostOfTickets(), is(70));
+        assertThat(reconciledPurchases.get(1).getAccountId(), is(4L));
+        assertThat(reconciledPurchases.get(1).getStage(), is(PurchaseStage.STARTED));
+    }
+
+    @Test
+    public void shouldNotReconcileAPurchaseAgainOnceTheJournalHasBeenReopened() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+        }
+        open(directory, Durability.WRITTEN).close();
+
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            assertThat(underTest.getNrOfReconciledPurchases(), is(0));
+        }
+        assertThat(reconciledPurchases.size(), is(1));
+    }
+
+    @Test
+    public void shouldStopScanningASegmentAtATornRecord() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            long purchaseId = underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+            underTest.purchaseCompleted(purchaseId);
+        }
+        Path segment = JournalSegment.list(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), JournalRecordFormat.RECORD_LENGTH + 20);
+        }
+
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            assertThat(underTest.getNrOfReconciledPurchases(), is(1));
+        }
+    }
+
+    @Test
+    public void shouldRollSegmentsAndDeleteThemOnceTheirPurchasesHaveFinished() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            long unfinished = underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+            for (int i = 0; i < 10; i++) {
+                long purchaseId = underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+                underTest.seatsReserved(purchaseId);
+                underTest.purchaseCompleted(purchaseId);
+            }
+            assertThat(underTest.getNrOfSegments(), is(8));
+
+            underTest.purchaseCompleted(unfinished);
+
+            assertThat(underTest.getNrOfSegments(), is(1));
+            assertThat(JournalSegment.list(directory).size(), is(1));
+        }
+    }
+
+    @Test
+    public void shouldReturnFromSyncedAppendsOnceTheyHaveBeenForced() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (MappedPurchaseJournal underTest = new MappedPurchaseJournal(directory, reconciledPurchases::add,
+                                                                         MappedPurchaseJournal.DEFAULT_SEGMENT_SIZE,
+                                                                         Durability.SYNCED, 1, Duration.ofSeconds(10))) {
+            long purchaseId = underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+            underTest.paymentTaken(purchaseId);
+        }
+
+        try (MappedPurchaseJournal underTest = open(directory, Durability.WRITTEN)) {
+            assertThat(reconciledPurchases.get(0).getStage(), is(PurchaseStage.PAID));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAppendOnceClosed() throws IOException {
+        MappedPurchaseJournal underTest = open(temporaryFolder.getRoot().toPath(), Durability.WRITTEN);
+        underTest.close();
+
+        underTest.purchaseStarted(ACCOUNT_ID, TICKET_TYPE_REQUESTS, 70);
+    }
+
+    private MappedPurchaseJournal open(Path directory, Durability durability) throws IOException {
+        return new MappedPurchaseJournal(directory, reconciledPurchases::add,
+                                         RECORDS_PER_SEGMENT * JournalRecordFormat.RECORD_LENGTH, durability,
+                                         MappedPurchaseJournal.DEFAULT_SYNC_BATCH_SIZE, Duration.ofMillis(1));
+    }
+}
@@ -0,0 +1,101 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Map;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class InstrumentedTicketServiceTest {
+
+    public static final Long ACCOUNT_ID = 1L;
+
+    private final SeatReservationService seatReservationService = mock(SeatReservationService.class);
+    private final TicketPaymentService ticketPaymentService = mock(TicketPaymentService.class);
+    private final PurchaseMetrics purchaseMetrics = new PurchaseMetrics();
+    private final InstrumentedTicketService underTest = new InstrumentedTicketService(
+        seatReservationService, ticketPaymentService, mock(PurchaseEventSink.class), purchaseMetrics);
+
+    @Test
+    public void shouldCountTicketsByTypeRevenueAndTimeEachStageOfAPurchase() {
+        underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(CHILD, 1),
+                                  new TicketTypeRequest(INFANT, 1));
+
+        PurchaseMetricsSnapshot result = purchaseMetrics.snapshot();
+        assertThat(result.getPurchases(), is(1L));
+        assertThat(result.getTicketsSold(ADULT), is(2L));
+        assertThat(result.getTicketsSold(CHILD), is(1L));
+        assertThat(result.getTicketsSold(INFANT), is(1L));
+        assertThat(result.getRevenue(), is(50L));
+        assertThat(result.getLatency(Stage.VALIDATION).getCount(), is(1L));
+        assertThat(result.getLatency(Stage.RESERVATION).getCount(), is(1L));
+        assertThat(result.getLatency(Stage.PAYMENT).getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldCountRejectionsByExceptionAndRethrowThem() {
+        purchaseExpectingFailure(ACCOUNT_ID, new TicketTypeRequest(CHILD, 1));
+        purchaseExpectingFailure(-1L, new TicketTypeRequest(ADULT, 1));
+        purchaseExpectingFailure(-2L, new TicketTypeRequest(ADULT, 1));
+
+        PurchaseMetricsSnapshot result = purchaseMetrics.snapshot();
+        assertThat(result.getRejections(), is(Map.of("InvalidAccountNumberException", 2L,
+                                                      "NoAdultTicketsRequestedException", 1L)));
+        assertThat(result.getTotalRejections(), is(3L));
+        assertThat(result.getPurchases(), is(0L));
+        assertThat(result.getLatency(Stage.VALIDATION).getCount(), is(3L));
+        verifyNoInteractions(seatReservationService, ticketPaymentService);
+    }
+
+    @Test
+    public void shouldCountAGatewayFailureWithoutTakingRevenue() {
+        doThrow(new IllegalStateException("payment declined")).when(ticketPaymentService).makePayment(anyLong(), anyInt());
+
+        RuntimeException failure = purchaseExpectingFailure(ACCOUNT_ID, new TicketTypeRequest(ADULT, 1));
+
+        PurchaseMetricsSnapshot result = purchaseMetrics.snapshot();
+        assertThat(failure.getMessage(), is("payment declined"));
+        assertThat(result.getFailures(), is(1L));
+        assertThat(result.getRevenue(), is(0L));
+        assertThat(result.getLatency(Stage.PAYMENT).getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldExposeTheSnapshotInThePrometheusTextFormat() {
+        underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 2));
+        purchaseExpectingFailure(-1L, new TicketTypeRequest(ADULT, 1));
+
+        String result = PrometheusTextFormat.format(purchaseMetrics.snapshot());
+
+        assertThat(result, containsString("# TYPE cinema_tickets_purchases_total counter\ncinema_tickets_purchases_total 1\n"));
+        assertThat(result, containsString("cinema_tickets_rejections_total{reason=\"InvalidAccountNumberException\"} 1\n"));
+        assertThat(result, containsString("cinema_tickets_tickets_sold_total{type=\"ADULT\"} 2\n"));
+        assertThat(result, containsString("cinema_tickets_revenue_pounds_total 40\n"));
+        assertThat(result, containsString("cinema_tickets_stage_duration_seconds_count{stage=\"payment\"} 1\n"));
+        assertThat(result, containsString("cinema_tickets_stage_duration_seconds{stage=\"validation\",quantile=\"0.99\"} "));
+    }
+
+    private RuntimeException purchaseExpectingFailure(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        try {
+            underTest.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            return e;
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new AssertionError("Expected the purchase to fail");
+    }
+}
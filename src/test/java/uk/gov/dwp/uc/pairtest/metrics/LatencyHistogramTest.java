@@ -0,0 +1,77 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram underTest = new LatencyHistogram();
+
+    @Test
+    public void shouldPutEveryValueInABucketWhoseRangeContainsIt() {
+        long[] values = {0, 1, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE};
+
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketIndex(value);
+            assertThat(value, lessThanOrEqualTo(LatencyHistogram.highestValueInBucket(bucket)));
+            if (bucket > 0) {
+                assertThat(value, greaterThanOrEqualTo(LatencyHistogram.highestValueInBucket(bucket - 1) + 1));
+            }
+        }
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE), is(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void shouldReportPercentilesToWithinTheBucketPrecision() {
+        for (int i = 1; i <= 1_000; i++) {
+            underTest.record(i * 1_000L);
+        }
+
+        HistogramSnapshot result = underTest.snapshot();
+
+        assertThat(result.getCount(), is(1_000L));
+        assertThat(result.getMaximumNanos(), is(1_000_000L));
+        assertWithinPrecision(result.getValueAtPercentile(50), 500_000);
+        assertWithinPrecision(result.getValueAtPercentile(99), 990_000);
+        assertThat(result.getValueAtPercentile(100), is(1_000_000L));
+        assertThat(result.getMeanNanos(), is(500_500.0));
+    }
+
+    @Test
+    public void shouldReportZeroForAnEmptyHistogram() {
+        HistogramSnapshot result = underTest.snapshot();
+
+        assertThat(result.getCount(), is(0L));
+        assertThat(result.getValueAtPercentile(99), is(0L));
+        assertThat(result.getMeanNanos(), is(0.0));
+    }
+
+    @Test
+    public void shouldCountEveryRecordingFromConcurrentThreads() throws InterruptedException {
+        int nrOfThreads = 4;
+        int recordingsPerThread = 100_000;
+        Thread[] threads = new Thread[nrOfThreads];
+        for (int i = 0; i < nrOfThreads; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < recordingsPerThread; j++) {
+                    underTest.record(j);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(underTest.snapshot().getCount(), is((long) nrOfThreads * recordingsPerThread));
+    }
+
+    private static void assertWithinPrecision(long actual, long expected) {
+        assertThat(actual, greaterThanOrEqualTo(expected));
+        assertThat(actual, lessThanOrEqualTo(expected + (expected / LatencyHistogram.SUB_BUCKET_COUNT)));
+    }
+}
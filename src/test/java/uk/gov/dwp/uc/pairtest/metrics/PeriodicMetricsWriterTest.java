@@ -0,0 +1,53 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+
+public class PeriodicMetricsWriterTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final PurchaseMetrics purchaseMetrics = new PurchaseMetrics();
+
+    @Test
+    public void shouldWriteTheMetricsOnEachPeriod() throws IOException, InterruptedException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("cinema_tickets.prom");
+        purchaseMetrics.purchaseCompleted(new TicketTypeRequest[] {new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)});
+
+        try (PeriodicMetricsWriter underTest = new PeriodicMetricsWriter(purchaseMetrics, file, Duration.ofMillis(10))) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!Files.exists(file) && (System.nanoTime() < deadline)) {
+                Thread.sleep(5);
+            }
+            assertThat(Files.exists(file), is(true));
+        }
+
+        assertThat(Files.readString(file, StandardCharsets.UTF_8), containsString("cinema_tickets_purchases_total 1\n"));
+    }
+
+    @Test
+    public void shouldWriteALastSnapshotWhenClosed() throws IOException, InterruptedException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("cinema_tickets.prom");
+
+        try (PeriodicMetricsWriter underTest = new PeriodicMetricsWriter(purchaseMetrics, file, Duration.ofHours(1))) {
+            purchaseMetrics.purchaseFailed();
+        }
+
+        assertThat(Files.readString(file, StandardCharsets.UTF_8), containsString("cinema_tickets_failures_total 1\n"));
+        assertThat(Files.exists(file.resolveSibling("cinema_tickets.prom.tmp")), is(false));
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class PricingEngineTest {
+
+    public static final long MATINEE = 7L;
+    public static final long EVENING = 8L;
+    public static final long PREMIERE = 9L;
+
+    private final PricingEngine underTest = new PricingEngine();
+
+    @Test
+    public void shouldPriceWithTheTicketTypePricesWhenThereAreNoRules() {
+        assertThat(underTest.getTotalCost(MATINEE, 2, 3, 1), is(TicketPricing.STANDARD.getTotalCost(MATINEE, 2, 3, 1)));
+        assertThat(underTest.getTotalCost(TicketPricing.NO_SCREENING, 30, -1, 0), is((30 * ADULT.getTicketCost()) - CHILD.getTicketCost()));
+    }
+
+    @Test
+    public void shouldApplyTheRulesInOrderForEachScreeningByItsStartHour() {
+        underTest.replaceSchedule(Map.of(MATINEE, 14, EVENING, 20));
+        underTest.replaceRules(List.of(PricingRule.price(ADULT, 16),
+                                       PricingRule.price(ADULT, 12).startingBetween(12, 17),
+                                       PricingRule.price(CHILD, 15).forScreening(PREMIERE),
+                                       PricingRule.percentOff(ADULT, 50).forScreening(PREMIERE)));
+
+        assertThat(underTest.getTotalCost(MATINEE, 1, 1, 1), is(12 + 10));
+        assertThat(underTest.getTotalCost(EVENING, 1, 1, 1), is(16 + 10));
+        assertThat(underTest.getTotalCost(PREMIERE, 2, 2, 0), is((2 * 8) + (2 * 15)));
+        assertThat(underTest.getTotalCost(TicketPricing.NO_SCREENING, 1, 0, 0), is(16));
+        assertThat(underTest.getPriceTable().getTicketCost(PREMIERE, ADULT), is(8));
+    }
+
+    @Test
+    public void shouldShareThePricesOfScreeningsPricedTheSame() {
+        for (long screeningId = 0; screeningId < 100; screeningId++) {
+            underTest.scheduleScreening(screeningId, (int) (screeningId % 24));
+        }
+        underTest.addRule(PricingRule.percentOff(CHILD, 20).startingBetween(10, 18));
+
+        assertThat(underTest.getPriceTable().getNrOfDistinctPriceLists(), is(2));
+        assertThat(underTest.getTotalCost(11, 0, 5, 0), is(40));
+        assertThat(underTest.getTotalCost(18, 0, 5, 0), is(50));
+    }
+
+    @Test
+    public void shouldKeepEveryRuleAddedConcurrently() throws InterruptedException {
+        int nrOfThreads = 4;
+        int nrOfRulesPerThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nrOfThreads; i++) {
+            long screeningId = i;
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int rule = 0; rule < nrOfRulesPerThread; rule++) {
+                    underTest.addRule(PricingRule.price(ADULT, rule).forScreening(screeningId));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(underTest.getPriceTable().getRules().size(), is(nrOfThreads * nrOfRulesPerThread));
+        assertThat(underTest.getTotalCost(3, 1, 0, 0), is(nrOfRulesPerThread - 1));
+    }
+
+    @Test
+    public void shouldPriceWithAPublishedTable() {
+        PriceTable priceTable = PriceTable.compile(List.of(PricingRule.price(INFANT, 5)));
+
+        underTest.publish(priceTable);
+
+        assertThat(underTest.getPriceTable(), is(priceTable));
+        assertThat(underTest.getTotalCost(MATINEE, 1, 0, 2), is(ADULT.getTicketCost() + 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotScheduleAScreeningOutsideTheDay() {
+        underTest.scheduleScreening(MATINEE, 24);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
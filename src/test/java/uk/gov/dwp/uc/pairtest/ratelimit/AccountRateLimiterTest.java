@@ -0,0 +1,111 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class AccountRateLimiterTest {
+
+    public static final long ACCOUNT_ID = 1L;
+    public static final long OTHER_ACCOUNT_ID = 2L;
+    public static final RateLimit ORDER_LIMIT = RateLimit.of(3, Duration.ofMinutes(1));
+    public static final RateLimit TICKET_LIMIT = RateLimit.of(10, Duration.ofHours(1));
+
+    private long now = 1_000;
+    private final AccountRateLimiter underTest = new AccountRateLimiter(ORDER_LIMIT, TICKET_LIMIT, 4, () -> now);
+
+    @Test
+    public void shouldLetEachAccountPlaceAsManyOrdersAsTheLimitAndThenOneMorePerShareOfThePeriod() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.ALLOWED));
+        }
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.TOO_MANY_ORDERS));
+        assertThat(underTest.tryAcquire(OTHER_ACCOUNT_ID, 1), is(RateLimitResult.ALLOWED));
+
+        now += Duration.ofSeconds(20).toNanos();
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.ALLOWED));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.TOO_MANY_ORDERS));
+    }
+
+    @Test
+    public void shouldCapTheTicketsOverARollingPeriodWithoutCountingARejectedOrder() {
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 8), is(RateLimitResult.ALLOWED));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 3), is(RateLimitResult.TOO_MANY_TICKETS));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 2), is(RateLimitResult.ALLOWED));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 0), is(RateLimitResult.ALLOWED));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.TOO_MANY_ORDERS));
+
+        now += Duration.ofMinutes(6).toNanos();
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 2), is(RateLimitResult.TOO_MANY_TICKETS));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.ALLOWED));
+    }
+
+    @Test
+    public void shouldGiveBackTheTicketsOfAnOrderThatWasNotBought() {
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 10), is(RateLimitResult.ALLOWED));
+        underTest.releaseTickets(ACCOUNT_ID, 4);
+
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 4), is(RateLimitResult.ALLOWED));
+        assertThat(underTest.tryAcquire(ACCOUNT_ID, 1), is(RateLimitResult.TOO_MANY_TICKETS));
+    }
+
+    @Test
+    public void shouldNotLimitAccountIdsThatAreNeverValid() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(underTest.tryAcquire(0, 100), is(RateLimitResult.ALLOWED));
+        }
+        assertThat(underTest.getNrOfAccounts(), is(0L));
+    }
+
+    @Test
+    public void shouldDropAccountsOnceTheirBucketsAreFullAgain() {
+        for (long accountId = 1; accountId <= 1000; accountId++) {
+            underTest.tryAcquire(accountId, (accountId % 2) == 0 ? 1 : 0);
+        }
+        assertThat(underTest.getNrOfAccounts(), is(1000L));
+
+        now += Duration.ofMinutes(1).toNanos();
+        assertThat(underTest.evictIdle(), is(500L));
+        now += Duration.ofMinutes(3).toNanos();
+        assertThat(underTest.evictIdle(), is(0L));
+        now += Duration.ofHours(1).toNanos();
+        assertThat(underTest.evictIdle(), is(500L));
+        assertThat(underTest.getNrOfAccounts(), is(0L));
+    }
+
+    @Test
+    public void shouldNotLoseAnOrderWhenTablesAreRebuiltWhileOrdering() throws InterruptedException {
+        AccountRateLimiter limiter = new AccountRateLimiter(RateLimit.of(50, Duration.ofDays(1)), RateLimit.of(1_000, Duration.ofDays(1)),
+                                                            1, System::nanoTime);
+        int nrOfThreads = 4;
+        int nrOfAccounts = 5_000;
+        AtomicInteger allowed = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nrOfThreads; t++) {
+            Thread thread = new Thread(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (long accountId = 1; accountId <= nrOfAccounts; accountId++) {
+                        if (limiter.tryAcquire(accountId, 1).isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    limiter.evictIdle();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(allowed.get(), is(50 * nrOfAccounts));
+        assertThat(limiter.getNrOfAccounts(), is((long) nrOfAccounts));
+    }
+}
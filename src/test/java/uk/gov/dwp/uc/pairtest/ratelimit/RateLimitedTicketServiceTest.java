@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.ratelimit;
+
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.NoAdultTicketsRequestedException;
+import uk.gov.dwp.uc.pairtest.exception.TicketCapExceededException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyOrdersException;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class RateLimitedTicketServiceTest {
+
+    public static final Long ACCOUNT_ID = 1L;
+    public static final TicketTypeRequest FIVE_ADULTS = new TicketTypeRequest(ADULT, 5);
+    public static final TicketTypeRequest ONE_CHILD = new TicketTypeRequest(CHILD, 1);
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private final AccountRateLimiter accountRateLimiter = new AccountRateLimiter(RateLimit.of(3, Duration.ofHours(1)),
+                                                                                 RateLimit.of(10, Duration.ofDays(1)));
+    private final RateLimitedTicketService underTest = new RateLimitedTicketService(ticketService, accountRateLimiter);
+
+    @Test(expected = TooManyOrdersException.class)
+    public void shouldRejectAnOrderOverTheLimitWithoutCallingTheTicketService() {
+        underTest.purchaseTickets(ACCOUNT_ID, ONE_CHILD);
+        underTest.purchaseTickets(ACCOUNT_ID, ONE_CHILD);
+        underTest.purchaseTickets(ACCOUNT_ID, ONE_CHILD);
+        try {
+            underTest.purchaseTickets(ACCOUNT_ID, ONE_CHILD);
+        } finally {
+            verify(ticketService, times(3)).purchaseTickets(ACCOUNT_ID, ONE_CHILD);
+        }
+    }
+
+    @Test(expected = TicketCapExceededException.class)
+    public void shouldOnlyCountTheTicketsOfOrdersThatWereBought() {
+        doThrow(new NoAdultTicketsRequestedException()).doNothing().when(ticketService).purchaseTickets(ACCOUNT_ID, FIVE_ADULTS);
+        try {
+            underTest.purchaseTickets(ACCOUNT_ID, FIVE_ADULTS);
+        } catch (NoAdultTicketsRequestedException e) {
+            underTest.purchaseTickets(ACCOUNT_ID, FIVE_ADULTS, FIVE_ADULTS);
+        }
+
+        underTest.purchaseTickets(ACCOUNT_ID, ONE_CHILD);
+    }
+}
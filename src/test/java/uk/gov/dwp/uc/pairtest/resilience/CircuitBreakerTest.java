@@ -0,0 +1,92 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CircuitBreakerTest {
+
+    public static final GatewayPolicy POLICY = GatewayPolicy.of(10, Duration.ofSeconds(1))
+        .withCircuitBreaker(50, 4, Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final CircuitBreaker underTest = new CircuitBreaker(POLICY, nanoTime::get);
+
+    @Test
+    public void shouldStayClosedUntilTheMinimumNrOfCallsHaveBeenMade() {
+        underTest.onFailure();
+        underTest.onFailure();
+        underTest.onFailure();
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(underTest.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    public void shouldOpenAtTheFailureRateAndLetOneProbeThroughAfterTheOpenDuration() {
+        underTest.onSuccess();
+        underTest.onSuccess();
+        underTest.onFailure();
+        underTest.onFailure();
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(underTest.tryAcquirePermission(), is(false));
+
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(underTest.tryAcquirePermission(), is(true));
+        assertThat(underTest.tryAcquirePermission(), is(false));
+
+        underTest.onSuccess();
+        assertThat(underTest.getState(), is(CircuitBreaker.State.CLOSED));
+        underTest.onFailure();
+        assertThat(underTest.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldOpenAgainWhenTheProbeFails() {
+        for (int i = 0; i < 4; i++) {
+            underTest.onFailure();
+        }
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        underTest.tryAcquirePermission();
+
+        underTest.onFailure();
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+        nanoTime.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(underTest.tryAcquirePermission(), is(false));
+    }
+
+    @Test
+    public void shouldLetAnotherCallProbeWhenTheProbeIsNotMade() {
+        for (int i = 0; i < 4; i++) {
+            underTest.onFailure();
+        }
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        underTest.tryAcquirePermission();
+
+        underTest.releasePermission();
+
+        assertThat(underTest.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    public void shouldForgetCallsOlderThanTheSlidingWindow() {
+        underTest.onFailure();
+        underTest.onFailure();
+        underTest.onFailure();
+        nanoTime.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        underTest.onFailure();
+        underTest.onSuccess();
+        underTest.onSuccess();
+
+        assertThat(underTest.getState(), is(CircuitBreaker.State.CLOSED));
+        underTest.onFailure();
+        assertThat(underTest.getState(), is(CircuitBreaker.State.OPEN));
+    }
+}
@@ -0,0 +1,132 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException;
+import uk.gov.dwp.uc.pairtest.exception.GatewayUnavailableException.Reason;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+
+public class ResilientSeatReservationServiceTest {
+
+    public static final long ACCOUNT_ID = 1L;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch gatewayRecovered = new CountDownLatch(1);
+    private final AtomicInteger nrOfReservations = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        gatewayRecovered.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldHedgeASlowReservationAndTakeTheFirstAnswer() {
+        SeatReservationService firstCallHangs = (accountId, totalSeatsToAllocate) -> {
+            if (nrOfReservations.incrementAndGet() == 1) {
+                awaitRecovery();
+            }
+        };
+        ResilientSeatReservationService underTest = new ResilientSeatReservationService(
+            firstCallHangs, GatewayPolicy.of(2, Duration.ofSeconds(10)).withHedgeDelay(Duration.ofMillis(20)), executor);
+
+        underTest.reserveSeat(ACCOUNT_ID, 2);
+
+        assertThat(nrOfReservations.get(), is(2));
+        assertThat(underTest.getNrOfHedgedCalls(), is(1L));
+    }
+
+    @Test
+    public void shouldGiveUpAfterTheTimeoutAndShedCallsWhileTheHungCallHoldsTheBulkhead() {
+        ResilientSeatReservationService underTest = new ResilientSeatReservationService(
+            (accountId, totalSeatsToAllocate) -> awaitRecovery(), GatewayPolicy.of(1, Duration.ofMillis(20)), executor);
+
+        assertReasonFor(underTest, Reason.OUTCOME_UNKNOWN);
+        assertReasonFor(underTest, Reason.BULKHEAD_FULL);
+        assertThat(underTest.getNrOfTimeouts(), is(1L));
+        assertThat(underTest.getNrOfShedCalls(), is(1L));
+    }
+
+    @Test
+    public void shouldShedCallsWithoutCallingTheGatewayWhileTheCircuitIsOpen() {
+        ResilientSeatReservationService underTest = new ResilientSeatReservationService(
+            (accountId, totalSeatsToAllocate) -> {
+                nrOfReservations.incrementAndGet();
+                throw new IllegalStateException("Seat booking is down");
+            },
+            GatewayPolicy.of(2, Duration.ofSeconds(1)).withCircuitBreaker(50, 2, Duration.ofSeconds(10), Duration.ofSeconds(10)),
+            executor);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                underTest.reserveSeat(ACCOUNT_ID, 2);
+                fail();
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("Seat booking is down"));
+            }
+        }
+        assertReasonFor(underTest, Reason.CIRCUIT_OPEN);
+        assertThat(nrOfReservations.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotCallTheGatewayOnceThePurchaseDeadlineHasPassed() {
+        ResilientSeatReservationService reservations = new ResilientSeatReservationService(
+            (accountId, totalSeatsToAllocate) -> nrOfReservations.incrementAndGet(), GatewayPolicy.of(2, Duration.ofSeconds(1)),
+            executor);
+        TicketService slowTicketService = (accountId, ticketTypeRequests) -> {
+            sleep(Duration.ofMillis(30));
+            reservations.reserveSeat(accountId, 1);
+        };
+        TicketService underTest = new DeadlineTicketService(slowTicketService, Duration.ofMillis(10));
+
+        try {
+            underTest.purchaseTickets(ACCOUNT_ID, new TicketTypeRequest(ADULT, 1));
+            fail();
+        } catch (GatewayUnavailableException e) {
+            assertThat(e.getReason(), is(Reason.TIMED_OUT));
+        }
+        assertThat(nrOfReservations.get(), is(0));
+        assertThat(Deadline.current(), is(Deadline.NONE));
+    }
+
+    private static void assertReasonFor(SeatReservationService underTest, Reason reason) {
+        try {
+            underTest.reserveSeat(ACCOUNT_ID, 2);
+            fail();
+        } catch (GatewayUnavailableException e) {
+            assertThat(e.getReason(), is(reason));
+        }
+    }
+
+    private void awaitRecovery() {
+        try {
+            gatewayRecovered.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package uk.gov.dwp.uc.pairtest.shard;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.dwp.uc.pairtest.ScreeningTicketService;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.events.PurchaseEventSink;
+import uk.gov.dwp.uc.pairtest.exception.InvalidAccountNumberException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatAllocation;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class ShardedTicketServiceTest {
+
+    public static final int NR_OF_SHARDS = 4;
+    public static final long SCREENING_ID = 42L;
+
+    private final SeatInventory[] seatInventories = new SeatInventory[NR_OF_SHARDS];
+    private final ShardedTicketService underTest = new ShardedTicketService(NR_OF_SHARDS, shard -> {
+        seatInventories[shard] = new SeatInventory();
+        return new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl(), new TicketOrderEvaluator(),
+                                     PurchaseEventSink.NONE, seatInventories[shard]);
+    });
+
+    @After
+    public void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void shouldSellTheSeatsOfAScreeningFromTheShardThatOwnsIt() {
+        SeatInventory owner = seatInventories[underTest.shardForScreening(SCREENING_ID)];
+        owner.addScreening(SCREENING_ID, 10);
+
+        SeatAllocation seatAllocation = underTest.purchaseTickets(SCREENING_ID, 1L, new TicketTypeRequest(ADULT, 2),
+                                                                  new TicketTypeRequest(INFANT, 1));
+
+        assertThat(seatAllocation.getNrOfSeats(), is(2));
+        assertThat(owner.getRemainingSeats(SCREENING_ID), is(8));
+    }
+
+    @Test(expected = InvalidAccountNumberException.class)
+    public void shouldThrowARejectionOnTheCallingThread() {
+        underTest.purchaseTickets(0L, new TicketTypeRequest(ADULT, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRefusePurchasesOnceClosed() {
+        underTest.close();
+
+        underTest.purchaseTickets(SCREENING_ID, 1L, new TicketTypeRequest(ADULT, 1));
+    }
+
+    @Test
+    public void shouldMakeEveryPurchaseForAnAccountOnTheThreadOfItsShard() throws Exception {
+        Map<Long, Set<String>> threadsByAccount = new ConcurrentHashMap<>();
+        ShardedTicketService recordingShards = new ShardedTicketService(NR_OF_SHARDS, shard -> new RecordingTicketService(
+            threadsByAccount));
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] calls = new Future<?>[4];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = callers.submit(() -> {
+                    for (long accountId = 1; accountId <= 1000; accountId++) {
+                        recordingShards.purchaseTickets(accountId, new TicketTypeRequest(ADULT, 1));
+                    }
+                });
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            callers.shutdown();
+            recordingShards.close();
+        }
+
+        assertThat(threadsByAccount.size(), is(1000));
+        threadsByAccount.forEach((accountId, threads) -> assertThat(threads.size(), is(1)));
+        assertThat(threadsByAccount.values().stream().distinct().count(), is((long) NR_OF_SHARDS));
+    }
+
+    @Test
+    public void shouldOnlyMoveKeysToTheNewShardWhenAShardIsAdded() {
+        int nrOfMovedKeys = 0;
+        for (long key = 0; key < 10_000; key++) {
+            int before = ShardedTicketService.shardOf(key, 4);
+            int after = ShardedTicketService.shardOf(key, 5);
+            if (before != after) {
+                assertThat(after, is(4));
+                nrOfMovedKeys++;
+            }
+        }
+        assertThat(nrOfMovedKeys, greaterThan(1800));
+        assertThat(nrOfMovedKeys, lessThan(2200));
+    }
+
+    private static class RecordingTicketService implements TicketService, ScreeningTicketService {
+
+        private final Map<Long, Set<String>> threadsByAccount;
+
+        RecordingTicketService(Map<Long, Set<String>> threadsByAccount) {
+            this.threadsByAccount = threadsByAccount;
+        }
+
+        @Override
+        public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+            threadsByAccount.computeIfAbsent(accountId, account -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public SeatAllocation purchaseTickets(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluation;
+import uk.gov.dwp.uc.pairtest.TicketOrderEvaluator;
+import uk.gov.dwp.uc.pairtest.ValidationResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.MaximumNrOfTicketsAllowedExceededException;
+import uk.gov.dwp.uc.pairtest.exception.TooManyInfantsPerAdultException;
+import uk.gov.dwp.uc.pairtest.pricing.TicketPricing;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import com.sun.management.ThreadMXBean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.*;
+
+public class ValidationEngineTest {
+
+    public static final long SMALL_VENUE_SCREENING = 42L;
+    public static final long OTHER_SCREENING = 7L;
+    public static final List<String> STANDARD_RULES = List.of("# the rules as they have always been",
+                                                              "maximum-tickets 20",
+                                                              "valid-account",
+                                                              "adult-required",
+                                                              "",
+                                                              "at-least-one-ticket");
+    public static final int NR_OF_CHECKS = 200_000;
+    public static final long ALLOWED_ALLOCATED_BYTES = 1024;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final TicketOrderEvaluation evaluation = new TicketOrderEvaluation();
+
+    @Test
+    public void shouldRejectOrdersTheSameWayAsTheStandardRules() {
+        TicketOrderEvaluator standard = new TicketOrderEvaluator();
+        TicketOrderEvaluator underTest = evaluatorFor(new ValidationEngine(ValidationPolicy.parse(STANDARD_RULES)));
+        for (long accountId = -1; accountId <= 1; accountId++) {
+            for (int adults = -1; adults <= 21; adults += 2) {
+                for (int children = 0; children <= 3; children++) {
+                    TicketTypeRequest[] order = {new TicketTypeRequest(ADULT, adults), new TicketTypeRequest(CHILD, children)};
+
+                    assertThat(underTest.validate(accountId, order, evaluation), is(standard.validate(accountId, order, evaluation)));
+                }
+            }
+        }
+        assertThat(ValidationPolicy.parse(STANDARD_RULES).getRules(OTHER_SCREENING),
+                   is(List.of(OrderRule.AT_LEAST_ONE_TICKET, OrderRule.ADULT_REQUIRED, OrderRule.VALID_ACCOUNT,
+                              OrderRule.MAXIMUM_TICKETS)));
+    }
+
+    @Test
+    public void shouldApplyTheLimitsOfTheScreening() {
+        ValidationEngine engine = new ValidationEngine(ValidationPolicy.parse(List.of("adult-required",
+                                                                                      "maximum-tickets 20",
+                                                                                      "maximum-tickets 8 screening 42",
+                                                                                      "maximum-infants-per-adult 1 screening 42")));
+        TicketOrderEvaluator underTest = evaluatorFor(engine);
+
+        underTest.evaluate(OTHER_SCREENING, 1L, new TicketTypeRequest(ADULT, 1), new TicketTypeRequest(INFANT, 9));
+        try {
+            underTest.evaluate(SMALL_VENUE_SCREENING, 1L, new TicketTypeRequest(ADULT, 9));
+            fail("Expected the limit of the small venue to be applied");
+        } catch (MaximumNrOfTicketsAllowedExceededException e) {
+            assertThat(e.getMaximumAllowed(), is(8));
+            assertThat(e.getNrOfTicketsOrdered(), is(9));
+        }
+        try {
+            underTest.evaluate(SMALL_VENUE_SCREENING, 1L, new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(INFANT, 3));
+            fail("Expected an infant without a lap to be rejected");
+        } catch (TooManyInfantsPerAdultException e) {
+            assertThat(e.getMaximumPerAdult(), is(1));
+            assertThat(e.getNrOfInfantTickets(), is(3));
+            assertThat(e.getNrOfAdultTickets(), is(2));
+        }
+    }
+
+    @Test
+    public void shouldReportTheLimitTheOrderWasCheckedAgainstWhenThePolicyChangesStraightAfter() {
+        ValidationEngine engine = new ValidationEngine(ValidationPolicy.parse(List.of("maximum-tickets 8")));
+        ValidationPolicy raisedLimit = ValidationPolicy.parse(List.of("maximum-tickets 30"));
+        TicketOrderEvaluator underTest = evaluatorFor((screeningId, accountId, checkedEvaluation) -> {
+            ValidationResult result = engine.check(screeningId, accountId, checkedEvaluation);
+            engine.publish(raisedLimit);
+            return result;
+        });
+
+        try {
+            underTest.evaluate(1L, new TicketTypeRequest(ADULT, 9));
+            fail("Expected 9 tickets to be rejected");
+        } catch (MaximumNrOfTicketsAllowedExceededException e) {
+            assertThat(e.getMaximumAllowed(), is(8));
+        }
+    }
+
+    @Test
+    public void shouldOnlyNeedAnAdultForChildrenWhenThatIsTheRule() {
+        TicketOrderEvaluator underTest = evaluatorFor(new ValidationEngine(ValidationPolicy.parse(List.of("children-need-an-adult"))));
+
+        assertThat(underTest.validate(1L, new TicketTypeRequest[] {new TicketTypeRequest(INFANT, 1)}, evaluation),
+                   is(ValidationResult.VALID));
+        assertThat(underTest.validate(1L, new TicketTypeRequest[] {new TicketTypeRequest(CHILD, 1)}, evaluation),
+                   is(ValidationResult.NO_ADULT_TICKETS_REQUESTED));
+    }
+
+    @Test
+    public void shouldSwapInTheRulesWhenThePolicyFileChangesAndKeepThemWhenItCannotBeRead() throws IOException {
+        Path policyFile = temporaryFolder.getRoot().toPath().resolve("rules.policy");
+        Files.write(policyFile, List.of("maximum-tickets 20"));
+        ValidationEngine underTest = new ValidationEngine(policyFile);
+
+        assertThat(underTest.reloadIfModified(), is(false));
+        Files.write(policyFile, List.of("maximum-tickets 5"));
+        Files.setLastModifiedTime(policyFile, FileTime.fromMillis(Files.getLastModifiedTime(policyFile).toMillis() + 1000));
+        assertThat(underTest.reloadIfModified(), is(true));
+        assertThat(underTest.getPolicy().getDefinitions(), is(List.of("maximum-tickets 5")));
+
+        Files.write(policyFile, List.of("maximum-tickets five"));
+        Files.setLastModifiedTime(policyFile, FileTime.fromMillis(Files.getLastModifiedTime(policyFile).toMillis() + 2000));
+        try {
+            underTest.reloadIfModified();
+            fail("Expected the rule to be unreadable");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Invalid validation rule on line 1: five is not a number"));
+        }
+        assertThat(underTest.getPolicy().getDefinitions(), is(List.of("maximum-tickets 5")));
+    }
+
+    @Test
+    public void shouldSayWhichDefinitionCannotBeRead() {
+        assertInvalid(List.of("adult-required", "maximum-tickets"), "Invalid validation rule on line 2: maximum-tickets needs a limit");
+        assertInvalid(List.of("no-such-rule"), "Invalid validation rule on line 1: no rule called no-such-rule");
+        assertInvalid(List.of("valid-account screening"),
+                      "Invalid validation rule on line 1: expected nothing more or 'screening <id>' after valid-account");
+        assertInvalid(List.of("maximum-tickets -1"), "Invalid validation rule on line 1: -1 is out of range");
+    }
+
+    @Test
+    public void shouldNotAllocateWhenCheckingAnOrder() {
+        ValidationEngine underTest = new ValidationEngine(ValidationPolicy.parse(List.of("at-least-one-ticket",
+                                                                                         "maximum-tickets 20",
+                                                                                         "maximum-tickets 8 screening 42",
+                                                                                         "maximum-infants-per-adult 1")));
+        TicketOrderEvaluator evaluator = evaluatorFor(underTest);
+        TicketTypeRequest[] order = {new TicketTypeRequest(ADULT, 2), new TicketTypeRequest(INFANT, 1)};
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        checkRepeatedly(evaluator, order);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        checkRepeatedly(evaluator, order);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertThat(allocated, lessThan(ALLOWED_ALLOCATED_BYTES));
+    }
+
+    private void checkRepeatedly(TicketOrderEvaluator evaluator, TicketTypeRequest[] order) {
+        Long accountId = 1L;
+        for (int i = 0; i < NR_OF_CHECKS; i++) {
+            evaluator.validate(SMALL_VENUE_SCREENING, accountId, order, evaluation);
+        }
+    }
+
+    private static TicketOrderEvaluator evaluatorFor(OrderRules orderRules) {
+        return new TicketOrderEvaluator(TicketOrderEvaluator.ExceptionMode.WITH_STACK_TRACE, TicketPricing.STANDARD, orderRules);
+    }
+
+    private static void assertInvalid(List<String> definitions, String expectedMessage) {
+        try {
+            ValidationPolicy.parse(definitions);
+            fail("Expected " + definitions + " to be invalid");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(expectedMessage));
+        }
+    }
+}